@@ -0,0 +1,77 @@
+package flashcards;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a scripted drill of wrong answers printed through the session log's tee,
+ * with the deck printing straight to {@code System.out}, through a
+ * {@link BufferedConsoleOutput}, and to {@link ConsoleOutput#NONE}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsoleOutputBenchmark {
+
+    /**
+     * The number of cards asked in one drill.
+     */
+    private static final int DRILL_SIZE = 100;
+
+    @Param({"direct", "buffered", "none"})
+    private String output;
+
+    private PrintStream console;
+    private InputStream input;
+    private LogIO logger;
+    private FlashCardManager drill;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        console = System.out;
+        input = System.in;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        logger = new LogIO();
+        ConsoleOutput target = switch (output) {
+            case "direct" -> ConsoleOutput.STANDARD;
+            case "buffered" -> new BufferedConsoleOutput(System.out, ScriptRunner.OUTPUT_BUFFER_SIZE, false);
+            default -> ConsoleOutput.NONE;
+        };
+        drill = new FlashCardManager(SyntheticDecks.cards(DRILL_SIZE)).session(new BufferedReader(
+                new SyntheticDecks.RepeatingReader(DRILL_SIZE + "\n" + "x\n".repeat(DRILL_SIZE))), target);
+        drill.setPrompts(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        logger.close();
+        System.setOut(console);
+        System.setIn(input);
+    }
+
+    @Benchmark
+    public void wrongAnswers() throws IOException {
+        drill.quizUser();
+    }
+}
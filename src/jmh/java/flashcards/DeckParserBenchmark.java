@@ -0,0 +1,79 @@
+package flashcards;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link DeckParser} against the former split-based import loop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DeckParserBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int deckSize;
+
+    private Path deck;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        deck = Files.createTempFile("deck", ".txt");
+        SyntheticDecks.write(deck, deckSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(deck);
+    }
+
+    @Benchmark
+    public long parseWithSplit() throws IOException {
+        long checksum = 0;
+        try (BufferedReader reader = Files.newBufferedReader(deck, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] arguments = line.split("&&");
+                checksum += arguments[0].length() + arguments[1].length() + Integer.parseInt(arguments[2]);
+            }
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long parseWithScanner() throws IOException {
+        long[] checksum = new long[1];
+        DeckParser parser = new DeckParser(
+                (term, definition, mistakes, review) -> checksum[0] += term.length() + definition.length() + mistakes,
+                (lineNumber, reason) -> {
+                    throw new IllegalStateException("line " + lineNumber + ": " + reason);
+                });
+        try (InputStream in = new FileInputStream(deck.toFile())) {
+            parser.parse(in);
+        }
+        return checksum[0];
+    }
+}
@@ -0,0 +1,56 @@
+package flashcards;
+
+import java.util.HashSet;
+
+/**
+ * Reports the heap a synthetic deck takes as a {@code HashSet<FlashCard>}
+ * and as an {@link ArenaDeckStore}, measured as the growth of the used heap
+ * after a full collection. Run it with the deck size as its only argument.
+ */
+public final class DeckStoreFootprint {
+
+    private DeckStoreFootprint() {
+    }
+
+    /**
+     * Prints the footprint of both models for one deck size.
+     *
+     * @param args the number of cards, 1,000,000 if omitted
+     */
+    public static void main(final String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long before = usedHeap();
+        HashSet<FlashCard> flashCards = SyntheticDecks.cards(size);
+        long setBytes = usedHeap() - before;
+        int setSize = flashCards.size();
+        flashCards = null;
+
+        before = usedHeap();
+        ArenaDeckStore store = new ArenaDeckStore();
+        for (int i = 0; i < size; i++) {
+            store.add(SyntheticDecks.term(i), SyntheticDecks.definition(i), i % SyntheticDecks.MISTAKE_SPREAD);
+        }
+        long arenaBytes = usedHeap() - before;
+
+        System.out.printf("%,d cards%n", setSize);
+        System.out.printf("HashSet<FlashCard>: %,d heap bytes (%d per card)%n", setBytes, setBytes / size);
+        System.out.printf("ArenaDeckStore:     %,d heap bytes (%d per card), %,d off-heap bytes reserved%n",
+                arenaBytes, arenaBytes / size, store.offHeapBytes());
+        System.out.printf("Heap saved:         %,d bytes (%.0f%%)%n",
+                setBytes - arenaBytes, 100.0 * (setBytes - arenaBytes) / setBytes);
+    }
+
+    /**
+     * Returns the used heap after collecting garbage.
+     *
+     * @return the used heap in bytes
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,120 @@
+package flashcards;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the deck operations of {@link FlashCardManager} on synthetic decks
+ * of 1k to 10M cards. The console output of the operations is discarded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class FlashCardManagerBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int deckSize;
+
+    private PrintStream console;
+    private Path directory;
+    private Path deck;
+    private Path exportFile;
+    private FlashCardManager cardManager;
+    private BufferedReader duplicateTerms;
+    private BufferedReader wrongAnswers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        directory = Files.createTempDirectory("benchmark");
+        deck = directory.resolve("deck.txt");
+        exportFile = directory.resolve("export.txt");
+        SyntheticDecks.write(deck, deckSize);
+        cardManager = new FlashCardManager(SyntheticDecks.cards(deckSize));
+        duplicateTerms = new BufferedReader(
+                new SyntheticDecks.RepeatingReader(SyntheticDecks.term(deckSize / 2) + "\n"));
+        wrongAnswers = new BufferedReader(
+                new SyntheticDecks.RepeatingReader("1\n" + SyntheticDecks.definition(deckSize / 2) + "\n"));
+    }
+
+    @Setup(Level.Iteration)
+    public void restoreMistakes() {
+        int i = 0;
+        for (FlashCard flashCard : cardManager.getFlashCards()) {
+            flashCard.setMistakes(i++ % SyntheticDecks.MISTAKE_SPREAD);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(console);
+        Files.deleteIfExists(deck);
+        Files.deleteIfExists(exportFile);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public int importFlashCards() throws IOException {
+        FlashCardManager importer = new FlashCardManager(new HashSet<>());
+        importer.importFlashCards(deck.toString());
+        return importer.getFlashCards().size();
+    }
+
+    @Benchmark
+    public void exportFlashCards() throws IOException {
+        cardManager.exportFlashCards(exportFile.toString());
+    }
+
+    /**
+     * Offers a term that is already in the deck, which is rejected after the duplicate lookup.
+     */
+    @Benchmark
+    public void addDuplicateFlashCard() throws IOException {
+        cardManager.setReader(duplicateTerms);
+        cardManager.addFlashCard();
+    }
+
+    /**
+     * Asks one card and answers with the definition of another card,
+     * which is looked up to name the card the answer belongs to.
+     */
+    @Benchmark
+    public void quizWrongAnswer() throws IOException {
+        cardManager.setReader(wrongAnswers);
+        cardManager.quizUser();
+    }
+
+    @Benchmark
+    public void hardestCard() {
+        cardManager.hardestCard();
+    }
+
+    @Benchmark
+    public void resetAll() {
+        cardManager.resetAll();
+    }
+}
@@ -0,0 +1,72 @@
+package flashcards;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the throughput of lines printed through {@link LogIO},
+ * with the log kept in memory only and with a {@link LogSink} streaming it to a file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogIOBenchmark {
+
+    @Param({"memory", "sink"})
+    private String target;
+
+    private PrintStream console;
+    private InputStream input;
+    private Path logFile;
+    private LogIO logger;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        console = System.out;
+        input = System.in;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        logger = new LogIO();
+        if ("sink".equals(target)) {
+            logFile = Files.createTempFile("session", ".log");
+            logger.setSink(new LogSink(logFile, LogSink.OverflowPolicy.BLOCK,
+                    LogSink.DEFAULT_QUEUE_CAPACITY, LogSink.DEFAULT_FLUSH_INTERVAL_MILLIS));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        logger.close();
+        System.setOut(console);
+        System.setIn(input);
+        if (logFile != null) {
+            Files.deleteIfExists(logFile);
+        }
+    }
+
+    @Benchmark
+    public void printLine() {
+        System.out.println("Wrong. The right answer is \"Definition number 42\".");
+    }
+}
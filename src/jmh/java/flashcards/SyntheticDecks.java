@@ -0,0 +1,116 @@
+package flashcards;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+
+/**
+ * Generates the synthetic decks the benchmarks run against.
+ * Card {@code i} has the term "Term i", the definition "Definition number i"
+ * and {@code i % 17} mistakes, so every deck of a given size is the same.
+ */
+final class SyntheticDecks {
+
+    /**
+     * The number of distinct mistake counts in a synthetic deck.
+     */
+    static final int MISTAKE_SPREAD = 17;
+
+    private SyntheticDecks() {
+    }
+
+    /**
+     * Returns the term of a synthetic card.
+     *
+     * @param i the number of the card
+     * @return its term
+     */
+    static String term(final int i) {
+        return "Term " + i;
+    }
+
+    /**
+     * Returns the definition of a synthetic card.
+     *
+     * @param i the number of the card
+     * @return its definition
+     */
+    static String definition(final int i) {
+        return "Definition number " + i;
+    }
+
+    /**
+     * Builds a synthetic deck in memory.
+     *
+     * @param size the number of cards
+     * @return the cards
+     */
+    static HashSet<FlashCard> cards(final int size) {
+        HashSet<FlashCard> flashCards = new HashSet<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            FlashCard flashCard = new FlashCard(term(i), definition(i));
+            flashCard.setMistakes(i % MISTAKE_SPREAD);
+            flashCards.add(flashCard);
+        }
+        return flashCards;
+    }
+
+    /**
+     * Writes a synthetic deck in the text format.
+     *
+     * @param file the file to write
+     * @param size the number of cards
+     * @throws IOException if the file cannot be written
+     */
+    static void write(final Path file, final int size) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < size; i++) {
+                writer.write(term(i) + "&&" + definition(i) + "&&" + (i % MISTAKE_SPREAD));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * A reader that repeats the same input forever, so that methods prompting for
+     * input can be benchmarked without rebuilding their reader on every call.
+     */
+    static final class RepeatingReader extends Reader {
+
+        /**
+         * The input to repeat.
+         */
+        private final char[] input;
+
+        /**
+         * The position of the next character to read.
+         */
+        private int position;
+
+        /**
+         * Constructs a reader repeating the given input.
+         *
+         * @param newInput the input to repeat, usually ending in a line break
+         */
+        RepeatingReader(final String newInput) {
+            this.input = newInput.toCharArray();
+        }
+
+        @Override
+        public int read(final char[] buffer, final int offset, final int length) {
+            for (int i = 0; i < length; i++) {
+                buffer[offset + i] = input[position];
+                position = (position + 1) % input.length;
+            }
+            return length;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,591 @@
+package flashcards;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A compact deck store for large decks that keeps every term and definition
+ * off the heap in a UTF-8 arena.
+ * Cards are addressed by an integer id. The heap only holds primitive arrays:
+ * the arena offsets of each card's term and definition, its mistake count, and two
+ * open-addressing hash tables from terms and definitions to ids. {@link FlashCard}
+ * objects are only created as views when {@link #card(int)} is called.
+ *
+ * <p>The arena is a list of direct buffers of {@link #CHUNK_SIZE} bytes. Each string is
+ * stored as its hash, its byte length and its UTF-8 bytes, and never spans two chunks.
+ * Like the {@link FlashCardManager} indexes, the hash tables keep the first card holding
+ * a term or a definition. The store is not thread-safe: once it is no longer changed,
+ * lookups may run on any thread, and {@link #next()} is synchronized.
+ */
+public final class ArenaDeckStore {
+
+    /**
+     * The size of one arena chunk in bytes.
+     */
+    static final int CHUNK_SIZE = 1 << 24;
+
+    /**
+     * The size of the header in front of every string: its hash and its byte length.
+     */
+    static final int STRING_HEADER_SIZE = 2 * Integer.BYTES;
+
+    /**
+     * The offset marking a removed card.
+     */
+    private static final long REMOVED = -1;
+
+    /**
+     * A hash table slot that has never held an id.
+     */
+    private static final int EMPTY = -1;
+
+    /**
+     * A hash table slot whose id has been removed.
+     */
+    private static final int DELETED = -2;
+
+    /**
+     * The initial number of card slots.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The arena chunks, all full except the last one.
+     */
+    private final ArrayList<ByteBuffer> chunks = new ArrayList<>();
+
+    /**
+     * The number of bytes used in the last chunk.
+     */
+    private int chunkPosition = CHUNK_SIZE;
+
+    /**
+     * The arena offset of each card's term, or {@link #REMOVED}.
+     */
+    private long[] termOffsets = new long[INITIAL_CAPACITY];
+
+    /**
+     * The arena offset of each card's definition.
+     */
+    private long[] definitionOffsets = new long[INITIAL_CAPACITY];
+
+    /**
+     * The mistake count of each card.
+     */
+    private int[] mistakes = new int[INITIAL_CAPACITY];
+
+    /**
+     * Index from terms to card ids.
+     */
+    private final Table termTable = new Table(INITIAL_CAPACITY * 2);
+
+    /**
+     * Index from definitions to card ids.
+     */
+    private final Table definitionTable = new Table(INITIAL_CAPACITY * 2);
+
+    /**
+     * The number of ids handed out, including removed cards.
+     */
+    private int nextId;
+
+    /**
+     * The number of cards that have not been removed.
+     */
+    private int size;
+
+    /**
+     * The number of UTF-8 bytes of every term and definition added.
+     */
+    private long stringBytes;
+
+    /**
+     * The id {@link #next()} starts looking at.
+     */
+    private int cursor;
+
+    /**
+     * An open-addressing hash table with linear probing from strings to card ids.
+     * Slots hold ids; the strings themselves are compared in the arena.
+     */
+    private static final class Table {
+
+        /**
+         * The slots, each an id, {@link #EMPTY} or {@link #DELETED}.
+         */
+        private int[] slots;
+
+        /**
+         * The number of slots that are not {@link #EMPTY}.
+         */
+        private int used;
+
+        /**
+         * The number of ids in the table.
+         */
+        private int entries;
+
+        /**
+         * Constructs an empty table.
+         *
+         * @param capacity the number of slots, a power of two
+         */
+        Table(final int capacity) {
+            clear(capacity);
+        }
+
+        /**
+         * Empties the table and resizes it.
+         *
+         * @param capacity the number of slots, a power of two
+         */
+        void clear(final int capacity) {
+            slots = new int[capacity];
+            Arrays.fill(slots, EMPTY);
+            used = 0;
+            entries = 0;
+        }
+    }
+
+    /**
+     * Loads a text deck file into a new store.
+     * Lines are parsed by a {@link DeckParser}; malformed lines are skipped.
+     *
+     * @param file the deck file
+     * @return the store holding the cards of the file
+     * @throws IOException if the file cannot be read
+     */
+    public static ArenaDeckStore load(final Path file) throws IOException {
+        ArenaDeckStore store = new ArenaDeckStore();
+        DeckParser parser = new DeckParser(
+                (term, definition, cardMistakes, review) -> store.add(term, definition, cardMistakes),
+                (lineNumber, reason) -> {
+                });
+        try (InputStream in = new FileInputStream(file.toFile())) {
+            parser.parse(in);
+        }
+        return store;
+    }
+
+    /**
+     * Adds a card.
+     *
+     * @param term         the term of the card
+     * @param definition   the definition of the card
+     * @param cardMistakes the mistake count of the card
+     * @return the id of the new card
+     * @throws IllegalArgumentException if the term or definition is larger than an arena chunk
+     */
+    public int add(final String term, final String definition, final int cardMistakes) {
+        byte[] termBytes = encode(term);
+        byte[] definitionBytes = encode(definition);
+        if (nextId == termOffsets.length) {
+            int capacity = termOffsets.length * 2;
+            termOffsets = Arrays.copyOf(termOffsets, capacity);
+            definitionOffsets = Arrays.copyOf(definitionOffsets, capacity);
+            mistakes = Arrays.copyOf(mistakes, capacity);
+        }
+        if (Math.max(termTable.used, definitionTable.used) + 1 > termTable.slots.length / 2) {
+            rehash(Math.max(termTable.slots.length, Integer.highestOneBit(size + 1) * 4));
+        }
+        int id = nextId++;
+        termOffsets[id] = append(termBytes);
+        definitionOffsets[id] = append(definitionBytes);
+        mistakes[id] = cardMistakes;
+        stringBytes += termBytes.length + definitionBytes.length;
+        size++;
+        insert(termTable, termOffsets, id);
+        insert(definitionTable, definitionOffsets, id);
+        return id;
+    }
+
+    /**
+     * Removes a card. Its id is not reused, and the arena bytes of its strings
+     * are only reclaimed with the whole store.
+     *
+     * @param id the id of the card
+     */
+    public void remove(final int id) {
+        checkId(id);
+        boolean termFreed = delete(termTable, termOffsets, id);
+        boolean definitionFreed = delete(definitionTable, definitionOffsets, id);
+        long termOffset = termOffsets[id];
+        termOffsets[id] = REMOVED;
+        size--;
+
+        // Another card holding the same string takes over its slot, as in FlashCardManager.
+        boolean unindexedTerms = termFreed && size > termTable.entries;
+        boolean unindexedDefinitions = definitionFreed && size > definitionTable.entries;
+        if (!unindexedTerms && !unindexedDefinitions) {
+            return;
+        }
+        byte[] term = stringAt(termOffset);
+        byte[] definition = stringAt(definitionOffsets[id]);
+        for (int other = 0; other < nextId; other++) {
+            if (termOffsets[other] == REMOVED) {
+                continue;
+            }
+            if (unindexedTerms && matches(termOffsets[other], term)) {
+                insert(termTable, termOffsets, other);
+            }
+            if (unindexedDefinitions && matches(definitionOffsets[other], definition)) {
+                insert(definitionTable, definitionOffsets, other);
+            }
+        }
+    }
+
+    /**
+     * Looks up the card holding a term.
+     *
+     * @param term the term to look for
+     * @return the id of the first card added with the term, or -1 if there is none
+     */
+    public int findByTerm(final String term) {
+        return find(termTable, termOffsets, term.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Looks up the card holding a definition.
+     *
+     * @param definition the definition to look for
+     * @return the id of the first card added with the definition, or -1 if there is none
+     */
+    public int findByDefinition(final String definition) {
+        return find(definitionTable, definitionOffsets, definition.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the number of cards in the store.
+     *
+     * @return the number of cards
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Decodes the term of a card.
+     *
+     * @param id the id of the card
+     * @return its term
+     */
+    public String term(final int id) {
+        checkId(id);
+        return new String(stringAt(termOffsets[id]), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the definition of a card.
+     *
+     * @param id the id of the card
+     * @return its definition
+     */
+    public String definition(final int id) {
+        checkId(id);
+        return new String(stringAt(definitionOffsets[id]), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the mistake count of a card.
+     *
+     * @param id the id of the card
+     * @return its mistake count
+     */
+    public int getMistakes(final int id) {
+        checkId(id);
+        return mistakes[id];
+    }
+
+    /**
+     * Sets the mistake count of a card.
+     *
+     * @param id          the id of the card
+     * @param newMistakes its new mistake count
+     */
+    public void setMistakes(final int id, final int newMistakes) {
+        checkId(id);
+        mistakes[id] = newMistakes;
+    }
+
+    /**
+     * Counts a mistake against a card.
+     *
+     * @param id the id of the card
+     */
+    public void increaseMistakes(final int id) {
+        checkId(id);
+        mistakes[id]++;
+    }
+
+    /**
+     * Creates a {@link FlashCard} view of a card, decoding its strings.
+     * Changes to the view are not written back to the store.
+     *
+     * @param id the id of the card
+     * @return a new card with the term, definition and mistake count of the stored card
+     */
+    public FlashCard card(final int id) {
+        FlashCard flashCard = new FlashCard(term(id), definition(id));
+        flashCard.setMistakes(mistakes[id]);
+        return flashCard;
+    }
+
+    /**
+     * Returns the next card in id order, starting over after the last one,
+     * so that every card is handed out once before any is handed out again.
+     *
+     * @return a view of the card, or null if the store is empty
+     */
+    public synchronized FlashCard next() {
+        for (int i = 0; i < nextId; i++) {
+            int id = cursor;
+            cursor = (cursor + 1) % nextId;
+            if (termOffsets[id] != REMOVED) {
+                return card(id);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of heap bytes held by the store's arrays,
+     * not counting the small fixed-size objects around them.
+     *
+     * @return the heap footprint in bytes
+     */
+    public long heapBytes() {
+        return (long) termOffsets.length * (2 * Long.BYTES + Integer.BYTES)
+                + (long) (termTable.slots.length + definitionTable.slots.length) * Integer.BYTES;
+    }
+
+    /**
+     * Returns the number of UTF-8 bytes of the terms and definitions added to the arena,
+     * which one byte per character approximates for Latin-1 text.
+     * The strings of removed cards are still counted, as their bytes stay in the arena.
+     *
+     * @return the number of bytes
+     */
+    public long stringBytes() {
+        return stringBytes;
+    }
+
+    /**
+     * Returns the number of off-heap bytes reserved by the arena.
+     *
+     * @return the arena size in bytes
+     */
+    public long offHeapBytes() {
+        return (long) chunks.size() * CHUNK_SIZE;
+    }
+
+    /**
+     * Encodes a string for the arena.
+     *
+     * @param string the string
+     * @return its UTF-8 bytes
+     * @throws IllegalArgumentException if the string is larger than an arena chunk
+     */
+    private static byte[] encode(final String string) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        if (STRING_HEADER_SIZE + bytes.length > CHUNK_SIZE) {
+            throw new IllegalArgumentException("A string of " + bytes.length + " bytes does not fit in the arena.");
+        }
+        return bytes;
+    }
+
+    /**
+     * Copies a string into the arena.
+     *
+     * @param bytes the UTF-8 bytes of the string, no larger than a chunk
+     * @return the arena offset of the string
+     */
+    private long append(final byte[] bytes) {
+        int needed = STRING_HEADER_SIZE + bytes.length;
+        if (chunkPosition + needed > CHUNK_SIZE) {
+            chunks.add(ByteBuffer.allocateDirect(CHUNK_SIZE));
+            chunkPosition = 0;
+        }
+        ByteBuffer chunk = chunks.get(chunks.size() - 1);
+        chunk.putInt(chunkPosition, hash(bytes));
+        chunk.putInt(chunkPosition + Integer.BYTES, bytes.length);
+        chunk.put(chunkPosition + STRING_HEADER_SIZE, bytes);
+        long offset = (long) (chunks.size() - 1) * CHUNK_SIZE + chunkPosition;
+        chunkPosition += needed;
+        return offset;
+    }
+
+    /**
+     * Copies a string out of the arena.
+     *
+     * @param offset the arena offset of the string
+     * @return its UTF-8 bytes
+     */
+    private byte[] stringAt(final long offset) {
+        ByteBuffer chunk = chunks.get((int) (offset / CHUNK_SIZE));
+        int position = (int) (offset % CHUNK_SIZE);
+        byte[] bytes = new byte[chunk.getInt(position + Integer.BYTES)];
+        chunk.get(position + STRING_HEADER_SIZE, bytes);
+        return bytes;
+    }
+
+    /**
+     * Returns the hash stored in front of a string.
+     *
+     * @param offset the arena offset of the string
+     * @return its hash
+     */
+    private int hashAt(final long offset) {
+        return chunks.get((int) (offset / CHUNK_SIZE)).getInt((int) (offset % CHUNK_SIZE));
+    }
+
+    /**
+     * Compares a string in the arena with the given bytes.
+     *
+     * @param offset the arena offset of the string
+     * @param bytes  the bytes to compare with
+     * @return whether they are equal
+     */
+    private boolean matches(final long offset, final byte[] bytes) {
+        ByteBuffer chunk = chunks.get((int) (offset / CHUNK_SIZE));
+        int position = (int) (offset % CHUNK_SIZE);
+        if (chunk.getInt(position + Integer.BYTES) != bytes.length) {
+            return false;
+        }
+        return chunk.slice(position + STRING_HEADER_SIZE, bytes.length).equals(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Looks up the id holding a string in a table.
+     *
+     * @param table   the table
+     * @param offsets the arena offsets of the strings the table indexes
+     * @param bytes   the UTF-8 bytes of the string
+     * @return the id, or -1 if the table holds no card with the string
+     */
+    private int find(final Table table, final long[] offsets, final byte[] bytes) {
+        int[] slots = table.slots;
+        int hash = hash(bytes);
+        int mask = slots.length - 1;
+        for (int slot = spread(hash) & mask; slots[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int id = slots[slot];
+            if (id != DELETED && hashAt(offsets[id]) == hash && matches(offsets[id], bytes)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds an id to a table unless a card with the same string is already in it.
+     *
+     * @param table   the table
+     * @param offsets the arena offsets of the strings the table indexes
+     * @param id      the id to add
+     */
+    private void insert(final Table table, final long[] offsets, final int id) {
+        int[] slots = table.slots;
+        int hash = hashAt(offsets[id]);
+        byte[] bytes = null;
+        int mask = slots.length - 1;
+        int free = -1;
+        int slot = spread(hash) & mask;
+        for (; slots[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int other = slots[slot];
+            if (other == DELETED) {
+                free = free < 0 ? slot : free;
+                continue;
+            }
+            if (hashAt(offsets[other]) == hash) {
+                bytes = bytes == null ? stringAt(offsets[id]) : bytes;
+                if (matches(offsets[other], bytes)) {
+                    return;
+                }
+            }
+        }
+        if (free < 0) {
+            free = slot;
+            table.used++;
+        }
+        slots[free] = id;
+        table.entries++;
+    }
+
+    /**
+     * Removes an id from a table if it is there.
+     *
+     * @param table   the table
+     * @param offsets the arena offsets of the strings the table indexes
+     * @param id      the id to remove
+     * @return whether the id was in the table
+     */
+    private boolean delete(final Table table, final long[] offsets, final int id) {
+        int[] slots = table.slots;
+        int mask = slots.length - 1;
+        for (int slot = spread(hashAt(offsets[id])) & mask; slots[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (slots[slot] == id) {
+                slots[slot] = DELETED;
+                table.entries--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rebuilds both tables with the given number of slots, dropping deleted slots.
+     *
+     * @param capacity the number of slots, a power of two
+     */
+    private void rehash(final int capacity) {
+        termTable.clear(capacity);
+        definitionTable.clear(capacity);
+        for (int id = 0; id < nextId; id++) {
+            if (termOffsets[id] != REMOVED) {
+                insert(termTable, termOffsets, id);
+                insert(definitionTable, definitionOffsets, id);
+            }
+        }
+    }
+
+    /**
+     * Checks that an id refers to a card in the store.
+     *
+     * @param id the id
+     * @throws IndexOutOfBoundsException if there is no such card
+     */
+    private void checkId(final int id) {
+        if (id < 0 || id >= nextId || termOffsets[id] == REMOVED) {
+            throw new IndexOutOfBoundsException("There is no card with id " + id + ".");
+        }
+    }
+
+    /**
+     * Computes the 32-bit FNV-1a hash of a string's bytes.
+     *
+     * @param bytes the UTF-8 bytes
+     * @return the hash
+     */
+    private static int hash(final byte[] bytes) {
+        int hash = 0x811C9DC5;
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xFF)) * 0x01000193;
+        }
+        return hash;
+    }
+
+    /**
+     * Mixes the high bits of a hash into the low bits used to pick a slot.
+     *
+     * @param hash the hash
+     * @return the spread hash
+     */
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
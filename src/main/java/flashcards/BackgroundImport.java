@@ -0,0 +1,219 @@
+package flashcards;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.LongSupplier;
+
+/**
+ * The progress of a deck file being loaded on a worker thread: the cards added to the deck,
+ * the bytes read out of the bytes expected, the loading rate and whether loading has ended.
+ * All state is guarded by the instance's monitor, so the worker can report progress while
+ * sessions read it or wait for the end. The clock is read outside of it.
+ */
+class BackgroundImport {
+
+    /**
+     * The name of the deck file.
+     */
+    private final String file;
+
+    /**
+     * The clock measuring the loading rate, in milliseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * The time loading started.
+     */
+    private final long started;
+
+    /**
+     * The number of bytes expected, or -1 if it is not known.
+     */
+    private long expectedBytes = -1;
+
+    /**
+     * The number of bytes read so far.
+     */
+    private long bytesRead;
+
+    /**
+     * The number of cards added to the deck so far.
+     */
+    private long cards;
+
+    /**
+     * The time progress was last reported.
+     */
+    private long lastReport;
+
+    /**
+     * Whether loading has ended, successfully or not.
+     */
+    private boolean finished;
+
+    /**
+     * Constructs the progress of a load starting now.
+     *
+     * @param newFile  the name of the deck file
+     * @param newClock the clock measuring the loading rate, in milliseconds
+     */
+    BackgroundImport(final String newFile, final LongSupplier newClock) {
+        this.file = newFile;
+        this.clock = newClock;
+        this.started = newClock.getAsLong();
+        this.lastReport = started;
+    }
+
+    /**
+     * Returns the name of the deck file.
+     *
+     * @return the file name
+     */
+    String getFile() {
+        return file;
+    }
+
+    /**
+     * Sets the number of bytes the load will read, which makes {@link #percentDone()} known.
+     *
+     * @param bytes the number of bytes
+     */
+    synchronized void expect(final long bytes) {
+        expectedBytes = bytes;
+    }
+
+    /**
+     * Wraps a stream so that the bytes read from it count as progress.
+     *
+     * @param in the stream of the deck
+     * @return the counting stream
+     */
+    InputStream track(final InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    advance(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+                int count = super.read(bytes, offset, length);
+                if (count > 0) {
+                    advance(count);
+                }
+                return count;
+            }
+        };
+    }
+
+    /**
+     * Records bytes read.
+     *
+     * @param bytes the number of bytes
+     */
+    private synchronized void advance(final long bytes) {
+        bytesRead += bytes;
+    }
+
+    /**
+     * Records cards added to the deck.
+     *
+     * @param added the number of cards
+     */
+    synchronized void added(final long added) {
+        cards += added;
+    }
+
+    /**
+     * Returns the number of cards added to the deck so far.
+     *
+     * @return the number of cards
+     */
+    synchronized long getCards() {
+        return cards;
+    }
+
+    /**
+     * Returns how much of the file has been read.
+     *
+     * @return the percentage, 100 once loading has ended, or -1 if the size of the load is not known
+     */
+    synchronized int percentDone() {
+        if (finished) {
+            return 100;
+        }
+        if (expectedBytes <= 0) {
+            return -1;
+        }
+        return (int) Math.min(100, bytesRead * 100 / expectedBytes);
+    }
+
+    /**
+     * Returns the number of cards added per second since loading started.
+     *
+     * @return the loading rate
+     */
+    long cardsPerSecond() {
+        long elapsed = Math.max(1, clock.getAsLong() - started);
+        return getCards() * 1000 / elapsed;
+    }
+
+    /**
+     * Tells whether progress should be reported now, which is the case once an interval has
+     * passed since it was last reported, and if so restarts the interval.
+     *
+     * @param interval the least time between two reports, in milliseconds
+     * @return true if progress should be reported
+     */
+    boolean reportDue(final long interval) {
+        long now = clock.getAsLong();
+        synchronized (this) {
+            if (now - lastReport < interval) {
+                return false;
+            }
+            lastReport = now;
+            return true;
+        }
+    }
+
+    /**
+     * Marks the load as ended and wakes up everyone waiting for it.
+     */
+    synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+
+    /**
+     * Tells whether loading has ended.
+     *
+     * @return true once the load has ended
+     */
+    synchronized boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Waits until loading has ended. An interrupt does not stop the wait,
+     * but is kept for the caller to see afterwards.
+     */
+    synchronized void await() {
+        boolean interrupted = false;
+        while (!finished) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package flashcards;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Reads and writes decks in the compact binary format.
+ * All numbers are big-endian. A file consists of
+ * <ul>
+ *     <li>a header: the magic bytes "FCDK", the format version, the number of strings,
+ *     the number of cards and the length of the string table in bytes, each as an int;</li>
+ *     <li>the string table: every distinct term and definition once, as an int byte
+ *     length followed by its UTF-8 bytes;</li>
+ *     <li>the card records: for each card the table offsets of its term and its
+ *     definition, its mistake count, its review ease, interval and repetitions, each as
+ *     an int, and its review due time as a long; an ease of 0 marks a card that has never
+ *     been reviewed. Version 1 records stop after the mistake count;</li>
+ *     <li>a trailer: the CRC32 of everything before it, as an int.</li>
+ * </ul>
+ * Reading maps the whole file and verifies the checksum before any card is created,
+ * so a corrupt file never loads partially.
+ */
+public final class BinaryDeckFormat {
+
+    /**
+     * The magic bytes "FCDK" opening every binary deck.
+     */
+    static final int MAGIC = 0x4643444B;
+
+    /**
+     * The current format version.
+     */
+    static final int VERSION = 2;
+
+    /**
+     * The first format version, without review states.
+     */
+    static final int VERSION_1 = 1;
+
+    /**
+     * The size of the header in bytes.
+     */
+    static final int HEADER_SIZE = 5 * Integer.BYTES;
+
+    /**
+     * The size of one card record in bytes.
+     */
+    static final int RECORD_SIZE = 6 * Integer.BYTES + Long.BYTES;
+
+    /**
+     * The size of one version 1 card record in bytes.
+     */
+    static final int RECORD_SIZE_V1 = 3 * Integer.BYTES;
+
+    private BinaryDeckFormat() {
+    }
+
+    /**
+     * Writes the cards to a binary deck file, replacing its previous content.
+     *
+     * @param flashCards the cards to write
+     * @param file       the destination file
+     * @return the number of cards written
+     * @throws IOException if the file cannot be written or the string table exceeds 2 GB
+     */
+    public static int write(final Collection<FlashCard> flashCards, final Path file) throws IOException {
+        HashMap<String, Integer> offsets = new HashMap<>();
+        byte[][] strings = new byte[flashCards.size() * 2][];
+        int stringCount = 0;
+        long tableLength = 0;
+        int[] records = new int[flashCards.size() * 3];
+        ReviewState[] reviews = new ReviewState[flashCards.size()];
+        int cardCount = 0;
+
+        for (FlashCard flashCard : flashCards) {
+            String[] values = {flashCard.getTerm(), flashCard.getDefinition()};
+            for (int field = 0; field < values.length; field++) {
+                Integer offset = offsets.get(values[field]);
+                if (offset == null) {
+                    if (tableLength > Integer.MAX_VALUE) {
+                        throw new IOException("The string table of " + file + " would exceed 2 GB.");
+                    }
+                    offset = (int) tableLength;
+                    offsets.put(values[field], offset);
+                    byte[] bytes = values[field].getBytes(StandardCharsets.UTF_8);
+                    strings[stringCount++] = bytes;
+                    tableLength += Integer.BYTES + bytes.length;
+                }
+                records[cardCount * 3 + field] = offset;
+            }
+            records[cardCount * 3 + 2] = flashCard.getMistakes();
+            reviews[cardCount] = flashCard.getReview();
+            cardCount++;
+        }
+        if (tableLength > Integer.MAX_VALUE) {
+            throw new IOException("The string table of " + file + " would exceed 2 GB.");
+        }
+
+        CRC32 crc = new CRC32();
+        try (OutputStream out = Files.newOutputStream(file)) {
+            DataOutputStream data = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(out, 1 << 16), crc));
+            data.writeInt(MAGIC);
+            data.writeInt(VERSION);
+            data.writeInt(stringCount);
+            data.writeInt(cardCount);
+            data.writeInt((int) tableLength);
+            for (int i = 0; i < stringCount; i++) {
+                data.writeInt(strings[i].length);
+                data.write(strings[i]);
+            }
+            for (int i = 0; i < cardCount; i++) {
+                data.writeInt(records[i * 3]);
+                data.writeInt(records[i * 3 + 1]);
+                data.writeInt(records[i * 3 + 2]);
+                ReviewState review = reviews[i];
+                data.writeInt(review == null ? 0 : review.getEase());
+                data.writeInt(review == null ? 0 : review.getInterval());
+                data.writeInt(review == null ? 0 : review.getRepetitions());
+                data.writeLong(review == null ? 0 : review.getDue());
+            }
+            data.flush();
+            new DataOutputStream(out).writeInt((int) crc.getValue());
+        }
+        return cardCount;
+    }
+
+    /**
+     * Reads every card of a binary deck file.
+     *
+     * @param file     the binary deck file
+     * @param consumer the destination of the cards, in file order
+     * @return the number of cards read
+     * @throws CorruptDeckException if the file is not a valid binary deck
+     * @throws IOException          if the file cannot be read
+     */
+    public static long read(final Path file, final Consumer<FlashCard> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + Integer.BYTES) {
+                throw new CorruptDeckException(file + " is too short to be a binary deck.");
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new CorruptDeckException(file + " is larger than 2 GB.");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (buffer.getInt() != MAGIC) {
+                throw new CorruptDeckException(file + " is not a binary deck.");
+            }
+            int bodyLength = (int) size - Integer.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, bodyLength));
+            if ((int) crc.getValue() != buffer.getInt(bodyLength)) {
+                throw new CorruptDeckException("The checksum of " + file + " does not match its content.");
+            }
+
+            int version = buffer.getInt();
+            if (version != VERSION && version != VERSION_1) {
+                throw new CorruptDeckException(file + " uses unsupported format version " + version + ".");
+            }
+            int stringCount = buffer.getInt();
+            int cardCount = buffer.getInt();
+            int tableLength = buffer.getInt();
+            int recordSize = version == VERSION_1 ? RECORD_SIZE_V1 : RECORD_SIZE;
+            if (stringCount < 0 || cardCount < 0 || tableLength < 0
+                    || (long) HEADER_SIZE + tableLength + (long) cardCount * recordSize != bodyLength) {
+                throw new CorruptDeckException("The header of " + file + " does not match its size.");
+            }
+
+            String[] strings = new String[stringCount];
+            int[] offsets = new int[stringCount];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < stringCount; i++) {
+                offsets[i] = buffer.position() - HEADER_SIZE;
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    throw new CorruptDeckException("String " + i + " of " + file + " is out of bounds.");
+                }
+                if (length > scratch.length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                buffer.get(scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+
+            for (int i = 0; i < cardCount; i++) {
+                String term = lookup(strings, offsets, buffer.getInt(), file);
+                String definition = lookup(strings, offsets, buffer.getInt(), file);
+                FlashCard flashCard = new FlashCard(term, definition);
+                flashCard.setMistakes(buffer.getInt());
+                if (version != VERSION_1) {
+                    int ease = buffer.getInt();
+                    int interval = buffer.getInt();
+                    int repetitions = buffer.getInt();
+                    long due = buffer.getLong();
+                    if (ease != 0) {
+                        flashCard.setReview(new ReviewState(ease, interval, repetitions, due));
+                    }
+                }
+                consumer.accept(flashCard);
+            }
+            return cardCount;
+        }
+    }
+
+    /**
+     * Resolves a string table offset to its string.
+     *
+     * @param strings the decoded strings in table order
+     * @param offsets the table offset of each string
+     * @param offset  the offset to resolve
+     * @param file    the deck file, used in error messages
+     * @return the string starting at the offset
+     * @throws CorruptDeckException if no string starts at the offset
+     */
+    private static String lookup(final String[] strings, final int[] offsets, final int offset, final Path file)
+            throws CorruptDeckException {
+        int index = Arrays.binarySearch(offsets, offset);
+        if (index < 0) {
+            throw new CorruptDeckException("A card of " + file + " refers to an invalid string offset.");
+        }
+        return strings[index];
+    }
+}
@@ -0,0 +1,107 @@
+package flashcards;
+
+import java.io.PrintStream;
+import java.util.Formatter;
+
+/**
+ * Collects output in memory and hands it to a stream in one write once the buffer
+ * fills, when it is flushed, or, unless turned off, when the program waits for input.
+ * A synchronized, autoflushing {@code System.out} behind the session log's tee is then
+ * written to once per prompt instead of once per printed line.
+ *
+ * <p>An output belongs to one session and is not thread-safe.
+ */
+public final class BufferedConsoleOutput implements ConsoleOutput {
+
+    /**
+     * The default number of characters held before the buffer is written out.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 13;
+
+    /**
+     * The stream the buffer is written to.
+     */
+    private final PrintStream target;
+
+    /**
+     * The number of characters held before the buffer is written out.
+     */
+    private final int capacity;
+
+    /**
+     * Whether waiting for input flushes the buffer.
+     */
+    private final boolean flushOnInput;
+
+    /**
+     * The text not written yet.
+     */
+    private final StringBuilder buffer;
+
+    /**
+     * Formats straight into the buffer.
+     */
+    private final Formatter formatter;
+
+    /**
+     * Constructs an output that flushes whenever the program waits for input.
+     *
+     * @param newTarget the stream the buffer is written to
+     */
+    public BufferedConsoleOutput(final PrintStream newTarget) {
+        this(newTarget, DEFAULT_CAPACITY, true);
+    }
+
+    /**
+     * Constructs an output.
+     *
+     * @param newTarget       the stream the buffer is written to
+     * @param newCapacity     the number of characters held before the buffer is written out
+     * @param newFlushOnInput whether waiting for input flushes the buffer; scripts read
+     *                        their input from a file and only need it flushed at the end
+     */
+    public BufferedConsoleOutput(final PrintStream newTarget, final int newCapacity, final boolean newFlushOnInput) {
+        this.target = newTarget;
+        this.capacity = newCapacity;
+        this.flushOnInput = newFlushOnInput;
+        this.buffer = new StringBuilder(newCapacity);
+        this.formatter = new Formatter(buffer);
+    }
+
+    @Override
+    public void print(final String text) {
+        buffer.append(text);
+        flushIfFull();
+    }
+
+    @Override
+    public void printf(final String format, final Object... args) {
+        formatter.format(format, args);
+        flushIfFull();
+    }
+
+    @Override
+    public void flush() {
+        if (buffer.length() > 0) {
+            target.append(buffer);
+            buffer.setLength(0);
+        }
+        target.flush();
+    }
+
+    @Override
+    public void awaitingInput() {
+        if (flushOnInput) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffer out once it holds at least {@link #capacity} characters.
+     */
+    private void flushIfFull() {
+        if (buffer.length() >= capacity) {
+            flush();
+        }
+    }
+}
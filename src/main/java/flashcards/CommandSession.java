@@ -0,0 +1,245 @@
+package flashcards;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Runs the interactive command loop on one deck.
+ * The console of {@link Main} and every connection of a {@link SessionServer}
+ * go through the same loop, and {@link ScriptRunner} executes the same commands,
+ * so they all accept exactly the same commands.
+ * Sessions start on the deck they are given and may switch to the named decks
+ * of its {@link DeckRegistry}.
+ */
+class CommandSession {
+
+    /**
+     * The prompt printed before every command.
+     */
+    static final String PROMPT = "Input the action (add, remove, import, merge, export, export delta, "
+            + "ask, ask fuzzy N, exit, log, hardest card, hardest N, reset stats, "
+            + "search, stats, use <deck>, decks, close <deck>):";
+
+    /**
+     * The deck the commands work on, reading and printing through this session's streams.
+     */
+    private FlashCardManager cardManager;
+
+    /**
+     * The name of the deck the commands work on.
+     */
+    private String deckName = DeckRegistry.DEFAULT_DECK;
+
+    /**
+     * The name the last command was recorded under, or null if it was ignored or "exit".
+     */
+    private String lastCommand;
+
+    /**
+     * The reader the commands are read from.
+     */
+    private final BufferedReader reader;
+
+    /**
+     * The output the prompt is printed to.
+     */
+    private final ConsoleOutput out;
+
+    /**
+     * The log saved by the "log" command.
+     */
+    private final LogIO logger;
+
+    /**
+     * Constructs a session.
+     *
+     * @param newCardManager the deck the commands work on
+     * @param newReader      the reader the commands are read from
+     * @param newOut         the output the prompt is printed to
+     * @param newLogger      the log saved by the "log" command
+     */
+    CommandSession(final FlashCardManager newCardManager, final BufferedReader newReader,
+                   final ConsoleOutput newOut, final LogIO newLogger) {
+        this.cardManager = newCardManager;
+        this.reader = newReader;
+        this.out = newOut;
+        this.logger = newLogger;
+    }
+
+    /**
+     * Reads and executes commands until "exit" is entered or the input ends,
+     * and flushes the output at the end.
+     *
+     * @throws IOException if an I/O error occurs when reading from the input stream
+     */
+    void run() throws IOException {
+        try {
+            while (true) {
+                out.println(PROMPT);
+                out.awaitingInput();
+                String choice = reader.readLine();
+                if (choice == null || !execute(choice)) {
+                    return;
+                }
+            }
+        } finally {
+            releaseDeck();
+            out.flush();
+        }
+    }
+
+    /**
+     * Lets go of the named deck the session works on, so that it may be unloaded.
+     * Called when the session ends.
+     */
+    void releaseDeck() {
+        DeckRegistry registry = cardManager.getRegistry();
+        if (registry != null) {
+            registry.release(deckName);
+        }
+    }
+
+    /**
+     * Returns the name the last command was recorded under in the deck's metrics,
+     * such as "hardest N" for "hardest 3".
+     *
+     * @return the name, or null if the last command was ignored or "exit"
+     */
+    String lastCommand() {
+        return lastCommand;
+    }
+
+    /**
+     * Executes one command and records its latency in the deck's metrics.
+     * Unknown commands are ignored and not recorded.
+     *
+     * @param choice the command
+     * @return false if the command was "exit", true otherwise
+     * @throws IOException if an I/O error occurs when reading from the input stream
+     */
+    boolean execute(final String choice) throws IOException {
+        DeckMetrics metrics = cardManager.getMetrics();
+        long start = metrics.start();
+        String command = choice;
+        lastCommand = null;
+        switch (choice) {
+            case "add" -> cardManager.addFlashCard();
+            case "remove" -> cardManager.removeFlashCard();
+            case "export" -> cardManager.exportFlashCards();
+            case "export delta" -> cardManager.exportDelta();
+            case "import" -> cardManager.importFlashCards();
+            case "merge" -> cardManager.mergeFlashCards();
+            case "ask" -> cardManager.quizUser();
+            case "log" -> cardManager.saveLog(logger);
+            case "hardest card" -> cardManager.hardestCard();
+            case "reset stats" -> cardManager.resetAll();
+            case "search" -> cardManager.searchFlashCards();
+            case "stats" -> cardManager.printStats();
+            case "decks" -> listDecks();
+            case "exit" -> {
+                return false;
+            }
+            default -> {
+                if (choice.matches("hardest \\d+")) {
+                    command = "hardest N";
+                    cardManager.printHardestCards(Integer.parseInt(choice.substring("hardest ".length())));
+                } else if (choice.matches("ask fuzzy \\d+")) {
+                    command = "ask fuzzy N";
+                    cardManager.quizUser(Integer.parseInt(choice.substring("ask fuzzy ".length())));
+                } else if (choice.startsWith("use ")) {
+                    command = "use <deck>";
+                    useDeck(choice.substring("use ".length()));
+                } else if (choice.startsWith("close ")) {
+                    command = "close <deck>";
+                    closeDeck(choice.substring("close ".length()));
+                } else {
+                    return true;
+                }
+            }
+        }
+        metrics.record(DeckMetrics.COMMAND_PREFIX + command, start);
+        lastCommand = command;
+        return true;
+    }
+
+    /**
+     * Returns the named decks of the session, printing why there are none if so.
+     *
+     * @return the registry, or null if the session has no named decks
+     */
+    private DeckRegistry registry() {
+        DeckRegistry registry = cardManager.getRegistry();
+        if (registry == null) {
+            cardManager.out().printf("There are no named decks in this session.%n%n");
+        }
+        return registry;
+    }
+
+    /**
+     * Switches the session to a named deck, loading or creating it, and lets go of the deck
+     * it worked on before.
+     *
+     * @param name the name of the deck
+     */
+    private void useDeck(final String name) {
+        DeckRegistry registry = registry();
+        if (registry == null) {
+            return;
+        }
+        ConsoleOutput results = cardManager.out();
+        if (!DeckRegistry.isValidName(name)) {
+            results.printf("Deck names may only hold letters, digits, \"_\" and \"-\".%n%n");
+            return;
+        }
+        FlashCardManager deck;
+        try {
+            deck = registry.acquire(name, deckName, results);
+        } catch (CorruptDeckException e) {
+            results.printf("The file is damaged: %s%n%n", e.getMessage());
+            return;
+        } catch (IOException e) {
+            results.printf("The deck \"%s\" could not be loaded: %s%n%n", name, e.getMessage());
+            return;
+        }
+        if (!name.equals(deckName)) {
+            deckName = name;
+            cardManager = cardManager.session(deck);
+        }
+        results.printf("Using the deck \"%s\" with %d cards.%n%n", name, deck.getMetrics().getCardCount());
+    }
+
+    /**
+     * Prints the named decks, marking the one the session works on.
+     *
+     * @throws IOException if the directory of saved decks cannot be listed
+     */
+    private void listDecks() throws IOException {
+        DeckRegistry registry = registry();
+        if (registry != null) {
+            registry.list(deckName, cardManager.out());
+        }
+    }
+
+    /**
+     * Saves a named deck and unloads it. A session closing its own deck switches back
+     * to the default deck first.
+     *
+     * @param name the name of the deck
+     */
+    private void closeDeck(final String name) {
+        DeckRegistry registry = registry();
+        if (registry == null) {
+            return;
+        }
+        ConsoleOutput results = cardManager.out();
+        try {
+            if (name.equals(deckName) && !DeckRegistry.DEFAULT_DECK.equals(name)) {
+                cardManager = cardManager.session(registry.acquire(DeckRegistry.DEFAULT_DECK, deckName, results));
+                deckName = DeckRegistry.DEFAULT_DECK;
+            }
+            registry.close(name, results);
+        } catch (IOException e) {
+            results.printf("The deck \"%s\" could not be saved: %s%n%n", name, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package flashcards;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Reads and writes text decks compressed in independently deflated blocks.
+ * All numbers are big-endian. A file consists of
+ * <ul>
+ *     <li>a header: the magic bytes "FCDZ" and the format version, each as an int;</li>
+ *     <li>the blocks: for each up to {@link #BLOCK_SIZE} bytes of the text deck, the
+ *     length of the compressed block, the length of the text it holds and the CRC32C of
+ *     the compressed bytes, each as an int, followed by the raw deflate stream;</li>
+ *     <li>a trailer: a compressed length of 0 and the total length of the text as a long.</li>
+ * </ul>
+ * Both directions stream one block at a time, so memory does not grow with the deck.
+ * Before handing out any text, reading checks the checksum of every block and the
+ * trailer in a first pass over the compressed bytes, which needs no inflating,
+ * so a damaged or truncated file is rejected before any card is loaded.
+ */
+public final class CompressedDeckFormat {
+
+    /**
+     * The magic bytes "FCDZ" opening every compressed deck.
+     */
+    static final int MAGIC = 0x4643445A;
+
+    /**
+     * The current format version.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The largest number of text bytes in one block.
+     */
+    static final int BLOCK_SIZE = 1 << 20;
+
+    private CompressedDeckFormat() {
+    }
+
+    /**
+     * Opens a compressed deck file for writing, replacing its previous content.
+     * The text written to the stream is compressed block by block; the file is complete
+     * once the stream has been closed.
+     *
+     * @param file  the destination file
+     * @param level the compression level, from {@link Deflater#NO_COMPRESSION} to
+     *              {@link Deflater#BEST_COMPRESSION}, or {@link Deflater#DEFAULT_COMPRESSION}
+     * @return the stream of the text deck
+     * @throws IOException if the file cannot be created
+     */
+    public static OutputStream newOutputStream(final Path file, final int level) throws IOException {
+        return new BlockOutputStream(Files.newOutputStream(file), level);
+    }
+
+    /**
+     * Opens a compressed deck file for reading after checking every block.
+     *
+     * @param file the compressed deck file
+     * @return the stream of the text deck
+     * @throws CorruptDeckException if the file is not a complete, undamaged compressed deck
+     * @throws IOException          if the file cannot be read
+     */
+    public static InputStream newInputStream(final Path file) throws IOException {
+        verify(file);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        in.skipNBytes(2 * Integer.BYTES);
+        return new BlockInputStream(in, file);
+    }
+
+    /**
+     * Checks the header, the checksum of every block and the trailer of a compressed deck file.
+     *
+     * @param file the compressed deck file
+     * @throws CorruptDeckException if the file is damaged or truncated
+     * @throws IOException          if the file cannot be read
+     */
+    static void verify(final Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new CorruptDeckException(file + " is not a compressed deck.");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new CorruptDeckException(file + " uses unsupported format version " + version + ".");
+            }
+            byte[] block = new byte[0];
+            CRC32C crc = new CRC32C();
+            long textLength = 0;
+            int blocks = 0;
+            while (true) {
+                int compressedLength = in.readInt();
+                if (compressedLength == 0) {
+                    break;
+                }
+                int length = in.readInt();
+                int checksum = in.readInt();
+                blocks++;
+                if (compressedLength < 0 || length <= 0 || length > BLOCK_SIZE
+                        || compressedLength > maxCompressedLength(BLOCK_SIZE)) {
+                    throw new CorruptDeckException("Block " + blocks + " of " + file + " has an invalid length.");
+                }
+                if (block.length < compressedLength) {
+                    block = new byte[compressedLength];
+                }
+                in.readFully(block, 0, compressedLength);
+                crc.reset();
+                crc.update(block, 0, compressedLength);
+                if ((int) crc.getValue() != checksum) {
+                    throw new CorruptDeckException("Block " + blocks + " of " + file + " fails its checksum.");
+                }
+                textLength += length;
+            }
+            if (in.readLong() != textLength || in.read() != -1) {
+                throw new CorruptDeckException("The trailer of " + file + " does not match its blocks.");
+            }
+        } catch (EOFException e) {
+            throw new CorruptDeckException(file + " ends in the middle of a block.");
+        }
+    }
+
+    /**
+     * Reads the total length of the text held by a verified compressed deck file from its trailer.
+     *
+     * @param file the compressed deck file
+     * @return the number of text bytes
+     * @throws IOException if the file cannot be read
+     */
+    static long textLength(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer trailer = ByteBuffer.allocate(Long.BYTES);
+            channel.read(trailer, channel.size() - Long.BYTES);
+            return trailer.getLong(0);
+        }
+    }
+
+    /**
+     * Returns an upper bound of the compressed size of a block, with room for the
+     * few bytes deflate adds to incompressible data.
+     *
+     * @param length the length of the text in the block
+     * @return the largest possible compressed length
+     */
+    private static int maxCompressedLength(final int length) {
+        return length + (length >> 12) + (length >> 14) + (length >> 25) + 64;
+    }
+
+    /**
+     * Deflates the text written to it in blocks of {@link #BLOCK_SIZE} bytes.
+     */
+    private static final class BlockOutputStream extends OutputStream {
+
+        /**
+         * The framed file.
+         */
+        private final DataOutputStream out;
+
+        /**
+         * The compressor, reset for every block.
+         */
+        private final Deflater deflater;
+
+        /**
+         * The text of the block being filled.
+         */
+        private final byte[] text = new byte[BLOCK_SIZE];
+
+        /**
+         * The compressed bytes of the last block.
+         */
+        private final byte[] compressed = new byte[maxCompressedLength(BLOCK_SIZE)];
+
+        /**
+         * The checksum of the compressed bytes of the last block.
+         */
+        private final CRC32C crc = new CRC32C();
+
+        /**
+         * The number of text bytes in the block being filled.
+         */
+        private int filled;
+
+        /**
+         * The number of text bytes in all blocks written.
+         */
+        private long textLength;
+
+        /**
+         * Whether the stream has been closed.
+         */
+        private boolean closed;
+
+        /**
+         * Constructs the stream and writes the header.
+         *
+         * @param file  the stream of the file
+         * @param level the compression level
+         * @throws IOException if the header cannot be written
+         */
+        BlockOutputStream(final OutputStream file, final int level) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+            this.deflater = new Deflater(level, true);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (filled == text.length) {
+                writeBlock();
+            }
+            text[filled++] = (byte) b;
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            int from = offset;
+            int remaining = length;
+            while (remaining > 0) {
+                if (filled == text.length) {
+                    writeBlock();
+                }
+                int chunk = Math.min(remaining, text.length - filled);
+                System.arraycopy(bytes, from, text, filled, chunk);
+                filled += chunk;
+                from += chunk;
+                remaining -= chunk;
+            }
+        }
+
+        /**
+         * Compresses the block being filled and writes it with its frame.
+         *
+         * @throws IOException if the block cannot be written
+         */
+        private void writeBlock() throws IOException {
+            deflater.reset();
+            deflater.setInput(text, 0, filled);
+            deflater.finish();
+            int compressedLength = 0;
+            while (!deflater.finished()) {
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+            crc.reset();
+            crc.update(compressed, 0, compressedLength);
+            out.writeInt(compressedLength);
+            out.writeInt(filled);
+            out.writeInt((int) crc.getValue());
+            out.write(compressed, 0, compressedLength);
+            textLength += filled;
+            filled = 0;
+        }
+
+        /**
+         * Writes the last block and the trailer, and closes the file.
+         *
+         * @throws IOException if they cannot be written
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try (out) {
+                if (filled > 0) {
+                    writeBlock();
+                }
+                out.writeInt(0);
+                out.writeLong(textLength);
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Inflates the blocks of a verified file one at a time.
+     */
+    private static final class BlockInputStream extends InputStream {
+
+        /**
+         * The framed file, positioned at the next block.
+         */
+        private final DataInputStream in;
+
+        /**
+         * The file, used in error messages.
+         */
+        private final Path file;
+
+        /**
+         * The decompressor, reset for every block.
+         */
+        private final Inflater inflater = new Inflater(true);
+
+        /**
+         * The compressed bytes of the current block.
+         */
+        private byte[] compressed = new byte[0];
+
+        /**
+         * The text of the current block, with one byte to spare to notice blocks
+         * that inflate to more than their length.
+         */
+        private final byte[] text = new byte[BLOCK_SIZE + 1];
+
+        /**
+         * The number of text bytes in the current block.
+         */
+        private int length;
+
+        /**
+         * The position of the next byte to hand out in the current block.
+         */
+        private int position;
+
+        /**
+         * Whether the trailer has been reached.
+         */
+        private boolean ended;
+
+        /**
+         * Constructs the stream.
+         *
+         * @param newIn   the framed file, positioned at the first block
+         * @param newFile the file, used in error messages
+         */
+        BlockInputStream(final DataInputStream newIn, final Path newFile) {
+            this.in = newIn;
+            this.file = newFile;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == length && !nextBlock()) {
+                return -1;
+            }
+            return text[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int count) throws IOException {
+            if (count == 0) {
+                return 0;
+            }
+            if (position == length && !nextBlock()) {
+                return -1;
+            }
+            int chunk = Math.min(count, length - position);
+            System.arraycopy(text, position, bytes, offset, chunk);
+            position += chunk;
+            return chunk;
+        }
+
+        /**
+         * Reads and inflates the next block.
+         *
+         * @return false if the trailer has been reached
+         * @throws IOException if the block cannot be read or inflated
+         */
+        private boolean nextBlock() throws IOException {
+            if (ended) {
+                return false;
+            }
+            int compressedLength = in.readInt();
+            if (compressedLength == 0) {
+                ended = true;
+                return false;
+            }
+            int textLength = in.readInt();
+            in.readInt();
+            if (compressed.length < compressedLength) {
+                compressed = new byte[compressedLength];
+            }
+            in.readFully(compressed, 0, compressedLength);
+            inflater.reset();
+            inflater.setInput(compressed, 0, compressedLength);
+            try {
+                int inflated = 0;
+                while (!inflater.finished() && !inflater.needsInput() && inflated < text.length) {
+                    inflated += inflater.inflate(text, inflated, text.length - inflated);
+                }
+                if (inflated != textLength || !inflater.finished()) {
+                    throw new CorruptDeckException("A block of " + file + " does not inflate to its length.");
+                }
+            } catch (DataFormatException e) {
+                throw new CorruptDeckException("A block of " + file + " cannot be inflated: " + e.getMessage());
+            }
+            length = textLength;
+            position = 0;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package flashcards;
+
+import java.io.PrintStream;
+
+/**
+ * The destination of everything a deck prints: prompts, results and messages.
+ * Implementations decide when text actually reaches the user. Callers report
+ * through {@link #awaitingInput()} when they are about to wait for an answer,
+ * so buffered output can hold back text until the user has to see it.
+ */
+public interface ConsoleOutput {
+
+    /**
+     * Prints straight to whatever {@code System.out} is at the time of printing.
+     */
+    ConsoleOutput STANDARD = new PrintStreamOutput(null);
+
+    /**
+     * Discards everything, for runs where nobody reads the output.
+     */
+    ConsoleOutput NONE = new ConsoleOutput() {
+        @Override
+        public void print(final String text) {
+        }
+
+        @Override
+        public void printf(final String format, final Object... args) {
+        }
+
+        @Override
+        public void flush() {
+        }
+    };
+
+    /**
+     * Returns an output printing straight to a stream.
+     *
+     * @param stream the stream
+     * @return the unbuffered output
+     */
+    static ConsoleOutput of(final PrintStream stream) {
+        return new PrintStreamOutput(stream);
+    }
+
+    /**
+     * Prints text.
+     *
+     * @param text the text
+     */
+    void print(String text);
+
+    /**
+     * Prints formatted text, as {@link PrintStream#printf(String, Object...)} does.
+     *
+     * @param format the format
+     * @param args   the arguments of the format
+     */
+    void printf(String format, Object... args);
+
+    /**
+     * Makes sure everything printed so far has been written.
+     */
+    void flush();
+
+    /**
+     * Prints text followed by a line separator.
+     *
+     * @param text the text
+     */
+    default void println(final String text) {
+        print(text + System.lineSeparator());
+    }
+
+    /**
+     * Prints a line separator.
+     */
+    default void println() {
+        print(System.lineSeparator());
+    }
+
+    /**
+     * Called before the program waits for input. Prompts must be visible by then,
+     * so the default flushes.
+     */
+    default void awaitingInput() {
+        flush();
+    }
+}
@@ -0,0 +1,20 @@
+package flashcards;
+
+import java.io.IOException;
+
+/**
+ * Signals that a deck file exists but its content is damaged or not in the expected format.
+ */
+public class CorruptDeckException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs the exception with a message describing the damage.
+     *
+     * @param message what is wrong with the deck file
+     */
+    public CorruptDeckException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,155 @@
+package flashcards;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the cards changed since the deck was last written to or loaded from a base file,
+ * so that a delta export only has to write those cards.
+ * Nothing is tracked until a base is set, so loading a deck costs nothing extra.
+ * The base is identified by its size and modification time, and a delta can only be
+ * appended while the base is still the file the deck was written to.
+ * All methods are synchronized, so sessions sharing a deck can record changes concurrently.
+ */
+class DeckChanges {
+
+    /**
+     * The changed cards, each mapped to the instance that changed last.
+     * An instance no longer in the deck stands for a removed card.
+     */
+    private final Map<FlashCard, FlashCard> cards = new HashMap<>();
+
+    /**
+     * Whether the mistake counts of all cards have been reset since the base was written.
+     */
+    private boolean statsReset;
+
+    /**
+     * The base file, or null while no changes are tracked.
+     */
+    private Path base;
+
+    /**
+     * The size of the base file when it was written.
+     */
+    private long baseSize;
+
+    /**
+     * The modification time of the base file when it was written.
+     */
+    private FileTime baseModified;
+
+    /**
+     * Whether a delta has been appended to the base since it was written.
+     */
+    private boolean deltaWritten;
+
+    /**
+     * The number of changes recorded since the deck was created, tracked or not.
+     */
+    private long modifications;
+
+    /**
+     * Records a card added, removed or changed.
+     *
+     * @param flashCard the card
+     */
+    synchronized void changed(final FlashCard flashCard) {
+        modifications++;
+        if (base != null) {
+            cards.put(flashCard, flashCard);
+        }
+    }
+
+    /**
+     * Records the mistake counts of all cards being reset.
+     */
+    synchronized void statsReset() {
+        modifications++;
+        if (base != null) {
+            statsReset = true;
+        }
+    }
+
+    /**
+     * Returns the number of changes recorded since the deck was created, including those
+     * recorded while no base was set, so that a loader can tell whether anyone else
+     * changed the deck while it was loading.
+     *
+     * @return the number of changes
+     */
+    synchronized long modifications() {
+        return modifications;
+    }
+
+    /**
+     * Starts tracking changes against a base file that now holds the whole deck.
+     * Changes recorded so far are forgotten.
+     *
+     * @param file the base file
+     * @throws IOException if the attributes of the file cannot be read
+     */
+    synchronized void rebase(final Path file) throws IOException {
+        cards.clear();
+        statsReset = false;
+        deltaWritten = Files.exists(DeckJournal.journalOf(file));
+        baseSize = Files.size(file);
+        baseModified = Files.getLastModifiedTime(file);
+        base = file.toAbsolutePath();
+    }
+
+    /**
+     * Stops tracking changes, so that the next delta export has to write the whole deck.
+     */
+    synchronized void forgetBase() {
+        cards.clear();
+        statsReset = false;
+        base = null;
+    }
+
+    /**
+     * Tells whether a delta can be appended to a file: it must be the base, unchanged
+     * since it was written, and still have every delta appended to it before.
+     *
+     * @param file the file
+     * @return true if the changes since the base can be appended to the file
+     * @throws IOException if the attributes of the file cannot be read
+     */
+    synchronized boolean canAppendTo(final Path file) throws IOException {
+        return base != null && base.equals(file.toAbsolutePath())
+                && Files.exists(file)
+                && Files.size(file) == baseSize
+                && Files.getLastModifiedTime(file).equals(baseModified)
+                && (!deltaWritten || Files.exists(DeckJournal.journalOf(file)));
+    }
+
+    /**
+     * Takes the changes recorded so far, as they are about to be appended to the base.
+     *
+     * @return the last changed instance of every changed card
+     */
+    synchronized List<FlashCard> drain() {
+        List<FlashCard> changed = new ArrayList<>(cards.values());
+        cards.clear();
+        deltaWritten = true;
+        return changed;
+    }
+
+    /**
+     * Takes the reset of all mistake counts, if one was recorded, as it is about to be
+     * appended to the base. Must be called before {@link #drain()}.
+     *
+     * @return true if the mistake counts were reset since the last delta
+     */
+    synchronized boolean drainStatsReset() {
+        boolean reset = statsReset;
+        statsReset = false;
+        return reset;
+    }
+}
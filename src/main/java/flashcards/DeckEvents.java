@@ -0,0 +1,238 @@
+package flashcards;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The Java Flight Recorder events of the deck, which place imports, exports, quiz answers,
+ * resets and log flushes on the timeline of a recording. Every event is disabled by default,
+ * so an event that is not recorded costs no more than allocating it, which the JIT removes;
+ * the {@code flashcards.jfc} settings profile at the root of the project enables them all.
+ */
+final class DeckEvents {
+
+    /**
+     * The category the events are listed under in JDK Mission Control.
+     */
+    private static final String CATEGORY = "Flashcards";
+
+    /**
+     * Not instantiable.
+     */
+    private DeckEvents() {
+    }
+
+    /**
+     * Returns the size of a file for an event, without failing the operation it records.
+     *
+     * @param file the file
+     * @return its size in bytes, or -1 if it cannot be read
+     */
+    static long sizeOf(final Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * A deck file loaded or merged into the deck.
+     */
+    @Name("flashcards.DeckImport")
+    @Label("Deck Import")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Import extends Event {
+
+        /**
+         * The deck file.
+         */
+        @Label("File")
+        String file;
+
+        /**
+         * The number of cards read from the file.
+         */
+        @Label("Cards")
+        long cards;
+
+        /**
+         * The size of the file.
+         */
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        /**
+         * Whether the file was merged by term instead of loaded.
+         */
+        @Label("Merge")
+        boolean merge;
+
+        /**
+         * Whether the file was loaded on a worker thread.
+         */
+        @Label("Background")
+        boolean background;
+
+        /**
+         * Ends the event and commits it with the size of the deck file, if it is recorded.
+         *
+         * @param deckFile the deck file
+         */
+        void commit(final String deckFile) {
+            if (shouldCommit()) {
+                file = deckFile;
+                bytes = sizeOf(Path.of(deckFile));
+                commit();
+            }
+        }
+    }
+
+    /**
+     * The deck saved to a file, in full or as a delta.
+     */
+    @Name("flashcards.DeckExport")
+    @Label("Deck Export")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Export extends Event {
+
+        /**
+         * The deck file.
+         */
+        @Label("File")
+        String file;
+
+        /**
+         * The number of cards written.
+         */
+        @Label("Cards")
+        long cards;
+
+        /**
+         * The size of the written file.
+         */
+        @Label("Bytes")
+        @Description("The size of the deck file, or of its delta for delta exports")
+        @DataAmount
+        long bytes;
+
+        /**
+         * Whether only the changed cards were appended to the delta of the file.
+         */
+        @Label("Delta")
+        boolean delta;
+
+        /**
+         * Ends the event and commits it with the size of the written file, if it is recorded.
+         *
+         * @param deckFile    the deck file
+         * @param writtenFile the file written, which is the delta of the deck file for delta exports
+         */
+        void commit(final String deckFile, final Path writtenFile) {
+            if (shouldCommit()) {
+                file = deckFile;
+                bytes = sizeOf(writtenFile);
+                commit();
+            }
+        }
+    }
+
+    /**
+     * One quiz question, from asking it to grading the answer.
+     */
+    @Name("flashcards.QuizAnswer")
+    @Label("Quiz Answer")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class QuizAnswer extends Event {
+
+        /**
+         * The term asked.
+         */
+        @Label("Term")
+        String term;
+
+        /**
+         * The time the user took to answer.
+         */
+        @Label("Answer Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        long answerLatency;
+
+        /**
+         * Whether the answer was accepted.
+         */
+        @Label("Correct")
+        boolean correct;
+
+        /**
+         * Whether the answer was exactly the definition.
+         */
+        @Label("Exact")
+        boolean exact;
+    }
+
+    /**
+     * The mistake counts of the deck reset.
+     */
+    @Name("flashcards.StatsReset")
+    @Label("Stats Reset")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Reset extends Event {
+
+        /**
+         * The number of cards in the deck.
+         */
+        @Label("Cards")
+        long cards;
+    }
+
+    /**
+     * Log lines written by a {@link LogSink} flushed to its file.
+     */
+    @Name("flashcards.LogFlush")
+    @Label("Log Flush")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    static final class LogFlush extends Event {
+
+        /**
+         * The log file.
+         */
+        @Label("File")
+        String file;
+
+        /**
+         * The number of lines written since the last flush.
+         */
+        @Label("Lines")
+        long lines;
+
+        /**
+         * The number of bytes written since the last flush.
+         */
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+}
@@ -0,0 +1,60 @@
+package flashcards;
+
+import java.util.Locale;
+
+/**
+ * The file formats decks can be imported from and exported to.
+ */
+public enum DeckFormat {
+
+    /**
+     * One card per line as term&&definition&&mistakes.
+     */
+    TEXT,
+
+    /**
+     * The compact binary format written by {@link BinaryDeckFormat}.
+     */
+    BINARY,
+
+    /**
+     * The text format compressed in checksummed blocks by {@link CompressedDeckFormat}.
+     */
+    COMPRESSED;
+
+    /**
+     * The file extension that selects the binary format.
+     */
+    static final String BINARY_EXTENSION = ".fcb";
+
+    /**
+     * The file extension that selects the compressed format.
+     */
+    static final String COMPRESSED_EXTENSION = ".fcz";
+
+    /**
+     * Picks the format of a deck file by its extension.
+     *
+     * @param fileName the name of the deck file
+     * @return {@link #BINARY} for ".fcb" files, {@link #COMPRESSED} for ".fcz" files,
+     * {@link #TEXT} otherwise
+     */
+    public static DeckFormat forFile(final String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(BINARY_EXTENSION)) {
+            return BINARY;
+        }
+        return name.endsWith(COMPRESSED_EXTENSION) ? COMPRESSED : TEXT;
+    }
+
+    /**
+     * Looks a format up by its name, ignoring case.
+     *
+     * @param name the name of the format, such as "text", "binary" or "compressed"
+     * @return the matching format
+     * @throws IllegalArgumentException if there is no format with that name
+     */
+    public static DeckFormat fromName(final String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,565 @@
+package flashcards;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only write-ahead journal of deck changes, kept next to a deck snapshot.
+ * Changes are encoded into an in-memory batch and written to the journal file by a
+ * background thread that forces them to disk once per sync interval (group commit),
+ * so recording a change never waits for the disk.
+ *
+ * <p>Every record is framed as its payload length, the CRC32 of the payload and the
+ * payload itself. The first record of a journal identifies the snapshot it applies to
+ * by the snapshot's size and modification time. Replay stops at the first torn or
+ * damaged record, and a journal whose snapshot has since been replaced is ignored.
+ */
+public class DeckJournal implements Closeable {
+
+    /**
+     * The suffix appended to a snapshot file name to name its journal.
+     */
+    public static final String SUFFIX = ".journal";
+
+    /**
+     * The default interval between group commits in milliseconds.
+     */
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 1000;
+
+    /**
+     * The number of pending bytes that triggers an immediate write.
+     */
+    static final int MAX_PENDING_BYTES = 1 << 20;
+
+    /**
+     * Record type identifying the snapshot a journal applies to.
+     */
+    static final byte SNAPSHOT = 0;
+
+    /**
+     * Record type of a card added to the deck.
+     */
+    static final byte CARD_ADDED = 1;
+
+    /**
+     * Record type of a card removed from the deck.
+     */
+    static final byte CARD_REMOVED = 2;
+
+    /**
+     * Record type of a mistake counted against a card.
+     */
+    static final byte MISTAKE_INCREASED = 3;
+
+    /**
+     * Record type of the mistake counts of all cards being reset.
+     */
+    static final byte STATS_RESET = 4;
+
+    /**
+     * Record type of the new review state of an answered card.
+     */
+    static final byte CARD_REVIEWED = 5;
+
+    /**
+     * Applies replayed journal records to a deck.
+     */
+    public interface Replayer {
+        /**
+         * Re-adds a card.
+         *
+         * @param term       the term of the card
+         * @param definition the definition of the card
+         * @param mistakes   the mistake count of the card when it was added
+         */
+        void cardAdded(String term, String definition, int mistakes);
+
+        /**
+         * Removes a card again.
+         *
+         * @param term       the term of the card
+         * @param definition the definition of the card
+         */
+        void cardRemoved(String term, String definition);
+
+        /**
+         * Counts a mistake against a card again.
+         *
+         * @param term       the term of the card
+         * @param definition the definition of the card
+         */
+        void mistakeIncreased(String term, String definition);
+
+        /**
+         * Resets the mistake counts of all cards again.
+         */
+        void statsReset();
+
+        /**
+         * Restores the review state of an answered card.
+         *
+         * @param term       the term of the card
+         * @param definition the definition of the card
+         * @param review     the review state after the answer
+         */
+        void cardReviewed(String term, String definition, ReviewState review);
+    }
+
+    /**
+     * The snapshot the journal applies to.
+     */
+    private final Path snapshot;
+
+    /**
+     * The open journal file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Records waiting to be written, in their framed form.
+     */
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+
+    /**
+     * The payload of the record being encoded.
+     */
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+
+    /**
+     * A data view of {@link #payload}.
+     */
+    private final DataOutputStream payloadData = new DataOutputStream(payload);
+
+    /**
+     * Runs the periodic group commits.
+     */
+    private final ScheduledExecutorService syncer;
+
+    /**
+     * The number of change records since the journal was opened or last truncated.
+     */
+    private long records;
+
+    /**
+     * The failure of the last background sync, reported by the next call.
+     */
+    private IOException syncFailure;
+
+    /**
+     * Opens the journal of a snapshot for appending, creating it if needed.
+     * A torn record left at the end by a crash is cut off first, and a journal that
+     * belongs to an older snapshot is discarded.
+     *
+     * @param newSnapshot        the snapshot file the journal belongs to
+     * @param syncIntervalMillis the interval between group commits in milliseconds
+     * @throws IOException if the journal cannot be opened
+     */
+    public DeckJournal(final Path newSnapshot, final long syncIntervalMillis) throws IOException {
+        this.snapshot = newSnapshot;
+        Path file = journalOf(newSnapshot);
+        long validLength = Files.exists(file) ? scan(file, newSnapshot, null) : 0;
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        channel.truncate(validLength);
+        channel.position(validLength);
+        if (validLength == 0) {
+            startFromSnapshot();
+        }
+
+        this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "deck-journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleAtFixedRate(this::backgroundSync, syncIntervalMillis, syncIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Names the journal file of a snapshot.
+     *
+     * @param snapshot the snapshot file
+     * @return the journal file next to it
+     */
+    public static Path journalOf(final Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Replays the journal of a snapshot, if it has one that applies to it.
+     *
+     * @param snapshot the snapshot file that has just been loaded
+     * @param replayer the deck to apply the records to
+     * @return the number of change records replayed
+     * @throws IOException if the journal exists but cannot be read
+     */
+    public static long replay(final Path snapshot, final Replayer replayer) throws IOException {
+        Path file = journalOf(snapshot);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        long[] replayed = new long[1];
+        scan(file, snapshot, new Replayer() {
+            @Override
+            public void cardAdded(final String term, final String definition, final int mistakes) {
+                replayed[0]++;
+                replayer.cardAdded(term, definition, mistakes);
+            }
+
+            @Override
+            public void cardRemoved(final String term, final String definition) {
+                replayed[0]++;
+                replayer.cardRemoved(term, definition);
+            }
+
+            @Override
+            public void mistakeIncreased(final String term, final String definition) {
+                replayed[0]++;
+                replayer.mistakeIncreased(term, definition);
+            }
+
+            @Override
+            public void statsReset() {
+                replayed[0]++;
+                replayer.statsReset();
+            }
+
+            @Override
+            public void cardReviewed(final String term, final String definition, final ReviewState review) {
+                replayed[0]++;
+                replayer.cardReviewed(term, definition, review);
+            }
+        });
+        return replayed[0];
+    }
+
+    /**
+     * Records a card added to the deck.
+     *
+     * @param flashCard the added card
+     * @throws IOException if an earlier write failed or the batch could not be written
+     */
+    public synchronized void cardAdded(final FlashCard flashCard) throws IOException {
+        beginRecord(CARD_ADDED);
+        writeString(flashCard.getTerm());
+        writeString(flashCard.getDefinition());
+        payloadData.writeInt(flashCard.getMistakes());
+        endRecord();
+    }
+
+    /**
+     * Records a card removed from the deck.
+     *
+     * @param flashCard the removed card
+     * @throws IOException if an earlier write failed or the batch could not be written
+     */
+    public synchronized void cardRemoved(final FlashCard flashCard) throws IOException {
+        beginRecord(CARD_REMOVED);
+        writeString(flashCard.getTerm());
+        writeString(flashCard.getDefinition());
+        endRecord();
+    }
+
+    /**
+     * Records a mistake counted against a card.
+     *
+     * @param flashCard the card answered wrongly
+     * @throws IOException if an earlier write failed or the batch could not be written
+     */
+    public synchronized void mistakeIncreased(final FlashCard flashCard) throws IOException {
+        beginRecord(MISTAKE_INCREASED);
+        writeString(flashCard.getTerm());
+        writeString(flashCard.getDefinition());
+        endRecord();
+    }
+
+    /**
+     * Records the mistake counts of all cards being reset.
+     *
+     * @throws IOException if an earlier write failed or the batch could not be written
+     */
+    public synchronized void statsReset() throws IOException {
+        beginRecord(STATS_RESET);
+        endRecord();
+    }
+
+    /**
+     * Records the review state of a card after it has been answered.
+     *
+     * @param flashCard the answered card
+     * @throws IOException if an earlier write failed or the batch could not be written
+     */
+    public synchronized void cardReviewed(final FlashCard flashCard) throws IOException {
+        ReviewState review = flashCard.getReview();
+        beginRecord(CARD_REVIEWED);
+        writeString(flashCard.getTerm());
+        writeString(flashCard.getDefinition());
+        payloadData.writeInt(review.getEase());
+        payloadData.writeInt(review.getInterval());
+        payloadData.writeInt(review.getRepetitions());
+        payloadData.writeLong(review.getDue());
+        endRecord();
+    }
+
+    /**
+     * Returns the number of change records since the journal was opened or last truncated.
+     *
+     * @return the number of records appended since then
+     */
+    public synchronized long size() {
+        return records;
+    }
+
+    /**
+     * Writes all pending records and forces them to disk.
+     *
+     * @throws IOException if the records cannot be written
+     */
+    public synchronized void sync() throws IOException {
+        if (syncFailure != null) {
+            IOException failure = syncFailure;
+            syncFailure = null;
+            throw failure;
+        }
+        if (pending.size() == 0) {
+            return;
+        }
+        writePending();
+        channel.force(false);
+    }
+
+    /**
+     * Empties the journal after a new snapshot has been written,
+     * dropping pending records that the snapshot already contains.
+     *
+     * @throws IOException if the journal cannot be truncated
+     */
+    public synchronized void truncate() throws IOException {
+        pending.reset();
+        channel.truncate(0);
+        channel.position(0);
+        records = 0;
+        startFromSnapshot();
+    }
+
+    /**
+     * Stops the background syncs, writes all pending records and closes the journal.
+     *
+     * @throws IOException if the pending records cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        syncer.shutdown();
+        synchronized (this) {
+            try {
+                sync();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Writes the record identifying the current snapshot and forces it to disk.
+     *
+     * @throws IOException if the record cannot be written
+     */
+    private void startFromSnapshot() throws IOException {
+        beginRecord(SNAPSHOT);
+        long[] identity = identify(snapshot);
+        payloadData.writeLong(identity[0]);
+        payloadData.writeLong(identity[1]);
+        endRecord();
+        records--;
+        writePending();
+        channel.force(false);
+    }
+
+    /**
+     * Runs one group commit on the background thread.
+     */
+    private synchronized void backgroundSync() {
+        if (syncFailure != null) {
+            return;
+        }
+        try {
+            sync();
+        } catch (IOException e) {
+            syncFailure = e;
+        }
+    }
+
+    /**
+     * Starts encoding a record.
+     *
+     * @param type the record type
+     * @throws IOException if an earlier background write failed
+     */
+    private void beginRecord(final byte type) throws IOException {
+        if (syncFailure != null) {
+            sync();
+        }
+        payload.reset();
+        payloadData.writeByte(type);
+    }
+
+    /**
+     * Frames the encoded record and adds it to the pending batch.
+     *
+     * @throws IOException if the batch had to be written and that failed
+     */
+    private void endRecord() throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] bytes = payload.toByteArray();
+        crc.update(bytes);
+        DataOutputStream out = new DataOutputStream(pending);
+        out.writeInt(bytes.length);
+        out.writeInt((int) crc.getValue());
+        out.write(bytes);
+        records++;
+        if (pending.size() >= MAX_PENDING_BYTES) {
+            writePending();
+        }
+    }
+
+    /**
+     * Writes the pending batch to the journal file without forcing it to disk.
+     *
+     * @throws IOException if the batch cannot be written
+     */
+    private void writePending() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        pending.reset();
+    }
+
+    /**
+     * Encodes a string as its UTF-8 byte length followed by the bytes.
+     *
+     * @param value the string to encode
+     * @throws IOException never, the payload lives in memory
+     */
+    private void writeString(final String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        payloadData.writeInt(bytes.length);
+        payloadData.write(bytes);
+    }
+
+    /**
+     * Identifies a snapshot by its size and modification time.
+     *
+     * @param snapshot the snapshot file
+     * @return the size and modification time, or -1 twice if the file does not exist
+     * @throws IOException if the file attributes cannot be read
+     */
+    private static long[] identify(final Path snapshot) throws IOException {
+        if (!Files.exists(snapshot)) {
+            return new long[] {-1, -1};
+        }
+        return new long[] {Files.size(snapshot), Files.getLastModifiedTime(snapshot).toMillis()};
+    }
+
+    /**
+     * Reads a journal, handing its change records to the replayer if one is given.
+     *
+     * @param file     the journal file
+     * @param snapshot the snapshot the journal should apply to
+     * @param replayer the destination of the records, or null to only validate them
+     * @return the length of the valid prefix of the journal, or 0 if it belongs to another snapshot
+     * @throws IOException if the journal cannot be read
+     */
+    private static long scan(final Path file, final Path snapshot, final Replayer replayer) throws IOException {
+        long valid = 0;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            DataInputStream data = new DataInputStream(in);
+            boolean first = true;
+            while (true) {
+                byte[] bytes;
+                try {
+                    int length = data.readInt();
+                    int checksum = data.readInt();
+                    if (length <= 0 || length > MAX_PENDING_BYTES * 64) {
+                        break;
+                    }
+                    bytes = new byte[length];
+                    data.readFully(bytes);
+                    CRC32 crc = new CRC32();
+                    crc.update(bytes);
+                    if ((int) crc.getValue() != checksum) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(bytes));
+                byte type = record.readByte();
+                if (first) {
+                    long[] identity = identify(snapshot);
+                    if (type != SNAPSHOT || record.readLong() != identity[0] || record.readLong() != identity[1]) {
+                        return 0;
+                    }
+                    first = false;
+                } else if (replayer != null) {
+                    apply(type, record, replayer);
+                }
+                valid += 2L * Integer.BYTES + bytes.length;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Hands one change record to the replayer.
+     *
+     * @param type     the record type
+     * @param record   the rest of the payload
+     * @param replayer the destination of the record
+     * @throws IOException if the payload is truncated
+     */
+    private static void apply(final byte type, final DataInputStream record, final Replayer replayer)
+            throws IOException {
+        switch (type) {
+            case CARD_ADDED -> replayer.cardAdded(readString(record), readString(record), record.readInt());
+            case CARD_REMOVED -> replayer.cardRemoved(readString(record), readString(record));
+            case MISTAKE_INCREASED -> replayer.mistakeIncreased(readString(record), readString(record));
+            case STATS_RESET -> replayer.statsReset();
+            case CARD_REVIEWED -> replayer.cardReviewed(readString(record), readString(record),
+                    new ReviewState(record.readInt(), record.readInt(), record.readInt(), record.readLong()));
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Decodes a string written by {@link #writeString(String)}.
+     *
+     * @param record the payload being decoded
+     * @return the decoded string
+     * @throws IOException if the payload is truncated
+     */
+    private static String readString(final DataInputStream record) throws IOException {
+        byte[] bytes = new byte[record.readInt()];
+        record.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
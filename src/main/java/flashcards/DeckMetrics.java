@@ -0,0 +1,256 @@
+package flashcards;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Counts and times the operations on a deck and the commands run on it, each in its own
+ * {@link LatencyHistogram}. Deck operations are timed from the moment their input has been
+ * read, so they measure the deck and not the user; commands are timed as a whole.
+ * Recording costs two clock reads and a few atomic increments, and every method may be
+ * called from any session's thread.
+ */
+public final class DeckMetrics implements DeckMetricsMXBean {
+
+    /**
+     * The name the metrics are registered under with the platform MBean server.
+     */
+    public static final String OBJECT_NAME = "flashcards:type=DeckMetrics";
+
+    /**
+     * The operation of loading or merging a deck file.
+     */
+    static final String IMPORT = "import";
+
+    /**
+     * The operation of saving the deck, in full or as a delta.
+     */
+    static final String EXPORT = "export";
+
+    /**
+     * The operation of adding a card.
+     */
+    static final String ADD = "add";
+
+    /**
+     * The operation of removing a card.
+     */
+    static final String REMOVE = "remove";
+
+    /**
+     * The operation of grading one quiz answer.
+     */
+    static final String ASK = "ask";
+
+    /**
+     * The lookup of the card a wrong quiz answer belongs to.
+     */
+    static final String WRONG_ANSWER_LOOKUP = "wrong answer lookup";
+
+    /**
+     * The operation of resetting every mistake count.
+     */
+    static final String RESET = "reset stats";
+
+    /**
+     * The prefix of the names under which commands are recorded.
+     */
+    static final String COMMAND_PREFIX = "command ";
+
+    /**
+     * The histogram read for operations that have not been recorded yet, which stays empty.
+     */
+    private static final LatencyHistogram EMPTY = new LatencyHistogram();
+
+    /**
+     * The histograms by operation or command name, created on first use.
+     */
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    /**
+     * The source of the number of cards in the deck.
+     */
+    private final LongSupplier cardCount;
+
+    /**
+     * The source of the estimated heap taken by the deck.
+     */
+    private final LongSupplier deckHeapBytes;
+
+    /**
+     * The clock operations are timed with, in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    /**
+     * The time the metrics were created.
+     */
+    private final long created;
+
+    /**
+     * Constructs the metrics of a deck.
+     *
+     * @param newCardCount     the source of the number of cards in the deck
+     * @param newDeckHeapBytes the source of the estimated heap taken by the deck
+     * @param newClock         the clock operations are timed with, in nanoseconds
+     */
+    DeckMetrics(final LongSupplier newCardCount, final LongSupplier newDeckHeapBytes, final LongSupplier newClock) {
+        this.cardCount = newCardCount;
+        this.deckHeapBytes = newDeckHeapBytes;
+        this.clock = newClock;
+        this.created = newClock.getAsLong();
+    }
+
+    /**
+     * Reads the clock at the start of an operation.
+     *
+     * @return the start time to pass to {@link #record(String, long)}
+     */
+    long start() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Records an operation or command that has just ended.
+     *
+     * @param name  the name of the operation or command
+     * @param start the time it started, as returned by {@link #start()}
+     */
+    void record(final String name, final long start) {
+        histogram(name).record(clock.getAsLong() - start);
+    }
+
+    /**
+     * Returns the histogram of an operation or command, creating it on first use.
+     *
+     * @param name the name of the operation or command
+     * @return its histogram
+     */
+    LatencyHistogram histogram(final String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        return histogram != null ? histogram : histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Returns the histogram of an operation or command without creating it.
+     *
+     * @param name the name of the operation or command
+     * @return its histogram, or an empty one if it has not been recorded yet
+     */
+    private LatencyHistogram recorded(final String name) {
+        return histograms.getOrDefault(name, EMPTY);
+    }
+
+    /**
+     * Returns the histograms of every operation and command recorded so far.
+     *
+     * @return the histograms sorted by name
+     */
+    SortedMap<String, LatencyHistogram> histograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server under {@link #OBJECT_NAME},
+     * replacing the metrics of any deck registered before.
+     *
+     * @throws JMException if the metrics cannot be registered
+     */
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        try {
+            server.registerMBean(this, name);
+        } catch (InstanceAlreadyExistsException e) {
+            server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        }
+    }
+
+    @Override
+    public long getCardCount() {
+        return cardCount.getAsLong();
+    }
+
+    @Override
+    public long getDeckHeapBytes() {
+        return deckHeapBytes.getAsLong();
+    }
+
+    @Override
+    public long getImportCount() {
+        return recorded(IMPORT).getCount();
+    }
+
+    @Override
+    public long getExportCount() {
+        return recorded(EXPORT).getCount();
+    }
+
+    @Override
+    public double getImportsPerSecond() {
+        return getImportCount() / uptimeSeconds();
+    }
+
+    @Override
+    public double getExportsPerSecond() {
+        return getExportCount() / uptimeSeconds();
+    }
+
+    @Override
+    public double getWrongAnswerLookupMeanMicros() {
+        return recorded(WRONG_ANSWER_LOOKUP).getMean() / 1000;
+    }
+
+    @Override
+    public double getWrongAnswerLookupP99Micros() {
+        return recorded(WRONG_ANSWER_LOOKUP).valueAt(99) / 1000.0;
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        histograms.forEach((name, histogram) -> counts.put(name, histogram.getCount()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Double> getMeanMicros() {
+        return micros(LatencyHistogram::getMean);
+    }
+
+    @Override
+    public Map<String, Double> getP99Micros() {
+        return micros(histogram -> histogram.valueAt(99));
+    }
+
+    /**
+     * Collects a statistic of every histogram in microseconds.
+     *
+     * @param statistic the statistic in nanoseconds
+     * @return the statistic by operation or command name
+     */
+    private Map<String, Double> micros(final ToDoubleFunction<LatencyHistogram> statistic) {
+        Map<String, Double> values = new TreeMap<>();
+        histograms.forEach((name, histogram) -> values.put(name, statistic.applyAsDouble(histogram) / 1000));
+        return values;
+    }
+
+    /**
+     * Returns the time since the metrics were created.
+     *
+     * @return the number of seconds, at least a nanosecond's worth
+     */
+    private double uptimeSeconds() {
+        return Math.max(1, clock.getAsLong() - created) / 1e9;
+    }
+}
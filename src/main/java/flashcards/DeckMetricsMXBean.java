@@ -0,0 +1,88 @@
+package flashcards;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link DeckMetrics}, registered with the platform MBean server
+ * as {@link DeckMetrics#OBJECT_NAME} so that the metrics of a running deck can be read with
+ * JConsole or any other JMX client. All times are in microseconds.
+ */
+public interface DeckMetricsMXBean {
+
+    /**
+     * Returns the number of cards in the deck.
+     *
+     * @return the number of cards
+     */
+    long getCardCount();
+
+    /**
+     * Returns an estimate of the heap taken by the cards of the deck and their index entries.
+     *
+     * @return the estimated number of bytes
+     */
+    long getDeckHeapBytes();
+
+    /**
+     * Returns the number of imports and merges since the deck was created.
+     *
+     * @return the number of imports
+     */
+    long getImportCount();
+
+    /**
+     * Returns the number of full and delta exports since the deck was created.
+     *
+     * @return the number of exports
+     */
+    long getExportCount();
+
+    /**
+     * Returns the average number of imports per second since the deck was created.
+     *
+     * @return the import rate
+     */
+    double getImportsPerSecond();
+
+    /**
+     * Returns the average number of exports per second since the deck was created.
+     *
+     * @return the export rate
+     */
+    double getExportsPerSecond();
+
+    /**
+     * Returns the mean time taken to look up the card a wrong quiz answer belongs to.
+     *
+     * @return the mean lookup time
+     */
+    double getWrongAnswerLookupMeanMicros();
+
+    /**
+     * Returns the 99th percentile of the time taken to look up the card a wrong quiz answer belongs to.
+     *
+     * @return the 99th percentile of the lookup time
+     */
+    double getWrongAnswerLookupP99Micros();
+
+    /**
+     * Returns how often each deck operation and each command ran.
+     *
+     * @return the counts by operation or command name
+     */
+    Map<String, Long> getCounts();
+
+    /**
+     * Returns the mean latency of each deck operation and each command.
+     *
+     * @return the mean latencies by operation or command name
+     */
+    Map<String, Double> getMeanMicros();
+
+    /**
+     * Returns the 99th percentile of the latency of each deck operation and each command.
+     *
+     * @return the 99th percentiles by operation or command name
+     */
+    Map<String, Double> getP99Micros();
+}
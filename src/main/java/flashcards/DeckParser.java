@@ -0,0 +1,310 @@
+package flashcards;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming parser for decks stored in the term&&definition&&mistakes format.
+ * A line may carry the card's review state as four more fields:
+ * term&&definition&&mistakes&&ease&&interval&&repetitions&&due.
+ * The parser reads raw UTF-8 bytes into a reusable buffer and scans it for line
+ * breaks and "&&" delimiters directly, so the only objects created per line are
+ * the term and definition strings handed to the {@link CardConsumer}.
+ * Lines that cannot be parsed are reported with their line number to a
+ * {@link MalformedLineHandler} and skipped.
+ */
+public class DeckParser {
+
+    /**
+     * The default size of the read buffer in bytes.
+     */
+    static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Receives every card parsed from the deck.
+     */
+    @FunctionalInterface
+    public interface CardConsumer {
+        /**
+         * Accepts one parsed card.
+         *
+         * @param term       the term of the card
+         * @param definition the definition of the card
+         * @param mistakes   the mistake count of the card
+         * @param review     the review state of the card, or null if the line has none
+         */
+        void accept(String term, String definition, int mistakes, ReviewState review);
+    }
+
+    /**
+     * Receives every line that could not be parsed.
+     */
+    @FunctionalInterface
+    public interface MalformedLineHandler {
+        /**
+         * Reports a malformed line.
+         *
+         * @param lineNumber the 1-based number of the line in the deck
+         * @param reason     a short description of what is wrong with the line
+         */
+        void malformed(long lineNumber, String reason);
+    }
+
+    /**
+     * The destination of parsed cards.
+     */
+    private final CardConsumer consumer;
+
+    /**
+     * The destination of malformed line reports.
+     */
+    private final MalformedLineHandler errors;
+
+    /**
+     * The read buffer, grown when a single line does not fit.
+     */
+    private byte[] buffer;
+
+    /**
+     * Constructs a parser with the default buffer size.
+     *
+     * @param newConsumer the destination of parsed cards
+     * @param newErrors   the destination of malformed line reports
+     */
+    public DeckParser(final CardConsumer newConsumer, final MalformedLineHandler newErrors) {
+        this(newConsumer, newErrors, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a parser with the given initial buffer size.
+     *
+     * @param newConsumer the destination of parsed cards
+     * @param newErrors   the destination of malformed line reports
+     * @param bufferSize  the initial size of the read buffer in bytes
+     */
+    DeckParser(final CardConsumer newConsumer, final MalformedLineHandler newErrors, final int bufferSize) {
+        this.consumer = newConsumer;
+        this.errors = newErrors;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Parses every line of the stream until it is exhausted.
+     *
+     * @param in the stream holding the deck
+     * @return the number of cards handed to the consumer
+     * @throws IOException if an I/O error occurs while reading the stream
+     */
+    public long parse(final InputStream in) throws IOException {
+        long cards = 0;
+        long lineNumber = 0;
+        int filled = 0;
+        int read;
+
+        while ((read = in.read(buffer, filled, buffer.length - filled)) != -1) {
+            int scanFrom = filled;
+            filled += read;
+            int lineStart = 0;
+            for (int i = scanFrom; i < filled; i++) {
+                if (buffer[i] == '\n') {
+                    lineNumber++;
+                    if (parseLine(buffer, lineStart, i, lineNumber)) {
+                        cards++;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+
+            // Carry the unfinished line over to the front of the buffer.
+            filled -= lineStart;
+            System.arraycopy(buffer, lineStart, buffer, 0, filled);
+            if (filled == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+
+        if (filled > 0) {
+            lineNumber++;
+            if (parseLine(buffer, 0, filled, lineNumber)) {
+                cards++;
+            }
+        }
+        return cards;
+    }
+
+    /**
+     * Parses every line between the position and the limit of a buffer, including a final
+     * line without a line break, leaving the buffer's position alone. The bytes are copied
+     * through the read buffer a block at a time, so a memory-mapped buffer is parsed without
+     * being copied to the heap as a whole. Line numbers in error reports start at 1 for the
+     * first line of the buffer.
+     *
+     * @param bytes the buffer holding the lines
+     * @return the number of line breaks in the buffer
+     */
+    long parse(final ByteBuffer bytes) {
+        long lineNumber = 0;
+        int filled = 0;
+        int position = bytes.position();
+        while (position < bytes.limit()) {
+            int read = Math.min(buffer.length - filled, bytes.limit() - position);
+            bytes.get(position, buffer, filled, read);
+            position += read;
+            int scanFrom = filled;
+            filled += read;
+            int lineStart = 0;
+            for (int i = scanFrom; i < filled; i++) {
+                if (buffer[i] == '\n') {
+                    lineNumber++;
+                    parseLine(buffer, lineStart, i, lineNumber);
+                    lineStart = i + 1;
+                }
+            }
+
+            filled -= lineStart;
+            System.arraycopy(buffer, lineStart, buffer, 0, filled);
+            if (filled == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+
+        if (filled > 0) {
+            parseLine(buffer, 0, filled, lineNumber + 1);
+        }
+        return lineNumber;
+    }
+
+    /**
+     * Parses a single line held in {@code bytes[start, end)} without its line break.
+     * Blank lines are skipped silently.
+     *
+     * @param bytes      the buffer holding the line
+     * @param start      the index of the first byte of the line
+     * @param end        the index just past the last byte of the line
+     * @param lineNumber the 1-based number of the line, used in error reports
+     * @return true if a card was handed to the consumer
+     */
+    boolean parseLine(final byte[] bytes, final int start, final int end, final long lineNumber) {
+        int lineEnd = end;
+        if (lineEnd > start && bytes[lineEnd - 1] == '\r') {
+            lineEnd--;
+        }
+        if (lineEnd == start) {
+            return false;
+        }
+
+        int termEnd = indexOfDelimiter(bytes, start, lineEnd);
+        if (termEnd < 0) {
+            errors.malformed(lineNumber, "missing definition");
+            return false;
+        }
+        int definitionStart = termEnd + 2;
+        int definitionEnd = indexOfDelimiter(bytes, definitionStart, lineEnd);
+        if (definitionEnd < 0) {
+            errors.malformed(lineNumber, "missing mistake count");
+            return false;
+        }
+        int mistakesStart = definitionEnd + 2;
+        int mistakesEnd = indexOfDelimiter(bytes, mistakesStart, lineEnd);
+        if (mistakesEnd < 0) {
+            mistakesEnd = lineEnd;
+        }
+
+        int mistakes = (int) parseNumber(bytes, mistakesStart, mistakesEnd, Integer.MAX_VALUE);
+        if (mistakes < 0) {
+            errors.malformed(lineNumber, "invalid mistake count");
+            return false;
+        }
+
+        ReviewState review = null;
+        if (mistakesEnd < lineEnd) {
+            review = parseReview(bytes, mistakesEnd + 2, lineEnd);
+            if (review == null) {
+                errors.malformed(lineNumber, "invalid review state");
+                return false;
+            }
+        }
+
+        consumer.accept(
+                new String(bytes, start, termEnd - start, StandardCharsets.UTF_8),
+                new String(bytes, definitionStart, definitionEnd - definitionStart, StandardCharsets.UTF_8),
+                mistakes,
+                review);
+        return true;
+    }
+
+    /**
+     * Parses the ease&&interval&&repetitions&&due fields of a review state.
+     *
+     * @param bytes the buffer holding the fields
+     * @param from  the index of the first field
+     * @param to    the end of the line
+     * @return the review state, or null if the fields are missing or invalid
+     */
+    private static ReviewState parseReview(final byte[] bytes, final int from, final int to) {
+        long[] fields = new long[4];
+        long[] limits = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE};
+        int fieldStart = from;
+        for (int i = 0; i < fields.length; i++) {
+            int fieldEnd = indexOfDelimiter(bytes, fieldStart, to);
+            if (i == fields.length - 1) {
+                if (fieldEnd >= 0) {
+                    return null;
+                }
+                fieldEnd = to;
+            } else if (fieldEnd < 0) {
+                return null;
+            }
+            fields[i] = parseNumber(bytes, fieldStart, fieldEnd, limits[i]);
+            if (fields[i] < 0) {
+                return null;
+            }
+            fieldStart = fieldEnd + 2;
+        }
+        return new ReviewState((int) fields[0], (int) fields[1], (int) fields[2], fields[3]);
+    }
+
+    /**
+     * Finds the next "&&" delimiter in {@code bytes[from, to)}.
+     *
+     * @param bytes the buffer to scan
+     * @param from  the index to start scanning at
+     * @param to    the index to stop scanning at
+     * @return the index of the delimiter, or -1 if there is none
+     */
+    static int indexOfDelimiter(final byte[] bytes, final int from, final int to) {
+        for (int i = from; i < to - 1; i++) {
+            if (bytes[i] == '&' && bytes[i + 1] == '&') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a non-negative decimal number from {@code bytes[from, to)}.
+     *
+     * @param bytes the buffer holding the digits
+     * @param from  the index of the first digit
+     * @param to    the index just past the last digit
+     * @param max   the largest acceptable value
+     * @return the parsed number, or -1 if the digits are missing, invalid or exceed {@code max}
+     */
+    static long parseNumber(final byte[] bytes, final int from, final int to, final long max) {
+        if (from == to) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9 || value > (max - digit) / 10) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,338 @@
+package flashcards;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Keeps the named decks of a program, of which only a bounded number stay in memory.
+ * Named decks are saved as binary deck files in one directory, the fastest format to
+ * write and read back. When more than the allowed number of decks are loaded, or their
+ * estimated heap exceeds the memory budget, the least recently used decks are saved
+ * and unloaded until both fit again; they are loaded from their files the next time
+ * they are used. Decks a session is working on are never unloaded, and neither is the
+ * deck the program started with, which may be journaled or loading in the background.
+ *
+ * <p>Every method is synchronized, so sessions on any thread may share the registry.
+ */
+class DeckRegistry {
+
+    /**
+     * The name of the deck the program started with.
+     */
+    static final String DEFAULT_DECK = "default";
+
+    /**
+     * The default number of decks kept in memory, the default deck included.
+     */
+    static final int DEFAULT_MAX_RESIDENT = 8;
+
+    /**
+     * The default estimated heap all decks in memory may take.
+     */
+    static final long DEFAULT_MEMORY_BUDGET_BYTES = 256L << 20;
+
+    /**
+     * The extension of the files named decks are saved to.
+     */
+    static final String FILE_EXTENSION = ".fcb";
+
+    /**
+     * A deck in memory and the number of sessions working on it.
+     */
+    private static final class Resident {
+
+        /**
+         * The deck.
+         */
+        private final FlashCardManager deck;
+
+        /**
+         * The number of sessions working on the deck.
+         */
+        private int users;
+
+        /**
+         * Wraps a deck no session works on yet.
+         *
+         * @param newDeck the deck
+         */
+        private Resident(final FlashCardManager newDeck) {
+            this.deck = newDeck;
+        }
+    }
+
+    /**
+     * The decks in memory by name.
+     */
+    private final Map<String, Resident> resident = new HashMap<>();
+
+    /**
+     * The names of the decks in memory, least recently used first. Only acquiring a deck
+     * counts as using it, so releasing, closing or listing decks leaves the order alone.
+     */
+    private final LinkedHashSet<String> recency = new LinkedHashSet<>();
+
+    /**
+     * The deck the program started with, whose settings named decks take over.
+     */
+    private final FlashCardManager defaultDeck;
+
+    /**
+     * The directory named decks are saved in.
+     */
+    private final Path directory;
+
+    /**
+     * The number of decks kept in memory, the default deck included.
+     */
+    private final int maxResident;
+
+    /**
+     * The estimated heap all decks in memory may take.
+     */
+    private final long memoryBudgetBytes;
+
+    /**
+     * Constructs a registry holding the default deck.
+     *
+     * @param newDefaultDeck       the deck the program started with, whose settings named decks take over
+     * @param newDirectory         the directory named decks are saved in
+     * @param newMaxResident       the number of decks kept in memory, the default deck included
+     * @param newMemoryBudgetBytes the estimated heap all decks in memory may take
+     */
+    DeckRegistry(final FlashCardManager newDefaultDeck, final Path newDirectory,
+                 final int newMaxResident, final long newMemoryBudgetBytes) {
+        this.defaultDeck = newDefaultDeck;
+        this.directory = newDirectory;
+        this.maxResident = newMaxResident;
+        this.memoryBudgetBytes = newMemoryBudgetBytes;
+        resident.put(DEFAULT_DECK, new Resident(newDefaultDeck));
+        recency.add(DEFAULT_DECK);
+    }
+
+    /**
+     * Checks whether a name can be used for a deck, which must also be a safe file name.
+     *
+     * @param name the name
+     * @return true if it consists of letters, digits, "_" and "-" only
+     */
+    static boolean isValidName(final String name) {
+        return name.matches("[\\w-]+");
+    }
+
+    /**
+     * Returns the file a named deck is saved to.
+     *
+     * @param name the name of the deck
+     * @return the file in the registry's directory
+     */
+    Path fileOf(final String name) {
+        return directory.resolve(name + FILE_EXTENSION);
+    }
+
+    /**
+     * Switches a session to a deck, loading it from its file if it is not in memory,
+     * or creating it empty if it has no file yet, and lets go of the deck the session
+     * worked on before. Decks that no longer fit are then unloaded, reporting each to the
+     * session; a deck that cannot be saved is reported and stays in memory, so that switching
+     * decks never fails halfway. The deck stays in memory until it is released.
+     *
+     * @param name     the name of the deck
+     * @param previous the name of the deck the session worked on before
+     * @param out      the output the unloaded decks are reported to
+     * @return the deck
+     * @throws IOException if the deck cannot be loaded; the session then keeps its deck
+     */
+    synchronized FlashCardManager acquire(final String name, final String previous, final ConsoleOutput out)
+            throws IOException {
+        Resident deck = resident.get(name);
+        if (deck == null) {
+            Set<FlashCard> cards = new HashSet<>();
+            Path file = fileOf(name);
+            if (Files.exists(file)) {
+                BinaryDeckFormat.read(file, cards::add);
+            }
+            deck = new Resident(defaultDeck.newDeck(cards));
+            resident.put(name, deck);
+        }
+        recency.remove(name);
+        recency.add(name);
+        deck.users++;
+        release(previous);
+        evict(out);
+        return deck.deck;
+    }
+
+    /**
+     * Lets go of a deck a session has stopped working on, so that it may be unloaded.
+     *
+     * @param name the name of the deck, as passed to {@link #acquire(String, String, ConsoleOutput)}
+     */
+    synchronized void release(final String name) {
+        Resident deck = resident.get(name);
+        if (deck != null && deck.users > 0) {
+            deck.users--;
+        }
+    }
+
+    /**
+     * Saves a deck and unloads it.
+     *
+     * @param name the name of the deck
+     * @param out  the output the result is printed to
+     * @throws IOException if the deck cannot be saved; it then stays in memory
+     */
+    synchronized void close(final String name, final ConsoleOutput out) throws IOException {
+        Resident deck = resident.get(name);
+        if (DEFAULT_DECK.equals(name)) {
+            out.printf("The deck \"%s\" cannot be closed.%n%n", name);
+        } else if (deck == null) {
+            out.printf("The deck \"%s\" is not loaded.%n%n", name);
+        } else if (deck.users > 0) {
+            out.printf("The deck \"%s\" is in use.%n%n", name);
+        } else {
+            unload(name, deck, out);
+            out.println();
+        }
+    }
+
+    /**
+     * Saves every named deck in memory, so that no change is lost when the program ends.
+     *
+     * @throws IOException if a deck cannot be saved
+     */
+    synchronized void saveAll() throws IOException {
+        for (Map.Entry<String, Resident> entry : resident.entrySet()) {
+            if (!DEFAULT_DECK.equals(entry.getKey())) {
+                save(entry.getKey(), entry.getValue().deck);
+            }
+        }
+    }
+
+    /**
+     * Prints every deck, those in memory first with their number of cards and estimated heap,
+     * least recently used first, then those only saved in the directory.
+     *
+     * @param current the name of the deck the session works on, which is marked
+     * @param out     the output the list is printed to
+     * @throws IOException if the directory cannot be listed
+     */
+    synchronized void list(final String current, final ConsoleOutput out) throws IOException {
+        out.printf("%d of at most %d decks are loaded, taking about %d of %d KB:%n",
+                resident.size(), maxResident, residentBytes() / 1024, memoryBudgetBytes / 1024);
+        for (String name : recency) {
+            DeckMetrics metrics = resident.get(name).deck.getMetrics();
+            out.printf("%s %s: %d cards, %d KB%n", name.equals(current) ? "*" : " ",
+                    name, metrics.getCardCount(), metrics.getDeckHeapBytes() / 1024);
+        }
+        for (String name : saved()) {
+            if (!resident.containsKey(name)) {
+                out.printf("  %s: saved%n", name);
+            }
+        }
+        out.println();
+    }
+
+    /**
+     * Returns the names of the decks saved in the directory.
+     *
+     * @return the names, sorted
+     * @throws IOException if the directory cannot be listed
+     */
+    private Set<String> saved() throws IOException {
+        Set<String> names = new TreeSet<>();
+        if (!Files.isDirectory(directory)) {
+            return names;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_EXTENSION)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String name = fileName.substring(0, fileName.length() - FILE_EXTENSION.length());
+                if (isValidName(name)) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Unloads the least recently used decks nobody works on until the decks in memory
+     * fit both the number of decks and the memory budget, or only decks that must stay are left.
+     * Decks that cannot be saved are reported and stay in memory.
+     *
+     * @param out the output the unloaded decks are reported to
+     */
+    private void evict(final ConsoleOutput out) {
+        List<String> candidates = new ArrayList<>();
+        for (String name : recency) {
+            if (!DEFAULT_DECK.equals(name) && resident.get(name).users == 0) {
+                candidates.add(name);
+            }
+        }
+        long bytes = residentBytes();
+        Iterator<String> eldest = candidates.iterator();
+        while (eldest.hasNext() && (resident.size() > maxResident || bytes > memoryBudgetBytes)) {
+            String name = eldest.next();
+            Resident deck = resident.get(name);
+            try {
+                unload(name, deck, out);
+                bytes -= deck.deck.getMetrics().getDeckHeapBytes();
+            } catch (IOException e) {
+                out.printf("The deck \"%s\" could not be saved and stays loaded: %s%n", name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Saves a deck and removes it from memory.
+     *
+     * @param name the name of the deck
+     * @param deck the deck
+     * @param out  the output the result is printed to
+     * @throws IOException if the deck cannot be saved; it then stays in memory
+     */
+    private void unload(final String name, final Resident deck, final ConsoleOutput out) throws IOException {
+        int totalCards = save(name, deck.deck);
+        resident.remove(name);
+        recency.remove(name);
+        out.printf("The deck \"%s\" has been saved with %d cards and unloaded.%n", name, totalCards);
+    }
+
+    /**
+     * Saves a deck to its file in the directory, creating the directory if needed.
+     *
+     * @param name the name of the deck
+     * @param deck the deck
+     * @return the number of cards saved
+     * @throws IOException if the deck cannot be saved
+     */
+    private int save(final String name, final FlashCardManager deck) throws IOException {
+        Files.createDirectories(directory);
+        return deck.saveDeck(fileOf(name));
+    }
+
+    /**
+     * Returns the estimated heap taken by the decks in memory.
+     *
+     * @return the number of bytes
+     */
+    private long residentBytes() {
+        long bytes = 0;
+        for (Resident deck : resident.values()) {
+            bytes += deck.deck.getMetrics().getDeckHeapBytes();
+        }
+        return bytes;
+    }
+}
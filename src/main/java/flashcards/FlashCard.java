@@ -19,10 +19,45 @@ public class FlashCard {
     final private String definition;
 
     /**
-     * The number of mistakes made with the card.
+     * The number of mistakes made with the card while it is not held by a deck.
      */
     private int mistakes;
 
+    /**
+     * The mistake counts of the deck holding the card, or null if no deck holds it.
+     * A deck keeps the count of its cards there, so sessions of a shared deck
+     * can count mistakes concurrently.
+     */
+    private volatile MistakeCounters counters;
+
+    /**
+     * The id of the card's count in {@link #counters}.
+     */
+    private volatile int id;
+
+    /**
+     * The spaced-repetition state, or null if the card has never been reviewed.
+     */
+    private volatile ReviewState review;
+
+    /**
+     * Notified whenever the mistake count changes, or null.
+     */
+    private volatile MistakeListener listener;
+
+    /**
+     * Receives changes of a flashcard's mistake count.
+     */
+    interface MistakeListener {
+        /**
+         * Called after the mistake count of a card has changed.
+         *
+         * @param flashCard the card whose count changed
+         * @param previous  the count before the change
+         */
+        void mistakesChanged(FlashCard flashCard, int previous);
+    }
+
     /**
      * Constructs a new FlashCard object with the specified term and definition.
      * The initial mistake count is set to 0.
@@ -33,7 +68,6 @@ public class FlashCard {
     public FlashCard(final String newTerm, final String newDefinition) {
         this.term = newTerm;
         this.definition = newDefinition;
-        this.mistakes = 0;
     }
 
     /**
@@ -60,14 +94,20 @@ public class FlashCard {
      * @return the number of mistakes made
      */
     public int getMistakes() {
-        return mistakes;
+        MistakeCounters current = counters;
+        return current != null ? current.get(id) : mistakes;
     }
 
     /**
      * Increments the mistake count by 1 for this flashcard.
      */
     public void increaseMistakes() {
-        this.mistakes++;
+        MistakeCounters currentCounters = counters;
+        int previous = currentCounters != null ? currentCounters.increment(id) : mistakes++;
+        MistakeListener current = listener;
+        if (current != null) {
+            current.mistakesChanged(this, previous);
+        }
     }
 
     /**
@@ -76,7 +116,80 @@ public class FlashCard {
      * @param newMistakes the new mistake count
      */
     public void setMistakes(int newMistakes) {
-        this.mistakes = newMistakes;
+        MistakeCounters currentCounters = counters;
+        int previous;
+        if (currentCounters != null) {
+            previous = currentCounters.set(id, newMistakes);
+        } else {
+            previous = mistakes;
+            mistakes = newMistakes;
+        }
+        MistakeListener current = listener;
+        if (current != null && previous != newMistakes) {
+            current.mistakesChanged(this, previous);
+        }
+    }
+
+    /**
+     * Retrieves the spaced-repetition state of this flashcard.
+     *
+     * @return the review state, or null if the card has never been reviewed
+     */
+    public ReviewState getReview() {
+        return review;
+    }
+
+    /**
+     * Sets the spaced-repetition state of this flashcard.
+     * Cards held by a deck are rescheduled through their deck instead.
+     *
+     * @param newReview the review state, or null for a card that has never been reviewed
+     */
+    void setReview(final ReviewState newReview) {
+        this.review = newReview;
+    }
+
+    /**
+     * Hands the mistake count of this flashcard over to a deck.
+     * From now on the count is kept in the deck's counters under a new id,
+     * and changes to it are reported to the listener. A card moves out of
+     * any deck it was attached to before.
+     *
+     * @param newCounters the counters of the deck
+     * @param newListener the listener, or null to not notify
+     * @return the id of the card in the counters
+     */
+    int attach(final MistakeCounters newCounters, final MistakeListener newListener) {
+        detach();
+        int newId = newCounters.allocate(getMistakes());
+        this.id = newId;
+        this.counters = newCounters;
+        this.listener = newListener;
+        return newId;
+    }
+
+    /**
+     * Takes the mistake count of this flashcard back from the deck that held it
+     * and stops notifying its listener. The deck's id is released.
+     */
+    void detach() {
+        MistakeCounters current = counters;
+        if (current == null) {
+            return;
+        }
+        this.mistakes = current.get(id);
+        this.counters = null;
+        this.listener = null;
+        current.release(id);
+    }
+
+    /**
+     * Retrieves the id of this flashcard in the counters of the deck holding it.
+     *
+     * @return the id, or -1 if no deck holds the card
+     */
+    int getId() {
+        return counters != null ? id : -1;
     }
 
     /**
@@ -1,33 +1,399 @@
 package flashcards;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.zip.Deflater;
 
 /**
  * Manages a collection of flashcards and
  * provides various operations for interacting with them.
+ *
+ * <p>Several sessions can share one deck through {@link #session(BufferedReader, ConsoleOutput)}.
+ * The card store and its indexes are concurrent maps and mistake counts are kept
+ * by dense card id in atomic arrays owned by the deck, so lookups never block.
+ * Changes to the deck take the write lock of the deck only after the user's input
+ * has been read, and exports take its read lock, so no lock is ever held while
+ * waiting for a user.
  */
 public class FlashCardManager {
 
 
     @SuppressWarnings("checkstyle:JavadocVariable")
-    private HashSet<FlashCard> flashCards;
+    private final Set<FlashCard> flashCards;
 
     @SuppressWarnings("checkstyle:JavadocVariable")
     private BufferedReader reader;
 
+    /**
+     * The output prompts and results are printed to, or null to print straight to {@code System.out}.
+     */
+    private ConsoleOutput out;
+
+    /**
+     * Index from a term to the card holding it.
+     * When several cards share a term, the first one indexed wins.
+     */
+    private final ConcurrentHashMap<String, FlashCard> termIndex;
+
+    /**
+     * Index from a definition to the card holding it.
+     * When several cards share a definition, the first one indexed wins.
+     */
+    private final ConcurrentHashMap<String, FlashCard> definitionIndex;
+
+    /**
+     * The trie over the indexed definitions for fuzzy answers, or null until the
+     * first fuzzy quiz. Once built it is kept up to date with the definition index.
+     */
+    private final AtomicReference<LevenshteinTrie> fuzzyDefinitions;
+
+    /**
+     * The index of terms and definition words for searching, or null until the first search.
+     * Once built it is kept up to date with the deck.
+     */
+    private final AtomicReference<SearchIndex> searchIndex;
+
+    /**
+     * The load of a deck file started on a worker thread, or null if none was started.
+     */
+    private final AtomicReference<BackgroundImport> backgroundImport;
+
+    /**
+     * The estimated heap taken by the cards in the collection, kept up to date as cards
+     * are indexed and unindexed so that reading it does not walk the deck.
+     */
+    private final AtomicLong heapBytes;
+
+    /**
+     * The mistake counts of the cards, by card id.
+     */
+    private final MistakeCounters counters;
+
+    /**
+     * The cards with mistakes, ranked by their mistake count.
+     */
+    private final MistakeRanking ranking;
+
+    /**
+     * Keeps the ranking up to date when a card's mistake count changes.
+     */
+    private final FlashCard.MistakeListener rankingListener;
+
+    /**
+     * Decides which cards to ask next from their review state.
+     */
+    private final ReviewScheduler scheduler;
+
+    /**
+     * The cards changed since the deck was last exported, for delta exports.
+     */
+    private final DeckChanges changes;
+
+    /**
+     * Guards changes to the deck: changes take the write lock, whole-deck reads the read lock.
+     */
+    private final ReadWriteLock lock;
+
+    /**
+     * Whether file imports memory-map the deck and parse it in parallel.
+     */
+    private boolean mappedImport;
+
+    /**
+     * How imports merge cards whose term is already in the deck, or null to add every card as it is.
+     */
+    private MergePolicy mergePolicy;
+
+    /**
+     * The format used for every deck file, or null to pick it by file extension.
+     */
+    private DeckFormat format;
+
+    /**
+     * The level compressed deck files are written with.
+     */
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * The deck left on disk and read card by card, or null if no lazy deck is open.
+     */
+    private MappedDeck lazyDeck;
+
+    /**
+     * The read-only deck kept off the heap in an arena, or null if no arena deck is open.
+     */
+    private ArenaDeckStore arenaDeck;
+
+    /**
+     * The journal recording every change to the deck, or null if journaling is off.
+     */
+    private DeckJournal journal;
+
+    /**
+     * The snapshot file the journal belongs to.
+     */
+    private Path journalSnapshot;
+
+    /**
+     * The number of journal records after which a new snapshot is written.
+     */
+    private long compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+
+    /**
+     * The number of cards shown on each page of search results.
+     */
+    static final int SEARCH_PAGE_SIZE = 10;
+
+    /**
+     * Whether prompts for input are printed.
+     */
+    private boolean prompts = true;
+
+    /**
+     * The edit distance within which quiz answers count as correct, 0 for exact answers only.
+     */
+    private int fuzzyTolerance;
+
+    /**
+     * Whether commands that look at the whole deck use the cards loaded so far
+     * instead of waiting for a background import to end.
+     */
+    private boolean partialDeck;
+
+    /**
+     * The source of the current time in milliseconds, used to measure background imports.
+     */
+    private LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * The counters and latency histograms of the deck's operations and commands.
+     */
+    private final DeckMetrics metrics;
+
+    /**
+     * The named decks sessions can switch to, or null if there are none.
+     */
+    private DeckRegistry registry;
+
+    /**
+     * The default number of journal records after which a new snapshot is written.
+     */
+    static final long DEFAULT_COMPACTION_THRESHOLD = 100_000;
+
+    /**
+     * The number of cards a background import adds to the deck under one write lock.
+     */
+    static final int IMPORT_BATCH_SIZE = 4096;
+
+    /**
+     * The least time between two progress reports of a background import, in milliseconds.
+     */
+    static final long PROGRESS_INTERVAL_MILLIS = 1000;
+
+    /**
+     * The approximate heap taken by a card apart from the characters of its term and definition:
+     * the card, its two strings, its review state and its entries in the deck's set,
+     * indexes, mistake counters, ranking and review queue.
+     */
+    static final long CARD_HEAP_BYTES = 400;
+
+    /**
+     * The reason mistake statistics are refused while a lazy deck is open.
+     */
+    static final String LAZY_DECK_STATISTICS = "Mistake statistics are not available while a lazy deck is open.";
+
+    /**
+     * The reason mistake statistics are refused while an arena deck is open.
+     */
+    static final String ARENA_DECK_STATISTICS = "Mistake statistics are not available while an arena deck is open.";
+
     /**
      * Constructs a FlashCardManager with the specified set of flashcards.
      * Also initializes a BufferedReader for user input.
      *
      * @param newFlashCards the set of flashcards to manage
      */
-    public FlashCardManager(final HashSet<FlashCard> newFlashCards) {
-        this.flashCards = newFlashCards;
+    public FlashCardManager(final Set<FlashCard> newFlashCards) {
+        this.flashCards = ConcurrentHashMap.newKeySet();
         this.reader = new BufferedReader(
                 new InputStreamReader(System.in));
+        this.termIndex = new ConcurrentHashMap<>();
+        this.definitionIndex = new ConcurrentHashMap<>();
+        this.fuzzyDefinitions = new AtomicReference<>();
+        this.searchIndex = new AtomicReference<>();
+        this.backgroundImport = new AtomicReference<>();
+        this.heapBytes = new AtomicLong();
+        this.counters = new MistakeCounters();
+        this.ranking = new MistakeRanking();
+        this.changes = new DeckChanges();
+        this.rankingListener = (flashCard, previous) -> {
+            ranking.update(flashCard, previous);
+            changes.changed(flashCard);
+        };
+        this.scheduler = new ReviewScheduler(System::currentTimeMillis);
+        this.lock = new ReentrantReadWriteLock();
+        this.metrics = new DeckMetrics(this::cardCount, this::estimateHeapBytes, System::nanoTime);
+        for (FlashCard flashCard : newFlashCards) {
+            addCard(flashCard);
+        }
+    }
+
+    /**
+     * Constructs a session on the deck of another manager.
+     * The session shares the cards, indexes, ranking, scheduler, changes, background import,
+     * heap estimate, metrics and lock of the deck,
+     * and takes over its import, export and journal settings as they are now.
+     *
+     * @param deck      the manager owning the deck
+     * @param newReader the reader of the session's input
+     * @param newOut    the output of the session
+     */
+    private FlashCardManager(final FlashCardManager deck, final BufferedReader newReader, final ConsoleOutput newOut) {
+        this.flashCards = deck.flashCards;
+        this.reader = newReader;
+        this.out = newOut;
+        this.termIndex = deck.termIndex;
+        this.definitionIndex = deck.definitionIndex;
+        this.fuzzyDefinitions = deck.fuzzyDefinitions;
+        this.searchIndex = deck.searchIndex;
+        this.backgroundImport = deck.backgroundImport;
+        this.heapBytes = deck.heapBytes;
+        this.counters = deck.counters;
+        this.ranking = deck.ranking;
+        this.rankingListener = deck.rankingListener;
+        this.changes = deck.changes;
+        this.scheduler = deck.scheduler;
+        this.lock = deck.lock;
+        this.metrics = deck.metrics;
+        this.mappedImport = deck.mappedImport;
+        this.mergePolicy = deck.mergePolicy;
+        this.format = deck.format;
+        this.compressionLevel = deck.compressionLevel;
+        this.lazyDeck = deck.lazyDeck;
+        this.arenaDeck = deck.arenaDeck;
+        this.journal = deck.journal;
+        this.journalSnapshot = deck.journalSnapshot;
+        this.compactionThreshold = deck.compactionThreshold;
+        this.prompts = deck.prompts;
+        this.fuzzyTolerance = deck.fuzzyTolerance;
+        this.partialDeck = deck.partialDeck;
+        this.clock = deck.clock;
+        this.registry = deck.registry;
+    }
+
+    /**
+     * Opens a session on this deck with its own input and output.
+     * Sessions may run on different threads; every change one of them makes
+     * is seen by all others.
+     *
+     * @param sessionReader the reader of the session's input
+     * @param sessionOut    the output of the session
+     * @return a manager sharing this deck
+     */
+    public FlashCardManager session(final BufferedReader sessionReader, final ConsoleOutput sessionOut) {
+        return new FlashCardManager(this, sessionReader, sessionOut);
+    }
+
+    /**
+     * Opens a session on another deck with this session's input, output and prompts,
+     * for a session that switches decks.
+     *
+     * @param deck the manager owning the other deck
+     * @return a manager sharing the other deck
+     */
+    FlashCardManager session(final FlashCardManager deck) {
+        FlashCardManager session = new FlashCardManager(deck, reader, out);
+        session.prompts = prompts;
+        return session;
+    }
+
+    /**
+     * Creates another deck holding the given cards, with this deck's import, export
+     * and quiz settings and registry but without its journal, lazy deck or arena deck.
+     *
+     * @param cards the cards of the new deck
+     * @return the manager owning the new deck
+     */
+    FlashCardManager newDeck(final Set<FlashCard> cards) {
+        FlashCardManager deck = new FlashCardManager(cards);
+        deck.mappedImport = mappedImport;
+        deck.mergePolicy = mergePolicy;
+        deck.format = format;
+        deck.compressionLevel = compressionLevel;
+        deck.fuzzyTolerance = fuzzyTolerance;
+        deck.partialDeck = partialDeck;
+        deck.registry = registry;
+        return deck;
+    }
+
+    /**
+     * Returns the output prompts and results are printed to.
+     *
+     * @return the session's output, or {@link ConsoleOutput#STANDARD} outside of sessions
+     */
+    ConsoleOutput out() {
+        return out != null ? out : ConsoleOutput.STANDARD;
+    }
+
+    /**
+     * Reads a line of input, first letting the output know the program is waiting for it.
+     *
+     * @return the line, or null at the end of the input
+     * @throws IOException if an I/O error occurs when reading from the input stream
+     */
+    private String readLine() throws IOException {
+        out().awaitingInput();
+        return reader.readLine();
+    }
+
+    /**
+     * Prints a prompt for input, unless prompts are turned off.
+     *
+     * @param format the format of the prompt
+     * @param args   the arguments of the format
+     */
+    private void prompt(final String format, final Object... args) {
+        if (prompts) {
+            out().printf(format, args);
+        }
+    }
+
+    /**
+     * Sets the edit distance within which quiz answers count as correct.
+     * Answers within it of the right definition are accepted with a note on the spelling,
+     * and wrong answers are matched against the closest definition of another card.
+     *
+     * @param newFuzzyTolerance the largest accepted Levenshtein distance, 0 for exact answers only
+     */
+    public void setFuzzyTolerance(final int newFuzzyTolerance) {
+        this.fuzzyTolerance = newFuzzyTolerance;
+    }
+
+    /**
+     * Sets whether prompts for input are printed.
+     * Scripts turn them off, since nobody reads them.
+     *
+     * @param newPrompts true to print prompts, false to only print results
+     */
+    public void setPrompts(final boolean newPrompts) {
+        this.prompts = newPrompts;
     }
 
 
@@ -35,14 +401,495 @@ public class FlashCardManager {
         this.reader = newReader;
     }
 
-    public HashSet<FlashCard> getFlashCards() {
+    public Set<FlashCard> getFlashCards() {
         return flashCards;
     }
 
+    /**
+     * Returns the counters and latency histograms of the deck, to be printed by
+     * {@link #printStats()} or registered as an MBean.
+     *
+     * @return the metrics of the deck
+     */
+    public DeckMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the named decks sessions can switch to.
+     *
+     * @return the registry, or null if there are no named decks
+     */
+    DeckRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Sets the named decks sessions opened from now on can switch to.
+     *
+     * @param newRegistry the registry, or null for no named decks
+     */
+    void setRegistry(final DeckRegistry newRegistry) {
+        this.registry = newRegistry;
+    }
+
+    /**
+     * Replaces the clock the review scheduler and background imports read the current time from.
+     *
+     * @param newClock the source of the current time in milliseconds since the epoch
+     */
+    void setClock(final LongSupplier newClock) {
+        this.clock = newClock;
+        scheduler.setClock(newClock);
+    }
+
+    /**
+     * Selects what commands that look at the whole deck, such as quizzes, the hardest cards
+     * and searches, do while a background import is running.
+     * Exports and resets always wait, since they would otherwise miss cards.
+     *
+     * @param partial true to use the cards loaded so far, false to wait for the import to end
+     */
+    public void setPartialDeck(final boolean partial) {
+        this.partialDeck = partial;
+    }
+
+    /**
+     * Selects how deck files are imported.
+     * Mapped imports memory-map the file and parse line-aligned chunks of it
+     * in parallel; they load exactly the same cards as streaming imports.
+     *
+     * @param newMappedImport true to import through a {@link ParallelDeckImporter}
+     */
+    public void setMappedImport(final boolean newMappedImport) {
+        this.mappedImport = newMappedImport;
+    }
+
+    /**
+     * Makes imports merge the file into the deck by term instead of adding every card of it.
+     *
+     * @param newMergePolicy how to resolve cards whose term is already in the deck,
+     *                       or null to add every card as it is
+     * @see #mergeFlashCards(String, MergePolicy)
+     */
+    public void setMergePolicy(final MergePolicy newMergePolicy) {
+        this.mergePolicy = newMergePolicy;
+    }
+
+    /**
+     * Forces the format of imported and exported deck files.
+     *
+     * @param newFormat the format to use, or null to pick it by file extension
+     */
+    public void setFormat(final DeckFormat newFormat) {
+        this.format = newFormat;
+    }
+
+    /**
+     * Sets the level compressed deck files are written with.
+     * Higher levels make smaller files at the cost of slower exports; imports are not affected.
+     *
+     * @param newCompressionLevel the level, from 0 (store only) to 9 (smallest),
+     *                            or -1 for the default of the deflate algorithm
+     * @throws IllegalArgumentException if the level is out of range
+     */
+    public void setCompressionLevel(final int newCompressionLevel) {
+        if (newCompressionLevel < Deflater.DEFAULT_COMPRESSION || newCompressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("The compression level must be between -1 and 9.");
+        }
+        this.compressionLevel = newCompressionLevel;
+    }
+
+    /**
+     * Starts recording every change to the deck in the journal of a snapshot file.
+     * Changes are written in batches and forced to disk once per sync interval.
+     * The deck should already hold the snapshot and its replayed journal,
+     * otherwise {@link #compactJournal()} has to be called to start from a fresh snapshot.
+     *
+     * @param snapshotFile       the snapshot file the journal belongs to
+     * @param syncIntervalMillis the interval between group commits in milliseconds
+     * @throws IOException if the journal cannot be opened
+     */
+    public void enableJournal(final String snapshotFile, final long syncIntervalMillis) throws IOException {
+        closeJournal();
+        journalSnapshot = Path.of(snapshotFile);
+        journal = new DeckJournal(journalSnapshot, syncIntervalMillis);
+    }
+
+    /**
+     * Sets the number of journal records after which a new snapshot is written.
+     *
+     * @param newCompactionThreshold the number of records
+     */
+    public void setCompactionThreshold(final long newCompactionThreshold) {
+        this.compactionThreshold = newCompactionThreshold;
+    }
+
+    /**
+     * Writes the whole deck to the journal's snapshot file and empties the journal.
+     * The snapshot is written to a temporary file first and moved into place,
+     * so a crash leaves either the old snapshot with its journal or the new one.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void compactJournal() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            writeDeckAtomically(journalSnapshot, formatOf(journalSnapshot.toString()));
+            journal.truncate();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes all pending journal records to disk and stops journaling.
+     *
+     * @throws IOException if the pending records cannot be written
+     */
+    public void closeJournal() throws IOException {
+        if (journal != null) {
+            DeckJournal closing = journal;
+            journal = null;
+            closing.close();
+        }
+    }
+
+    /**
+     * Records a change in the journal if journaling is on,
+     * and compacts the journal once it has grown past the threshold.
+     * Must be called with the write lock held, so that a compaction
+     * never loses a change recorded concurrently.
+     *
+     * @param change the journal call recording the change
+     * @throws IOException if the journal cannot be written
+     */
+    private void journal(final JournalChange change) throws IOException {
+        if (journal == null) {
+            return;
+        }
+        change.record(journal);
+        if (journal.size() >= compactionThreshold) {
+            compactJournal();
+        }
+    }
+
+    /**
+     * A change to be recorded in the journal.
+     */
+    @FunctionalInterface
+    private interface JournalChange {
+        /**
+         * Records the change.
+         *
+         * @param deckJournal the journal to record it in
+         * @throws IOException if the journal cannot be written
+         */
+        void record(DeckJournal deckJournal) throws IOException;
+    }
+
+    /**
+     * Determines the format of a deck file.
+     *
+     * @param fileName the name of the deck file
+     * @return the forced format if one is set, otherwise the format matching the extension
+     */
+    private DeckFormat formatOf(final String fileName) {
+        return format != null ? format : DeckFormat.forFile(fileName);
+    }
+
+    /**
+     * Looks up the card holding the given term among the loaded cards,
+     * then in the lazy deck and the arena deck if they are open.
+     *
+     * @param term the term to look for
+     * @return the matching card, or null if there is none
+     */
+    public FlashCard findByTerm(final String term) {
+        FlashCard flashCard = termIndex.get(term);
+        MappedDeck lazy = lazyDeck;
+        if (flashCard == null && lazy != null) {
+            flashCard = lazy.find(term);
+        }
+        ArenaDeckStore arena = arenaDeck;
+        if (flashCard == null && arena != null) {
+            int id = arena.findByTerm(term);
+            flashCard = id >= 0 ? arena.card(id) : null;
+        }
+        return flashCard;
+    }
+
+    /**
+     * Looks up the card holding the given definition among the loaded cards,
+     * then in the arena deck if one is open.
+     *
+     * @param definition the definition to look for
+     * @return the matching card, or null if there is none
+     */
+    public FlashCard findByDefinition(final String definition) {
+        FlashCard flashCard = definitionIndex.get(definition);
+        ArenaDeckStore arena = arenaDeck;
+        if (flashCard == null && arena != null) {
+            int id = arena.findByDefinition(definition);
+            flashCard = id >= 0 ? arena.card(id) : null;
+        }
+        return flashCard;
+    }
+
+    /**
+     * Adds a card to the collection and to the term and definition indexes.
+     *
+     * @param flashCard the card to add
+     * @return true if the card was not already in the collection
+     */
+    private boolean addCard(final FlashCard flashCard) {
+        if (!flashCards.add(flashCard)) {
+            return false;
+        }
+        index(flashCard);
+        return true;
+    }
+
+    /**
+     * Registers a card in the term and definition indexes unless its term or definition
+     * is already indexed there, adds it to the search and fuzzy indexes once they are built,
+     * gives it an id in the mistake counters, ranks it by its mistake count,
+     * schedules it for review, adds it to the heap estimate and records it as changed since the last export.
+     *
+     * @param flashCard the card to index
+     */
+    private void index(final FlashCard flashCard) {
+        termIndex.putIfAbsent(flashCard.getTerm(), flashCard);
+        LevenshteinTrie tree = fuzzyDefinitions.get();
+        if (definitionIndex.putIfAbsent(flashCard.getDefinition(), flashCard) == null && tree != null) {
+            tree.add(flashCard.getDefinition());
+        }
+        SearchIndex search = searchIndex.get();
+        if (search != null) {
+            search.add(flashCard);
+        }
+        flashCard.attach(counters, rankingListener);
+        ranking.add(flashCard);
+        scheduler.add(flashCard);
+        heapBytes.addAndGet(heapBytesOf(flashCard));
+        changes.changed(flashCard);
+    }
+
+    /**
+     * Removes a card from the collection, the indexes, the ranking and the scheduler.
+     * Imported decks may hold several cards with the same term or definition,
+     * only one of which is indexed. In that case the remaining cards are scanned
+     * so that another holder of the term or definition takes over its index slot.
+     *
+     * @param flashCard the card to remove
+     */
+    private void removeCard(final FlashCard flashCard) {
+        Set<String> freedTerms = new HashSet<>();
+        Set<String> freedDefinitions = new HashSet<>();
+        unindex(flashCard, freedTerms, freedDefinitions);
+        reindex(freedTerms, freedDefinitions);
+    }
+
+    /**
+     * Removes a card from the collection, the indexes, the ranking, the scheduler and the heap estimate,
+     * without yet handing its index slots to other holders of its term or definition.
+     * {@link #reindex(Set, Set)} has to be called with the freed terms and definitions afterwards.
+     *
+     * @param flashCard        the card to remove
+     * @param freedTerms       collects the term if its index slot was freed
+     * @param freedDefinitions collects the definition if its index slot was freed
+     */
+    private void unindex(final FlashCard flashCard, final Set<String> freedTerms,
+                         final Set<String> freedDefinitions) {
+        if (flashCards.remove(flashCard)) {
+            heapBytes.addAndGet(-heapBytesOf(flashCard));
+        }
+        SearchIndex search = searchIndex.get();
+        if (search != null) {
+            search.remove(flashCard);
+        }
+        flashCard.detach();
+        ranking.remove(flashCard, flashCard.getMistakes());
+        scheduler.remove(flashCard);
+        changes.changed(flashCard);
+        if (termIndex.remove(flashCard.getTerm(), flashCard)) {
+            freedTerms.add(flashCard.getTerm());
+        }
+        if (definitionIndex.remove(flashCard.getDefinition(), flashCard)) {
+            freedDefinitions.add(flashCard.getDefinition());
+        }
+    }
+
+    /**
+     * Hands freed index slots to the remaining holders of their terms and definitions.
+     * The cards are scanned at most once, and only if some card is not indexed,
+     * so a batch of removals costs a single scan.
+     *
+     * @param freedTerms       the terms whose index slots were freed
+     * @param freedDefinitions the definitions whose index slots were freed
+     */
+    private void reindex(final Set<String> freedTerms, final Set<String> freedDefinitions) {
+        boolean unindexedTerms = !freedTerms.isEmpty() && flashCards.size() > termIndex.size();
+        boolean unindexedDefinitions = !freedDefinitions.isEmpty() && flashCards.size() > definitionIndex.size();
+        if (unindexedTerms || unindexedDefinitions) {
+            for (FlashCard other : flashCards) {
+                if (unindexedTerms && freedTerms.contains(other.getTerm())) {
+                    termIndex.putIfAbsent(other.getTerm(), other);
+                }
+                if (unindexedDefinitions && freedDefinitions.contains(other.getDefinition())) {
+                    definitionIndex.putIfAbsent(other.getDefinition(), other);
+                }
+            }
+        }
+        LevenshteinTrie tree = fuzzyDefinitions.get();
+        if (tree != null) {
+            for (String definition : freedDefinitions) {
+                if (!definitionIndex.containsKey(definition)) {
+                    tree.remove(definition);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the search index, building it on first use.
+     *
+     * @return the index
+     */
+    private SearchIndex searchIndex() {
+        SearchIndex index = searchIndex.get();
+        if (index != null) {
+            return index;
+        }
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            index = searchIndex.get();
+            if (index == null) {
+                index = new SearchIndex();
+                for (FlashCard flashCard : flashCards) {
+                    index.add(flashCard);
+                }
+                searchIndex.set(index);
+            }
+            return index;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the trie over the indexed definitions, building it on first use.
+     *
+     * @return the tree
+     */
+    private LevenshteinTrie fuzzyDefinitions() {
+        LevenshteinTrie tree = fuzzyDefinitions.get();
+        if (tree != null) {
+            return tree;
+        }
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            tree = fuzzyDefinitions.get();
+            if (tree == null) {
+                tree = new LevenshteinTrie();
+                for (String definition : definitionIndex.keySet()) {
+                    tree.add(definition);
+                }
+                fuzzyDefinitions.set(tree);
+            }
+            return tree;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Finds the card with exactly the given term and definition.
+     *
+     * @param term       the term of the card
+     * @param definition the definition of the card
+     * @return the card, or null if the deck does not hold it
+     */
+    private FlashCard findCard(final String term, final String definition) {
+        FlashCard flashCard = termIndex.get(term);
+        if (flashCard != null && flashCard.getDefinition().equals(definition)) {
+            return flashCard;
+        }
+        flashCard = definitionIndex.get(definition);
+        if (flashCard != null && flashCard.getTerm().equals(term)) {
+            return flashCard;
+        }
+        FlashCard wanted = new FlashCard(term, definition);
+        if (!flashCards.contains(wanted)) {
+            return null;
+        }
+        for (FlashCard candidate : flashCards) {
+            if (candidate.equals(wanted)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates the replayer that applies journal records to this deck.
+     *
+     * @return the replayer
+     */
+    private DeckJournal.Replayer replayer() {
+        return new DeckJournal.Replayer() {
+            @Override
+            public void cardAdded(final String term, final String definition, final int mistakes) {
+                FlashCard flashCard = new FlashCard(term, definition);
+                flashCard.setMistakes(mistakes);
+                addCard(flashCard);
+            }
+
+            @Override
+            public void cardRemoved(final String term, final String definition) {
+                FlashCard flashCard = findCard(term, definition);
+                if (flashCard != null) {
+                    removeCard(flashCard);
+                }
+            }
+
+            @Override
+            public void mistakeIncreased(final String term, final String definition) {
+                FlashCard flashCard = findCard(term, definition);
+                if (flashCard != null) {
+                    flashCard.increaseMistakes();
+                }
+            }
+
+            @Override
+            public void statsReset() {
+                ranking.clear();
+                counters.clear();
+                changes.statsReset();
+            }
+
+            @Override
+            public void cardReviewed(final String term, final String definition, final ReviewState review) {
+                FlashCard flashCard = findCard(term, definition);
+                if (flashCard != null) {
+                    scheduler.reschedule(flashCard, review);
+                    changes.changed(flashCard);
+                }
+            }
+        };
+    }
+
     /**
      * This method quizzes the user on flashcards.
      * It prompts the user to enter the number of times they want to be asked,
-     * then iterates through the flashcards and
+     * then takes the flashcards that are due first from the review scheduler,
+     * each at most once per session, followed by cards of the lazy deck if one is open, and
      * prompts the user to enter the definition of each term.
      * If the user's answer is correct, it prints "Correct!".
      * If the user's answer is incorrect.
@@ -52,111 +899,369 @@ public class FlashCardManager {
      * user's definition is correct for another term.
      * Otherwise, it prints a message indicating that the user's answer is wrong
      * and provides the correct answer.
+     * Every answer updates the card's review state, which decides when it is due again.
+     * Answers are graded with the tolerance set by {@link #setFuzzyTolerance(int)}.
      *
      * @throws IOException if an I/O error occurs
      * when reading from the input stream.
      */
     public void quizUser() throws IOException {
-        System.out.println("How many times to ask?");
-        int timesToAsk = Integer.parseInt(reader.readLine());
+        quizUser(fuzzyTolerance);
+    }
+
+    /**
+     * Quizzes the user as {@link #quizUser()} does, accepting answers within the given
+     * edit distance of the right definition. Wrong answers within it of the definition
+     * of another card get a hint naming that card. Cards of an arena deck are asked once
+     * the other cards have all been asked; as the arena deck is read-only, their answers
+     * are graded without changing their mistakes or review states.
+     *
+     * @param tolerance the largest accepted Levenshtein distance, 0 for exact answers only
+     * @throws IOException if an I/O error occurs when reading from the input stream
+     */
+    public void quizUser(final int tolerance) throws IOException {
+        awaitImport(false);
+        LevenshteinTrie tree = tolerance > 0 ? fuzzyDefinitions() : null;
+        prompt("How many times to ask?%n");
+        int timesToAsk = Integer.parseInt(readLine());
+
+        ArrayList<FlashCard> asked = new ArrayList<>();
+        try {
+            FlashCard flashCard;
+            while (timesToAsk > 0 && (flashCard = nextCard()) != null) {
+                asked.add(flashCard);
+                askCard(flashCard, tolerance, tree, true);
+                timesToAsk--;
+            }
+            ArenaDeckStore arena = arenaDeck;
+            while (timesToAsk > 0 && arena != null && (flashCard = arena.next()) != null) {
+                askCard(flashCard, tolerance, tree, false);
+                timesToAsk--;
+            }
+        } finally {
+            for (FlashCard flashCard : asked) {
+                scheduler.requeue(flashCard);
+            }
+        }
+    }
+
+    /**
+     * Takes the card to ask next: the card of the deck that is due first,
+     * or the next card of the lazy deck if the deck is empty.
+     *
+     * @return the card, or null if there is none
+     */
+    private FlashCard nextCard() {
+        FlashCard flashCard = scheduler.poll();
+        MappedDeck lazy = lazyDeck;
+        return flashCard != null || lazy == null ? flashCard : lazy.next();
+    }
+
+    /**
+     * Asks for the definition of one card, grades the answer and reschedules the card.
+     *
+     * @param flashCard the card to ask, taken out of the scheduler's queue
+     * @param tolerance the largest accepted Levenshtein distance, 0 for exact answers only
+     * @param tree      the trie over the definitions, or null if the tolerance is 0
+     * @param recorded  false for cards of the read-only arena deck, whose mistakes and review state stay as they are
+     * @throws IOException if an I/O error occurs when reading from the input stream
+     */
+    private void askCard(final FlashCard flashCard, final int tolerance, final LevenshteinTrie tree,
+                         final boolean recorded) throws IOException {
+        DeckEvents.QuizAnswer event = new DeckEvents.QuizAnswer();
+        event.begin();
+        long asked = metrics.start();
         String userAnswer;
-        boolean foundMatchingDef;
-
-        Iterator<FlashCard> iterator = flashCards.iterator();
-        while (iterator.hasNext() && timesToAsk > 0) {
-            foundMatchingDef = false;
-            FlashCard flashCard = iterator.next();
-            System.out.printf("Print the definition of \"%s\":%n",
-                    flashCard.getTerm());
-            userAnswer = reader.readLine();
-
-            if (userAnswer.equals(flashCard.getDefinition())) {
-                System.out.println("Correct!");
-            } else {
-                flashCard.increaseMistakes();
-                for (FlashCard flashcard : flashCards) {
-                    if (flashcard.getDefinition().equals(userAnswer)) {
-                        System.out.printf("Wrong. The right answer is \"%s\", "
-                                        + "but your definition is correct for \"%s\".%n",
-                                flashCard.getDefinition(), flashcard.getTerm());
-                        foundMatchingDef = true;
-                        break;
-                    }
-                }
-                if (!foundMatchingDef) {
-                    System.out.printf("Wrong. The right answer is \"%s\".%n",
-                            flashCard.getDefinition());
+        prompt("Print the definition of \"%s\":%n", flashCard.getTerm());
+        userAnswer = readLine();
+
+        long start = metrics.start();
+
+        boolean exact = userAnswer.equals(flashCard.getDefinition());
+        boolean correct = exact
+                || tolerance > 0 && LevenshteinTrie.distance(userAnswer, flashCard.getDefinition(), tolerance) <= tolerance;
+        event.term = flashCard.getTerm();
+        event.answerLatency = start - asked;
+        event.correct = correct;
+        event.exact = exact;
+        if (recorded) {
+            Lock writeLock = lock.writeLock();
+            writeLock.lock();
+            try {
+                scheduler.grade(flashCard, correct);
+                changes.changed(flashCard);
+                journal(j -> j.cardReviewed(flashCard));
+                if (!correct) {
+                    flashCard.increaseMistakes();
+                    journal(j -> j.mistakeIncreased(flashCard));
                 }
+            } finally {
+                writeLock.unlock();
             }
-            timesToAsk--;
         }
 
+        if (exact) {
+            out().println("Correct!");
+        } else if (correct) {
+            out().printf("Correct! Mind the spelling: \"%s\".%n", flashCard.getDefinition());
+        } else {
+            long lookupStart = metrics.start();
+            FlashCard matchingCard = findByDefinition(userAnswer);
+            FlashCard closestCard = null;
+            if (matchingCard == null && tree != null) {
+                String closest = tree.nearest(userAnswer, tolerance);
+                closestCard = closest != null ? definitionIndex.get(closest) : null;
+            }
+            metrics.record(DeckMetrics.WRONG_ANSWER_LOOKUP, lookupStart);
+            if (matchingCard != null) {
+                out().printf("Wrong. The right answer is \"%s\", "
+                                + "but your definition is correct for \"%s\".%n",
+                        flashCard.getDefinition(), matchingCard.getTerm());
+            } else if (closestCard != null) {
+                out().printf("Wrong. The right answer is \"%s\". "
+                                + "Did you mean the definition of \"%s\"?%n",
+                        flashCard.getDefinition(), closestCard.getTerm());
+            } else {
+                out().printf("Wrong. The right answer is \"%s\".%n",
+                        flashCard.getDefinition());
+            }
+        }
+        metrics.record(DeckMetrics.ASK, start);
+        event.commit();
     }
 
     /**
      * This method exports flashcards to a file.
      * It prompts the user to enter a file name,
      * then writes each flashcard to the file in a specific format.
-     * The term, definition, and number of mistakes are separated by "&&".
+     * The term, definition, and number of mistakes are separated by "&&",
+     * followed by the review state of cards that have been asked before.
      * After writing all flashcards to the file,
      * it prints a message indicating how many cards have been saved.
      *
      * @throws IOException if an I/O error occurs when writing to the file
      */
     public void exportFlashCards() throws IOException {
-        System.out.println("File name:");
-        String saveFile = reader.readLine();
-        int totalCards = 0;
+        prompt("File name:%n");
+        String saveFile = readLine();
+        exportFlashCards(saveFile);
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(saveFile))) {
-            for (FlashCard flashcard : flashCards) {
-                String line = flashcard.getTerm() + "&&"
-                        + flashcard.getDefinition()
-                        + "&&" + flashcard.getMistakes();
-                writer.write(line);
-                writer.newLine();
-                totalCards++;
+    /**
+     * Exports the flashcards to a specified file.
+     * The method writes the flashcard data, including term, definition,
+     * and mistake count, to the file using
+     * a specific format (term&&definition&&mistakes), the binary format of
+     * {@link BinaryDeckFormat} for ".fcb" files, or that text compressed in
+     * checksummed blocks by {@link CompressedDeckFormat} for ".fcz" files. The deck is written to a temporary
+     * file that is then moved over the given one, so a crash never leaves a truncated file.
+     * The file becomes the base of later delta exports, and a delta left next to it
+     * by earlier ones is deleted. After exporting,
+     * the method informs the user of the number of flashcards that have
+     * been saved to the file.
+     *
+     * @param saveFile the name of the file to which flashcard data will be exported.
+     * @throws IOException if an I/O error occurs while performing file operations or reading user input.
+     */
+    public void exportFlashCards(final String saveFile) throws IOException {
+        awaitImport(true);
+        long start = metrics.start();
+        DeckEvents.Export event = new DeckEvents.Export();
+        event.begin();
+        Path file = Path.of(saveFile);
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            int totalCards = writeDeckAtomically(file, formatOf(saveFile));
+            event.cards = totalCards;
+            if (journal != null && file.toAbsolutePath().equals(journalSnapshot.toAbsolutePath())) {
+                journal.truncate();
+            } else {
+                Files.deleteIfExists(DeckJournal.journalOf(file));
+            }
+            changes.rebase(file);
+            out().printf("%d cards have been saved.%n%n", totalCards);
+
+        } catch (IOException e) {
+            changes.forgetBase();
+            e.printStackTrace();
+        } finally {
+            readLock.unlock();
+            metrics.record(DeckMetrics.EXPORT, start);
+            event.commit(saveFile, file);
+        }
+    }
+
+    /**
+     * Prompts the user for a file name and saves the changes made since the deck was
+     * last exported to it, as {@link #exportDelta(String)} does.
+     *
+     * @throws IOException if an I/O error occurs when reading from the input stream
+     */
+    public void exportDelta() throws IOException {
+        prompt("File name:%n");
+        String saveFile = readLine();
+        exportDelta(saveFile);
+    }
+
+    /**
+     * Saves only the cards added, removed or changed since the deck was last exported
+     * to or loaded from a file, by appending them to the journal next to that file.
+     * Imports replay the journal on top of the file, so the file and its delta
+     * load as the current deck. The whole deck is exported instead, compacting
+     * the delta into the file, when the file is not the one last exported or loaded,
+     * when it has changed since, or when its delta has grown past half its size.
+     * A file journaled with {@link #enableJournal(String, long)} already records
+     * every change, so its journal is only forced to disk.
+     *
+     * @param saveFile the name of the file the deck was last exported to
+     * @throws IOException if an I/O error occurs while performing file operations
+     */
+    public void exportDelta(final String saveFile) throws IOException {
+        awaitImport(true);
+        Path file = Path.of(saveFile);
+        if (journal != null && file.toAbsolutePath().equals(journalSnapshot.toAbsolutePath())) {
+            journal.sync();
+            out().printf("The journal of \"%s\" already holds every change.%n%n", saveFile);
+            return;
+        }
+
+        long start = metrics.start();
+        DeckEvents.Export event = new DeckEvents.Export();
+        event.begin();
+        event.delta = true;
+        Path deltaFile = DeckJournal.journalOf(file);
+        boolean full = false;
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            if (!changes.canAppendTo(file)
+                    || Files.exists(deltaFile) && Files.size(deltaFile) > Files.size(file) / 2) {
+                // The full export records itself.
+                full = true;
+                exportFlashCards(saveFile);
+                return;
+            }
+            int totalCards = 0;
+            MappedDeck lazy = lazyDeck;
+            try (DeckJournal delta = new DeckJournal(file, DeckJournal.DEFAULT_SYNC_INTERVAL_MILLIS)) {
+                if (changes.drainStatsReset()) {
+                    delta.statsReset();
+                }
+                for (FlashCard flashCard : changes.drain()) {
+                    delta.cardRemoved(flashCard);
+                    // Changed lazy cards live in the lazy deck's overlay rather than the deck's set.
+                    if (flashCards.contains(flashCard) || lazy != null && lazy.find(flashCard.getTerm()) == flashCard) {
+                        delta.cardAdded(flashCard);
+                        if (flashCard.getReview() != null) {
+                            delta.cardReviewed(flashCard);
+                        }
+                    }
+                    totalCards++;
+                }
             }
-
-            System.out.printf("%d cards have been saved.%n%n", totalCards);
+            event.cards = totalCards;
+            out().printf("%d changed cards have been saved.%n%n", totalCards);
 
         } catch (IOException e) {
-            e.printStackTrace();
+            changes.forgetBase();
+            out().printf("The changes could not be saved: %s%n%n", e.getMessage());
+        } finally {
+            readLock.unlock();
+            if (!full) {
+                metrics.record(DeckMetrics.EXPORT, start);
+                event.commit(saveFile, deltaFile);
+            }
         }
     }
 
+    /**
+     * Saves every card to a binary deck file without printing anything, for decks that are
+     * unloaded from memory. Binary files are the fastest to write and to load back.
+     *
+     * @param file the deck file; it is replaced atomically if it exists
+     * @return the number of cards saved
+     * @throws IOException if the file cannot be written
+     */
+    int saveDeck(final Path file) throws IOException {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return writeDeckAtomically(file, DeckFormat.BINARY);
+        } finally {
+            readLock.unlock();
+        }
+    }
 
     /**
-     * Exports the flashcards to a specified file.
-     * The method writes the flashcard data, including term, definition,
-     * and mistake count, to the file using
-     * a specific format (term&&definition&&mistakes). The provided file name is
-     * used for saving the data. After exporting,
-     * the method informs the user of the number of flashcards that have
-     * been saved to the file.
+     * Writes every card to a temporary file next to a deck file and moves it into place
+     * with an atomic rename, so readers and crashes see either the old file or the new one.
      *
-     * @param saveFile the name of the file to which flashcard data will be exported.
-     * @throws IOException if an I/O error occurs while performing file operations or reading user input.
+     * @param target     the deck file
+     * @param deckFormat the format to write the file in
+     * @return the number of cards written
+     * @throws IOException if the file cannot be written
      */
-    public void exportFlashCards(final String saveFile) throws IOException {
+    private int writeDeckAtomically(final Path target, final DeckFormat deckFormat) throws IOException {
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            int totalCards = writeDeck(temporary.toString(), deckFormat);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return totalCards;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
 
-        int totalCards = 0;
+    /**
+     * Writes every card to a deck file in the given format.
+     *
+     * @param saveFile   the name of the file to write
+     * @param deckFormat the format to write the file in
+     * @return the number of cards written
+     * @throws IOException if the file cannot be written
+     */
+    private int writeDeck(final String saveFile, final DeckFormat deckFormat) throws IOException {
+        if (deckFormat == DeckFormat.BINARY) {
+            if (lazyDeck != null) {
+                throw new IOException("A lazy deck can only be exported as text.");
+            }
+            return BinaryDeckFormat.write(flashCards, Path.of(saveFile));
+        }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(saveFile))) {
+        int totalCards = 0;
+        OutputStream out = new BufferedOutputStream(deckFormat == DeckFormat.COMPRESSED
+                ? CompressedDeckFormat.newOutputStream(Path.of(saveFile), compressionLevel)
+                : new FileOutputStream(saveFile), 1 << 16);
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            if (lazyDeck != null) {
+                totalCards += (int) lazyDeck.writeTo(out, FlashCardManager::line);
+            }
             for (FlashCard flashcard : flashCards) {
-                String line = flashcard.getTerm() + "&&"
-                        + flashcard.getDefinition()
-                        + "&&" + flashcard.getMistakes();
-                writer.write(line);
+                writer.write(line(flashcard));
                 writer.newLine();
                 totalCards++;
             }
+        }
+        return totalCards;
+    }
 
-            System.out.printf("%d cards have been saved.%n%n", totalCards);
-
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Formats a flashcard as a line of a text deck.
+     *
+     * @param flashcard the flashcard
+     * @return the line, without the line break
+     */
+    private static String line(final FlashCard flashcard) {
+        String line = flashcard.getTerm() + "&&"
+                + flashcard.getDefinition()
+                + "&&" + flashcard.getMistakes();
+        ReviewState review = flashcard.getReview();
+        if (review != null) {
+            line += "&&" + review.getEase() + "&&" + review.getInterval()
+                    + "&&" + review.getRepetitions() + "&&" + review.getDue();
         }
+        return line;
     }
 
     /**
@@ -174,28 +1279,9 @@ public class FlashCardManager {
      * @throws IOException if an I/O error occurs while performing file operations or reading user input.
      */
     public void importFlashCards() throws IOException {
-        System.out.println("File name:");
-        String readFile = reader.readLine();
-        FlashCard newFlashCard;
-        int totalCards = 0;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(readFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] arguments = line.split("&&");
-
-                newFlashCard = new FlashCard(arguments[0], arguments[1]);
-                newFlashCard.setMistakes(Integer.parseInt(arguments[2]));
-                flashCards.add(newFlashCard);
-                totalCards++;
-            }
-
-            System.out.printf("%d cards have been loaded.%n%n", totalCards);
-
-        } catch (IOException e) {
-            System.out.println("File not found.");
-        }
-
+        prompt("File name:%n");
+        String readFile = readLine();
+        importFlashCards(readFile);
     }
 
     /**
@@ -203,6 +1289,15 @@ public class FlashCardManager {
      * The method reads lines from the file,
      * where each line represents a flashcard with its term, definition,
      * and mistake count (formatted as term&&definition&&mistakes).
+     * The lines are parsed by a {@link DeckParser} straight from the file bytes;
+     * malformed lines are reported with their line number and skipped.
+     * In mapped import mode the file is parsed in parallel chunks instead.
+     * Binary decks are loaded as a whole through {@link BinaryDeckFormat}.
+     * Compressed decks have every block checked through {@link CompressedDeckFormat}
+     * first, and are then parsed as they are inflated.
+     * If the file has a {@link DeckJournal}, its records are replayed on top.
+     * If a merge policy is set, the file is merged into the deck by term instead.
+     * A file loaded into an empty deck becomes the base of later delta exports.
      * It creates new FlashCard objects using the provided data and
      * adds them to the flashcard collection. After importing,
      * the method informs the user of
@@ -212,57 +1307,498 @@ public class FlashCardManager {
      * @throws IOException if an I/O error occurs while performing file operations or reading user input.
      */
     public void importFlashCards(final String readFile) throws IOException {
+        if (mergePolicy != null) {
+            mergeFlashCards(readFile, mergePolicy);
+            return;
+        }
 
-        FlashCard newFlashCard;
-        int totalCards = 0;
+        long start = metrics.start();
+        DeckEvents.Import event = new DeckEvents.Import();
+        event.begin();
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            boolean loadsWholeDeck = flashCards.isEmpty();
+            long totalCards = readDeck(readFile, this::addCard);
+            event.cards = totalCards;
+            long replayed = 0;
+            if (journal == null || !Path.of(readFile).toAbsolutePath().equals(journalSnapshot.toAbsolutePath())) {
+                replayed = DeckJournal.replay(Path.of(readFile), replayer());
+            }
+            if (replayed > 0) {
+                out().printf("%d journal records have been replayed.%n", replayed);
+            }
+            if (journal != null) {
+                compactJournal();
+            }
+            if (loadsWholeDeck) {
+                changes.rebase(Path.of(readFile));
+            }
+            out().printf("%d cards have been loaded.%n%n", totalCards);
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(readFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] arguments = line.split("&&");
+        } catch (CorruptDeckException e) {
+            out().printf("The file is damaged: %s%n%n", e.getMessage());
+        } catch (IOException e) {
+            out().println("File not found.");
+        } finally {
+            writeLock.unlock();
+            metrics.record(DeckMetrics.IMPORT, start);
+            event.commit(readFile);
+        }
+    }
 
-                newFlashCard = new FlashCard(arguments[0], arguments[1]);
-                newFlashCard.setMistakes(Integer.parseInt(arguments[2]));
-                flashCards.add(newFlashCard);
-                totalCards++;
+    /**
+     * Starts loading a deck file on a worker thread and returns at once, so that the deck
+     * can be used while it loads. Cards are added in batches of {@link #IMPORT_BATCH_SIZE}
+     * under the write lock, so changes made meanwhile apply to the deck as loaded so far,
+     * as if they had been made before a regular import of the file.
+     * About every second the number of cards loaded, how much of the file has been read,
+     * when that is known, and the loading rate are printed.
+     * If the file has a {@link DeckJournal}, its records are replayed once every card is loaded.
+     * A file loaded into an empty deck that nobody changed meanwhile becomes the base of
+     * later delta exports. If a merge policy is set, the file is merged before returning
+     * instead, as merges need the whole deck.
+     *
+     * @param readFile the name of the file containing flashcard data to be imported
+     * @throws IOException if the file is merged and an I/O error occurs
+     */
+    public void importInBackground(final String readFile) throws IOException {
+        if (mergePolicy != null) {
+            mergeFlashCards(readFile, mergePolicy);
+            return;
+        }
+        BackgroundImport load = new BackgroundImport(readFile, clock);
+        backgroundImport.set(load);
+        Thread worker = new Thread(() -> loadInBackground(load), "deck-import");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Waits silently until the last background import has ended, if one was started.
+     */
+    public void awaitImport() {
+        BackgroundImport load = backgroundImport.get();
+        if (load != null) {
+            load.await();
+        }
+    }
+
+    /**
+     * Waits until the last background import has ended, unless the command can do with
+     * the cards loaded so far. Must not be called with the lock held.
+     *
+     * @param wholeDeck true if the command needs every card whatever the partial deck setting
+     */
+    private void awaitImport(final boolean wholeDeck) {
+        BackgroundImport load = backgroundImport.get();
+        if (load == null || load.isFinished() || partialDeck && !wholeDeck) {
+            return;
+        }
+        out().printf("Waiting for \"%s\" to finish loading.%n", load.getFile());
+        load.await();
+    }
+
+    /**
+     * Loads a deck file on the worker thread of a background import.
+     *
+     * @param load the progress of the import, marked as ended when the file is loaded or fails
+     */
+    private void loadInBackground(final BackgroundImport load) {
+        long start = metrics.start();
+        DeckEvents.Import event = new DeckEvents.Import();
+        event.begin();
+        event.background = true;
+        String readFile = load.getFile();
+        Lock writeLock = lock.writeLock();
+        try {
+            boolean loadsWholeDeck;
+            long modifications;
+            writeLock.lock();
+            try {
+                loadsWholeDeck = flashCards.isEmpty();
+                modifications = changes.modifications();
+            } finally {
+                writeLock.unlock();
+            }
+
+            List<FlashCard> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+            long totalCards = readDeck(readFile, flashCard -> {
+                batch.add(flashCard);
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    addBatch(batch, load);
+                }
+            }, load);
+            addBatch(batch, load);
+
+            writeLock.lock();
+            try {
+                // Every card added by the import recorded one change; any other change came from a session.
+                boolean untouched = changes.modifications() - modifications == load.getCards();
+                long replayed = DeckJournal.replay(Path.of(readFile), replayer());
+                if (replayed > 0) {
+                    out().printf("%d journal records have been replayed.%n", replayed);
+                }
+                if (loadsWholeDeck && untouched) {
+                    changes.rebase(Path.of(readFile));
+                }
+                out().printf("%d cards have been loaded.%n%n", totalCards);
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (CorruptDeckException e) {
+            out().printf("The file is damaged: %s%n%n", e.getMessage());
+        } catch (IOException e) {
+            out().println("File not found.");
+        } finally {
+            metrics.record(DeckMetrics.IMPORT, start);
+            event.cards = load.getCards();
+            event.commit(readFile);
+            load.finish();
+        }
+    }
+
+    /**
+     * Adds a batch of loaded cards to the deck under the write lock, empties the batch
+     * and reports the progress of the import if it is due.
+     *
+     * @param batch the cards loaded since the last batch
+     * @param load  the progress of the import
+     */
+    private void addBatch(final List<FlashCard> batch, final BackgroundImport load) {
+        long added = 0;
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            for (FlashCard flashCard : batch) {
+                if (addCard(flashCard)) {
+                    added++;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        batch.clear();
+        load.added(added);
+        if (load.reportDue(PROGRESS_INTERVAL_MILLIS)) {
+            int percent = load.percentDone();
+            if (percent >= 0) {
+                out().printf("Loading \"%s\": %d cards, %d%% done, %d cards/s.%n",
+                        load.getFile(), load.getCards(), percent, load.cardsPerSecond());
+            } else {
+                out().printf("Loading \"%s\": %d cards, %d cards/s.%n",
+                        load.getFile(), load.getCards(), load.cardsPerSecond());
             }
+        }
+    }
+
+    /**
+     * Opens a text deck file as the lazy deck, which is left on disk and read card by card
+     * through a {@link MappedDeck} instead of being loaded. Cards of the lazy deck can be
+     * looked up, removed and asked like loaded cards, and their mistakes are kept in memory
+     * until the deck is exported. Opening a deck replaces the previous lazy deck.
+     *
+     * @param readFile the name of the text deck file
+     */
+    public void openLazyDeck(final String readFile) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            lazyDeck = MappedDeck.open(Path.of(readFile));
+            out().printf("The lazy deck \"%s\" holds %d cards.%n%n", readFile, lazyDeck.size());
+        } catch (IOException e) {
+            out().println("File not found.");
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Loads a text deck file into a read-only arena deck, which keeps the terms and definitions
+     * off the heap in an {@link ArenaDeckStore}. Cards of the arena deck can be looked up and
+     * asked, but not removed, and are left out of exports. The heap taken by the arena deck is
+     * reported next to the estimate for the same cards loaded into the deck.
+     * Opening a deck replaces the previous arena deck.
+     *
+     * @param readFile the name of the text deck file
+     */
+    public void openArenaDeck(final String readFile) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            arenaDeck = ArenaDeckStore.load(Path.of(readFile));
+            long loadedBytes = arenaDeck.size() * CARD_HEAP_BYTES + arenaDeck.stringBytes();
+            out().printf("The arena deck \"%s\" holds %d cards in %d KB of heap and %d KB off the heap "
+                            + "instead of about %d KB of heap.%n%n", readFile, arenaDeck.size(),
+                    arenaDeck.heapBytes() / 1024, arenaDeck.offHeapBytes() / 1024, loadedBytes / 1024);
+        } catch (IOException e) {
+            out().println("File not found.");
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
-            System.out.printf("%d cards have been loaded.%n%n", totalCards);
+    /**
+     * Prompts the user for a deck file and a merge policy and merges the file into the deck.
+     *
+     * @throws IOException if an I/O error occurs while reading user input
+     */
+    public void mergeFlashCards() throws IOException {
+        prompt("File name:%n");
+        String readFile = readLine();
+        prompt("Keep existing cards, overwrite them or sum mistakes? (keep, overwrite, sum)%n");
+        String policyName = readLine();
+        MergePolicy policy;
+        try {
+            policy = MergePolicy.fromName(policyName);
+        } catch (IllegalArgumentException e) {
+            out().printf("Unknown merge policy \"%s\".%n%n", policyName);
+            return;
+        }
+        mergeFlashCards(readFile, policy);
+    }
+
+    /**
+     * Merges the cards of a deck file into the deck, matching them by term.
+     * Cards with new terms are inserted; cards whose term is already in the deck are
+     * resolved by the policy. Each card of the file is joined against the term index
+     * as it is read, and index slots freed by overwritten cards are handed to other
+     * holders of their term or definition in one scan at the end, so the merge takes
+     * time linear in the sizes of the file and the deck.
+     * Cards of the file that repeat a term are merged into the card inserted for it.
+     * Journal records of the file are not replayed.
+     * A background import still loading is waited for first, so that the merge sees its cards.
+     * The numbers of inserted, updated, conflicting and unchanged cards are reported.
+     *
+     * @param readFile the name of the deck file
+     * @param policy   how to resolve cards whose term is already in the deck
+     * @throws IOException if an I/O error occurs while performing file operations
+     */
+    public void mergeFlashCards(final String readFile, final MergePolicy policy) throws IOException {
+        awaitImport(true);
+        long start = metrics.start();
+        DeckEvents.Import event = new DeckEvents.Import();
+        event.begin();
+        event.merge = true;
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            DeckMerge merge = new DeckMerge(policy);
+            try {
+                event.cards = readDeck(readFile, merge);
+            } finally {
+                reindex(merge.freedTerms, merge.freedDefinitions);
+            }
+            if (journal != null) {
+                compactJournal();
+            }
+            out().printf("%d cards have been merged: %d inserted, %d updated, %d conflicting, %d unchanged.%n%n",
+                    merge.inserted + merge.updated + merge.conflicting + merge.unchanged,
+                    merge.inserted, merge.updated, merge.conflicting, merge.unchanged);
 
+        } catch (CorruptDeckException e) {
+            out().printf("The file is damaged: %s%n%n", e.getMessage());
         } catch (IOException e) {
-            System.out.println("File not found.");
+            out().println("File not found.");
+        } finally {
+            writeLock.unlock();
+            metrics.record(DeckMetrics.IMPORT, start);
+            event.commit(readFile);
+        }
+    }
+
+    /**
+     * Reads every card of a deck file in the format chosen for it.
+     * Malformed lines of text decks are reported and skipped.
+     *
+     * @param readFile the name of the deck file
+     * @param sink     the destination of the cards, in file order
+     * @return the number of cards read
+     * @throws IOException if the file cannot be read
+     */
+    private long readDeck(final String readFile, final Consumer<FlashCard> sink) throws IOException {
+        return readDeck(readFile, sink, null);
+    }
+
+    /**
+     * Reads every card of a deck file in the format chosen for it, counting the bytes
+     * of streamed text and compressed decks as progress of a background import.
+     *
+     * @param readFile the name of the deck file
+     * @param sink     the destination of the cards, in file order
+     * @param progress the progress of the import, or null
+     * @return the number of cards read
+     * @throws IOException if the file cannot be read
+     */
+    private long readDeck(final String readFile, final Consumer<FlashCard> sink, final BackgroundImport progress)
+            throws IOException {
+        DeckParser.MalformedLineHandler errors = (lineNumber, reason) -> out().printf(
+                "Skipping line %d of \"%s\": %s.%n", lineNumber, readFile, reason);
+
+        DeckFormat deckFormat = formatOf(readFile);
+        if (deckFormat == DeckFormat.BINARY) {
+            return BinaryDeckFormat.read(Path.of(readFile), sink);
+        }
+        if (mappedImport && deckFormat == DeckFormat.TEXT) {
+            return new ParallelDeckImporter().importDeck(Path.of(readFile), sink, errors);
+        }
+        DeckParser parser = new DeckParser(
+                (term, definition, mistakes, review) -> {
+                    FlashCard newFlashCard = new FlashCard(term, definition);
+                    newFlashCard.setMistakes(mistakes);
+                    newFlashCard.setReview(review);
+                    sink.accept(newFlashCard);
+                },
+                errors);
+        try (InputStream in = deckFormat == DeckFormat.COMPRESSED
+                ? CompressedDeckFormat.newInputStream(Path.of(readFile))
+                : new FileInputStream(readFile)) {
+            if (progress == null) {
+                return parser.parse(in);
+            }
+            progress.expect(deckFormat == DeckFormat.COMPRESSED
+                    ? CompressedDeckFormat.textLength(Path.of(readFile))
+                    : Files.size(Path.of(readFile)));
+            return parser.parse(progress.track(in));
+        }
+    }
+
+    /**
+     * Merges the cards of a file into the deck one by one, counting the outcomes.
+     * Must be used with the write lock held.
+     */
+    private final class DeckMerge implements Consumer<FlashCard> {
+
+        /**
+         * How cards whose term is already in the deck are resolved.
+         */
+        private final MergePolicy policy;
+
+        /**
+         * The terms whose index slots were freed by overwritten cards.
+         */
+        private final Set<String> freedTerms = new HashSet<>();
+
+        /**
+         * The definitions whose index slots were freed by overwritten cards.
+         */
+        private final Set<String> freedDefinitions = new HashSet<>();
+
+        /**
+         * The number of cards with new terms.
+         */
+        private long inserted;
+
+        /**
+         * The number of cards of the deck changed by the file.
+         */
+        private long updated;
+
+        /**
+         * The number of cards of the file that differ from the deck but were not applied.
+         */
+        private long conflicting;
+
+        /**
+         * The number of cards of the file the deck already held, or that changed nothing.
+         */
+        private long unchanged;
+
+        /**
+         * Constructs a merge.
+         *
+         * @param newPolicy how cards whose term is already in the deck are resolved
+         */
+        DeckMerge(final MergePolicy newPolicy) {
+            this.policy = newPolicy;
         }
 
+        /**
+         * Merges one card of the file into the deck.
+         *
+         * @param incoming the card of the file
+         */
+        @Override
+        public void accept(final FlashCard incoming) {
+            FlashCard existing = termIndex.get(incoming.getTerm());
+            if (existing == null) {
+                addCard(incoming);
+                inserted++;
+                return;
+            }
+            boolean sameDefinition = existing.getDefinition().equals(incoming.getDefinition());
+            if (sameDefinition && existing.getMistakes() == incoming.getMistakes()) {
+                unchanged++;
+                return;
+            }
+            switch (policy) {
+                case KEEP -> conflicting++;
+                case OVERWRITE -> {
+                    unindex(existing, freedTerms, freedDefinitions);
+                    addCard(incoming);
+                    updated++;
+                }
+                case SUM -> {
+                    if (!sameDefinition) {
+                        conflicting++;
+                    } else if (incoming.getMistakes() == 0) {
+                        unchanged++;
+                    } else {
+                        existing.setMistakes(existing.getMistakes() + incoming.getMistakes());
+                        updated++;
+                    }
+                }
+            }
+        }
     }
 
     /**
      * Removes a flashcard from the collection based on the user-specified term.
      * The method prompts the user to input
      * the term of the flashcard they wish to remove.
-     * It then iterates through the flashcards, looking for a match with
-     * the provided term. If a match is found,
-     * the flashcard is removed from the collection. If no match is found, the
-     * method informs the user that the specified card does not exist.
+     * It then looks the provided term up in the term index, and then in the lazy deck
+     * if one is open. If a match is found, the flashcard is removed from the collection. If no match is found, the
+     * method informs the user that the specified card does not exist, or that it is in the read-only
+     * arena deck. A background import still loading is
+     * waited for first, since the card may be one it has not reached yet.
      *
      * @throws IOException if an I/O error occurs while reading user input
      */
     public void removeFlashCard() throws IOException {
-        System.out.println("Which card?");
-        String termToRemove = reader.readLine();
+        prompt("Which card?%n");
+        String termToRemove = readLine();
+        awaitImport(true);
 
-
-        Iterator<FlashCard> iterator = flashCards.iterator();
-        while (iterator.hasNext()) {
-            FlashCard flashcard = iterator.next();
-            if (flashcard.getTerm().equals(termToRemove)) {
-                iterator.remove();
-                System.out.println("The card has been removed.\n");
-                return;
+        long start = metrics.start();
+        FlashCard flashcard;
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            FlashCard indexed = termIndex.get(termToRemove);
+            if (indexed != null) {
+                removeCard(indexed);
+                journal(j -> j.cardRemoved(indexed));
             }
+            flashcard = indexed != null || lazyDeck == null ? indexed : lazyDeck.remove(termToRemove);
+            if (flashcard != null && indexed == null) {
+                // Lazy cards are not in the deck's set, so their removal is recorded here.
+                FlashCard lazyCard = flashcard;
+                changes.changed(lazyCard);
+                journal(j -> j.cardRemoved(lazyCard));
+            }
+        } finally {
+            writeLock.unlock();
         }
-
-        System.out.printf("Can't remove \"%s\": "
-                + "there is no such card.%n%n", termToRemove);
+        ArenaDeckStore arena = arenaDeck;
+        if (flashcard != null) {
+            out().println("The card has been removed.\n");
+        } else if (arena != null && arena.findByTerm(termToRemove) >= 0) {
+            out().printf("Can't remove \"%s\": the arena deck is read-only.%n%n", termToRemove);
+        } else {
+            out().printf("Can't remove \"%s\": "
+                    + "there is no such card.%n%n", termToRemove);
+        }
+        metrics.record(DeckMetrics.REMOVE, start);
     }
 
 
@@ -273,7 +1809,7 @@ public class FlashCardManager {
      * Prompts the user to add a new flashcard to the collection.
      * The method first collects the term and definition
      * for the new flashcard from the user.
-     * It checks for duplicates in both term and definition among the existing
+     * It checks the term and definition indexes for duplicates among the existing
      * flashcards. If a term or definition is found to be a duplicate,
      * a message is displayed, and the card is not added.
      * If there are no duplicates, a new flashcard is created and added to the collection.
@@ -283,64 +1819,66 @@ public class FlashCardManager {
      */
     public void addFlashCard() throws IOException {
 
-        System.out.println("The card:");
+        prompt("The card:%n");
         String term;
-        boolean duplicateTerm;
-        duplicateTerm = false;
-        term = reader.readLine();
+        term = readLine();
 
-        for (FlashCard flashCard : flashCards) {
-            if (flashCard.getTerm().equals(term)) {
-                duplicateTerm = true;
-                System.out.printf("The card \"%s\" already exists.%n%n", term);
-                break;
+        long start = metrics.start();
+        try {
+            if (findByTerm(term) != null) {
+                out().printf("The card \"%s\" already exists.%n%n", term);
+                return;
             }
-        }
-        if (duplicateTerm) { return; }
 
-        String definition;
-        boolean duplicateDefinition;
-        System.out.println("The definition of the card:");
-        duplicateDefinition = false;
-        definition = reader.readLine();
+            String definition;
+            prompt("The definition of the card:%n");
+            definition = readLine();
+            start = metrics.start();
 
-        for (FlashCard flashCard : flashCards) {
-            if (flashCard.getDefinition().equals(definition)) {
-                duplicateDefinition = true;
-                System.out.printf("The definition \"%s\" already exists.%n%n", definition);
-                break;
+            if (findByDefinition(definition) != null) {
+                out().printf("The definition \"%s\" already exists.%n%n", definition);
+                return;
             }
-        }
-        if (duplicateDefinition) {
-            return;
-        }
 
-        if (flashCards.add(new FlashCard(term, definition))) {
-            System.out.printf("The pair (\"%s\":\"%s\") has been added.%n%n", term, definition);
+            FlashCard flashCard = new FlashCard(term, definition);
+            Lock writeLock = lock.writeLock();
+            writeLock.lock();
+            try {
+                // Another session may have added the term or definition while this one was prompting.
+                if (findByTerm(term) != null) {
+                    out().printf("The card \"%s\" already exists.%n%n", term);
+                    return;
+                }
+                if (findByDefinition(definition) != null || !addCard(flashCard)) {
+                    out().printf("The definition \"%s\" already exists.%n%n", definition);
+                    return;
+                }
+                journal(j -> j.cardAdded(flashCard));
+            } finally {
+                writeLock.unlock();
+            }
+            out().printf("The pair (\"%s\":\"%s\") has been added.%n%n", term, definition);
+        } finally {
+            metrics.record(DeckMetrics.ADD, start);
         }
     }
 
     /**
-     * Saves a log of strings to a file.
-     * The method prompts the user to provide a file name for saving the log.
-     * It then writes each string from the provided log list to the file,
-     * one per line. After writing the log, the
-     * method informs the user that the log has been saved.
+     * Saves the session log to a file.
+     * The method prompts the user to provide a file name and asks the logger to save
+     * everything logged so far there, which copies the persisted log when the logger
+     * streams to a file instead of writing every line again.
      *
-     * @param log the list of strings to be saved as a log.
-     * @throws IOException if an I/O error occurs while performing file operations or reading user input.
+     * @param logger the logger capturing the session
+     * @throws IOException if an I/O error occurs while reading user input.
      */
-    public void logIO(final ArrayList<String> log) throws IOException {
-        System.out.println("File name:");
-        String saveFile = reader.readLine();
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(saveFile))) {
-            for (String line : log) {
-                writer.write(line);
-                writer.newLine();
-            }
-            System.out.println("The log has been saved.");
+    public void saveLog(final LogIO logger) throws IOException {
+        prompt("File name:%n");
+        String saveFile = readLine();
 
+        try {
+            logger.saveTo(Path.of(saveFile));
+            out().println("The log has been saved.");
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -349,60 +1887,257 @@ public class FlashCardManager {
 
 
 
+    /**
+     * Finds the cards whose term starts with a query or whose definition holds
+     * every word of it, ignoring case. Cards whose term is the query come first,
+     * then cards whose term starts with it in term order, then the cards with the
+     * matching definitions, the shortest definitions first.
+     * The search index is built on the first search and then kept up to date.
+     *
+     * @param query    the beginning of a term, or words of a definition
+     * @param page     the number of the page, starting at 1
+     * @param pageSize the largest number of cards on a page
+     * @return the page of results
+     */
+    public SearchPage search(final String query, final int page, final int pageSize) {
+        return searchIndex().search(query, page, pageSize);
+    }
+
+    /**
+     * Asks for a query and displays the matching cards a page at a time,
+     * asking after each page whether to show the next one.
+     *
+     * @throws IOException if an I/O error occurs when reading from the input stream
+     */
+    public void searchFlashCards() throws IOException {
+        awaitImport(false);
+        prompt("Search for:%n");
+        String query = readLine();
+        if (query == null) {
+            return;
+        }
+        for (int page = 1; ; page++) {
+            SearchPage results = search(query, page, SEARCH_PAGE_SIZE);
+            if (results.total() == 0) {
+                out().printf("No cards match \"%s\".%n%n", query);
+                return;
+            }
+            out().printf("Cards %d-%d of %d matching \"%s\":%n", results.first(),
+                    results.first() + results.cards().size() - 1, results.total(), query);
+            for (int i = 0; i < results.cards().size(); i++) {
+                FlashCard flashCard = results.cards().get(i);
+                out().printf("%d. \"%s\": \"%s\"%n", results.first() + i,
+                        flashCard.getTerm(), flashCard.getDefinition());
+            }
+            out().println();
+            if (!results.hasNext()) {
+                return;
+            }
+            prompt("Show the next page? (yes/no)%n");
+            if (!"yes".equals(readLine())) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Refuses a command that needs the mistakes of every card while a lazy or arena deck is open.
+     * The mistakes of lazy cards stay in the deck file and the lazy deck's overlay, and those
+     * of arena cards in the arena, out of the ranking and the counters, so these commands
+     * would silently miss them.
+     *
+     * @return true if the command was refused
+     */
+    private boolean refusedForUnrankedDeck() {
+        String reason = unrankedDeckReason();
+        if (reason == null) {
+            return false;
+        }
+        out().printf("%s%n%n", reason);
+        return true;
+    }
+
+    /**
+     * Tells why mistake statistics are not available.
+     *
+     * @return the reason, or null if every card is ranked
+     */
+    private String unrankedDeckReason() {
+        if (lazyDeck != null) {
+            return LAZY_DECK_STATISTICS;
+        }
+        return arenaDeck != null ? ARENA_DECK_STATISTICS : null;
+    }
+
     /**
      * Identifies and displays the flashcard(s) with the highest number of mistakes.
-     * The method iterates through
-     * the collection of flashcards, determining which one(s) have the highest mistake count.
+     * The method reads the top bucket of the mistake ranking,
+     * so it does not need to walk the collection of flashcards.
      * If no cards have mistakes, a message indicating that there are no cards with errors is shown.
      * If there is only one card with the highest mistake count, its details are displayed.
      * If there are multiple cards with the same highest
      * mistake count, their details are displayed along with the total number of errors.
+     * The command is refused while a lazy or arena deck is open.
      */
     public void hardestCard() {
-        ArrayList<FlashCard> highestCards = new ArrayList<>();
-        int highestMistake = 0;
-
-        // Iterate through flashcards to find the one(s) with the highest mistake count.
-        for (FlashCard flashCard : flashCards) {
-            if (flashCard.getMistakes() > highestMistake) {
-                highestCards.clear();
-                highestCards.add(flashCard);
-                highestMistake = flashCard.getMistakes();
-            } else if (flashCard.getMistakes() == highestMistake && highestMistake != 0) {
-                highestCards.add(flashCard);
-            }
+        if (refusedForUnrankedDeck()) {
+            return;
         }
+        awaitImport(false);
+        List<FlashCard> highestCards = ranking.hardest();
 
         // Display results based on the number of cards with the highest mistake count.
         if (highestCards.isEmpty()) {
-            System.out.println("There are no cards with errors.\n");
+            out().println("There are no cards with errors.\n");
         } else if (highestCards.size() == 1) {
-            System.out.printf("The hardest card is \"%s\". "
+            out().printf("The hardest card is \"%s\". "
                             + "You have %d errors answering it.%n%n", highestCards.get(0).getTerm(),
                     highestCards.get(0).getMistakes());
         } else {
-            System.out.print("The hardest cards are ");
+            out().print("The hardest cards are ");
             for (int i = 0; i < highestCards.size(); i++) {
                 if (i == highestCards.size() - 1) {
-                    System.out.printf("\"%s\". ", highestCards.get(i).getTerm());
+                    out().printf("\"%s\". ", highestCards.get(i).getTerm());
                     break;
                 }
-                System.out.printf("\"%s\", ", highestCards.get(i).getTerm());
+                out().printf("\"%s\", ", highestCards.get(i).getTerm());
             }
-            System.out.printf("You have %d errors answering them.%n%n", highestCards.get(0).getMistakes());
+            out().printf("You have %d errors answering them.%n%n", highestCards.get(0).getMistakes());
+        }
+    }
+
+    /**
+     * Returns up to {@code k} cards with the most mistakes, hardest first.
+     * Cards without mistakes are never included.
+     *
+     * @param k the maximum number of cards to return
+     * @return the hardest cards
+     * @throws IllegalStateException if a lazy or arena deck is open, as its cards are not ranked
+     */
+    public List<FlashCard> hardestCards(final int k) {
+        String reason = unrankedDeckReason();
+        if (reason != null) {
+            throw new IllegalStateException(reason);
+        }
+        return ranking.top(k);
+    }
+
+    /**
+     * Displays up to {@code k} cards with the most mistakes, hardest first,
+     * together with their number of errors.
+     *
+     * The command is refused while a lazy or arena deck is open.
+     *
+     * @param k the maximum number of cards to display
+     */
+    public void printHardestCards(final int k) {
+        if (refusedForUnrankedDeck()) {
+            return;
+        }
+        awaitImport(false);
+        List<FlashCard> hardest = ranking.top(k);
+        if (hardest.isEmpty()) {
+            out().println("There are no cards with errors.\n");
+            return;
         }
+        out().printf("The %d hardest cards are:%n", hardest.size());
+        for (int i = 0; i < hardest.size(); i++) {
+            out().printf("%d. \"%s\" with %d errors%n", i + 1,
+                    hardest.get(i).getTerm(), hardest.get(i).getMistakes());
+        }
+        out().println();
+    }
+
+    /**
+     * Prints the metrics of the deck: its size, the estimated heap it takes, the import and
+     * export rates, the time taken to look up wrong quiz answers, and the count and latency
+     * percentiles of every operation and command recorded so far.
+     */
+    public void printStats() {
+        out().printf("Cards in the deck: %d%n", metrics.getCardCount());
+        out().printf("Estimated heap used by the deck: %d KB%n", metrics.getDeckHeapBytes() / 1024);
+        out().print(String.format(Locale.ROOT, "Imports: %d (%.2f/s), exports: %d (%.2f/s)%n",
+                metrics.getImportCount(), metrics.getImportsPerSecond(),
+                metrics.getExportCount(), metrics.getExportsPerSecond()));
+        out().print(String.format(Locale.ROOT, "Wrong-answer lookups: mean %.1f us, p99 %.1f us%n",
+                metrics.getWrongAnswerLookupMeanMicros(), metrics.getWrongAnswerLookupP99Micros()));
+        out().print(String.format(Locale.ROOT, "%-24s %8s %10s %10s %10s %10s%n",
+                "Operation", "count", "mean us", "p50 us", "p99 us", "max us"));
+        for (Map.Entry<String, LatencyHistogram> entry : metrics.histograms().entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            out().print(String.format(Locale.ROOT, "%-24s %8d %10.1f %10.1f %10.1f %10.1f%n",
+                    entry.getKey(), histogram.getCount(), histogram.getMean() / 1000,
+                    histogram.valueAt(50) / 1000.0, histogram.valueAt(99) / 1000.0, histogram.getMax() / 1000.0));
+        }
+        out().println();
+    }
+
+    /**
+     * Returns the number of cards in the deck, including those of the lazy and arena decks.
+     *
+     * @return the number of cards
+     */
+    private long cardCount() {
+        MappedDeck lazy = lazyDeck;
+        ArenaDeckStore arena = arenaDeck;
+        return flashCards.size() + (lazy != null ? lazy.size() : 0) + (arena != null ? arena.size() : 0);
+    }
+
+    /**
+     * Returns the estimated heap taken by the loaded cards, kept as a running total
+     * by {@link #index(FlashCard)} and {@link #unindex(FlashCard, Set, Set)}, plus the arrays
+     * of the arena deck, whose strings are off the heap. Cards of the lazy deck stay on disk
+     * and are not counted.
+     *
+     * @return the estimated number of bytes
+     */
+    private long estimateHeapBytes() {
+        ArenaDeckStore arena = arenaDeck;
+        return heapBytes.get() + (arena != null ? arena.heapBytes() : 0);
+    }
+
+    /**
+     * Estimates the heap taken by one card, counting one byte per character
+     * as compact strings do for Latin-1 text.
+     *
+     * @param flashCard the card
+     * @return the estimated number of bytes
+     */
+    private static long heapBytesOf(final FlashCard flashCard) {
+        return CARD_HEAP_BYTES + flashCard.getTerm().length() + flashCard.getDefinition().length();
     }
 
     /**
      * Resets the mistake count for all flashcards to zero.
+     * The counts are cleared in one pass over the deck's counter array.
      * After calling this method, the statistics indicating
      * the number of errors made for each flashcard are reset to their initial state.
+     * The reset is refused while a lazy or arena deck is open.
      */
     public void resetAll() {
-        for (FlashCard flashCard : flashCards) {
-            flashCard.setMistakes(0);
+        if (refusedForUnrankedDeck()) {
+            return;
+        }
+        awaitImport(true);
+        long start = metrics.start();
+        DeckEvents.Reset event = new DeckEvents.Reset();
+        event.begin();
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            event.cards = flashCards.size();
+            ranking.clear();
+            counters.clear();
+            changes.statsReset();
+            journal(DeckJournal::statsReset);
+        } catch (IOException e) {
+            out().printf("The reset could not be journaled: %s%n", e.getMessage());
+        } finally {
+            writeLock.unlock();
         }
-        System.out.println("Card statistics have been reset.\n");
+        out().println("Card statistics have been reset.\n");
+        metrics.record(DeckMetrics.RESET, start);
+        event.commit();
     }
 
 }
@@ -0,0 +1,139 @@
+package flashcards;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds with HDR-style log-linear buckets:
+ * every power of two is split into {@link #SUB_BUCKETS} equal buckets, so any recorded
+ * value is known to within about 3% while the whole range of a long fits in 2048 counters.
+ * Recording is a few atomic increments, so it can be done on every operation.
+ */
+class LatencyHistogram {
+
+    /**
+     * The number of bits of a value kept exactly.
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * The number of buckets every power of two is split into.
+     */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The number of recorded values in each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray((Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+
+    /**
+     * The number of recorded values.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * The sum of the recorded values.
+     */
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * The largest recorded value.
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds, where negative values count as 0
+     */
+    void record(final long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        total.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the count
+     */
+    long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean in nanoseconds, or 0 if nothing was recorded
+     */
+    double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return the maximum in nanoseconds, or 0 if nothing was recorded
+     */
+    long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the value below which a share of the recorded values falls,
+     * rounded up to the end of its bucket.
+     *
+     * @param percentile the share, from 0 to 100
+     * @return the value in nanoseconds, never more than the maximum, or 0 if nothing was recorded
+     */
+    long valueAt(final double percentile) {
+        long n = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            n += counts.get(i);
+        }
+        long rank = (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * n);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen > 0 && seen >= rank) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the bucket of a value.
+     *
+     * @param value a value of at least 0
+     * @return the index of its bucket
+     */
+    static int bucketOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Returns the largest value of a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the largest value that falls into it
+     */
+    static long highestValueOf(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long next = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS + 1) << shift;
+        return next < 0 ? Long.MAX_VALUE : next - 1;
+    }
+}
@@ -0,0 +1,393 @@
+package flashcards;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A radix trie over strings for finding the closest string within a given
+ * Levenshtein distance. A search walks the trie computing one row of the edit
+ * distance table per character, which simulates a Levenshtein automaton for the
+ * query: shared prefixes are only compared once, and a branch is abandoned as soon
+ * as every entry of its row exceeds the tolerance, so a search only visits the few
+ * prefixes that are close to the query instead of every string.
+ *
+ * <p>All methods are synchronized, so sessions sharing a deck can search while the deck changes.
+ */
+class LevenshteinTrie {
+
+    /**
+     * A node of the trie, reached through the label of the edge leading to it.
+     */
+    private static final class Node {
+
+        /**
+         * The label of the edge leading to this node; empty for the root only.
+         */
+        private String label;
+
+        /**
+         * Whether the string ending at this node is in the trie.
+         */
+        private boolean present;
+
+        /**
+         * The first characters of the children's labels, in ascending order.
+         */
+        private char[] firsts = new char[0];
+
+        /**
+         * The children, in the order of {@link #firsts}.
+         */
+        private Node[] children = new Node[0];
+
+        /**
+         * Constructs a node.
+         *
+         * @param newLabel   the label of the edge leading to it
+         * @param newPresent whether the string ending at it is in the trie
+         */
+        Node(final String newLabel, final boolean newPresent) {
+            this.label = newLabel;
+            this.present = newPresent;
+        }
+
+        /**
+         * Returns the position of the child whose label starts with a character.
+         *
+         * @param first the character
+         * @return the position, or {@code -(insertion point) - 1} if there is no such child
+         */
+        int find(final char first) {
+            return Arrays.binarySearch(firsts, first);
+        }
+
+        /**
+         * Adds a child at the insertion point returned by {@link #find(char)}.
+         *
+         * @param position the negative result of {@link #find(char)}
+         * @param child    the child
+         */
+        void insert(final int position, final Node child) {
+            int at = -position - 1;
+            char[] newFirsts = new char[firsts.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newFirsts[at] = child.label.charAt(0);
+            newChildren[at] = child;
+            System.arraycopy(firsts, at, newFirsts, at + 1, firsts.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        /**
+         * Removes the child at a position.
+         *
+         * @param position the position
+         */
+        void removeAt(final int position) {
+            char[] newFirsts = new char[firsts.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            System.arraycopy(firsts, position + 1, newFirsts, position, firsts.length - position - 1);
+            System.arraycopy(children, position + 1, newChildren, position, children.length - position - 1);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        /**
+         * Absorbs the only child of a node that holds no string itself.
+         */
+        void mergeWithOnlyChild() {
+            Node child = children[0];
+            label = label + child.label;
+            present = child.present;
+            firsts = child.firsts;
+            children = child.children;
+        }
+    }
+
+    /**
+     * The root, standing for the empty string.
+     */
+    private final Node root = new Node("", false);
+
+    /**
+     * The number of strings in the trie.
+     */
+    private int size;
+
+    /**
+     * Adds a string.
+     *
+     * @param key the string
+     * @return true if it was not in the trie before
+     */
+    synchronized boolean add(final String key) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int position = node.find(key.charAt(i));
+            if (position < 0) {
+                node.insert(position, new Node(key.substring(i), true));
+                size++;
+                return true;
+            }
+            Node child = node.children[position];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                Node split = new Node(child.label.substring(0, common), false);
+                child.label = child.label.substring(common);
+                split.firsts = new char[]{child.label.charAt(0)};
+                split.children = new Node[]{child};
+                node.children[position] = split;
+                child = split;
+            }
+            node = child;
+            i += common;
+        }
+        if (node.present) {
+            return false;
+        }
+        node.present = true;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes a string.
+     *
+     * @param key the string
+     * @return true if it was in the trie
+     */
+    synchronized boolean remove(final String key) {
+        Node parent = null;
+        int positionInParent = -1;
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int position = node.find(key.charAt(i));
+            if (position < 0 || !key.startsWith(node.children[position].label, i)) {
+                return false;
+            }
+            parent = node;
+            positionInParent = position;
+            node = node.children[position];
+            i += node.label.length();
+        }
+        if (!node.present) {
+            return false;
+        }
+        node.present = false;
+        size--;
+        if (parent == null) {
+            return true;
+        }
+        if (node.children.length == 0) {
+            parent.removeAt(positionInParent);
+            if (parent != root && !parent.present && parent.children.length == 1) {
+                parent.mergeWithOnlyChild();
+            }
+        } else if (node.children.length == 1) {
+            node.mergeWithOnlyChild();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of strings in the trie.
+     *
+     * @return the number of strings
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Finds the string in the trie closest to a query, within a tolerance.
+     * Of several strings at the same distance, the first in character order is returned.
+     *
+     * @param query     the string to look for
+     * @param tolerance the largest distance accepted
+     * @return the closest string, or null if none is within the tolerance
+     */
+    synchronized String nearest(final String query, final int tolerance) {
+        Search search = new Search(query, tolerance);
+        int[] first = new int[query.length() + 1];
+        for (int j = 0; j < first.length; j++) {
+            first[j] = j;
+        }
+        search.rows.add(first);
+        if (root.present && query.length() <= tolerance) {
+            search.found(0, query.length());
+        }
+        for (Node child : root.children) {
+            search.visit(child, 0);
+        }
+        return search.best;
+    }
+
+    /**
+     * The state of one search: the query, the best string so far and the rows of the
+     * edit distance table along the current path.
+     */
+    private static final class Search {
+
+        /**
+         * The string looked for.
+         */
+        private final String query;
+
+        /**
+         * The largest distance still of interest; it shrinks as closer strings are found.
+         */
+        private int bound;
+
+        /**
+         * The row of the edit distance table for each depth of the current path.
+         */
+        private final ArrayList<int[]> rows = new ArrayList<>();
+
+        /**
+         * The characters of the current path.
+         */
+        private final StringBuilder path = new StringBuilder();
+
+        /**
+         * The closest string found so far, or null.
+         */
+        private String best;
+
+        /**
+         * Constructs a search.
+         *
+         * @param newQuery  the string looked for
+         * @param tolerance the largest distance accepted
+         */
+        Search(final String newQuery, final int tolerance) {
+            this.query = newQuery;
+            this.bound = tolerance;
+        }
+
+        /**
+         * Searches the subtree of a node.
+         *
+         * @param node  the node
+         * @param depth the length of the path leading to the node's edge
+         */
+        void visit(final Node node, final int depth) {
+            int length = path.length();
+            int reached = depth;
+            for (int k = 0; k < node.label.length(); k++) {
+                if (extend(node.label.charAt(k), reached) > bound) {
+                    path.setLength(length);
+                    return;
+                }
+                reached++;
+            }
+            int distance = rows.get(reached)[query.length()];
+            if (node.present && distance <= bound) {
+                found(reached, distance);
+            }
+            for (Node child : node.children) {
+                if (bound < 0) {
+                    break;
+                }
+                visit(child, reached);
+            }
+            path.setLength(length);
+        }
+
+        /**
+         * Appends a character to the path and computes its row of the table.
+         *
+         * @param c     the character
+         * @param depth the length of the path before the character
+         * @return the smallest entry of the new row
+         */
+        int extend(final char c, final int depth) {
+            path.append(c);
+            int[] previous = rows.get(depth);
+            if (rows.size() == depth + 1) {
+                rows.add(new int[query.length() + 1]);
+            }
+            int[] current = rows.get(depth + 1);
+            current[0] = depth + 1;
+            int rowMin = current[0];
+            for (int j = 1; j <= query.length(); j++) {
+                int substitution = previous[j - 1] + (query.charAt(j - 1) == c ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            return rowMin;
+        }
+
+        /**
+         * Records the string at the end of the path as the closest so far.
+         * Only strictly closer strings can replace it.
+         *
+         * @param length   the length of the string
+         * @param distance its distance to the query
+         */
+        void found(final int length, final int distance) {
+            best = path.substring(0, length);
+            bound = distance - 1;
+        }
+    }
+
+    /**
+     * Computes the Levenshtein distance between two strings, giving up past a limit.
+     *
+     * @param a     a string
+     * @param b     another string
+     * @param limit the largest distance of interest
+     * @return the distance, or {@code limit + 1} if it is larger than {@code limit}
+     */
+    static int distance(final String a, final String b, final int limit) {
+        int cap = limit == Integer.MAX_VALUE ? limit : limit + 1;
+        if (Math.abs(a.length() - b.length()) > limit) {
+            return cap;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return cap;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], cap);
+    }
+
+    /**
+     * Returns the length of the common prefix of a label and a key from a position on.
+     *
+     * @param label the label
+     * @param key   the key
+     * @param from  the position in the key
+     * @return the number of leading characters they share
+     */
+    private static int commonPrefix(final String label, final String key, final int from) {
+        int max = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+}
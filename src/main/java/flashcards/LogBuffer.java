@@ -0,0 +1,123 @@
+package flashcards;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A bounded ring buffer of UTF-8 encoded log lines.
+ * Lines are kept as the bytes they were written with and only decoded when a
+ * snapshot is taken. Once either the line cap or the byte cap is exceeded, the
+ * oldest lines are evicted, so the memory held by a session log stays bounded
+ * however long the session runs.
+ */
+class LogBuffer {
+
+    /**
+     * The default maximum number of lines kept.
+     */
+    static final int DEFAULT_MAX_LINES = 10_000;
+
+    /**
+     * The default maximum number of encoded bytes kept.
+     */
+    static final int DEFAULT_MAX_BYTES = 1 << 20;
+
+    /**
+     * The stored lines, oldest first starting at {@link #head}.
+     */
+    private final byte[][] lines;
+
+    /**
+     * The maximum number of encoded bytes kept, over all lines.
+     */
+    private final int maxBytes;
+
+    /**
+     * The slot of the oldest line.
+     */
+    private int head;
+
+    /**
+     * The number of stored lines.
+     */
+    private int size;
+
+    /**
+     * The number of encoded bytes stored.
+     */
+    private long bytes;
+
+    /**
+     * Constructs a buffer with the given caps.
+     *
+     * @param maxLines the maximum number of lines kept
+     * @param maxBytes the maximum number of encoded bytes kept
+     */
+    LogBuffer(final int maxLines, final int maxBytes) {
+        if (maxLines < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("The log caps must be positive.");
+        }
+        this.lines = new byte[maxLines][];
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the maximum number of encoded bytes a single line may hold.
+     *
+     * @return the byte cap
+     */
+    int maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Appends an encoded line, evicting the oldest lines until both caps hold again.
+     * A line longer than the byte cap is cut at the last character boundary before it.
+     *
+     * @param encoded the UTF-8 bytes of the line, without its line terminator
+     * @param length  the number of bytes of the line
+     */
+    synchronized void add(final byte[] encoded, final int length) {
+        int kept = length;
+        if (kept > maxBytes) {
+            kept = maxBytes;
+            while (kept > 0 && (encoded[kept] & 0xC0) == 0x80) {
+                kept--;
+            }
+        }
+        if (size == lines.length) {
+            evictOldest();
+        }
+        while (size > 0 && bytes + kept > maxBytes) {
+            evictOldest();
+        }
+        lines[(head + size) % lines.length] = Arrays.copyOf(encoded, kept);
+        size++;
+        bytes += kept;
+    }
+
+    /**
+     * Decodes the stored lines, oldest first.
+     * The returned list is a copy that later writes do not change.
+     *
+     * @return the stored lines
+     */
+    synchronized ArrayList<String> snapshot() {
+        ArrayList<String> copy = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            copy.add(new String(lines[(head + i) % lines.length], StandardCharsets.UTF_8));
+        }
+        return copy;
+    }
+
+    /**
+     * Drops the oldest line.
+     */
+    private void evictOldest() {
+        bytes -= lines[head].length;
+        lines[head] = null;
+        head = (head + 1) % lines.length;
+        size--;
+    }
+}
@@ -4,7 +4,12 @@ import org.apache.commons.io.input.TeeInputStream;
 import org.apache.commons.io.output.TeeOutputStream;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * The `LogIO` class provides a mechanism to capture and log input and output streams.
@@ -12,68 +17,226 @@ import java.util.ArrayList;
  * of user input and program output. The captured log data can later be retrieved using
  * the `getLog()` method.
  */
-public class LogIO {
+public class LogIO implements Closeable {
     @SuppressWarnings("checkstyle:JavadocVariable")
-    private ArrayList<String> log = new ArrayList<>();
+    private final LogBuffer log;
+
+    /**
+     * The sink streaming every line to a file, or null if lines are only kept in memory.
+     */
+    private volatile LogSink sink;
 
     /**
      * Constructs a `LogIO` object and sets up redirection of `System.in` and `System.out`.
-     * streams to log data. User input and program output are captured and stored in the log.
+     * streams to log data. User input and program output are captured and stored in the log,
+     * which keeps at most the last {@link LogBuffer#DEFAULT_MAX_LINES} lines and
+     * {@link LogBuffer#DEFAULT_MAX_BYTES} bytes.
      */
     public LogIO() {
+        this(LogBuffer.DEFAULT_MAX_LINES, LogBuffer.DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Constructs a `LogIO` object that keeps at most the given number of lines and bytes,
+     * dropping the oldest lines first, and sets up redirection of `System.in` and `System.out`.
+     *
+     * @param maxLines the maximum number of lines kept
+     * @param maxBytes the maximum number of UTF-8 encoded bytes kept
+     */
+    public LogIO(final int maxLines, final int maxBytes) {
+        this(new LogBuffer(maxLines, maxBytes));
         // Set up System.in and System.out to also write to the log
-        System.setIn(new TeeInputStream(System.in, new LogOutputStream(log)));
-        System.setOut(new PrintStream(new TeeOutputStream(System.out, new LogOutputStream(log))));
+        System.setIn(tee(System.in));
+        System.setOut(new PrintStream(tee(System.out)));
+    }
+
+    /**
+     * Constructs a `LogIO` object that leaves `System.in` and `System.out` alone
+     * and only logs the streams passed through {@link #tee(InputStream)} and {@link #tee(OutputStream)}.
+     *
+     * @param buffer the buffer the log entries are stored in
+     */
+    private LogIO(final LogBuffer buffer) {
+        this.log = buffer;
+    }
+
+    /**
+     * Creates a log of a session's own streams, keeping at most the default number of lines and bytes.
+     *
+     * @return a log that does not redirect `System.in` and `System.out`
+     */
+    static LogIO forSession() {
+        return new LogIO(new LogBuffer(LogBuffer.DEFAULT_MAX_LINES, LogBuffer.DEFAULT_MAX_BYTES));
+    }
+
+    /**
+     * Wraps an input stream so that everything read from it is also logged.
+     *
+     * @param in the stream to log
+     * @return the logging stream
+     */
+    InputStream tee(final InputStream in) {
+        return new TeeInputStream(in, new LogOutputStream());
+    }
+
+    /**
+     * Wraps an output stream so that everything written to it is also logged.
+     *
+     * @param out the stream to log
+     * @return the logging stream
+     */
+    OutputStream tee(final OutputStream out) {
+        return new TeeOutputStream(out, new LogOutputStream());
     }
 
     /**
      * Retrieves the log data captured from input and output streams.
+     * The result is a snapshot: lines logged afterwards do not appear in it.
      *
-     * @return an ArrayList containing log entries
+     * @return an ArrayList containing log entries, oldest first
      */
     public ArrayList<String> getLog() {
-        return log;
+        return log.snapshot();
+    }
+
+    /**
+     * Streams every line logged from now on to a file, in addition to keeping the
+     * most recent lines in memory. A sink that was streaming before is closed.
+     *
+     * @param newSink the sink to stream to, or null to stop streaming
+     * @throws IOException if the previous sink cannot be closed
+     */
+    public void setSink(final LogSink newSink) throws IOException {
+        LogSink previous = sink;
+        sink = newSink;
+        if (previous != null) {
+            previous.close();
+        }
     }
 
     /**
-     * A private inner class that extends OutputStream and captures characters to build log entries.
+     * Saves everything logged so far to a file.
+     * With a sink the file is copied from the persisted log; otherwise the lines
+     * kept in memory are written out.
+     *
+     * @param target the file to save the log to; it is replaced if it exists
+     * @throws IOException if the log cannot be saved
      */
-    private static class LogOutputStream extends OutputStream {
+    public void saveTo(final Path target) throws IOException {
+        LogSink current = sink;
+        if (current != null) {
+            current.copyTo(target);
+            return;
+        }
+        Files.write(target, getLog(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stops streaming to the sink, writing the lines it still holds.
+     *
+     * @throws IOException if the sink cannot be closed
+     */
+    public void close() throws IOException {
+        setSink(null);
+    }
+
+    /**
+     * Records a completed line in the buffer and the sink.
+     *
+     * @param line   the UTF-8 bytes of the line
+     * @param length the number of bytes of the line
+     */
+    private void lineEnded(final byte[] line, final int length) {
+        log.add(line, length);
+        LogSink current = sink;
+        if (current != null) {
+            current.append(line, length);
+        }
+    }
+
+    /**
+     * A private inner class that extends OutputStream and collects the bytes of each line
+     * before handing it to the log.
+     */
+    private class LogOutputStream extends OutputStream {
         /**
-         * log holds all the inputs and outputs that occur in the system.
+         * currentLine holds the UTF-8 bytes of the current input/output.
          */
-        private ArrayList<String> log;
+        private byte[] currentLine = new byte[128];
 
         /**
-         * currentLine holds the current input/output.
+         * The number of bytes in currentLine.
          */
-        private StringBuilder currentLine = new StringBuilder();
+        private int length;
 
         /**
-         * Constructs a LogOutputStream object with a reference to the log.
+         * Writes a byte to the log. If the byte is a newline character,
+         * the current line is added to the log, and the line buffer is cleared.
          *
-         * @param logger the ArrayList where log entries will be stored
+         * @param b the byte to be written to the log
          */
-        LogOutputStream(final ArrayList<String> logger) {
-            this.log = logger;
+        @Override
+        public void write(final int b) {
+            if (b == '\n') {
+                endLine();
+            } else {
+                append(new byte[] {(byte) b}, 0, 1);
+            }
         }
 
         /**
-         * Writes a character to the log. If the character is a newline character,
-         * the current line is added to the log, and the line buffer is cleared.
+         * Writes a range of bytes to the log, adding every completed line to it.
          *
-         * @param b the character to be written to the log
-         * @throws IOException if an I/O error occurs
+         * @param b   the bytes to be written to the log
+         * @param off the start of the range
+         * @param len the number of bytes in the range
          */
         @Override
-        public void write(final int b) throws IOException {
-            char c = (char) b;
-            if (c == '\n') {
-                log.add(currentLine.toString());
-                currentLine.setLength(0);
-            } else {
-                currentLine.append(c);
+        public void write(final byte[] b, final int off, final int len) {
+            Objects.checkFromIndexSize(off, len, b.length);
+            int start = off;
+            int end = off + len;
+            for (int i = off; i < end; i++) {
+                if (b[i] == '\n') {
+                    append(b, start, i - start);
+                    endLine();
+                    start = i + 1;
+                }
+            }
+            append(b, start, end - start);
+        }
+
+        /**
+         * Adds bytes to the current line. Without a sink, bytes beyond the log's byte cap
+         * are dropped, since the log would cut the line there anyway; with one, the whole
+         * line is kept so that the sink writes it in full.
+         *
+         * @param b   the bytes to add
+         * @param off the start of the range
+         * @param len the number of bytes in the range
+         */
+        private void append(final byte[] b, final int off, final int len) {
+            int accepted = sink != null ? len : Math.min(len, log.maxBytes() + 1 - length);
+            if (accepted <= 0) {
+                return;
+            }
+            if (length + accepted > currentLine.length) {
+                currentLine = Arrays.copyOf(currentLine, Math.max(length + accepted, currentLine.length * 2));
+            }
+            System.arraycopy(b, off, currentLine, length, accepted);
+            length += accepted;
+        }
+
+        /**
+         * Hands the current line to the log without its carriage return and clears it.
+         */
+        private void endLine() {
+            int end = length;
+            if (end > 0 && currentLine[end - 1] == '\r') {
+                end--;
             }
+            lineEnded(currentLine, end);
+            length = 0;
         }
     }
 }
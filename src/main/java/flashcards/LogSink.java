@@ -0,0 +1,448 @@
+package flashcards;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams log lines to a file on a background writer thread.
+ * Lines are handed over through a bounded queue, so logging never waits for the disk
+ * unless the queue is full and the {@link OverflowPolicy} says to block. The writer
+ * drains the queue in batches into a buffered stream and flushes it once per flush
+ * interval, and whenever {@link #sync()} asks for it.
+ *
+ * <p>Lines lost to the {@link OverflowPolicy#DROP} and {@link OverflowPolicy#SAMPLE}
+ * policies are counted, and the writer records the count in the file where they
+ * would have been.
+ */
+public class LogSink implements Closeable {
+
+    /**
+     * What happens to a line logged while the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The logging thread waits until the writer makes room.
+         */
+        BLOCK,
+
+        /**
+         * The line is dropped.
+         */
+        DROP,
+
+        /**
+         * One line in every {@link #SAMPLE_RATE} is kept, waiting for room, and the others are dropped.
+         */
+        SAMPLE;
+
+        /**
+         * Looks up a policy by its name as given on the command line.
+         *
+         * @param name "block", "drop" or "sample", in any case
+         * @return the named policy
+         * @throws IllegalArgumentException if the name is unknown
+         */
+        public static OverflowPolicy fromName(final String name) {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * The default number of lines the queue holds.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+
+    /**
+     * The default interval between flushes in milliseconds.
+     */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+
+    /**
+     * The number of overflowing lines of which the sample policy keeps one.
+     */
+    static final int SAMPLE_RATE = 10;
+
+    /**
+     * The largest number of queued lines written in one batch.
+     */
+    private static final int MAX_BATCH = 1024;
+
+    /**
+     * How long threads waiting for the writer wait before checking whether it has failed, in milliseconds.
+     */
+    private static final long FAILURE_CHECK_MILLIS = 100;
+
+    /**
+     * A line waiting to be written, or a request to flush everything before it.
+     *
+     * @param line    the UTF-8 bytes of the line, or null for a flush request
+     * @param flushed counted down once the flush request has been served, or null for a line
+     */
+    private record Entry(byte[] line, CountDownLatch flushed) {
+    }
+
+    /**
+     * The file the lines are written to.
+     */
+    private final Path file;
+
+    /**
+     * What happens to lines logged while the queue is full.
+     */
+    private final OverflowPolicy policy;
+
+    /**
+     * The interval between flushes in milliseconds.
+     */
+    private final long flushIntervalMillis;
+
+    /**
+     * The lines handed over to the writer.
+     */
+    private final BlockingQueue<Entry> queue;
+
+    /**
+     * The stream the writer writes to. Only used by the writer thread.
+     */
+    private final OutputStream out;
+
+    /**
+     * The background writer.
+     */
+    private final Thread writer;
+
+    /**
+     * The number of lines that found the queue full.
+     */
+    private final AtomicLong overflowed = new AtomicLong();
+
+    /**
+     * The number of lines dropped since the sink was opened.
+     */
+    private final AtomicLong droppedTotal = new AtomicLong();
+
+    /**
+     * The number of dropped lines the writer has not recorded yet.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * The number of lines written since the last flush. Only used by the writer thread.
+     */
+    private long unflushedLines;
+
+    /**
+     * The number of bytes written since the last flush. Only used by the writer thread.
+     */
+    private long unflushedBytes;
+
+    /**
+     * Whether the sink has been closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * The failure that stopped the writer, if any.
+     */
+    private volatile IOException failure;
+
+    /**
+     * Creates or truncates the log file and starts the writer thread.
+     *
+     * @param newFile             the file to write the lines to
+     * @param newPolicy           what happens to lines logged while the queue is full
+     * @param queueCapacity       the number of lines the queue holds
+     * @param flushIntervalMillis the interval between flushes in milliseconds
+     * @throws IOException if the file cannot be opened
+     */
+    public LogSink(final Path newFile, final OverflowPolicy newPolicy, final int queueCapacity,
+                   final long flushIntervalMillis) throws IOException {
+        this.file = newFile;
+        this.policy = newPolicy;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.out = new BufferedOutputStream(Files.newOutputStream(newFile), 1 << 16);
+        this.writer = new Thread(this::run, "log-sink-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Returns the file the lines are written to.
+     *
+     * @return the log file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the number of lines dropped because the queue was full.
+     *
+     * @return the number of dropped lines
+     */
+    public long droppedLines() {
+        return droppedTotal.get();
+    }
+
+    /**
+     * Hands a line to the writer, applying the overflow policy if the queue is full.
+     * Lines logged after the sink has been closed are ignored, and lines logged after the
+     * writer has failed are dropped, since nothing drains the queue any more.
+     *
+     * @param line   the UTF-8 bytes of the line, without its line terminator
+     * @param length the number of bytes of the line
+     */
+    public void append(final byte[] line, final int length) {
+        if (closed) {
+            return;
+        }
+        if (failure != null) {
+            drop();
+            return;
+        }
+        Entry entry = new Entry(Arrays.copyOf(line, length), null);
+        if (queue.offer(entry)) {
+            return;
+        }
+        long overflow = overflowed.incrementAndGet();
+        boolean keep = policy == OverflowPolicy.BLOCK
+                || policy == OverflowPolicy.SAMPLE && overflow % SAMPLE_RATE == 0;
+        if (!keep) {
+            drop();
+            return;
+        }
+        try {
+            if (!enqueue(entry)) {
+                drop();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drop();
+        }
+    }
+
+    /**
+     * Waits for room in the queue and adds an entry, giving up once the writer has failed.
+     *
+     * @param entry the entry to add
+     * @return true if the entry was added, false if the writer has failed
+     * @throws InterruptedException if the wait was interrupted
+     */
+    private boolean enqueue(final Entry entry) throws InterruptedException {
+        while (failure == null) {
+            if (queue.offer(entry, FAILURE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts a line lost to the overflow policy.
+     */
+    private void drop() {
+        droppedTotal.incrementAndGet();
+        dropped.incrementAndGet();
+    }
+
+    /**
+     * Waits until every line handed over so far has been written and flushed.
+     *
+     * @throws IOException if the writer has failed or the wait was interrupted
+     */
+    public void sync() throws IOException {
+        checkFailure();
+        if (closed) {
+            return;
+        }
+        CountDownLatch flushed = new CountDownLatch(1);
+        try {
+            if (!enqueue(new Entry(null, flushed))) {
+                checkFailure();
+            }
+            while (!flushed.await(FAILURE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while syncing " + file + ".", e);
+        }
+        checkFailure();
+    }
+
+    /**
+     * Copies everything logged so far to another file.
+     * The copy is taken from the persisted log after a {@link #sync()}, so the history
+     * does not have to be serialized again.
+     *
+     * @param target the file to copy the log to; it is replaced if it exists
+     * @throws IOException if the log cannot be synced or copied
+     */
+    public void copyTo(final Path target) throws IOException {
+        sync();
+        if (!file.toAbsolutePath().normalize().equals(target.toAbsolutePath().normalize())) {
+            Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes the remaining lines, stops the writer and closes the file.
+     *
+     * @throws IOException if the writer has failed or the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        sync();
+        closed = true;
+        queue.offer(new Entry(null, new CountDownLatch(1)));
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+        checkFailure();
+    }
+
+    /**
+     * Runs the writer until the sink is closed, batching the queued lines
+     * and flushing them once per flush interval.
+     */
+    private void run() {
+        ArrayList<Entry> batch = new ArrayList<>(MAX_BATCH);
+        long lastFlush = System.nanoTime();
+        try {
+            while (!closed) {
+                Entry first;
+                try {
+                    first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                }
+                boolean flushRequested = writeBatch(batch) || first == null;
+                if (flushRequested || System.nanoTime() - lastFlush >= flushIntervalMillis * 1_000_000) {
+                    flush();
+                    lastFlush = System.nanoTime();
+                }
+                release(batch);
+            }
+            queue.drainTo(batch);
+            writeBatch(batch);
+            flush();
+            release(batch);
+        } catch (IOException e) {
+            failure = e;
+            release(batch);
+        }
+    }
+
+    /**
+     * Writes the lines of a batch, preceded by the number of lines dropped before them.
+     *
+     * @param batch the entries taken from the queue
+     * @return whether the batch holds a flush request
+     * @throws IOException if a line cannot be written
+     */
+    private boolean writeBatch(final ArrayList<Entry> batch) throws IOException {
+        boolean flushRequested = false;
+        for (Entry entry : batch) {
+            if (entry.line() == null) {
+                flushRequested = true;
+            } else {
+                writeDropped();
+                out.write(entry.line());
+                out.write('\n');
+                unflushedLines++;
+                unflushedBytes += entry.line().length + 1;
+            }
+        }
+        writeDropped();
+        return flushRequested;
+    }
+
+    /**
+     * Flushes the lines written so far to the file, recording a {@link DeckEvents.LogFlush}.
+     * Does nothing if no line has been written since the last flush, so an idle sink
+     * records no events.
+     *
+     * @throws IOException if the lines cannot be flushed
+     */
+    private void flush() throws IOException {
+        if (unflushedLines == 0 && unflushedBytes == 0) {
+            return;
+        }
+        DeckEvents.LogFlush event = new DeckEvents.LogFlush();
+        event.begin();
+        out.flush();
+        event.file = file.toString();
+        event.lines = unflushedLines;
+        event.bytes = unflushedBytes;
+        event.commit();
+        unflushedLines = 0;
+        unflushedBytes = 0;
+    }
+
+    /**
+     * Wakes the threads waiting for the flush requests of a batch and clears it.
+     *
+     * @param batch the entries taken from the queue
+     */
+    private static void release(final ArrayList<Entry> batch) {
+        for (Entry entry : batch) {
+            if (entry.flushed() != null) {
+                entry.flushed().countDown();
+            }
+        }
+        batch.clear();
+    }
+
+    /**
+     * Records the number of lines dropped since the last record, if any.
+     * The record counts as a written line.
+     *
+     * @throws IOException if the record cannot be written
+     */
+    private void writeDropped() throws IOException {
+        long count = dropped.getAndSet(0);
+        if (count > 0) {
+            byte[] record = ("[" + count + " log lines dropped]\n").getBytes(StandardCharsets.UTF_8);
+            out.write(record);
+            unflushedLines++;
+            unflushedBytes += record.length;
+        }
+    }
+
+    /**
+     * Rethrows the failure that stopped the writer, if any.
+     *
+     * @throws IOException the failure of the writer
+     */
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            throw new IOException("Writing the log to " + file + " failed.", e);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package flashcards;
 
+import javax.management.JMException;
 import java.io.*;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashSet;
 
 /**
@@ -12,56 +14,114 @@ import java.util.HashSet;
  */
 public class Main {
     @SuppressWarnings("checkstyle:InnerAssignment")
-    public static void main(String[] args) throws IOException {
-
-        LogIO logger = new LogIO();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+    public static void main(String[] args) throws IOException, JMException {
 
         var flashCards = new HashSet<FlashCard>();
-        String choice;
-        boolean exitFlag = false;
         String exportFile = "";
+        String importFile = "";
+        String journalFile = "";
+        long syncInterval = DeckJournal.DEFAULT_SYNC_INTERVAL_MILLIS;
+        String logFile = "";
+        int servePort = -1;
+        String scriptFile = "";
+        boolean quiet = false;
+        boolean deltaExport = false;
+        String importMode = "stream";
+        String deckDir = "decks";
+        int maxDecks = DeckRegistry.DEFAULT_MAX_RESIDENT;
+        long deckMemory = DeckRegistry.DEFAULT_MEMORY_BUDGET_BYTES;
+        LogSink.OverflowPolicy logOverflow = LogSink.OverflowPolicy.BLOCK;
 
         FlashCardManager flashCardManager = new FlashCardManager(flashCards);
+        flashCardManager.getMetrics().register();
 
         if (args.length != 0) {
             for (int i = 0; i < args.length; i += 2) {
                 switch (args[i]) {
-                    case "-import" -> flashCardManager.importFlashCards(args[i + 1]);
+                    case "-import" -> importFile = args[i + 1];
                     case "-export" -> exportFile = args[i + 1];
+                    case "-export-mode" -> deltaExport = "delta".equals(args[i + 1]);
+                    case "-import-mode" -> importMode = args[i + 1];
+                    case "-while-loading" -> flashCardManager.setPartialDeck("partial".equals(args[i + 1]));
+                    case "-merge" -> flashCardManager.setMergePolicy(MergePolicy.fromName(args[i + 1]));
+                    case "-compression-level" -> flashCardManager.setCompressionLevel(Integer.parseInt(args[i + 1]));
+                    case "-format" -> flashCardManager.setFormat(DeckFormat.fromName(args[i + 1]));
+                    case "-journal" -> journalFile = args[i + 1];
+                    case "-sync-interval" -> syncInterval = Long.parseLong(args[i + 1]);
+                    case "-compact-after" -> flashCardManager.setCompactionThreshold(Long.parseLong(args[i + 1]));
+                    case "-log-file" -> logFile = args[i + 1];
+                    case "-log-overflow" -> logOverflow = LogSink.OverflowPolicy.fromName(args[i + 1]);
+                    case "-fuzzy" -> flashCardManager.setFuzzyTolerance(Integer.parseInt(args[i + 1]));
+                    case "-serve" -> servePort = Integer.parseInt(args[i + 1]);
+                    case "-script" -> scriptFile = args[i + 1];
+                    case "-quiet" -> quiet = Boolean.parseBoolean(args[i + 1]);
+                    case "-deck-dir" -> deckDir = args[i + 1];
+                    case "-max-decks" -> maxDecks = Integer.parseInt(args[i + 1]);
+                    case "-deck-memory" -> deckMemory = Long.parseLong(args[i + 1]) << 20;
                     default -> {
                     }
                 }
             }
         }
-        while (true) {
-            System.out.println("Input the action (add, remove, import, "
-                    + "export, ask, exit, log, hardest card, reset stats):");
-            choice = reader.readLine();
-
-            switch (choice) {
-                case "add" -> flashCardManager.addFlashCard();
-                case "remove" -> flashCardManager.removeFlashCard();
-                case "export" -> flashCardManager.exportFlashCards();
-                case "import" -> flashCardManager.importFlashCards();
-                case "ask" -> flashCardManager.quizUser();
-                case "log" -> flashCardManager.logIO(new ArrayList<>(logger.getLog()));
-                case "hardest card" -> flashCardManager.hardestCard();
-                case "reset stats" -> flashCardManager.resetAll();
-                case "exit" -> {
-                    exitFlag = true;
-                    if (!exportFile.isEmpty()) {
-                        flashCardManager.exportFlashCards(exportFile);
-                    }
-                    System.out.println("Bye bye!");
-                }
-                default -> {
-                }
-            }
-            if (exitFlag) {
-                reader.close();
-                break;
+        // Scripts are not echoed into the session log, so only the console tees System.in and System.out.
+        LogIO logger = scriptFile.isEmpty() ? new LogIO() : LogIO.forSession();
+        BufferedReader reader = scriptFile.isEmpty()
+                ? new BufferedReader(new InputStreamReader(System.in))
+                : Files.newBufferedReader(Path.of(scriptFile));
+        if (!logFile.isEmpty()) {
+            logger.setSink(new LogSink(Path.of(logFile), logOverflow,
+                    LogSink.DEFAULT_QUEUE_CAPACITY, LogSink.DEFAULT_FLUSH_INTERVAL_MILLIS));
+        }
+        if (!journalFile.isEmpty() && importFile.isEmpty() && Files.exists(Path.of(journalFile))) {
+            importFile = journalFile;
+        }
+        flashCardManager.setMappedImport("mapped".equals(importMode));
+        if (!importFile.isEmpty() && "lazy".equals(importMode)) {
+            flashCardManager.openLazyDeck(importFile);
+        } else if (!importFile.isEmpty() && "arena".equals(importMode)) {
+            flashCardManager.openArenaDeck(importFile);
+        } else if (!importFile.isEmpty() && journalFile.isEmpty()) {
+            flashCardManager.importInBackground(importFile);
+        } else if (!importFile.isEmpty()) {
+            // Journal records must be replayed onto the whole deck before anything else changes it.
+            flashCardManager.importFlashCards(importFile);
+        }
+        if (!journalFile.isEmpty()) {
+            flashCardManager.enableJournal(journalFile, syncInterval);
+            if (!importFile.equals(journalFile)) {
+                flashCardManager.compactJournal();
             }
         }
+        DeckRegistry registry = new DeckRegistry(flashCardManager, Path.of(deckDir), maxDecks, deckMemory);
+        flashCardManager.setRegistry(registry);
+        SessionServer server = null;
+        if (servePort >= 0) {
+            server = new SessionServer(flashCardManager, servePort);
+            System.out.printf("Serving the deck on port %d.%n", server.getPort());
+        }
+
+        if (scriptFile.isEmpty()) {
+            ConsoleOutput console = new BufferedConsoleOutput(System.out);
+            new CommandSession(flashCardManager.session(reader, console), reader, console, logger).run();
+        } else {
+            // Scripts expect the whole deck from their first line on, and nobody waits at a prompt.
+            flashCardManager.awaitImport();
+            new ScriptRunner(flashCardManager, reader, System.out, quiet, logger).run();
+        }
+        if (server != null) {
+            server.close();
+        }
+        if (!exportFile.isEmpty() && deltaExport) {
+            flashCardManager.exportDelta(exportFile);
+        } else if (!exportFile.isEmpty()) {
+            flashCardManager.exportFlashCards(exportFile);
+        }
+        registry.saveAll();
+        flashCardManager.closeJournal();
+        if (scriptFile.isEmpty()) {
+            System.out.println("Bye bye!");
+        }
+        logger.close();
+        reader.close();
     }
 }
@@ -0,0 +1,612 @@
+package flashcards;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A read-mostly text deck that stays on disk: the deck file is memory-mapped and
+ * {@link FlashCard} objects are only created for the cards that are looked up or asked.
+ * Lookups go through a sidecar offset index, an open-addressing hash table from the
+ * hash of each term to the position and length of its line, which is built by one scan
+ * of the deck and reused as long as the deck keeps its size and modification time.
+ * Opening a deck with a valid index only maps the two files, so it takes the same time
+ * whatever the size of the deck.
+ *
+ * <p>Cards that have been touched are kept, with their mistake counts and review states,
+ * in a small in-memory overlay that takes precedence over the file; removed cards are
+ * remembered by position. The files are never written after the index is built.
+ * Like the {@link FlashCardManager} indexes, the index keeps the first line holding a term,
+ * and lines without a definition are left out.
+ * All methods are synchronized, so sessions sharing a deck can use it concurrently.
+ *
+ * <p>The index file consists of a header of {@link #HEADER_SIZE} bytes (the magic bytes "FCDI",
+ * the format version, the size and modification time of the deck, the number of slots and the
+ * number of indexed cards) followed by the slots, each the position of a line plus 1 as a long
+ * (0 for an empty slot), the hash of its term and the length of the line as ints.
+ */
+public final class MappedDeck {
+
+    /**
+     * The suffix appended to a deck file name to name its index.
+     */
+    public static final String SUFFIX = ".idx";
+
+    /**
+     * The magic bytes "FCDI" opening every index.
+     */
+    static final int MAGIC = 0x46434449;
+
+    /**
+     * The current index format version.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The size of the index header in bytes.
+     */
+    static final int HEADER_SIZE = 64;
+
+    /**
+     * The size of one index slot in bytes.
+     */
+    static final int SLOT_SIZE = 16;
+
+    /**
+     * The size of each mapped region of a file; a power of 2 that is a multiple of {@link #SLOT_SIZE}.
+     */
+    static final long REGION_SIZE = 1L << 30;
+
+    /**
+     * The mapped deck file.
+     */
+    private final MappedFile deck;
+
+    /**
+     * The mapped index file.
+     */
+    private final MappedFile index;
+
+    /**
+     * The number of slots of the index, a power of 2.
+     */
+    private final long slots;
+
+    /**
+     * The number of cards in the index.
+     */
+    private final long indexed;
+
+    /**
+     * The cards that have been created, by the position of their line.
+     */
+    private final Map<Long, FlashCard> overlay = new HashMap<>();
+
+    /**
+     * The positions of the lines of removed cards.
+     */
+    private final Set<Long> removed = new HashSet<>();
+
+    /**
+     * The slot the next card to ask is searched from.
+     */
+    private long cursor;
+
+    /**
+     * Receives the card parsed from a line.
+     */
+    private FlashCard parsed;
+
+    /**
+     * Parses the lines of touched cards.
+     */
+    private final DeckParser parser = new DeckParser(
+            (term, definition, mistakes, review) -> {
+                parsed = new FlashCard(term, definition);
+                parsed.setMistakes(mistakes);
+                parsed.setReview(review);
+            },
+            (lineNumber, reason) -> parsed = null);
+
+    /**
+     * Constructs a deck over mapped files.
+     *
+     * @param newDeck  the mapped deck file
+     * @param newIndex the mapped index file
+     */
+    private MappedDeck(final MappedFile newDeck, final MappedFile newIndex) {
+        this.deck = newDeck;
+        this.index = newIndex;
+        this.slots = newIndex.getLong(3 * Long.BYTES);
+        this.indexed = newIndex.getLong(4 * Long.BYTES);
+    }
+
+    /**
+     * Opens a text deck file, reusing its index if it still matches the file
+     * and building it otherwise.
+     *
+     * @param file the deck file
+     * @return the deck
+     * @throws IOException if the deck cannot be read or the index cannot be written
+     */
+    public static MappedDeck open(final Path file) throws IOException {
+        MappedFile deck = MappedFile.map(file, FileChannel.MapMode.READ_ONLY);
+        Path indexFile = indexOf(file);
+        long size = Files.size(file);
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        if (Files.exists(indexFile) && Files.size(indexFile) >= HEADER_SIZE) {
+            MappedFile index = MappedFile.map(indexFile, FileChannel.MapMode.READ_ONLY);
+            if (index.getInt(0) == MAGIC && index.getInt(Integer.BYTES) == VERSION
+                    && index.getLong(Long.BYTES) == size && index.getLong(2 * Long.BYTES) == modified
+                    && index.size() == HEADER_SIZE + index.getLong(3 * Long.BYTES) * SLOT_SIZE) {
+                return new MappedDeck(deck, index);
+            }
+        }
+        buildIndex(deck, indexFile, size, modified);
+        return new MappedDeck(deck, MappedFile.map(indexFile, FileChannel.MapMode.READ_ONLY));
+    }
+
+    /**
+     * Names the index file of a deck.
+     *
+     * @param file the deck file
+     * @return the index file next to it
+     */
+    public static Path indexOf(final Path file) {
+        return file.resolveSibling(file.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Returns the number of cards in the deck.
+     *
+     * @return the number of indexed cards that have not been removed
+     */
+    public synchronized long size() {
+        return indexed - removed.size();
+    }
+
+    /**
+     * Looks up the card holding a term, creating it on first use.
+     *
+     * @param term the term
+     * @return the card, or null if the deck does not hold the term
+     */
+    public synchronized FlashCard find(final String term) {
+        long offset = slotOf(term);
+        return offset < 0 ? null : card(offset);
+    }
+
+    /**
+     * Removes the card holding a term.
+     *
+     * @param term the term
+     * @return the removed card, or null if the deck does not hold the term
+     */
+    public synchronized FlashCard remove(final String term) {
+        long offset = slotOf(term);
+        FlashCard flashCard = offset < 0 ? null : card(offset);
+        if (flashCard != null) {
+            long position = index.getLong(offset) - 1;
+            removed.add(position);
+            overlay.remove(position);
+        }
+        return flashCard;
+    }
+
+    /**
+     * Finds the index slot of the line holding a term.
+     *
+     * @param term the term
+     * @return the offset of the slot in the index file, or -1 if no card holds the term
+     */
+    private long slotOf(final String term) {
+        byte[] key = term.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key, 0, key.length);
+        for (long slot = hash & (slots - 1); ; slot = (slot + 1) & (slots - 1)) {
+            long offset = slotOffset(slot);
+            long position = index.getLong(offset) - 1;
+            if (position < 0) {
+                return -1;
+            }
+            if (index.getInt(offset + Long.BYTES) == hash) {
+                byte[] line = deck.get(position, index.getInt(offset + Long.BYTES + Integer.BYTES));
+                int termEnd = DeckParser.indexOfDelimiter(line, 0, line.length);
+                if (Arrays.equals(line, 0, termEnd, key, 0, key.length)) {
+                    return removed.contains(position) ? -1 : offset;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the next card to ask. Cards come in the order of their index slots,
+     * which scatters them over the deck, and start over after the last one.
+     *
+     * @return the card, or null if the deck holds no valid card
+     */
+    public synchronized FlashCard next() {
+        for (long i = 0; i < slots && size() > 0; i++) {
+            long offset = slotOffset(cursor);
+            cursor = (cursor + 1) & (slots - 1);
+            long position = index.getLong(offset) - 1;
+            FlashCard flashCard = position < 0 || removed.contains(position) ? null : card(offset);
+            if (flashCard != null) {
+                return flashCard;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of cards created so far and kept in the overlay.
+     *
+     * @return the size of the overlay
+     */
+    synchronized int touched() {
+        return overlay.size();
+    }
+
+    /**
+     * Writes every line of the deck in file order: removed cards are left out,
+     * touched cards are written in their current state and all other lines are copied.
+     *
+     * @param out    the destination
+     * @param format turns a touched card into its line, without the line break
+     * @return the number of lines written
+     * @throws IOException if the destination cannot be written
+     */
+    public synchronized long writeTo(final OutputStream out, final Function<FlashCard, String> format)
+            throws IOException {
+        long lines = 0;
+        long start = 0;
+        long size = deck.size();
+        while (start < size) {
+            long end = deck.indexOf((byte) '\n', start);
+            long next = end < 0 ? size : end + 1;
+            long length = (end < 0 ? size : end) - start;
+            FlashCard touched = overlay.get(start);
+            if (touched != null) {
+                out.write(format.apply(touched).getBytes(StandardCharsets.UTF_8));
+                out.write('\n');
+                lines++;
+            } else if (!removed.contains(start) && length > 0) {
+                deck.copyTo(out, start, length);
+                out.write('\n');
+                lines++;
+            }
+            start = next;
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the card of an indexed line from the overlay, parsing the line on first use.
+     *
+     * @param offset the offset of the line's slot in the index file
+     * @return the card, or null if the line is malformed
+     */
+    private FlashCard card(final long offset) {
+        long position = index.getLong(offset) - 1;
+        FlashCard flashCard = overlay.get(position);
+        if (flashCard == null) {
+            byte[] line = deck.get(position, index.getInt(offset + Long.BYTES + Integer.BYTES));
+            parsed = null;
+            parser.parseLine(line, 0, line.length, 1);
+            flashCard = parsed;
+            if (flashCard != null) {
+                overlay.put(position, flashCard);
+            }
+        }
+        return flashCard;
+    }
+
+    /**
+     * Builds the index of a deck in a temporary file and moves it into place.
+     *
+     * @param deck      the mapped deck
+     * @param indexFile the index file
+     * @param size      the size of the deck file
+     * @param modified  the modification time of the deck file
+     * @throws IOException if the index cannot be written
+     */
+    private static void buildIndex(final MappedFile deck, final Path indexFile, final long size, final long modified)
+            throws IOException {
+        long lines = 0;
+        for (long start = 0; start < deck.size(); lines++) {
+            long end = deck.indexOf((byte) '\n', start);
+            start = end < 0 ? deck.size() : end + 1;
+        }
+        long slots = Long.highestOneBit(Math.max(8, lines + lines / 3)) << 1;
+
+        Path temporary = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedFile index = MappedFile.map(channel, FileChannel.MapMode.READ_WRITE, HEADER_SIZE + slots * SLOT_SIZE);
+            long indexed = 0;
+            long start = 0;
+            while (start < deck.size()) {
+                long end = deck.indexOf((byte) '\n', start);
+                long lineEnd = end < 0 ? deck.size() : end;
+                if (lineEnd - start > Integer.MAX_VALUE) {
+                    throw new IOException("A line near byte " + start + " of the deck is too long.");
+                }
+                byte[] line = deck.get(start, (int) (lineEnd - start));
+                int length = line.length > 0 && line[line.length - 1] == '\r' ? line.length - 1 : line.length;
+                int termEnd = DeckParser.indexOfDelimiter(line, 0, length);
+                if (termEnd >= 0 && insert(index, slots, deck, start, line, termEnd, length)) {
+                    indexed++;
+                }
+                start = lineEnd + 1;
+            }
+            index.putInt(0, MAGIC);
+            index.putInt(Integer.BYTES, VERSION);
+            index.putLong(Long.BYTES, size);
+            index.putLong(2 * Long.BYTES, modified);
+            index.putLong(3 * Long.BYTES, slots);
+            index.putLong(4 * Long.BYTES, indexed);
+            index.force();
+        }
+        Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Adds a line to the index being built unless its term is already indexed.
+     *
+     * @param index    the index
+     * @param slots    the number of slots
+     * @param deck     the mapped deck
+     * @param position the position of the line
+     * @param line     the bytes of the line
+     * @param termEnd  the end of the term in the line
+     * @param length   the length of the line without a trailing carriage return
+     * @return true if the line was added
+     */
+    private static boolean insert(final MappedFile index, final long slots, final MappedFile deck, final long position,
+                                  final byte[] line, final int termEnd, final int length) {
+        int hash = hash(line, 0, termEnd);
+        for (long slot = hash & (slots - 1); ; slot = (slot + 1) & (slots - 1)) {
+            long offset = slotOffset(slot);
+            long occupant = index.getLong(offset) - 1;
+            if (occupant < 0) {
+                index.putLong(offset, position + 1);
+                index.putInt(offset + Long.BYTES, hash);
+                index.putInt(offset + Long.BYTES + Integer.BYTES, length);
+                return true;
+            }
+            if (index.getInt(offset + Long.BYTES) == hash) {
+                byte[] other = deck.get(occupant, index.getInt(offset + Long.BYTES + Integer.BYTES));
+                int otherEnd = DeckParser.indexOfDelimiter(other, 0, other.length);
+                if (Arrays.equals(other, 0, otherEnd, line, 0, termEnd)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the position of a slot in the index file.
+     *
+     * @param slot the slot
+     * @return its offset in bytes
+     */
+    private static long slotOffset(final long slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * Hashes the UTF-8 bytes of a term.
+     *
+     * @param bytes the buffer holding the term
+     * @param from  the index of the first byte
+     * @param to    the index just past the last byte
+     * @return the hash, with its high bits spread over the low ones
+     */
+    static int hash(final byte[] bytes, final int from, final int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * A file mapped in regions of {@link #REGION_SIZE} bytes, so it can exceed 2 GB.
+     */
+    private static final class MappedFile {
+
+        /**
+         * The mapped regions, in file order.
+         */
+        private final MappedByteBuffer[] regions;
+
+        /**
+         * The size of the file in bytes.
+         */
+        private final long size;
+
+        /**
+         * Constructs a mapped file.
+         *
+         * @param newRegions the mapped regions
+         * @param newSize    the size of the file
+         */
+        private MappedFile(final MappedByteBuffer[] newRegions, final long newSize) {
+            this.regions = newRegions;
+            this.size = newSize;
+        }
+
+        /**
+         * Maps a whole file.
+         *
+         * @param path the file
+         * @param mode the mapping mode
+         * @return the mapped file
+         * @throws IOException if the file cannot be mapped
+         */
+        static MappedFile map(final Path path, final FileChannel.MapMode mode) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                return map(channel, mode, channel.size());
+            }
+        }
+
+        /**
+         * Maps the first bytes of an open file, growing it if needed.
+         *
+         * @param channel the file
+         * @param mode    the mapping mode
+         * @param length  the number of bytes to map
+         * @return the mapped file
+         * @throws IOException if the file cannot be mapped
+         */
+        static MappedFile map(final FileChannel channel, final FileChannel.MapMode mode, final long length)
+                throws IOException {
+            MappedByteBuffer[] regions = new MappedByteBuffer[(int) ((length + REGION_SIZE - 1) / REGION_SIZE)];
+            for (int i = 0; i < regions.length; i++) {
+                long start = i * REGION_SIZE;
+                regions[i] = channel.map(mode, start, Math.min(REGION_SIZE, length - start));
+            }
+            return new MappedFile(regions, length);
+        }
+
+        /**
+         * Returns the size of the file.
+         *
+         * @return the size in bytes
+         */
+        long size() {
+            return size;
+        }
+
+        /**
+         * Copies bytes out of the file.
+         *
+         * @param position the position of the first byte
+         * @param length   the number of bytes
+         * @return the bytes
+         */
+        byte[] get(final long position, final int length) {
+            byte[] bytes = new byte[length];
+            get(position, bytes, length);
+            return bytes;
+        }
+
+        /**
+         * Copies bytes out of the file into the front of a buffer.
+         *
+         * @param position the position of the first byte
+         * @param buffer   the buffer
+         * @param length   the number of bytes
+         */
+        void get(final long position, final byte[] buffer, final int length) {
+            int copied = 0;
+            while (copied < length) {
+                long at = position + copied;
+                MappedByteBuffer region = regions[(int) (at / REGION_SIZE)];
+                int offset = (int) (at % REGION_SIZE);
+                int chunk = Math.min(length - copied, region.limit() - offset);
+                region.get(offset, buffer, copied, chunk);
+                copied += chunk;
+            }
+        }
+
+        /**
+         * Writes bytes of the file to a stream.
+         *
+         * @param out      the stream
+         * @param position the position of the first byte
+         * @param length   the number of bytes
+         * @throws IOException if the stream cannot be written
+         */
+        void copyTo(final OutputStream out, final long position, final long length) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(length, 1 << 16)];
+            for (long copied = 0; copied < length; copied += buffer.length) {
+                int count = (int) Math.min(buffer.length, length - copied);
+                get(position + copied, buffer, count);
+                out.write(buffer, 0, count);
+            }
+        }
+
+        /**
+         * Finds the next occurrence of a byte.
+         *
+         * @param b    the byte
+         * @param from the position to start at
+         * @return its position, or -1 if it does not occur before the end of the file
+         */
+        long indexOf(final byte b, final long from) {
+            for (long at = from; at < size; at++) {
+                MappedByteBuffer region = regions[(int) (at / REGION_SIZE)];
+                int offset = (int) (at % REGION_SIZE);
+                for (int i = offset; i < region.limit(); i++) {
+                    if (region.get(i) == b) {
+                        return at - offset + i;
+                    }
+                }
+                at += region.limit() - offset - 1;
+            }
+            return -1;
+        }
+
+        /**
+         * Reads an int; slots never span two regions.
+         *
+         * @param position the position
+         * @return the int
+         */
+        int getInt(final long position) {
+            return regions[(int) (position / REGION_SIZE)].getInt((int) (position % REGION_SIZE));
+        }
+
+        /**
+         * Reads a long; slots never span two regions.
+         *
+         * @param position the position
+         * @return the long
+         */
+        long getLong(final long position) {
+            return regions[(int) (position / REGION_SIZE)].getLong((int) (position % REGION_SIZE));
+        }
+
+        /**
+         * Writes an int; slots never span two regions.
+         *
+         * @param position the position
+         * @param value    the int
+         */
+        void putInt(final long position, final int value) {
+            regions[(int) (position / REGION_SIZE)].putInt((int) (position % REGION_SIZE), value);
+        }
+
+        /**
+         * Writes a long; slots never span two regions.
+         *
+         * @param position the position
+         * @param value    the long
+         */
+        void putLong(final long position, final long value) {
+            regions[(int) (position / REGION_SIZE)].putLong((int) (position % REGION_SIZE), value);
+        }
+
+        /**
+         * Forces changes to a mapping opened for writing to disk.
+         */
+        void force() {
+            for (MappedByteBuffer region : regions) {
+                region.force();
+            }
+        }
+    }
+}
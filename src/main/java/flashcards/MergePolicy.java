@@ -0,0 +1,36 @@
+package flashcards;
+
+import java.util.Locale;
+
+/**
+ * The ways a merge import resolves a card whose term is already in the deck.
+ */
+public enum MergePolicy {
+
+    /**
+     * Keeps the card of the deck and reports the file's card as a conflict if it differs.
+     */
+    KEEP,
+
+    /**
+     * Replaces the card of the deck with the file's card, mistakes and review state included.
+     */
+    OVERWRITE,
+
+    /**
+     * Adds the file's mistakes to the card of the deck when both have the same definition,
+     * and reports the file's card as a conflict when the definitions differ.
+     */
+    SUM;
+
+    /**
+     * Looks a policy up by its name, ignoring case.
+     *
+     * @param name the name of the policy, such as "keep", "overwrite" or "sum"
+     * @return the matching policy
+     * @throws IllegalArgumentException if there is no policy with that name
+     */
+    public static MergePolicy fromName(final String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+}
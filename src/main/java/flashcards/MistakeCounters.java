@@ -0,0 +1,128 @@
+package flashcards;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The mistake counts of a deck, stored by dense card id in primitive arrays.
+ * The counts live in pages of {@link #PAGE_SIZE} slots that never move once created,
+ * so growing the deck never races with concurrent increments, and resetting every
+ * count is a plain loop over the pages instead of a walk over the cards.
+ *
+ * <p>Reading and updating a count never blocks. Allocating and releasing ids is
+ * synchronized; released ids are handed out again so the ids stay dense.
+ */
+class MistakeCounters {
+
+    /**
+     * The number of counts in one page, a power of two.
+     */
+    static final int PAGE_SIZE = 1 << 12;
+
+    /**
+     * The pages of counts; slot {@code id} is in page {@code id / PAGE_SIZE}.
+     */
+    private volatile AtomicIntegerArray[] pages = new AtomicIntegerArray[0];
+
+    /**
+     * The ids that have been released and can be handed out again.
+     */
+    private int[] freeIds = new int[16];
+
+    /**
+     * The number of ids in {@link #freeIds}.
+     */
+    private int freeCount;
+
+    /**
+     * The number of ids ever handed out.
+     */
+    private int nextId;
+
+    /**
+     * Hands out an id whose count starts at the given value.
+     *
+     * @param mistakes the initial count
+     * @return the id
+     */
+    synchronized int allocate(final int mistakes) {
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            id = nextId++;
+            if (id / PAGE_SIZE == pages.length) {
+                AtomicIntegerArray[] grown = Arrays.copyOf(pages, pages.length + 1);
+                grown[pages.length] = new AtomicIntegerArray(PAGE_SIZE);
+                pages = grown;
+            }
+        }
+        set(id, mistakes);
+        return id;
+    }
+
+    /**
+     * Gives an id back so it can be handed out again.
+     *
+     * @param id the id
+     */
+    synchronized void release(final int id) {
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+        set(id, 0);
+    }
+
+    /**
+     * Returns the count of an id.
+     *
+     * @param id the id
+     * @return its count
+     */
+    int get(final int id) {
+        return page(id).get(id & (PAGE_SIZE - 1));
+    }
+
+    /**
+     * Sets the count of an id.
+     *
+     * @param id       the id
+     * @param mistakes the new count
+     * @return the previous count
+     */
+    int set(final int id, final int mistakes) {
+        return page(id).getAndSet(id & (PAGE_SIZE - 1), mistakes);
+    }
+
+    /**
+     * Adds one to the count of an id.
+     *
+     * @param id the id
+     * @return the previous count
+     */
+    int increment(final int id) {
+        return page(id).getAndIncrement(id & (PAGE_SIZE - 1));
+    }
+
+    /**
+     * Sets every count to zero.
+     */
+    void clear() {
+        for (AtomicIntegerArray page : pages) {
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                page.set(i, 0);
+            }
+        }
+    }
+
+    /**
+     * Returns the page holding an id.
+     *
+     * @param id the id
+     * @return its page
+     */
+    private AtomicIntegerArray page(final int id) {
+        return pages[id / PAGE_SIZE];
+    }
+}
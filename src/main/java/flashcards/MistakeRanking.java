@@ -0,0 +1,94 @@
+package flashcards;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Ranks the cards of a deck by their mistake count.
+ * Cards with at least one mistake are kept in buckets keyed by their count, in the
+ * order they reached it. Moving a card between buckets and finding the hardest
+ * bucket only depend on the number of distinct mistake counts, not on the deck size,
+ * so the ranking can be kept up to date on every answer.
+ * All methods are synchronized, so sessions sharing a deck can update it concurrently.
+ */
+class MistakeRanking {
+
+    /**
+     * The cards with at least one mistake, bucketed by mistake count.
+     */
+    private final TreeMap<Integer, LinkedHashSet<FlashCard>> buckets = new TreeMap<>();
+
+    /**
+     * Adds a card under its current mistake count.
+     *
+     * @param flashCard the card to rank
+     */
+    synchronized void add(final FlashCard flashCard) {
+        if (flashCard.getMistakes() > 0) {
+            buckets.computeIfAbsent(flashCard.getMistakes(), count -> new LinkedHashSet<>()).add(flashCard);
+        }
+    }
+
+    /**
+     * Removes a card that was ranked under the given mistake count.
+     *
+     * @param flashCard the card to remove
+     * @param mistakes  the mistake count it was ranked under
+     */
+    synchronized void remove(final FlashCard flashCard, final int mistakes) {
+        LinkedHashSet<FlashCard> bucket = buckets.get(mistakes);
+        if (bucket != null && bucket.remove(flashCard) && bucket.isEmpty()) {
+            buckets.remove(mistakes);
+        }
+    }
+
+    /**
+     * Moves a card whose mistake count has changed.
+     *
+     * @param flashCard the card whose count changed
+     * @param previous  the count it was ranked under
+     */
+    synchronized void update(final FlashCard flashCard, final int previous) {
+        remove(flashCard, previous);
+        add(flashCard);
+    }
+
+    /**
+     * Forgets every card.
+     */
+    synchronized void clear() {
+        buckets.clear();
+    }
+
+    /**
+     * Returns the cards sharing the highest mistake count.
+     *
+     * @return the hardest cards in the order they reached their count, empty if no card has mistakes
+     */
+    synchronized List<FlashCard> hardest() {
+        Map.Entry<Integer, LinkedHashSet<FlashCard>> top = buckets.lastEntry();
+        return top == null ? new ArrayList<>() : new ArrayList<>(top.getValue());
+    }
+
+    /**
+     * Returns up to {@code k} cards with the most mistakes, hardest first.
+     *
+     * @param k the maximum number of cards to return
+     * @return the hardest cards, never including cards without mistakes
+     */
+    synchronized List<FlashCard> top(final int k) {
+        List<FlashCard> result = new ArrayList<>(Math.min(Math.max(k, 0), 1024));
+        for (LinkedHashSet<FlashCard> bucket : buckets.descendingMap().values()) {
+            for (FlashCard flashCard : bucket) {
+                if (result.size() >= k) {
+                    return result;
+                }
+                result.add(flashCard);
+            }
+        }
+        return result;
+    }
+}
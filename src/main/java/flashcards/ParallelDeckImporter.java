@@ -0,0 +1,204 @@
+package flashcards;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Imports decks in the term&&definition&&mistakes format by memory-mapping the file,
+ * splitting it into chunks that end on line boundaries and parsing the chunks in
+ * parallel on a {@link ForkJoinPool}. Chunk results are merged into the deck in file
+ * order, so the cards handed to the consumer, duplicates included, and the line numbers
+ * of malformed lines are exactly those of a sequential {@link DeckParser} run.
+ * Only a window of chunks is parsed ahead of the merge, so the cards held at a time
+ * do not grow with the size of the file.
+ */
+public class ParallelDeckImporter {
+
+    /**
+     * The default number of bytes per chunk.
+     */
+    static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+
+    /**
+     * The number of chunks parsed ahead of the merge per thread of the pool.
+     */
+    private static final int CHUNKS_AHEAD_PER_THREAD = 2;
+
+    /**
+     * The number of bytes read at a time while looking for a chunk boundary.
+     */
+    private static final int BOUNDARY_PROBE_SIZE = 4096;
+
+    /**
+     * The pool the chunks are parsed on.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The target number of bytes per chunk.
+     */
+    private final int chunkSize;
+
+    /**
+     * Constructs an importer that parses on the common fork-join pool.
+     */
+    public ParallelDeckImporter() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs an importer with the given pool and chunk size.
+     *
+     * @param newPool      the pool the chunks are parsed on
+     * @param newChunkSize the target number of bytes per chunk
+     */
+    ParallelDeckImporter(final ForkJoinPool newPool, final int newChunkSize) {
+        this.pool = newPool;
+        this.chunkSize = newChunkSize;
+    }
+
+    /**
+     * Imports every card of the deck file.
+     *
+     * @param file     the deck file
+     * @param consumer the destination of the parsed cards, called on the calling thread in file order
+     * @param errors   the destination of malformed line reports, called on the calling thread
+     * @return the number of cards handed to the consumer
+     * @throws IOException if the file cannot be opened, mapped or read
+     */
+    public long importDeck(final Path file, final Consumer<FlashCard> consumer,
+                           final DeckParser.MalformedLineHandler errors) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Deque<ChunkTask> tasks = new ArrayDeque<>();
+            int window = CHUNKS_AHEAD_PER_THREAD * pool.getParallelism();
+            long start = 0;
+            long size = channel.size();
+            long cards = 0;
+            long linesBefore = 0;
+            while (start < size || !tasks.isEmpty()) {
+                while (start < size && tasks.size() < window) {
+                    long end = nextBoundary(channel, Math.min(start + chunkSize, size), size);
+                    if (end - start > Integer.MAX_VALUE) {
+                        throw new IOException("A line near byte " + start + " of " + file + " is too long.");
+                    }
+                    ChunkTask task = new ChunkTask(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                    pool.execute(task);
+                    tasks.add(task);
+                    start = end;
+                }
+
+                ChunkResult result = tasks.poll().join();
+                for (FlashCard flashCard : result.cards) {
+                    consumer.accept(flashCard);
+                }
+                for (MalformedLine line : result.malformed) {
+                    errors.malformed(linesBefore + line.lineNumber, line.reason);
+                }
+                cards += result.cards.size();
+                linesBefore += result.lines;
+            }
+            return cards;
+        }
+    }
+
+    /**
+     * Finds the first chunk boundary at or after the given position,
+     * i.e. the position just past the next line break.
+     *
+     * @param channel  the deck file
+     * @param position the earliest allowed boundary
+     * @param size     the size of the file
+     * @return the boundary, or the file size if no line break follows
+     * @throws IOException if the file cannot be read
+     */
+    private static long nextBoundary(final FileChannel channel, final long position, final long size)
+            throws IOException {
+        if (position >= size) {
+            return size;
+        }
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE_SIZE);
+        long offset = position - 1;
+        while (offset < size) {
+            probe.clear();
+            int read = channel.read(probe, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    /**
+     * A line that failed to parse, numbered relative to its chunk.
+     *
+     * @param lineNumber the 1-based line number within the chunk
+     * @param reason     what is wrong with the line
+     */
+    private record MalformedLine(long lineNumber, String reason) {
+    }
+
+    /**
+     * The outcome of parsing one chunk.
+     *
+     * @param cards     the parsed cards in file order
+     * @param malformed the malformed lines in file order
+     * @param lines     the number of lines in the chunk
+     */
+    private record ChunkResult(List<FlashCard> cards, List<MalformedLine> malformed, long lines) {
+    }
+
+    /**
+     * Parses one line-aligned chunk of the mapped deck.
+     */
+    private static final class ChunkTask extends RecursiveTask<ChunkResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The mapped bytes of the chunk.
+         */
+        private final transient MappedByteBuffer chunk;
+
+        /**
+         * Constructs a task for the given chunk.
+         *
+         * @param newChunk the mapped bytes of the chunk
+         */
+        ChunkTask(final MappedByteBuffer newChunk) {
+            this.chunk = newChunk;
+        }
+
+        @Override
+        protected ChunkResult compute() {
+            List<FlashCard> cards = new ArrayList<>();
+            List<MalformedLine> malformed = new ArrayList<>();
+            DeckParser parser = new DeckParser(
+                    (term, definition, mistakes, review) -> {
+                        FlashCard flashCard = new FlashCard(term, definition);
+                        flashCard.setMistakes(mistakes);
+                        flashCard.setReview(review);
+                        cards.add(flashCard);
+                    },
+                    (lineNumber, reason) -> malformed.add(new MalformedLine(lineNumber, reason)));
+            long lines = parser.parse(chunk);
+            return new ChunkResult(cards, malformed, lines);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package flashcards;
+
+import java.io.PrintStream;
+
+/**
+ * Prints every call straight to a {@link PrintStream}, as the deck used to.
+ */
+final class PrintStreamOutput implements ConsoleOutput {
+
+    /**
+     * The stream, or null to use {@code System.out} at the time of printing.
+     */
+    private final PrintStream stream;
+
+    /**
+     * Constructs the output.
+     *
+     * @param newStream the stream, or null to use {@code System.out} at the time of printing
+     */
+    PrintStreamOutput(final PrintStream newStream) {
+        this.stream = newStream;
+    }
+
+    @Override
+    public void print(final String text) {
+        stream().print(text);
+    }
+
+    @Override
+    public void println(final String text) {
+        stream().println(text);
+    }
+
+    @Override
+    public void println() {
+        stream().println();
+    }
+
+    @Override
+    public void printf(final String format, final Object... args) {
+        stream().printf(format, args);
+    }
+
+    @Override
+    public void flush() {
+        stream().flush();
+    }
+
+    /**
+     * Returns the stream to print to.
+     *
+     * @return the stream
+     */
+    private PrintStream stream() {
+        return stream != null ? stream : System.out;
+    }
+}
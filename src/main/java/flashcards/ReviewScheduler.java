@@ -0,0 +1,154 @@
+package flashcards;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.TreeSet;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which card to ask next.
+ * Every card of the deck waits in a priority queue ordered by the time it is due,
+ * cards that were never reviewed being due immediately, and ties going to the card
+ * that joined the deck first. Taking the next card and putting it back after grading
+ * both cost O(log n). All methods are synchronized, so sessions sharing a deck
+ * can take cards from the same queue.
+ */
+class ReviewScheduler {
+
+    /**
+     * A card waiting in the queue.
+     *
+     * @param flashCard the card
+     * @param sequence  the order in which the card joined the scheduler
+     */
+    private record Entry(FlashCard flashCard, long sequence) {
+    }
+
+    /**
+     * Orders entries by due time, then by the order they joined.
+     */
+    private static final Comparator<Entry> BY_DUE_TIME = Comparator
+            .comparingLong((Entry entry) -> dueOf(entry.flashCard()))
+            .thenComparingLong(Entry::sequence);
+
+    /**
+     * The cards waiting to be asked.
+     */
+    private final TreeSet<Entry> queue = new TreeSet<>(BY_DUE_TIME);
+
+    /**
+     * The entry of every scheduled card, including cards taken out of the queue.
+     */
+    private final HashMap<FlashCard, Entry> entries = new HashMap<>();
+
+    /**
+     * The source of the current time in milliseconds since the epoch.
+     */
+    private LongSupplier clock;
+
+    /**
+     * The sequence number of the next card to join.
+     */
+    private long nextSequence;
+
+    /**
+     * Constructs a scheduler reading the time from the given clock.
+     *
+     * @param newClock the source of the current time in milliseconds since the epoch
+     */
+    ReviewScheduler(final LongSupplier newClock) {
+        this.clock = newClock;
+    }
+
+    synchronized void setClock(final LongSupplier newClock) {
+        this.clock = newClock;
+    }
+
+    /**
+     * Adds a card to the queue, keeping the review state it already carries.
+     *
+     * @param flashCard the card to schedule
+     */
+    synchronized void add(final FlashCard flashCard) {
+        if (entries.containsKey(flashCard)) {
+            return;
+        }
+        Entry entry = new Entry(flashCard, nextSequence++);
+        entries.put(flashCard, entry);
+        queue.add(entry);
+    }
+
+    /**
+     * Removes a card from the scheduler.
+     *
+     * @param flashCard the card to remove
+     */
+    synchronized void remove(final FlashCard flashCard) {
+        Entry entry = entries.remove(flashCard);
+        if (entry != null) {
+            queue.remove(entry);
+        }
+    }
+
+    /**
+     * Takes the card that is due first out of the queue.
+     * The card stays scheduled and has to be put back with {@link #requeue(FlashCard)}.
+     *
+     * @return the card due first, or null if the queue is empty
+     */
+    synchronized FlashCard poll() {
+        Entry entry = queue.pollFirst();
+        return entry == null ? null : entry.flashCard();
+    }
+
+    /**
+     * Updates the review state of a card taken out of the queue after it has been answered.
+     *
+     * @param flashCard the answered card
+     * @param correct   whether the answer was correct
+     */
+    synchronized void grade(final FlashCard flashCard, final boolean correct) {
+        if (flashCard.getReview() == null) {
+            flashCard.setReview(new ReviewState());
+        }
+        flashCard.getReview().grade(correct, clock.getAsLong());
+    }
+
+    /**
+     * Puts a card taken out of the queue back in, at the position of its current due time.
+     *
+     * @param flashCard the card to put back
+     */
+    synchronized void requeue(final FlashCard flashCard) {
+        Entry entry = entries.get(flashCard);
+        if (entry != null) {
+            queue.add(entry);
+        }
+    }
+
+    /**
+     * Replaces the review state of a scheduled card and moves it accordingly.
+     *
+     * @param flashCard the card to reschedule
+     * @param review    its new review state
+     */
+    synchronized void reschedule(final FlashCard flashCard, final ReviewState review) {
+        Entry entry = entries.get(flashCard);
+        boolean queued = entry != null && queue.remove(entry);
+        flashCard.setReview(review);
+        if (queued) {
+            queue.add(entry);
+        }
+    }
+
+    /**
+     * Returns the due time of a card, treating never reviewed cards as due immediately.
+     *
+     * @param flashCard the card
+     * @return the due time in milliseconds since the epoch
+     */
+    private static long dueOf(final FlashCard flashCard) {
+        ReviewState review = flashCard.getReview();
+        return review == null ? 0 : review.getDue();
+    }
+}
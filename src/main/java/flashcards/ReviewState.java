@@ -0,0 +1,128 @@
+package flashcards;
+
+/**
+ * The spaced-repetition state of a flashcard, updated with the SM-2 algorithm.
+ * The ease factor is kept in permille, so the SM-2 starting ease of 2.5 is stored as 2500.
+ * Answers are graded as quality 4 when correct and quality 1 when wrong.
+ */
+public final class ReviewState {
+
+    /**
+     * The ease factor of a card that has never been reviewed, in permille.
+     */
+    static final int DEFAULT_EASE = 2500;
+
+    /**
+     * The lowest ease factor SM-2 allows, in permille.
+     */
+    static final int MIN_EASE = 1300;
+
+    /**
+     * The delay before a wrongly answered card is due again.
+     */
+    static final long RETRY_DELAY_MILLIS = 10 * 60 * 1000L;
+
+    /**
+     * The length of one review interval unit.
+     */
+    static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    /**
+     * The SM-2 quality of a correct answer.
+     */
+    private static final int CORRECT_QUALITY = 4;
+
+    /**
+     * The SM-2 quality of a wrong answer.
+     */
+    private static final int WRONG_QUALITY = 1;
+
+    /**
+     * The ease factor in permille.
+     */
+    private int ease;
+
+    /**
+     * The current review interval in days.
+     */
+    private int interval;
+
+    /**
+     * The number of correct answers in a row.
+     */
+    private int repetitions;
+
+    /**
+     * The time the card is due again, in milliseconds since the epoch.
+     */
+    private long due;
+
+    /**
+     * Constructs the state of a card that has never been reviewed.
+     */
+    public ReviewState() {
+        this(DEFAULT_EASE, 0, 0, 0);
+    }
+
+    /**
+     * Constructs a state with the given values, as read from a deck file.
+     *
+     * @param newEase        the ease factor in permille
+     * @param newInterval    the review interval in days
+     * @param newRepetitions the number of correct answers in a row
+     * @param newDue         the due time in milliseconds since the epoch
+     */
+    public ReviewState(final int newEase, final int newInterval, final int newRepetitions, final long newDue) {
+        this.ease = newEase;
+        this.interval = newInterval;
+        this.repetitions = newRepetitions;
+        this.due = newDue;
+    }
+
+    public int getEase() {
+        return ease;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    public long getDue() {
+        return due;
+    }
+
+    /**
+     * Updates the state after an answer, following SM-2.
+     * A correct answer grows the interval to 1 day, then 6 days, then the previous
+     * interval times the ease factor. A wrong answer restarts the repetitions and makes
+     * the card due again after {@link #RETRY_DELAY_MILLIS}.
+     *
+     * @param correct whether the answer was correct
+     * @param now     the time of the answer in milliseconds since the epoch
+     */
+    void grade(final boolean correct, final long now) {
+        int quality = correct ? CORRECT_QUALITY : WRONG_QUALITY;
+        int lapse = 5 - quality;
+        ease = Math.max(MIN_EASE, ease + 100 - lapse * (80 + lapse * 20));
+
+        if (!correct) {
+            repetitions = 0;
+            interval = 0;
+            due = now + RETRY_DELAY_MILLIS;
+            return;
+        }
+        repetitions++;
+        if (repetitions == 1) {
+            interval = 1;
+        } else if (repetitions == 2) {
+            interval = 6;
+        } else {
+            interval = (int) Math.min(Integer.MAX_VALUE, Math.round(interval * (ease / 1000.0)));
+        }
+        due = now + interval * DAY_MILLIS;
+    }
+}
@@ -0,0 +1,155 @@
+package flashcards;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs a script of commands against a deck without any interaction.
+ * A script is exactly what a user would type at the console: one command per line,
+ * each followed by the lines it reads, such as the term and definition of an
+ * {@code add} or the answers of an {@code ask}. Prompts are not printed, results are
+ * buffered or, for quiet runs, discarded, and a summary with the time spent on each
+ * kind of command is printed at the end. Commands are counted under the names the deck's
+ * metrics record them by, and lines the session ignores are not counted.
+ */
+class ScriptRunner {
+
+    /**
+     * The number of characters of output held before they are written.
+     */
+    static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The deck the script works on.
+     */
+    private final FlashCardManager deck;
+
+    /**
+     * The reader of the script.
+     */
+    private final BufferedReader script;
+
+    /**
+     * The buffered output results and the summary are printed to.
+     * It is only flushed when it fills and at the end, never for input.
+     */
+    private final ConsoleOutput out;
+
+    /**
+     * The log saved by the "log" command.
+     */
+    private final LogIO logger;
+
+    /**
+     * The timings of each kind of command, in the order they first ran.
+     */
+    private final Map<String, Timing> timings = new LinkedHashMap<>();
+
+    /**
+     * The time spent on one kind of command.
+     */
+    private static final class Timing {
+
+        /**
+         * The number of times the command ran.
+         */
+        private int count;
+
+        /**
+         * The total time spent, in nanoseconds.
+         */
+        private long totalNanos;
+
+        /**
+         * The longest single run, in nanoseconds.
+         */
+        private long maxNanos;
+    }
+
+    /**
+     * Constructs a runner.
+     *
+     * @param newDeck   the deck the script works on
+     * @param newScript the reader of the script
+     * @param output    the stream results and the summary are printed to; it is buffered by the runner
+     * @param quiet     true to discard the results of the commands and only print the summary
+     * @param newLogger the log saved by the "log" command
+     */
+    ScriptRunner(final FlashCardManager newDeck, final BufferedReader newScript,
+                 final OutputStream output, final boolean quiet, final LogIO newLogger) {
+        this.out = new BufferedConsoleOutput(
+                new PrintStream(output, false, StandardCharsets.UTF_8), OUTPUT_BUFFER_SIZE, false);
+        this.deck = newDeck.session(newScript, quiet ? ConsoleOutput.NONE : out);
+        this.deck.setPrompts(false);
+        this.script = newScript;
+        this.logger = newLogger;
+    }
+
+    /**
+     * Runs the commands of the script until "exit" or its end, then prints the summary
+     * and lets go of the named deck the script switched to, if any.
+     *
+     * @throws IOException if the script cannot be read
+     */
+    void run() throws IOException {
+        CommandSession session = new CommandSession(deck, script, out, logger);
+        long start = System.nanoTime();
+        try {
+            String choice;
+            while ((choice = script.readLine()) != null) {
+                long commandStart = System.nanoTime();
+                boolean more = session.execute(choice);
+                if (session.lastCommand() != null) {
+                    record(session.lastCommand(), System.nanoTime() - commandStart);
+                }
+                if (!more) {
+                    break;
+                }
+            }
+            printSummary(System.nanoTime() - start);
+        } finally {
+            session.releaseDeck();
+            out.flush();
+        }
+    }
+
+    /**
+     * Adds the time of one command to its timing.
+     *
+     * @param name  the name the command is recorded under
+     * @param nanos the time it took
+     */
+    private void record(final String name, final long nanos) {
+        Timing timing = timings.computeIfAbsent(name, key -> new Timing());
+        timing.count++;
+        timing.totalNanos += nanos;
+        timing.maxNanos = Math.max(timing.maxNanos, nanos);
+    }
+
+    /**
+     * Prints how many commands ran and how long each kind took.
+     *
+     * @param totalNanos the time the whole script took
+     */
+    private void printSummary(final long totalNanos) {
+        int commands = 0;
+        for (Timing timing : timings.values()) {
+            commands += timing.count;
+        }
+        out.print(String.format(Locale.ROOT, "The script ran %d commands in %.3f ms.%n",
+                commands, totalNanos / 1e6));
+        out.print(String.format(Locale.ROOT, "%-16s %10s %12s %12s %12s%n",
+                "Command", "Count", "Total ms", "Mean us", "Max us"));
+        for (Map.Entry<String, Timing> entry : timings.entrySet()) {
+            Timing timing = entry.getValue();
+            out.print(String.format(Locale.ROOT, "%-16s %10d %12.3f %12.1f %12.1f%n", entry.getKey(), timing.count,
+                    timing.totalNanos / 1e6, timing.totalNanos / 1e3 / timing.count, timing.maxNanos / 1e3));
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package flashcards;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Finds cards by the beginning of their term or by words of their definition.
+ * Terms are kept in a radix trie whose nodes count the cards below them, so the
+ * cards starting with a prefix are counted and paged through without visiting the
+ * ones before the page. Definitions are kept in an inverted index from each
+ * lower-case word to the cards using it.
+ *
+ * <p>Results are ranked in three tiers: cards whose term is the query, cards whose term
+ * starts with it in term order, and cards whose definition holds every word of the
+ * query, the ones with the fewest other words first. Both indexes are updated card by
+ * card. All methods are synchronized, so sessions sharing a deck can search while the
+ * deck changes.
+ */
+class SearchIndex {
+
+    /**
+     * A node of the term trie, reached through the label of the edge leading to it.
+     */
+    private static final class Node {
+
+        /**
+         * The label of the edge leading to this node; empty for the root only.
+         */
+        private String label;
+
+        /**
+         * The cards whose lower-case term ends at this node, in the order they were added.
+         */
+        private ArrayList<FlashCard> cards = new ArrayList<>(0);
+
+        /**
+         * The number of cards at this node and below it.
+         */
+        private int count;
+
+        /**
+         * The first characters of the children's labels, in ascending order.
+         */
+        private char[] firsts = new char[0];
+
+        /**
+         * The children, in the order of {@link #firsts}.
+         */
+        private Node[] children = new Node[0];
+
+        /**
+         * Constructs a node.
+         *
+         * @param newLabel the label of the edge leading to it
+         */
+        Node(final String newLabel) {
+            this.label = newLabel;
+        }
+
+        /**
+         * Returns the position of the child whose label starts with a character.
+         *
+         * @param first the character
+         * @return the position, or {@code -(insertion point) - 1} if there is no such child
+         */
+        int find(final char first) {
+            return Arrays.binarySearch(firsts, first);
+        }
+
+        /**
+         * Adds a child at the insertion point returned by {@link #find(char)}.
+         *
+         * @param position the negative result of {@link #find(char)}
+         * @param child    the child
+         */
+        void insert(final int position, final Node child) {
+            int at = -position - 1;
+            char[] newFirsts = new char[firsts.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newFirsts[at] = child.label.charAt(0);
+            newChildren[at] = child;
+            System.arraycopy(firsts, at, newFirsts, at + 1, firsts.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        /**
+         * Removes the child at a position.
+         *
+         * @param position the position
+         */
+        void removeAt(final int position) {
+            char[] newFirsts = new char[firsts.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            System.arraycopy(firsts, position + 1, newFirsts, position, firsts.length - position - 1);
+            System.arraycopy(children, position + 1, newChildren, position, children.length - position - 1);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        /**
+         * Absorbs the only child of a node that holds no cards itself.
+         */
+        void mergeWithOnlyChild() {
+            Node child = children[0];
+            label = label + child.label;
+            cards = child.cards;
+            firsts = child.firsts;
+            children = child.children;
+        }
+    }
+
+    /**
+     * A card whose definition matches a query, with the number of words of its definition.
+     *
+     * @param flashCard the card
+     * @param words     the number of distinct words of its definition
+     */
+    private record Match(FlashCard flashCard, int words) {
+    }
+
+    /**
+     * Orders definition matches: fewest words first, then by term and definition.
+     */
+    private static final Comparator<Match> BY_DEFINITION_LENGTH = Comparator
+            .comparingInt(Match::words)
+            .thenComparing(match -> match.flashCard().getTerm())
+            .thenComparing(match -> match.flashCard().getDefinition());
+
+    /**
+     * The root of the term trie, standing for the empty term.
+     */
+    private final Node root = new Node("");
+
+    /**
+     * The cards using each lower-case word in their definition.
+     */
+    private final HashMap<String, LinkedHashSet<FlashCard>> postings = new HashMap<>();
+
+    /**
+     * Indexes a card.
+     *
+     * @param flashCard the card
+     */
+    synchronized void add(final FlashCard flashCard) {
+        String key = normalize(flashCard.getTerm());
+        Node node = root;
+        node.count++;
+        int i = 0;
+        while (i < key.length()) {
+            int position = node.find(key.charAt(i));
+            if (position < 0) {
+                Node leaf = new Node(key.substring(i));
+                node.insert(position, leaf);
+                node = leaf;
+                node.count++;
+                break;
+            }
+            Node child = node.children[position];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.firsts = new char[]{child.label.charAt(0)};
+                split.children = new Node[]{child};
+                split.count = child.count;
+                node.children[position] = split;
+                child = split;
+            }
+            node = child;
+            node.count++;
+            i += common;
+        }
+        node.cards.add(flashCard);
+
+        for (String word : words(flashCard.getDefinition())) {
+            postings.computeIfAbsent(word, w -> new LinkedHashSet<>()).add(flashCard);
+        }
+    }
+
+    /**
+     * Removes a card from the index.
+     *
+     * @param flashCard the card
+     */
+    synchronized void remove(final FlashCard flashCard) {
+        String key = normalize(flashCard.getTerm());
+        ArrayList<Node> path = new ArrayList<>();
+        ArrayList<Integer> positions = new ArrayList<>();
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int position = node.find(key.charAt(i));
+            if (position < 0 || !key.startsWith(node.children[position].label, i)) {
+                return;
+            }
+            path.add(node);
+            positions.add(position);
+            node = node.children[position];
+            i += node.label.length();
+        }
+        if (!node.cards.remove(flashCard)) {
+            return;
+        }
+        node.count--;
+        for (Node ancestor : path) {
+            ancestor.count--;
+        }
+        if (!path.isEmpty()) {
+            Node parent = path.get(path.size() - 1);
+            if (node.count == 0) {
+                parent.removeAt(positions.get(positions.size() - 1));
+                if (parent != root && parent.cards.isEmpty() && parent.children.length == 1) {
+                    parent.mergeWithOnlyChild();
+                }
+            } else if (node.cards.isEmpty() && node.children.length == 1) {
+                node.mergeWithOnlyChild();
+            }
+        }
+
+        for (String word : words(flashCard.getDefinition())) {
+            LinkedHashSet<FlashCard> cards = postings.get(word);
+            if (cards != null && cards.remove(flashCard) && cards.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    /**
+     * Finds the cards matching a query and returns one page of them.
+     *
+     * @param query    the beginning of a term, or words of a definition
+     * @param page     the number of the page, starting at 1
+     * @param pageSize the largest number of cards on a page
+     * @return the page, empty if the query is blank or the page lies past the results
+     */
+    synchronized SearchPage search(final String query, final int page, final int pageSize) {
+        String key = normalize(query.strip());
+        if (key.isEmpty()) {
+            return new SearchPage(List.of(), 0, page, pageSize);
+        }
+
+        // The node of the first term starting with the key, and the part of its label past the key.
+        Node node = root;
+        int i = 0;
+        while (node != null && i < key.length()) {
+            int position = node.find(key.charAt(i));
+            Node child = position < 0 ? null : node.children[position];
+            int common = child == null ? 0 : commonPrefix(child.label, key, i);
+            if (child == null || common < Math.min(child.label.length(), key.length() - i)) {
+                node = null;
+            } else {
+                node = child;
+                i += child.label.length();
+            }
+        }
+        boolean exactNode = node != null && i == key.length();
+        List<FlashCard> exact = exactNode ? node.cards : List.of();
+        int prefixCount = node == null ? 0 : node.count - exact.size();
+
+        List<FlashCard> definitionMatches = new ArrayList<>();
+        for (FlashCard flashCard : matchingDefinitions(words(key))) {
+            if (!normalize(flashCard.getTerm()).startsWith(key)) {
+                definitionMatches.add(flashCard);
+            }
+        }
+
+        int total = exact.size() + prefixCount + definitionMatches.size();
+        long from = (long) (page - 1) * pageSize;
+        long to = Math.min(from + pageSize, total);
+        List<FlashCard> cards = new ArrayList<>();
+        if (page < 1 || from >= total) {
+            return new SearchPage(cards, total, page, pageSize);
+        }
+
+        int skip = (int) from;
+        int wanted = (int) (to - from);
+        for (int k = skip; k < exact.size() && cards.size() < wanted; k++) {
+            cards.add(exact.get(k));
+        }
+        skip = Math.max(0, skip - exact.size());
+        if (cards.size() < wanted && node != null) {
+            if (skip < prefixCount) {
+                if (exactNode) {
+                    for (Node child : node.children) {
+                        skip = collect(child, skip, wanted, cards);
+                    }
+                } else {
+                    collect(node, skip, wanted, cards);
+                }
+                skip = 0;
+            } else {
+                skip -= prefixCount;
+            }
+        }
+        if (cards.size() < wanted) {
+            List<Match> ranked = new ArrayList<>(definitionMatches.size());
+            for (FlashCard flashCard : definitionMatches) {
+                ranked.add(new Match(flashCard, words(flashCard.getDefinition()).size()));
+            }
+            ranked.sort(BY_DEFINITION_LENGTH);
+            for (int k = skip; k < ranked.size() && cards.size() < wanted; k++) {
+                cards.add(ranked.get(k).flashCard());
+            }
+        }
+        return new SearchPage(cards, total, page, pageSize);
+    }
+
+    /**
+     * Adds the cards of a subtree to a page in term order, skipping whole subtrees
+     * that lie before the page.
+     *
+     * @param node   the root of the subtree
+     * @param skip   the number of cards of the subtree before the page
+     * @param wanted the number of cards the page holds
+     * @param cards  the cards of the page so far
+     * @return the number of cards still to skip after this subtree
+     */
+    private static int collect(final Node node, final int skip, final int wanted, final List<FlashCard> cards) {
+        if (cards.size() >= wanted) {
+            return skip;
+        }
+        if (skip >= node.count) {
+            return skip - node.count;
+        }
+        int remaining = skip;
+        for (FlashCard flashCard : node.cards) {
+            if (remaining > 0) {
+                remaining--;
+            } else if (cards.size() < wanted) {
+                cards.add(flashCard);
+            }
+        }
+        for (Node child : node.children) {
+            remaining = collect(child, remaining, wanted, cards);
+        }
+        return remaining;
+    }
+
+    /**
+     * Finds the cards whose definition holds every given word,
+     * walking the shortest posting list and checking the others.
+     *
+     * @param words the words
+     * @return the matching cards, empty if there are no words
+     */
+    private List<FlashCard> matchingDefinitions(final List<String> words) {
+        List<LinkedHashSet<FlashCard>> lists = new ArrayList<>();
+        for (String word : words) {
+            LinkedHashSet<FlashCard> cards = postings.get(word);
+            if (cards == null) {
+                return List.of();
+            }
+            lists.add(cards);
+        }
+        if (lists.isEmpty()) {
+            return List.of();
+        }
+        lists.sort(Comparator.comparingInt(LinkedHashSet::size));
+        List<FlashCard> matches = new ArrayList<>();
+        for (FlashCard flashCard : lists.get(0)) {
+            boolean all = true;
+            for (int k = 1; k < lists.size() && all; k++) {
+                all = lists.get(k).contains(flashCard);
+            }
+            if (all) {
+                matches.add(flashCard);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Splits a text into its distinct lower-case words.
+     *
+     * @param text the text
+     * @return the words, in the order they first appear
+     */
+    static List<String> words(final String text) {
+        LinkedHashSet<String> words = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inWord = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                words.add(normalize(text.substring(start, i)));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * Normalizes text for case-insensitive matching.
+     *
+     * @param text the text
+     * @return the lower-case text
+     */
+    private static String normalize(final String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the length of the common prefix of a label and a key from a position on.
+     *
+     * @param label the label
+     * @param key   the key
+     * @param from  the position in the key
+     * @return the number of leading characters they share
+     */
+    private static int commonPrefix(final String label, final String key, final int from) {
+        int max = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,32 @@
+package flashcards;
+
+import java.util.List;
+
+/**
+ * One page of the results of a card search, best matches first.
+ *
+ * @param cards    the cards on this page
+ * @param total    the number of cards matching the query on all pages
+ * @param page     the number of this page, starting at 1
+ * @param pageSize the largest number of cards on a page
+ */
+public record SearchPage(List<FlashCard> cards, int total, int page, int pageSize) {
+
+    /**
+     * Returns the position of the first card of this page among all results.
+     *
+     * @return the position, starting at 1
+     */
+    public int first() {
+        return (page - 1) * pageSize + 1;
+    }
+
+    /**
+     * Tells whether more results follow this page.
+     *
+     * @return true if there is a next page
+     */
+    public boolean hasNext() {
+        return (long) page * pageSize < total;
+    }
+}
@@ -0,0 +1,158 @@
+package flashcards;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves one deck to many learners over a loopback TCP port.
+ * Every connection runs the same command loop as the console on its own thread,
+ * with its own reader, output stream and session log, on a session of the shared
+ * {@link FlashCardManager}. A connection ends with "exit" or when the client closes it.
+ *
+ * <p>Output is buffered per connection in a {@link BufferedConsoleOutput} and flushed
+ * whenever the session waits for input, so printing never blocks on a slow client
+ * while the deck is locked.
+ */
+public class SessionServer implements Closeable {
+
+    /**
+     * The number of pending connections the server socket queues.
+     */
+    static final int BACKLOG = 4096;
+
+    /**
+     * The number of characters of output a connection holds before writing them.
+     */
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The deck shared by all sessions.
+     */
+    private final FlashCardManager deck;
+
+    /**
+     * The socket accepting connections.
+     */
+    private final ServerSocket serverSocket;
+
+    /**
+     * Runs the sessions, one thread per connection.
+     */
+    private final ExecutorService sessions;
+
+    /**
+     * The connections currently open.
+     */
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The thread accepting connections.
+     */
+    private final Thread acceptor;
+
+    /**
+     * Binds a loopback port and starts accepting connections.
+     *
+     * @param newDeck the deck shared by all sessions
+     * @param port    the port to listen on, or 0 to pick a free one
+     * @throws IOException if the port cannot be bound
+     */
+    public SessionServer(final FlashCardManager newDeck, final int port) throws IOException {
+        this.deck = newDeck;
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        AtomicInteger sessionCount = new AtomicInteger();
+        this.sessions = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "flashcards-session-" + sessionCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.acceptor = new Thread(this::accept, "flashcards-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stops accepting connections, closes the open ones and waits for their sessions to end.
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : connections) {
+            socket.close();
+        }
+        sessions.shutdown();
+        try {
+            acceptor.join();
+            sessions.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Accepts connections until the server socket is closed.
+     */
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.add(socket);
+                sessions.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.printf("Accepting a connection failed: %s%n", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the command loop for one connection and closes it at the end.
+     *
+     * @param socket the connection
+     */
+    private void serve(final Socket socket) {
+        try (socket) {
+            LogIO logger = LogIO.forSession();
+            ConsoleOutput out = new BufferedConsoleOutput(
+                    new PrintStream(logger.tee(socket.getOutputStream()), false, StandardCharsets.UTF_8),
+                    OUTPUT_BUFFER_SIZE, true);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    logger.tee(socket.getInputStream()), StandardCharsets.UTF_8));
+
+            new CommandSession(deck.session(reader, out), reader, out, logger).run();
+            out.println("Bye bye!");
+            out.flush();
+        } catch (IOException e) {
+            // The client went away; its session ends with the connection.
+        } catch (RuntimeException e) {
+            System.err.printf("A session ended with an error: %s%n", e);
+        } finally {
+            connections.remove(socket);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package flashcards;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaDeckStoreTest {
+
+    @DisplayName("Test Add Function - Strings Round-Trip Through The Arena")
+    @Test
+    void add_RoundTrip() {
+        //given
+        ArenaDeckStore store = new ArenaDeckStore();
+
+        //when
+        int france = store.add("France", "Paris", 2);
+        int euro = store.add("€uro", "Währung", 0);
+
+        //then
+        assertEquals(2, store.size());
+        assertEquals("France", store.term(france));
+        assertEquals("Paris", store.definition(france));
+        assertEquals(2, store.getMistakes(france));
+        assertEquals("€uro", store.term(euro));
+        assertEquals("Währung", store.definition(euro));
+        assertEquals(euro, store.findByTerm("€uro"));
+        assertEquals(france, store.findByDefinition("Paris"));
+        assertEquals(-1, store.findByTerm("Paris"));
+        assertEquals(-1, store.findByDefinition("France"));
+    }
+
+    @DisplayName("Test Find Function - Duplicates Resolve To The First Card")
+    @Test
+    void find_Duplicates() {
+        //given
+        ArenaDeckStore store = new ArenaDeckStore();
+        int first = store.add("Term", "Definition 1", 0);
+        int second = store.add("Term", "Definition 2", 0);
+
+        //when
+        int found = store.findByTerm("Term");
+
+        //then
+        assertEquals(first, found);
+        assertEquals(second, store.findByDefinition("Definition 2"));
+    }
+
+    @DisplayName("Test Remove Function - A Duplicate Takes Over The Removed Card")
+    @Test
+    void remove_DuplicateTakesOver() {
+        //given
+        ArenaDeckStore store = new ArenaDeckStore();
+        int first = store.add("Term", "Definition 1", 0);
+        int second = store.add("Term", "Definition 2", 0);
+
+        //when
+        store.remove(first);
+
+        //then
+        assertEquals(1, store.size());
+        assertEquals(second, store.findByTerm("Term"));
+        assertEquals(-1, store.findByDefinition("Definition 1"));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.term(first));
+    }
+
+    @DisplayName("Test Remove Function - Removed Strings Can Be Added Again")
+    @Test
+    void remove_AddAgain() {
+        //given
+        ArenaDeckStore store = new ArenaDeckStore();
+        int removed = store.add("Term", "Definition", 0);
+        store.remove(removed);
+
+        //when
+        int added = store.add("Term", "Definition", 1);
+
+        //then
+        assertNotEquals(removed, added);
+        assertEquals(added, store.findByTerm("Term"));
+        assertEquals(added, store.findByDefinition("Definition"));
+    }
+
+    @DisplayName("Test Add Function - Growing Past The Initial Capacity Keeps Every Card")
+    @Test
+    void add_Growth() {
+        //given
+        ArenaDeckStore store = new ArenaDeckStore();
+        int count = 50_000;
+
+        //when
+        for (int i = 0; i < count; i++) {
+            store.add("Term " + i, "Definition " + i, i % 7);
+        }
+        for (int i = 0; i < count; i += 2) {
+            store.remove(store.findByTerm("Term " + i));
+        }
+
+        //then
+        assertEquals(count / 2, store.size());
+        for (int i = 0; i < count; i++) {
+            int id = store.findByTerm("Term " + i);
+            if (i % 2 == 0) {
+                assertEquals(-1, id);
+            } else {
+                assertEquals("Definition " + i, store.definition(id));
+                assertEquals(i % 7, store.getMistakes(id));
+                assertEquals(id, store.findByDefinition("Definition " + i));
+            }
+        }
+    }
+
+    @DisplayName("Test Mistakes Functions - Counts Are Kept Per Card")
+    @Test
+    void mistakes() {
+        //given
+        ArenaDeckStore store = new ArenaDeckStore();
+        int id = store.add("Term", "Definition", 0);
+
+        //when
+        store.increaseMistakes(id);
+        store.increaseMistakes(id);
+
+        //then
+        assertEquals(2, store.getMistakes(id));
+        store.setMistakes(id, 0);
+        assertEquals(0, store.getMistakes(id));
+    }
+
+    @DisplayName("Test Card Function - Views Copy The Stored Card")
+    @Test
+    void card_View() {
+        //given
+        ArenaDeckStore store = new ArenaDeckStore();
+        int id = store.add("Term", "Definition", 3);
+
+        //when
+        FlashCard flashCard = store.card(id);
+        flashCard.increaseMistakes();
+
+        //then
+        assertEquals("Term", flashCard.getTerm());
+        assertEquals("Definition", flashCard.getDefinition());
+        assertEquals(4, flashCard.getMistakes());
+        assertEquals(3, store.getMistakes(id));
+    }
+
+    @DisplayName("Test Load Function - Deck Files Are Read Into The Arena")
+    @Test
+    void load() throws IOException {
+        //given
+        Path file = Files.createTempFile("arena", ".txt");
+        Files.write(file, List.of("France&&Paris&&1", "not a card", "Japan&&Tokyo&&0"), StandardCharsets.UTF_8);
+
+        //when
+        ArenaDeckStore store = ArenaDeckStore.load(file);
+
+        //then
+        assertEquals(2, store.size());
+        assertEquals(1, store.getMistakes(store.findByTerm("France")));
+        assertEquals("Tokyo", store.definition(store.findByTerm("Japan")));
+        assertEquals(ArenaDeckStore.CHUNK_SIZE, store.offHeapBytes());
+        Files.delete(file);
+    }
+
+    @DisplayName("Test Add Function - Strings Larger Than A Chunk Are Rejected")
+    @Test
+    void add_TooLarge() {
+        //given
+        ArenaDeckStore store = new ArenaDeckStore();
+        String huge = "x".repeat(ArenaDeckStore.CHUNK_SIZE);
+
+        //when, then
+        assertThrows(IllegalArgumentException.class, () -> store.add(huge, "Definition", 0));
+        assertEquals(0, store.size());
+    }
+
+    @DisplayName("Test Next Function - Cards Are Handed Out In Turn")
+    @Test
+    void next_RoundRobin() {
+        //given
+        ArenaDeckStore store = new ArenaDeckStore();
+        FlashCard none = store.next();
+        store.add("One", "1", 0);
+        int removed = store.add("Two", "2", 0);
+        store.add("Three", "3", 2);
+        store.remove(removed);
+
+        //when
+        List<String> terms = List.of(store.next().getTerm(), store.next().getTerm(), store.next().getTerm());
+
+        //then
+        assertNull(none);
+        assertEquals(List.of("One", "Three", "One"), terms);
+        assertEquals(2, store.card(2).getMistakes());
+        assertEquals(Long.valueOf(14), Long.valueOf(store.stringBytes()));
+    }
+
+    @DisplayName("Test Arena Deck - Cards Are Looked Up And Asked Read-Only")
+    @Test
+    void manager_ArenaDeck() throws IOException {
+        //given
+        Path file = Files.createTempFile("arena", ".txt");
+        Files.write(file, List.of("France&&Paris&&1", "Japan&&Tokyo&&0"), StandardCharsets.UTF_8);
+        Path export = file.resolveSibling(file.getFileName() + ".export.txt");
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>(Set.of(new FlashCard("Peru", "Lima"))));
+        cardManager.setReader(new BufferedReader(new StringReader("3\nLima\nTokyo\nTokyo\nJapan\nJapan\nSpain\nParis\n")));
+        cardManager.setPrompts(false);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(output));
+
+        //when
+        try {
+            cardManager.openArenaDeck(file.resolveSibling("missing.txt").toString());
+            cardManager.openArenaDeck(file.toString());
+            cardManager.quizUser(0);
+            cardManager.removeFlashCard();
+            cardManager.addFlashCard();
+            cardManager.addFlashCard();
+            cardManager.hardestCard();
+            cardManager.exportFlashCards(export.toString());
+        } finally {
+            System.setOut(console);
+        }
+
+        //then
+        assertTrue(output.toString().startsWith("File not found.\nThe arena deck \"" + file + "\" holds 2 cards in "),
+                output.toString());
+        assertTrue(output.toString().contains("Correct!\n"
+                + "Wrong. The right answer is \"Paris\", but your definition is correct for \"Japan\".\n"
+                + "Correct!\n"
+                + "Can't remove \"Japan\": the arena deck is read-only.\n\n"
+                + "The card \"Japan\" already exists.\n\n"
+                + "The definition \"Paris\" already exists.\n\n"
+                + FlashCardManager.ARENA_DECK_STATISTICS + "\n\n"), output.toString());
+        assertEquals(1, cardManager.findByTerm("France").getMistakes());
+        assertEquals("Japan", cardManager.findByDefinition("Tokyo").getTerm());
+        assertEquals(3, cardManager.getMetrics().getCardCount());
+        assertEquals(1, Files.readAllLines(export).size());
+        assertTrue(Files.readAllLines(export).get(0).startsWith("Peru&&Lima&&0"));
+        assertThrows(IllegalStateException.class, () -> cardManager.hardestCards(1));
+        Files.delete(file);
+        Files.delete(export);
+    }
+}
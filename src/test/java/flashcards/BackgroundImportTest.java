@@ -0,0 +1,332 @@
+package flashcards;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackgroundImportTest {
+    private Path base;
+
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+
+    private final AtomicLong now = new AtomicLong();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        base = Files.createTempDirectory("background").resolve("deck.txt");
+        StringBuilder deck = new StringBuilder();
+        for (int i = 0; i < FlashCardManager.IMPORT_BATCH_SIZE + 10; i++) {
+            deck.append("term").append(i).append("&&definition").append(i).append("&&").append(i % 3).append('\n');
+        }
+        Files.writeString(base, deck);
+        System.setOut(new PrintStream(outContent));
+    }
+
+    @DisplayName("Test Progress - Percent Done, Rate And Report Interval")
+    @Test
+    void progress() throws IOException {
+        //given
+        BackgroundImport load = new BackgroundImport("deck.txt", now::get);
+        int unknown = load.percentDone();
+        load.expect(200);
+        InputStream in = load.track(new ByteArrayInputStream(new byte[100]));
+
+        //when
+        in.read();
+        in.read(new byte[49]);
+        load.added(300);
+        now.set(1500);
+
+        //then
+        assertEquals(-1, unknown);
+        assertEquals(25, load.percentDone());
+        assertEquals(300, load.getCards());
+        assertEquals(200, load.cardsPerSecond());
+        assertTrue(load.reportDue(1000));
+        assertFalse(load.reportDue(1000));
+        assertEquals(50, in.readAllBytes().length);
+        assertEquals(-1, in.read());
+        assertEquals(50, load.percentDone());
+        load.finish();
+        assertEquals(100, load.percentDone());
+    }
+
+    @DisplayName("Test Await - Waiting Ends With The Load And Keeps Interrupts")
+    @Test
+    void await() throws InterruptedException {
+        //given
+        BackgroundImport load = new BackgroundImport("deck.txt", now::get);
+        Thread main = Thread.currentThread();
+        Thread finisher = new Thread(() -> {
+            waitUntilWaiting(main);
+            main.interrupt();
+            waitUntilWaiting(main);
+            load.finish();
+        });
+
+        //when
+        finisher.start();
+        load.await();
+        boolean interrupted = Thread.interrupted();
+        finisher.join();
+
+        //then
+        assertTrue(interrupted);
+        assertTrue(load.isFinished());
+    }
+
+    @DisplayName("Test Background Import - Loads Every Card And Becomes The Delta Base")
+    @Test
+    void importInBackground_Loads() throws IOException {
+        //given
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        cardManager.setReader(new BufferedReader(new StringReader("Term\nDefinition\n")));
+        cardManager.setPrompts(false);
+
+        //when
+        cardManager.importInBackground(base.toString());
+        cardManager.awaitImport();
+        cardManager.addFlashCard();
+        cardManager.exportDelta(base.toString());
+
+        //then
+        assertEquals(FlashCardManager.IMPORT_BATCH_SIZE + 11, cardManager.getFlashCards().size());
+        assertTrue(outContent.toString().contains((FlashCardManager.IMPORT_BATCH_SIZE + 10) + " cards have been loaded."));
+        assertTrue(outContent.toString().contains("1 changed cards have been saved."));
+    }
+
+    @DisplayName("Test Background Import - Commands Work On The Cards Loaded So Far")
+    @Test
+    void importInBackground_WhileLoading() throws Exception {
+        //given
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        cardManager.setClock(() -> {
+            if (Thread.currentThread().getName().equals("deck-import") && blocked.getCount() > 0) {
+                blocked.countDown();
+                awaitQuietly(release);
+            }
+            return blocked.getCount() > 0 ? 0 : 2000;
+        });
+        cardManager.setPartialDeck(true);
+        cardManager.setReader(new BufferedReader(new StringReader("New\nNew definition\nterm1\n")));
+        cardManager.setPrompts(false);
+
+        //when
+        cardManager.importInBackground(base.toString());
+        blocked.await();
+        int loadedSoFar = cardManager.getFlashCards().size();
+        cardManager.addFlashCard();
+        cardManager.addFlashCard();
+        cardManager.hardestCard();
+        release.countDown();
+        cardManager.awaitImport();
+        cardManager.exportDelta(base.toString());
+
+        //then
+        assertEquals(FlashCardManager.IMPORT_BATCH_SIZE, loadedSoFar);
+        assertEquals(FlashCardManager.IMPORT_BATCH_SIZE + 11, cardManager.getFlashCards().size());
+        assertTrue(outContent.toString().contains("The card \"term1\" already exists."));
+        assertTrue(outContent.toString().contains("The hardest cards are "));
+        assertTrue(outContent.toString().contains("Loading \"" + base + "\": 4096 cards, "));
+        assertTrue(outContent.toString().contains("% done, 2048 cards/s."));
+        assertTrue(outContent.toString().contains((FlashCardManager.IMPORT_BATCH_SIZE + 11) + " cards have been saved."));
+    }
+
+    @DisplayName("Test Background Import - Commands Wait For The Whole Deck")
+    @Test
+    void importInBackground_Waits() throws Exception {
+        //given
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        cardManager.setClock(() -> {
+            if (Thread.currentThread().getName().equals("deck-import") && blocked.getCount() > 0) {
+                blocked.countDown();
+                awaitQuietly(release);
+            }
+            return 0;
+        });
+        Thread main = Thread.currentThread();
+        Thread releaser = new Thread(() -> {
+            waitUntilWaiting(main);
+            release.countDown();
+        });
+
+        //when
+        cardManager.importInBackground(base.toString());
+        blocked.await();
+        releaser.start();
+        cardManager.printHardestCards(1);
+        releaser.join();
+
+        //then
+        assertTrue(outContent.toString().startsWith("Waiting for \"" + base + "\" to finish loading."));
+        assertTrue(outContent.toString().contains("The 1 hardest cards are:"));
+        assertEquals(FlashCardManager.IMPORT_BATCH_SIZE + 10, cardManager.getFlashCards().size());
+    }
+
+    @DisplayName("Test Background Import - Merges Wait For The Whole Deck")
+    @Test
+    void importInBackground_MergeWaits() throws Exception {
+        //given
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        cardManager.setClock(() -> {
+            if (Thread.currentThread().getName().equals("deck-import") && blocked.getCount() > 0) {
+                blocked.countDown();
+                awaitQuietly(release);
+            }
+            return 0;
+        });
+        cardManager.setPartialDeck(true);
+        Thread main = Thread.currentThread();
+        Thread releaser = new Thread(() -> {
+            waitUntilWaiting(main);
+            release.countDown();
+        });
+
+        //when
+        cardManager.importInBackground(base.toString());
+        blocked.await();
+        releaser.start();
+        cardManager.mergeFlashCards(base.toString(), MergePolicy.KEEP);
+        releaser.join();
+
+        //then
+        assertTrue(outContent.toString().startsWith("Waiting for \"" + base + "\" to finish loading."));
+        assertTrue(outContent.toString().contains((FlashCardManager.IMPORT_BATCH_SIZE + 10)
+                + " cards have been merged: 0 inserted, 0 updated, 0 conflicting, "
+                + (FlashCardManager.IMPORT_BATCH_SIZE + 10) + " unchanged."));
+        assertEquals(FlashCardManager.IMPORT_BATCH_SIZE + 10, cardManager.getFlashCards().size());
+    }
+
+    @DisplayName("Test Background Import - Removals Wait For Cards Not Loaded Yet")
+    @Test
+    void importInBackground_RemoveWaits() throws Exception {
+        //given
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        cardManager.setClock(() -> {
+            if (Thread.currentThread().getName().equals("deck-import") && blocked.getCount() > 0) {
+                blocked.countDown();
+                awaitQuietly(release);
+            }
+            return 0;
+        });
+        cardManager.setPartialDeck(true);
+        String lastTerm = "term" + (FlashCardManager.IMPORT_BATCH_SIZE + 9);
+        cardManager.setReader(new BufferedReader(new StringReader(lastTerm + "\n")));
+        cardManager.setPrompts(false);
+        Thread main = Thread.currentThread();
+        Thread releaser = new Thread(() -> {
+            waitUntilWaiting(main);
+            release.countDown();
+        });
+
+        //when
+        cardManager.importInBackground(base.toString());
+        blocked.await();
+        boolean loadedBefore = cardManager.findByTerm(lastTerm) != null;
+        releaser.start();
+        cardManager.removeFlashCard();
+        releaser.join();
+
+        //then
+        assertFalse(loadedBefore);
+        assertTrue(outContent.toString().startsWith("Waiting for \"" + base + "\" to finish loading."));
+        assertTrue(outContent.toString().contains("The card has been removed."));
+        assertNull(cardManager.findByTerm(lastTerm));
+        assertEquals(FlashCardManager.IMPORT_BATCH_SIZE + 9, cardManager.getFlashCards().size());
+    }
+
+    @DisplayName("Test Background Import - Compressed, Journaled, Damaged And Missing Files")
+    @Test
+    void importInBackground_Formats() throws IOException {
+        //given
+        Path compressed = base.resolveSibling("deck.fcz");
+        try (OutputStream out = CompressedDeckFormat.newOutputStream(compressed, 6)) {
+            out.write(Files.readAllBytes(base));
+        }
+        Path damaged = base.resolveSibling("damaged.fcz");
+        Files.writeString(damaged, "not a deck");
+        FlashCardManager source = new FlashCardManager(new HashSet<>());
+        source.importFlashCards(base.toString());
+        source.setReader(new BufferedReader(new StringReader("term0\n")));
+        source.setPrompts(false);
+        source.removeFlashCard();
+        source.exportDelta(base.toString());
+        outContent.reset();
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        FlashCardManager journaled = new FlashCardManager(new HashSet<>());
+
+        //when
+        cardManager.importInBackground(compressed.toString());
+        cardManager.awaitImport();
+        cardManager.importInBackground(damaged.toString());
+        cardManager.awaitImport();
+        cardManager.importInBackground(base.resolveSibling("missing.txt").toString());
+        cardManager.awaitImport();
+        journaled.importInBackground(base.toString());
+        journaled.awaitImport();
+
+        //then
+        String output = outContent.toString();
+        assertTrue(output.startsWith((FlashCardManager.IMPORT_BATCH_SIZE + 10) + " cards have been loaded."));
+        assertFalse(output.contains("Waiting"));
+        assertTrue(output.contains("The file is damaged: "));
+        assertTrue(output.contains("File not found."));
+        assertTrue(output.contains("1 journal records have been replayed."));
+        assertEquals(FlashCardManager.IMPORT_BATCH_SIZE + 10, cardManager.getFlashCards().size());
+        assertEquals(FlashCardManager.IMPORT_BATCH_SIZE + 9, journaled.getFlashCards().size());
+        assertNull(journaled.findByTerm("term0"));
+    }
+
+    @DisplayName("Test Background Import - Merges Run Before Returning")
+    @Test
+    void importInBackground_Merge() throws IOException {
+        //given
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        cardManager.setMergePolicy(MergePolicy.KEEP);
+
+        //when
+        cardManager.importInBackground(base.toString());
+
+        //then
+        assertEquals(FlashCardManager.IMPORT_BATCH_SIZE + 10, cardManager.getFlashCards().size());
+        assertTrue(outContent.toString().startsWith((FlashCardManager.IMPORT_BATCH_SIZE + 10) + " cards have been merged"));
+    }
+
+    private static void waitUntilWaiting(final Thread thread) {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package flashcards;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryDeckFormatTest {
+
+    @DisplayName("Test Write/Read Functions - Round Trip")
+    @Test
+    void writeAndRead() throws IOException {
+        //given
+        FlashCard flashCard1 = new FlashCard("Scooby-Doo", "Shaggy");
+        FlashCard flashCard2 = new FlashCard("Teen-Titans", "Gö");
+        FlashCard flashCard3 = new FlashCard("Same", "Same");
+        flashCard2.setMistakes(20);
+        flashCard3.setReview(new ReviewState(2360, 6, 2, 1700000000000L));
+        List<FlashCard> cards = List.of(flashCard1, flashCard2, flashCard3);
+        Path deck = Files.createTempFile("deck", ".fcb");
+        ArrayList<FlashCard> loaded = new ArrayList<>();
+
+        //when
+        int written = BinaryDeckFormat.write(cards, deck);
+        long read = BinaryDeckFormat.read(deck, loaded::add);
+        Files.delete(deck);
+
+        //then
+        assertEquals(3, written);
+        assertEquals(3, read);
+        assertEquals(cards, loaded);
+        assertEquals(20, loaded.get(1).getMistakes());
+        assertEquals("Same", loaded.get(2).getDefinition());
+        assertNull(loaded.get(0).getReview());
+        assertEquals(6, loaded.get(2).getReview().getInterval());
+        assertEquals(1700000000000L, loaded.get(2).getReview().getDue());
+    }
+
+    @DisplayName("Test Write Function - Repeated Strings Are Stored Once")
+    @Test
+    void write_Dictionary() throws IOException {
+        //given
+        List<FlashCard> cards = List.of(
+                new FlashCard("Term", "A rather long shared definition"),
+                new FlashCard("Term2", "A rather long shared definition"));
+        Path deck = Files.createTempFile("deck", ".fcb");
+
+        //when
+        BinaryDeckFormat.write(cards, deck);
+        long size = Files.size(deck);
+        Files.delete(deck);
+
+        //then
+        long expected = BinaryDeckFormat.HEADER_SIZE
+                + 3 * Integer.BYTES + "Term".length() + "Term2".length() + "A rather long shared definition".length()
+                + 2L * BinaryDeckFormat.RECORD_SIZE + Integer.BYTES;
+        assertEquals(expected, size);
+    }
+
+    @DisplayName("Test Read Function - Corrupt File Is Rejected")
+    @Test
+    void read_Corrupt() throws IOException {
+        //given
+        Path deck = Files.createTempFile("deck", ".fcb");
+        BinaryDeckFormat.write(List.of(new FlashCard("Term", "Definition")), deck);
+        try (RandomAccessFile file = new RandomAccessFile(deck.toFile(), "rw")) {
+            file.seek(BinaryDeckFormat.HEADER_SIZE + Integer.BYTES);
+            file.write('X');
+        }
+        ArrayList<FlashCard> loaded = new ArrayList<>();
+
+        //when
+        CorruptDeckException e = assertThrows(CorruptDeckException.class,
+                () -> BinaryDeckFormat.read(deck, loaded::add));
+        Files.delete(deck);
+
+        //then
+        assertTrue(e.getMessage().contains("checksum"));
+        assertEquals(0, loaded.size());
+    }
+
+    @DisplayName("Test Export/Import Function - Binary Deck By Extension")
+    @Test
+    void exportImport_Binary() throws IOException {
+        //given
+        HashSet<FlashCard> cards = new HashSet<>();
+        cards.add(new FlashCard("Term", "Definition"));
+        cards.add(new FlashCard("Term2", "Definition2"));
+        cards.add(new FlashCard("Term2", "Definition3"));
+        Path deck = Files.createTempFile("deck", ".fcb");
+
+        //when
+        new FlashCardManager(cards).exportFlashCards(deck.toString());
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        cardManager.importFlashCards(deck.toString());
+        Files.delete(deck);
+
+        //then
+        assertEquals(cards, cardManager.getFlashCards());
+    }
+}
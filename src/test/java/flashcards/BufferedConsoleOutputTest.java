@@ -0,0 +1,104 @@
+package flashcards;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferedConsoleOutputTest {
+
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+    private final PrintStream target = new PrintStream(written, false, StandardCharsets.UTF_8);
+
+    private String written() {
+        return written.toString(StandardCharsets.UTF_8);
+    }
+
+    @DisplayName("Test Awaiting Input Function - Output Is Held Until Input Is Needed")
+    @Test
+    void awaitingInput_Flushes() {
+        //given
+        BufferedConsoleOutput output = new BufferedConsoleOutput(target);
+
+        //when
+        output.println("The card:");
+        output.printf("The pair (\"%s\":\"%s\") has been added.%n", "Gö", "Tür");
+        String beforeInput = written();
+        output.awaitingInput();
+
+        //then
+        assertEquals("", beforeInput);
+        assertEquals("The card:\nThe pair (\"Gö\":\"Tür\") has been added.\n", written());
+    }
+
+    @DisplayName("Test Awaiting Input Function - Scripts Keep Their Output Buffered")
+    @Test
+    void awaitingInput_NoFlush() {
+        //given
+        BufferedConsoleOutput output = new BufferedConsoleOutput(target, 1024, false);
+
+        //when
+        output.print("Correct!");
+        output.awaitingInput();
+        String beforeFlush = written();
+        output.flush();
+
+        //then
+        assertEquals("", beforeFlush);
+        assertEquals("Correct!", written());
+    }
+
+    @DisplayName("Test Print Function - A Full Buffer Is Written Out")
+    @Test
+    void print_FullBuffer() {
+        //given
+        BufferedConsoleOutput output = new BufferedConsoleOutput(target, 8, false);
+
+        //when
+        output.print("1234");
+        String half = written();
+        output.println("5678");
+
+        //then
+        assertEquals("", half);
+        assertEquals("12345678\n", written());
+    }
+
+    @DisplayName("Test None Output - Everything Is Discarded")
+    @Test
+    void none_Discards() {
+        //given
+        ConsoleOutput output = ConsoleOutput.NONE;
+
+        //when
+        output.println("The card:");
+        output.printf("%d cards have been loaded.%n", 3);
+        output.println();
+        output.awaitingInput();
+
+        //then
+        assertEquals("", written());
+    }
+
+    @DisplayName("Test Of Function - Stream Output Is Not Buffered")
+    @Test
+    void of_Unbuffered() {
+        //given
+        ConsoleOutput output = ConsoleOutput.of(target);
+
+        //when
+        output.print("a");
+        output.println("b");
+        output.printf("%s%n", "c");
+        output.println();
+        target.flush();
+
+        //then
+        assertEquals("ab\nc\n\n", written());
+    }
+}
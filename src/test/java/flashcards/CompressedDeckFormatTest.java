@@ -0,0 +1,216 @@
+package flashcards;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedDeckFormatTest {
+
+    private static byte[] text(final int length) {
+        StringBuilder text = new StringBuilder();
+        Random random = new Random(42);
+        for (int i = 0; text.length() < length; i++) {
+            text.append("Term").append(i).append("&&Definition ").append(random.nextInt(1000)).append("&&0\n");
+        }
+        return text.substring(0, length).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Path write(final byte[] text, final int level) throws IOException {
+        Path deck = Files.createTempFile("deck", ".fcz");
+        try (OutputStream out = CompressedDeckFormat.newOutputStream(deck, level)) {
+            out.write(text[0]);
+            out.write(text, 1, text.length - 1);
+        }
+        return deck;
+    }
+
+    @DisplayName("Test Write/Read Functions - Round Trip Across Blocks")
+    @Test
+    void writeAndRead() throws IOException {
+        //given
+        byte[] text = text(CompressedDeckFormat.BLOCK_SIZE * 2 + 12345);
+        Path deck = write(text, Deflater.DEFAULT_COMPRESSION);
+
+        //when
+        byte[] read;
+        int first;
+        try (InputStream in = CompressedDeckFormat.newInputStream(deck)) {
+            first = in.read();
+            read = in.readAllBytes();
+            assertEquals(-1, in.read());
+            assertEquals(-1, in.read(new byte[1], 0, 1));
+        }
+        long size = Files.size(deck);
+        Files.delete(deck);
+
+        //then
+        assertEquals(text[0], first);
+        assertArrayEquals(Arrays.copyOfRange(text, 1, text.length), read);
+        assertTrue(size < text.length / 3);
+    }
+
+    @DisplayName("Test Write Function - Higher Levels Compress Better")
+    @Test
+    void write_Levels() throws IOException {
+        //given
+        byte[] text = text(200_000);
+
+        //when
+        Path stored = write(text, Deflater.NO_COMPRESSION);
+        Path best = write(text, Deflater.BEST_COMPRESSION);
+        long storedSize = Files.size(stored);
+        long bestSize = Files.size(best);
+        Files.delete(stored);
+        Files.delete(best);
+
+        //then
+        assertTrue(storedSize > text.length);
+        assertTrue(bestSize < storedSize / 3);
+    }
+
+    @DisplayName("Test Read Function - Damaged Block Is Rejected")
+    @Test
+    void read_Damaged() throws IOException {
+        //given
+        Path deck = write(text(100_000), Deflater.DEFAULT_COMPRESSION);
+        try (RandomAccessFile file = new RandomAccessFile(deck.toFile(), "rw")) {
+            file.seek(1000);
+            int b = file.read();
+            file.seek(1000);
+            file.write(b ^ 0x10);
+        }
+
+        //when
+        CorruptDeckException e = assertThrows(CorruptDeckException.class,
+                () -> CompressedDeckFormat.newInputStream(deck));
+        Files.delete(deck);
+
+        //then
+        assertTrue(e.getMessage().contains("Block 1"));
+    }
+
+    @DisplayName("Test Read Function - Truncated Or Foreign Files Are Rejected")
+    @Test
+    void read_Truncated() throws IOException {
+        //given
+        Path deck = write(text(100_000), Deflater.DEFAULT_COMPRESSION);
+        Path foreign = Files.createTempFile("deck", ".fcz");
+        Files.writeString(foreign, "Term&&Definition&&0\n");
+
+        //when
+        try (RandomAccessFile file = new RandomAccessFile(deck.toFile(), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        //then
+        assertThrows(CorruptDeckException.class, () -> CompressedDeckFormat.verify(deck));
+        assertThrows(CorruptDeckException.class, () -> CompressedDeckFormat.verify(foreign));
+        try (RandomAccessFile file = new RandomAccessFile(deck.toFile(), "rw")) {
+            file.setLength(file.length() - 8);
+            file.seek(file.length());
+            file.writeLong(1);
+        }
+        assertThrows(CorruptDeckException.class, () -> CompressedDeckFormat.verify(deck));
+        Files.delete(deck);
+        Files.delete(foreign);
+    }
+
+    @DisplayName("Test Export/Import Functions - Compressed Deck Chosen By Extension")
+    @Test
+    void exportAndImport() throws IOException {
+        //given
+        HashSet<FlashCard> cards = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            FlashCard flashCard = new FlashCard("Term" + i, "Definition" + i);
+            flashCard.setMistakes(i % 7);
+            cards.add(flashCard);
+        }
+        FlashCardManager cardManager = new FlashCardManager(cards);
+        cardManager.setCompressionLevel(Deflater.BEST_SPEED);
+        Path deck = Files.createTempFile("deck", ".fcz");
+
+        //when
+        cardManager.exportFlashCards(deck.toString());
+        FlashCardManager loaded = new FlashCardManager(new HashSet<>());
+        loaded.setMappedImport(true);
+        loaded.importFlashCards(deck.toString());
+        Files.delete(deck);
+
+        //then
+        assertEquals(1000, loaded.getFlashCards().size());
+        assertEquals(6, loaded.findByTerm("Term6").getMistakes());
+        assertThrows(IllegalArgumentException.class, () -> cardManager.setCompressionLevel(10));
+        assertEquals(DeckFormat.COMPRESSED, DeckFormat.forFile("deck.FCZ"));
+    }
+
+    @DisplayName("Test Import Function - Damaged Deck Loads No Card")
+    @Test
+    void import_Damaged() throws IOException {
+        //given
+        Path deck = write(text(100_000), Deflater.DEFAULT_COMPRESSION);
+        try (RandomAccessFile file = new RandomAccessFile(deck.toFile(), "rw")) {
+            file.setLength(file.length() - 20);
+        }
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(outContent));
+
+        //when
+        cardManager.importFlashCards(deck.toString());
+        Files.delete(deck);
+
+        //then
+        assertTrue(cardManager.getFlashCards().isEmpty());
+        assertEquals("The file is damaged: " + deck + " ends in the middle of a block.\n\n", outContent.toString());
+    }
+
+    @DisplayName("Test Read Function - Blocks That Do Not Inflate To Their Length Are Rejected")
+    @Test
+    void read_BadDeflateStream() throws IOException {
+        //given
+        byte[][] blocks = {{1, 2, 3, 4}, {3, 0}};
+        Path[] decks = new Path[blocks.length];
+        for (int i = 0; i < blocks.length; i++) {
+            decks[i] = Files.createTempFile("deck", ".fcz");
+            CRC32C crc = new CRC32C();
+            crc.update(blocks[i]);
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(decks[i]))) {
+                out.writeInt(CompressedDeckFormat.MAGIC);
+                out.writeInt(CompressedDeckFormat.VERSION);
+                out.writeInt(blocks[i].length);
+                out.writeInt(10);
+                out.writeInt((int) crc.getValue());
+                out.write(blocks[i]);
+                out.writeInt(0);
+                out.writeLong(10);
+            }
+        }
+
+        //when
+        for (Path deck : decks) {
+            try (InputStream in = CompressedDeckFormat.newInputStream(deck)) {
+
+                //then
+                assertThrows(CorruptDeckException.class, in::readAllBytes);
+            }
+            Files.delete(deck);
+        }
+    }
+}
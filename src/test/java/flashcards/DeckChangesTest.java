@@ -0,0 +1,190 @@
+package flashcards;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckChangesTest {
+    private Path base;
+
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        base = Files.createTempDirectory("delta").resolve("deck.txt");
+        Files.writeString(base, "Scooby-Doo&&Shaggy&&5\nTeen-Titans&&Go&&0\n");
+    }
+
+    private FlashCardManager loadedManager(String input) throws IOException {
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        cardManager.importFlashCards(base.toString());
+        cardManager.setReader(new BufferedReader(new StringReader(input)));
+        cardManager.setPrompts(false);
+        return cardManager;
+    }
+
+    private FlashCardManager reload() throws IOException {
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        cardManager.importFlashCards(base.toString());
+        return cardManager;
+    }
+
+    @DisplayName("Test Delta Export - Only Changed Cards Are Appended And Replayed")
+    @Test
+    void exportDelta_Changes() throws IOException {
+        //given
+        FlashCardManager cardManager = loadedManager("Term\nDefinition\nTeen-Titans\n" + base + "\n");
+        cardManager.addFlashCard();
+        cardManager.removeFlashCard();
+        cardManager.findByTerm("Scooby-Doo").increaseMistakes();
+        String before = Files.readString(base);
+        System.setOut(new PrintStream(outContent));
+
+        //when
+        cardManager.exportDelta();
+        FlashCardManager reloaded = reload();
+
+        //then
+        assertTrue(outContent.toString().startsWith("3 changed cards have been saved."));
+        assertEquals(before, Files.readString(base));
+        assertTrue(Files.exists(DeckJournal.journalOf(base)));
+        assertEquals(2, reloaded.getFlashCards().size());
+        assertEquals(6, reloaded.findByTerm("Scooby-Doo").getMistakes());
+        assertNotNull(reloaded.findByTerm("Term"));
+        assertNull(reloaded.findByTerm("Teen-Titans"));
+    }
+
+    @DisplayName("Test Delta Export - Successive Deltas And Resets Add Up")
+    @Test
+    void exportDelta_Successive() throws IOException {
+        //given
+        Files.writeString(base, "Scooby-Doo&&Shaggy&&5\nFiller&&" + "x".repeat(500) + "&&0\n");
+        FlashCardManager cardManager = loadedManager("1\nwrong\n");
+        cardManager.resetAll();
+        cardManager.exportDelta(base.toString());
+
+        //when
+        cardManager.quizUser();
+        cardManager.exportDelta(base.toString());
+        FlashCardManager reloaded = reload();
+
+        //then
+        for (String term : new String[] {"Scooby-Doo", "Filler"}) {
+            FlashCard live = cardManager.findByTerm(term);
+            assertEquals(live.getMistakes(), reloaded.findByTerm(term).getMistakes());
+            assertEquals(live.getReview() == null, reloaded.findByTerm(term).getReview() == null);
+        }
+        assertEquals(1, reloaded.findByTerm("Scooby-Doo").getMistakes()
+                + reloaded.findByTerm("Filler").getMistakes());
+    }
+
+    @DisplayName("Test Delta Export - Full Export Without A Base")
+    @Test
+    void exportDelta_NoBase() throws IOException {
+        //given
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        Path other = base.resolveSibling("other.txt");
+        System.setOut(new PrintStream(outContent));
+
+        //when
+        cardManager.exportDelta(other.toString());
+
+        //then
+        assertEquals("0 cards have been saved.\n\n", outContent.toString());
+        assertTrue(Files.exists(other));
+        assertFalse(Files.exists(DeckJournal.journalOf(other)));
+    }
+
+    @DisplayName("Test Delta Export - Compacted Into The Base Once It Outgrows Half Of It")
+    @Test
+    void exportDelta_Compaction() throws IOException {
+        //given
+        FlashCardManager cardManager = loadedManager("");
+        for (int i = 0; i < 3; i++) {
+            cardManager.findByTerm("Scooby-Doo").increaseMistakes();
+            cardManager.exportDelta(base.toString());
+        }
+        System.setOut(new PrintStream(outContent));
+
+        //when
+        cardManager.findByTerm("Teen-Titans").increaseMistakes();
+        cardManager.exportDelta(base.toString());
+
+        //then
+        assertEquals("2 cards have been saved.\n\n", outContent.toString());
+        assertFalse(Files.exists(DeckJournal.journalOf(base)));
+        assertFalse(Files.exists(base.resolveSibling("deck.txt.tmp")));
+        FlashCardManager reloaded = reload();
+        assertEquals(8, reloaded.findByTerm("Scooby-Doo").getMistakes());
+        assertEquals(1, reloaded.findByTerm("Teen-Titans").getMistakes());
+    }
+
+    @DisplayName("Test Delta Export - A Base Changed Or A Delta Lost Forces A Full Export")
+    @Test
+    void exportDelta_BaseChanged() throws IOException {
+        //given
+        FlashCardManager cardManager = loadedManager("");
+        cardManager.findByTerm("Scooby-Doo").increaseMistakes();
+        cardManager.exportDelta(base.toString());
+        Files.delete(DeckJournal.journalOf(base));
+        cardManager.findByTerm("Teen-Titans").increaseMistakes();
+
+        //when
+        cardManager.exportDelta(base.toString());
+        Files.setLastModifiedTime(base, FileTime.fromMillis(0));
+        cardManager.findByTerm("Teen-Titans").increaseMistakes();
+        cardManager.exportDelta(base.toString());
+
+        //then
+        FlashCardManager reloaded = reload();
+        assertEquals(6, reloaded.findByTerm("Scooby-Doo").getMistakes());
+        assertEquals(2, reloaded.findByTerm("Teen-Titans").getMistakes());
+        assertFalse(Files.exists(DeckJournal.journalOf(base)));
+    }
+
+    @DisplayName("Test Delta Export - A Journaled File Is Only Synced")
+    @Test
+    void exportDelta_Journaled() throws IOException {
+        //given
+        FlashCardManager cardManager = loadedManager("");
+        cardManager.enableJournal(base.toString(), 60_000);
+        System.setOut(new PrintStream(outContent));
+
+        //when
+        cardManager.exportDelta(base.toString());
+        cardManager.closeJournal();
+
+        //then
+        assertEquals("The journal of \"" + base + "\" already holds every change.\n\n", outContent.toString());
+    }
+
+    @DisplayName("Test Changes - Nothing Is Tracked Before A Base Is Set")
+    @Test
+    void changed_NoBase() throws IOException {
+        //given
+        DeckChanges changes = new DeckChanges();
+        changes.changed(new FlashCard("Term", "Definition"));
+        changes.statsReset();
+
+        //when
+        changes.rebase(base);
+        changes.forgetBase();
+
+        //then
+        assertFalse(changes.canAppendTo(base));
+        assertFalse(changes.drainStatsReset());
+        assertTrue(changes.drain().isEmpty());
+    }
+}
@@ -0,0 +1,124 @@
+package flashcards;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.SettingDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckEventsTest {
+
+    @DisplayName("Test Defaults - Every Event Is Disabled Unless A Profile Enables It")
+    @Test
+    void defaults() {
+        //given
+        List<Class<? extends jdk.jfr.Event>> events = List.of(DeckEvents.Import.class, DeckEvents.Export.class,
+                DeckEvents.QuizAnswer.class, DeckEvents.Reset.class, DeckEvents.LogFlush.class);
+
+        //when
+        //then
+        for (Class<? extends jdk.jfr.Event> event : events) {
+            SettingDescriptor enabled = EventType.getEventType(event).getSettingDescriptors().stream()
+                    .filter(setting -> setting.getName().equals("enabled")).findFirst().orElseThrow();
+            assertEquals("false", enabled.getDefaultValue(), event.getName());
+        }
+        assertEquals(-1, DeckEvents.sizeOf(Path.of("no-such-deck.txt")));
+    }
+
+    @DisplayName("Test Profile - Deck Operations Are Recorded With Card And Byte Counts")
+    @Test
+    void profile() throws IOException, ParseException {
+        //given
+        Path dir = Files.createTempDirectory("events");
+        Path deck = dir.resolve("deck.txt");
+        Files.writeString(deck, "France&&Paris&&0\nJapan&&Tokyo&&0\n");
+        Path merged = dir.resolve("merged.txt");
+        Files.writeString(merged, "Peru&&Lima&&0\n");
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        BufferedReader reader = new BufferedReader(new StringReader("1\nParis\n"));
+        FlashCardManager session = cardManager.session(reader, ConsoleOutput.of(new PrintStream(new ByteArrayOutputStream())));
+        Path recordingFile = dir.resolve("deck.jfr");
+
+        //when
+        try (Recording recording = new Recording(Configuration.create(Path.of("flashcards.jfc")))) {
+            recording.start();
+            session.importFlashCards(deck.toString());
+            session.mergeFlashCards(merged.toString(), MergePolicy.KEEP);
+            session.exportFlashCards(deck.toString());
+            session.quizUser(0);
+            session.exportDelta(deck.toString());
+            session.resetAll();
+            try (LogSink sink = new LogSink(dir.resolve("log.txt"), LogSink.OverflowPolicy.BLOCK, 16, 60_000)) {
+                sink.append("ab".getBytes(StandardCharsets.UTF_8), 2);
+                sink.append("cde".getBytes(StandardCharsets.UTF_8), 3);
+                sink.sync();
+                sink.sync();
+            }
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        //then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile).stream()
+                .filter(event -> event.getEventType().getName().startsWith("flashcards."))
+                .collect(Collectors.toList());
+        List<RecordedEvent> imports = named(events, "flashcards.DeckImport");
+        assertEquals(2, imports.size());
+        assertEquals(deck.toString(), imports.get(0).getString("file"));
+        assertEquals(2, imports.get(0).getLong("cards"));
+        assertEquals(Files.size(merged), imports.get(1).getLong("bytes"));
+        assertTrue(imports.get(1).getBoolean("merge"));
+        assertFalse(imports.get(1).getBoolean("background"));
+
+        RecordedEvent answer = named(events, "flashcards.QuizAnswer").get(0);
+        assertEquals(answer.getString("term").equals("France"), answer.getBoolean("correct"));
+        assertTrue(answer.getDuration("answerLatency").toNanos() >= 0);
+
+        List<RecordedEvent> exports = named(events, "flashcards.DeckExport");
+        assertEquals(2, exports.size());
+        assertEquals(3, exports.get(0).getLong("cards"));
+        assertEquals(Files.size(deck), exports.get(0).getLong("bytes"));
+        assertFalse(exports.get(0).getBoolean("delta"));
+        assertTrue(exports.get(1).getBoolean("delta"));
+        assertEquals(1, exports.get(1).getLong("cards"));
+        assertEquals(Files.size(DeckJournal.journalOf(deck)), exports.get(1).getLong("bytes"));
+
+        assertEquals(3, named(events, "flashcards.StatsReset").get(0).getLong("cards"));
+
+        List<RecordedEvent> flushes = named(events, "flashcards.LogFlush");
+        assertEquals(2, flushes.get(0).getLong("lines"));
+        assertEquals(7, flushes.get(0).getLong("bytes"));
+        assertEquals(1, flushes.size());
+    }
+
+    /**
+     * Picks the events of one type, in the order they were recorded.
+     *
+     * @param events the recorded events
+     * @param name   the name of the event type
+     * @return the events of that type
+     */
+    private static List<RecordedEvent> named(final List<RecordedEvent> events, final String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .collect(Collectors.toList());
+    }
+}
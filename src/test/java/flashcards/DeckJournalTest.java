@@ -0,0 +1,154 @@
+package flashcards;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckJournalTest {
+    private Path snapshot;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        snapshot = Files.createTempDirectory("journal").resolve("deck.txt");
+        Files.writeString(snapshot, "Scooby-Doo&&Shaggy&&5\nTeen-Titans&&Go&&0\n");
+    }
+
+    private FlashCardManager journaledManager(String input) throws IOException {
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        cardManager.importFlashCards(snapshot.toString());
+        cardManager.enableJournal(snapshot.toString(), 60_000);
+        cardManager.setReader(new BufferedReader(new StringReader(input)));
+        return cardManager;
+    }
+
+    private FlashCardManager reload() throws IOException {
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        cardManager.importFlashCards(snapshot.toString());
+        return cardManager;
+    }
+
+    @DisplayName("Test Replay - Changes Survive Without Export")
+    @Test
+    void replay_AfterClose() throws IOException {
+        //given
+        FlashCardManager cardManager = journaledManager("Term\nDefinition\nTeen-Titans\n2\nwrong\nwrong\n");
+        cardManager.addFlashCard();
+        cardManager.removeFlashCard();
+        cardManager.quizUser();
+        int mistakes = cardManager.findByTerm("Scooby-Doo").getMistakes();
+
+        //when
+        cardManager.closeJournal();
+        FlashCardManager reloaded = reload();
+
+        //then
+        assertEquals(6, mistakes);
+        assertEquals(2, reloaded.getFlashCards().size());
+        assertEquals(mistakes, reloaded.findByTerm("Scooby-Doo").getMistakes());
+        assertEquals(1, reloaded.findByTerm("Term").getMistakes());
+        assertNull(reloaded.findByTerm("Teen-Titans"));
+    }
+
+    @DisplayName("Test Replay - Reset Stats Is Replayed")
+    @Test
+    void replay_Reset() throws IOException {
+        //given
+        FlashCardManager cardManager = journaledManager("");
+        cardManager.resetAll();
+
+        //when
+        cardManager.closeJournal();
+        FlashCardManager reloaded = reload();
+
+        //then
+        assertEquals(0, reloaded.findByTerm("Scooby-Doo").getMistakes());
+    }
+
+    @DisplayName("Test Replay - Torn Tail Is Ignored And Cut Off")
+    @Test
+    void replay_TornTail() throws IOException {
+        //given
+        FlashCardManager cardManager = journaledManager("");
+        cardManager.resetAll();
+        cardManager.closeJournal();
+        Path journalFile = DeckJournal.journalOf(snapshot);
+        long validLength = Files.size(journalFile);
+        Files.write(journalFile, new byte[] {0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+        //when
+        FlashCardManager reloaded = reload();
+        new DeckJournal(snapshot, 60_000).close();
+
+        //then
+        assertEquals(0, reloaded.findByTerm("Scooby-Doo").getMistakes());
+        assertEquals(validLength, Files.size(journalFile));
+    }
+
+    @DisplayName("Test Compaction - Snapshot Replaces Journal")
+    @Test
+    void compaction_Threshold() throws IOException {
+        //given
+        FlashCardManager cardManager = journaledManager("Term\nDefinition\n");
+        cardManager.setCompactionThreshold(1);
+
+        //when
+        cardManager.addFlashCard();
+        cardManager.closeJournal();
+        long replayed = DeckJournal.replay(snapshot, new NoOpReplayer());
+        FlashCardManager reloaded = reload();
+
+        //then
+        assertEquals(0, replayed);
+        assertEquals(3, reloaded.getFlashCards().size());
+        assertTrue(Files.readString(snapshot).contains("Term&&Definition&&0"));
+    }
+
+    @DisplayName("Test Replay - Journal Of A Replaced Snapshot Is Ignored")
+    @Test
+    void replay_StaleJournal() throws IOException {
+        //given
+        FlashCardManager cardManager = journaledManager("");
+        cardManager.resetAll();
+        cardManager.closeJournal();
+
+        //when
+        Files.writeString(snapshot, "Other&&Deck&&3\n");
+        FlashCardManager reloaded = reload();
+
+        //then
+        assertEquals(1, reloaded.getFlashCards().size());
+        assertEquals(3, reloaded.findByTerm("Other").getMistakes());
+    }
+
+    private static final class NoOpReplayer implements DeckJournal.Replayer {
+        @Override
+        public void cardAdded(String term, String definition, int mistakes) {
+        }
+
+        @Override
+        public void cardRemoved(String term, String definition) {
+        }
+
+        @Override
+        public void mistakeIncreased(String term, String definition) {
+        }
+
+        @Override
+        public void statsReset() {
+        }
+
+        @Override
+        public void cardReviewed(String term, String definition, ReviewState review) {
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package flashcards;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckMetricsTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @DisplayName("Test Record - Counts, Rates And Latencies By Operation")
+    @Test
+    void record() {
+        //given
+        DeckMetrics metrics = new DeckMetrics(() -> 3, () -> 4096, now::get);
+        double noLookups = metrics.getWrongAnswerLookupP99Micros();
+
+        //when
+        for (int i = 0; i < 4; i++) {
+            long start = metrics.start();
+            now.addAndGet(2_000_000);
+            metrics.record(DeckMetrics.IMPORT, start);
+        }
+        long start = metrics.start();
+        now.addAndGet(10_000);
+        metrics.record(DeckMetrics.WRONG_ANSWER_LOOKUP, start);
+
+        //then
+        assertEquals(0.0, noLookups);
+        assertEquals(3, metrics.getCardCount());
+        assertEquals(4096, metrics.getDeckHeapBytes());
+        assertEquals(4, metrics.getImportCount());
+        assertEquals(0, metrics.getExportCount());
+        assertEquals(4 / 0.00801, metrics.getImportsPerSecond(), 0.01);
+        assertEquals(0.0, metrics.getExportsPerSecond());
+        assertEquals(10, metrics.getWrongAnswerLookupMeanMicros(), 0.001);
+        assertEquals(10, metrics.getWrongAnswerLookupP99Micros(), 10.0 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(Long.valueOf(4), metrics.getCounts().get(DeckMetrics.IMPORT));
+        assertEquals(2000, metrics.getMeanMicros().get(DeckMetrics.IMPORT), 0.001);
+        assertEquals(2000, metrics.getP99Micros().get(DeckMetrics.IMPORT), 2000.0 / LatencyHistogram.SUB_BUCKETS);
+        assertFalse(metrics.getCounts().containsKey(DeckMetrics.EXPORT));
+        assertSame(metrics.histogram(DeckMetrics.IMPORT), metrics.histograms().get(DeckMetrics.IMPORT));
+    }
+
+    @DisplayName("Test Register - The Metrics Are Readable Over JMX And Replaced By The Next Deck")
+    @Test
+    void register() throws JMException {
+        //given
+        DeckMetrics first = new DeckMetrics(() -> 1, () -> 0, now::get);
+        DeckMetrics second = new DeckMetrics(() -> 2, () -> 0, now::get);
+        second.record(DeckMetrics.ADD, second.start());
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(DeckMetrics.OBJECT_NAME);
+
+        //when
+        first.register();
+        second.register();
+
+        //then
+        try {
+            assertEquals(2L, server.getAttribute(name, "CardCount"));
+            TabularData counts = (TabularData) server.getAttribute(name, "Counts");
+            assertEquals(1L, counts.get(new Object[] {DeckMetrics.ADD}).get("value"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @DisplayName("Test Stats Command - Operations And Commands Are Recorded And Printed")
+    @Test
+    void stats() throws IOException {
+        //given
+        Path deck = Files.createTempDirectory("metrics").resolve("deck.txt");
+        Files.writeString(deck, "France&&Paris&&0\nJapan&&Tokyo&&0\n");
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        BufferedReader reader = new BufferedReader(new StringReader(
+                "import\n" + deck + "\nadd\nItaly\nRome\nadd\nItaly\nask\n1\nTokyo\nremove\nItaly\n"
+                        + "export\n" + deck + "\nexport delta\n" + deck + "\nreset stats\nunknown\nhardest 2\nstats\n"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ConsoleOutput out = ConsoleOutput.of(new PrintStream(output));
+        FlashCardManager session = cardManager.session(reader, out);
+        session.setPrompts(false);
+        CommandSession commands = new CommandSession(session, reader, out, LogIO.forSession());
+
+        //when
+        String command;
+        while ((command = reader.readLine()) != null) {
+            commands.execute(command);
+        }
+
+        //then
+        String stats = output.toString().substring(output.toString().indexOf("Cards in the deck"));
+        DeckMetrics metrics = cardManager.getMetrics();
+        assertTrue(stats.startsWith("Cards in the deck: 2\nEstimated heap used by the deck: 0 KB\nImports: 1 ("), stats);
+        assertTrue(stats.contains("exports: 2 ("), stats);
+        assertTrue(stats.contains("Wrong-answer lookups: mean "), stats);
+        assertTrue(stats.matches("(?s).*\nadd +2 .*"), stats);
+        assertTrue(stats.matches("(?s).*\ncommand hardest N +1 .*"), stats);
+        assertTrue(stats.matches("(?s).*\ncommand add +2 .*"), stats);
+        assertFalse(stats.contains("command stats"), stats);
+        assertEquals(1, metrics.histogram(DeckMetrics.ASK).getCount());
+        assertEquals(1, metrics.histogram(DeckMetrics.WRONG_ANSWER_LOOKUP).getCount());
+        assertEquals(1, metrics.histogram(DeckMetrics.REMOVE).getCount());
+        assertEquals(1, metrics.histogram(DeckMetrics.RESET).getCount());
+        assertEquals(2 * FlashCardManager.CARD_HEAP_BYTES + 21, metrics.getDeckHeapBytes());
+        assertFalse(metrics.getCounts().containsKey(DeckMetrics.COMMAND_PREFIX + "unknown"));
+    }
+}
@@ -0,0 +1,142 @@
+package flashcards;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckParserTest {
+    private ArrayList<FlashCard> cards;
+    private ArrayList<String> errors;
+
+    @BeforeEach
+    void setUp() {
+        cards = new ArrayList<>();
+        errors = new ArrayList<>();
+    }
+
+    private DeckParser parser(int bufferSize) {
+        return new DeckParser(
+                (term, definition, mistakes, review) -> {
+                    FlashCard flashCard = new FlashCard(term, definition);
+                    flashCard.setMistakes(mistakes);
+                    flashCard.setReview(review);
+                    cards.add(flashCard);
+                },
+                (lineNumber, reason) -> errors.add(lineNumber + ": " + reason),
+                bufferSize);
+    }
+
+    private static InputStream deck(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @DisplayName("Test Parse Function - Well Formed Deck")
+    @Test
+    void parse_WellFormed() throws IOException {
+        //given
+        String content = "Term&&Definition&&0\nTerm2&&Definition2&&12\r\nTerm3&&Definition3&&7";
+
+        //when
+        long parsed = parser(DeckParser.DEFAULT_BUFFER_SIZE).parse(deck(content));
+
+        //then
+        assertEquals(3, parsed);
+        assertEquals(0, errors.size());
+        assertEquals("Term2", cards.get(1).getTerm());
+        assertEquals("Definition2", cards.get(1).getDefinition());
+        assertEquals(12, cards.get(1).getMistakes());
+        assertEquals(7, cards.get(2).getMistakes());
+    }
+
+    @DisplayName("Test Parse Function - Byte Buffer With Lines Spanning The Read Buffer")
+    @Test
+    void parse_ByteBuffer() {
+        //given
+        byte[] content = "skip&&Schädel&&Skull — Kopf&&3\nbroken\nÆsir&&Norse gods&&42".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer bytes = ByteBuffer.allocateDirect(content.length).put(content).position("skip&&".length());
+
+        //when
+        long lines = parser(4).parse(bytes);
+
+        //then
+        assertEquals(2, lines);
+        assertEquals(2, cards.size());
+        assertEquals("Schädel", cards.get(0).getTerm());
+        assertEquals("Skull — Kopf", cards.get(0).getDefinition());
+        assertEquals(42, cards.get(1).getMistakes());
+        assertEquals(List.of("2: missing definition"), errors);
+        assertEquals("skip&&".length(), bytes.position());
+    }
+
+    @DisplayName("Test Parse Function - Lines Spanning The Buffer")
+    @Test
+    void parse_SmallBuffer() throws IOException {
+        //given
+        String content = "Schädel&&Skull — Kopf&&3\nÆsir&&Norse gods&&42\n";
+
+        //when
+        long parsed = parser(4).parse(deck(content));
+
+        //then
+        assertEquals(2, parsed);
+        assertEquals("Schädel", cards.get(0).getTerm());
+        assertEquals("Skull — Kopf", cards.get(0).getDefinition());
+        assertEquals("Æsir", cards.get(1).getTerm());
+        assertEquals(42, cards.get(1).getMistakes());
+    }
+
+    @DisplayName("Test Parse Function - Review State")
+    @Test
+    void parse_ReviewState() throws IOException {
+        //given
+        String content = "Term&&Definition&&2&&2360&&6&&2&&1700000000000\nTerm2&&Definition2&&0\n";
+
+        //when
+        long parsed = parser(DeckParser.DEFAULT_BUFFER_SIZE).parse(deck(content));
+
+        //then
+        assertEquals(2, parsed);
+        ReviewState review = cards.get(0).getReview();
+        assertEquals(2360, review.getEase());
+        assertEquals(6, review.getInterval());
+        assertEquals(2, review.getRepetitions());
+        assertEquals(1700000000000L, review.getDue());
+        assertNull(cards.get(1).getReview());
+    }
+
+    @DisplayName("Test Parse Function - Malformed Lines Are Reported")
+    @Test
+    void parse_Malformed() throws IOException {
+        //given
+        String content = "Term\n"
+                + "Term&&Definition\n"
+                + "Term&&Definition&&many\n"
+                + "\n"
+                + "Term&&Definition&&99999999999\n"
+                + "Term&&Definition&&5&&2500&&1\n"
+                + "Term&&Definition&&5\n";
+
+        //when
+        long parsed = parser(DeckParser.DEFAULT_BUFFER_SIZE).parse(deck(content));
+
+        //then
+        assertEquals(1, parsed);
+        assertEquals(5, cards.get(0).getMistakes());
+        assertEquals("1: missing definition", errors.get(0));
+        assertEquals("2: missing mistake count", errors.get(1));
+        assertEquals("3: invalid mistake count", errors.get(2));
+        assertEquals("5: invalid mistake count", errors.get(3));
+        assertEquals("6: invalid review state", errors.get(4));
+        assertEquals(5, errors.size());
+    }
+}
@@ -0,0 +1,219 @@
+package flashcards;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckRegistryTest {
+
+    /**
+     * Runs commands in a new session on a deck.
+     *
+     * @param deck     the deck the session starts on
+     * @param commands the commands and the lines they read
+     * @return everything the session printed
+     * @throws IOException if a command fails
+     */
+    private static String run(final FlashCardManager deck, final String commands) throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader(commands));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ConsoleOutput out = ConsoleOutput.of(new PrintStream(output));
+        FlashCardManager session = deck.session(reader, out);
+        session.setPrompts(false);
+        CommandSession commandSession = new CommandSession(session, reader, out, LogIO.forSession());
+        String command;
+        while ((command = reader.readLine()) != null) {
+            commandSession.execute(command);
+        }
+        return output.toString();
+    }
+
+    /**
+     * Creates a default deck with one card and a registry around it.
+     *
+     * @param directory   the directory named decks are saved in
+     * @param maxResident the number of decks kept in memory
+     * @param budget      the estimated heap the decks may take
+     * @return the default deck, whose registry is set
+     */
+    private static FlashCardManager defaultDeck(final Path directory, final int maxResident, final long budget) {
+        FlashCardManager deck = new FlashCardManager(new HashSet<>(Set.of(new FlashCard("Japan", "Tokyo"))));
+        deck.setRegistry(new DeckRegistry(deck, directory, maxResident, budget));
+        return deck;
+    }
+
+    @DisplayName("Test Use - The Least Recently Used Deck Is Saved And Loaded Back On Demand")
+    @Test
+    void use_EvictsLeastRecentlyUsed() throws IOException {
+        //given
+        Path directory = Files.createTempDirectory("decks").resolve("named");
+        FlashCardManager defaultDeck = defaultDeck(directory, 2, DeckRegistry.DEFAULT_MEMORY_BUDGET_BYTES);
+        DeckRegistry registry = defaultDeck.getRegistry();
+
+        //when
+        String output = run(defaultDeck, "use spanish\nadd\nhola\nhello\nuse french\nadd\nbonjour\nhello\n"
+                + "add\nsalut\nhi\ndecks\nuse spanish\nuse spanish\nask\n1\nhello\n");
+
+        //then
+        assertEquals("Using the deck \"spanish\" with 0 cards.\n\n"
+                + "The pair (\"hola\":\"hello\") has been added.\n\n"
+                + "The deck \"spanish\" has been saved with 1 cards and unloaded.\n"
+                + "Using the deck \"french\" with 0 cards.\n\n"
+                + "The pair (\"bonjour\":\"hello\") has been added.\n\n"
+                + "The pair (\"salut\":\"hi\") has been added.\n\n"
+                + "2 of at most 2 decks are loaded, taking about 1 of 262144 KB:\n"
+                + "  default: 1 cards, 0 KB\n"
+                + "* french: 2 cards, 0 KB\n"
+                + "  spanish: saved\n\n"
+                + "The deck \"french\" has been saved with 2 cards and unloaded.\n"
+                + "Using the deck \"spanish\" with 1 cards.\n\n"
+                + "Using the deck \"spanish\" with 1 cards.\n\n"
+                + "Correct!\n", output);
+        assertTrue(Files.exists(registry.fileOf("french")));
+        assertEquals(1, defaultDeck.getFlashCards().size());
+    }
+
+    @DisplayName("Test Use - Only Using A Deck Makes It Recently Used")
+    @Test
+    void use_RecencyOrder() throws IOException {
+        //given
+        Path directory = Files.createTempDirectory("decks");
+        FlashCardManager defaultDeck = defaultDeck(directory, DeckRegistry.DEFAULT_MAX_RESIDENT,
+                DeckRegistry.DEFAULT_MEMORY_BUDGET_BYTES);
+
+        //when
+        String output = run(defaultDeck, "use a\nuse b\nclose default\ndecks\n");
+
+        //then
+        assertTrue(output.endsWith("3 of at most 8 decks are loaded, taking about 0 of 262144 KB:\n"
+                + "  default: 1 cards, 0 KB\n"
+                + "  a: 0 cards, 0 KB\n"
+                + "* b: 0 cards, 0 KB\n\n"), output);
+    }
+
+    @DisplayName("Test Use - Decks Are Unloaded When They Exceed The Memory Budget")
+    @Test
+    void use_MemoryBudget() throws IOException {
+        //given
+        Path directory = Files.createTempDirectory("decks");
+        FlashCardManager defaultDeck = defaultDeck(directory, DeckRegistry.DEFAULT_MAX_RESIDENT,
+                3 * FlashCardManager.CARD_HEAP_BYTES);
+        DeckRegistry registry = defaultDeck.getRegistry();
+        run(defaultDeck, "use a\nadd\none\n1\nuse b\nuse default\n");
+
+        //when
+        String output = run(defaultDeck, "use c\nadd\nthree\n3\nadd\nfour\n4\nuse a\n");
+
+        //then
+        assertTrue(output.contains("The deck \"b\" has been saved with 0 cards and unloaded.\n"), output);
+        assertTrue(output.contains("The deck \"c\" has been saved with 2 cards and unloaded.\n"
+                + "Using the deck \"a\" with 1 cards.\n"), output);
+        assertEquals(2, BinaryDeckFormat.read(registry.fileOf("c"), flashCard -> { }));
+    }
+
+    @DisplayName("Test Use - Decks That Cannot Be Saved Stay Loaded And The Switch Goes Through")
+    @Test
+    void use_EvictionFails() throws IOException {
+        //given
+        Path notADirectory = Files.createTempFile("decks", ".txt");
+        FlashCardManager defaultDeck = defaultDeck(notADirectory, 2, DeckRegistry.DEFAULT_MEMORY_BUDGET_BYTES);
+
+        //when
+        String output = run(defaultDeck, "use a\nuse b\nuse default\nclose b\ndecks\n");
+
+        //then
+        assertTrue(output.contains("The deck \"a\" could not be saved and stays loaded: ")
+                && output.contains("Using the deck \"b\" with 0 cards.\n\n"), output);
+        assertTrue(output.contains("The deck \"b\" could not be saved: "), output);
+        assertTrue(output.endsWith("3 of at most 2 decks are loaded, taking about 0 of 262144 KB:\n"
+                + "  a: 0 cards, 0 KB\n"
+                + "  b: 0 cards, 0 KB\n"
+                + "* default: 1 cards, 0 KB\n\n"), output);
+    }
+
+    @DisplayName("Test Close - Decks In Use, Unknown Decks And The Default Deck Stay")
+    @Test
+    void close() throws IOException {
+        //given
+        Path directory = Files.createTempDirectory("decks");
+        FlashCardManager defaultDeck = defaultDeck(directory, DeckRegistry.DEFAULT_MAX_RESIDENT,
+                DeckRegistry.DEFAULT_MEMORY_BUDGET_BYTES);
+        DeckRegistry registry = defaultDeck.getRegistry();
+        run(defaultDeck, "use busy\n");
+        BufferedReader reader = new BufferedReader(new StringReader("use idle\nexit\n"));
+        FlashCardManager idle = defaultDeck.session(reader, ConsoleOutput.NONE);
+        new CommandSession(idle, reader, ConsoleOutput.NONE, LogIO.forSession()).run();
+
+        //when
+        String output = run(defaultDeck, "close default\nclose nothing\nclose busy\nclose idle\n"
+                + "use mine\nadd\nx\ny\nclose mine\ndecks\n");
+
+        //then
+        assertEquals("The deck \"default\" cannot be closed.\n\n"
+                + "The deck \"nothing\" is not loaded.\n\n"
+                + "The deck \"busy\" is in use.\n\n"
+                + "The deck \"idle\" has been saved with 0 cards and unloaded.\n\n"
+                + "Using the deck \"mine\" with 0 cards.\n\n"
+                + "The pair (\"x\":\"y\") has been added.\n\n"
+                + "The deck \"mine\" has been saved with 1 cards and unloaded.\n\n"
+                + "2 of at most 8 decks are loaded, taking about 0 of 262144 KB:\n"
+                + "  busy: 0 cards, 0 KB\n"
+                + "* default: 1 cards, 0 KB\n"
+                + "  idle: saved\n"
+                + "  mine: saved\n\n", output);
+    }
+
+    @DisplayName("Test Use - Invalid Names, Damaged Files And Sessions Without Named Decks")
+    @Test
+    void use_Errors() throws IOException {
+        //given
+        Path directory = Files.createTempDirectory("decks");
+        FlashCardManager defaultDeck = defaultDeck(directory, DeckRegistry.DEFAULT_MAX_RESIDENT,
+                DeckRegistry.DEFAULT_MEMORY_BUDGET_BYTES);
+        DeckRegistry registry = defaultDeck.getRegistry();
+        Files.writeString(registry.fileOf("damaged"), "not a deck");
+        Files.createDirectory(registry.fileOf("folder"));
+        FlashCardManager plain = new FlashCardManager(new HashSet<>());
+
+        //when
+        String output = run(defaultDeck, "use ../up\nuse damaged\nuse folder\n");
+        String withoutRegistry = run(plain, "use a\ndecks\nclose a\n");
+
+        //then
+        assertTrue(output.startsWith("Deck names may only hold letters, digits, \"_\" and \"-\".\n\n"
+                + "The file is damaged: "), output);
+        assertTrue(output.contains("The deck \"folder\" could not be loaded: "), output);
+        assertEquals("There are no named decks in this session.\n\n".repeat(3), withoutRegistry);
+    }
+
+    @DisplayName("Test Save All - Named Decks In Memory Survive A Restart")
+    @Test
+    void saveAll() throws IOException {
+        //given
+        Path directory = Files.createTempDirectory("decks");
+        FlashCardManager defaultDeck = defaultDeck(directory, DeckRegistry.DEFAULT_MAX_RESIDENT,
+                DeckRegistry.DEFAULT_MEMORY_BUDGET_BYTES);
+        run(defaultDeck, "use kept\nadd\nterm\ndefinition\n");
+
+        //when
+        defaultDeck.getRegistry().saveAll();
+        FlashCardManager restarted = defaultDeck(directory, DeckRegistry.DEFAULT_MAX_RESIDENT,
+                DeckRegistry.DEFAULT_MEMORY_BUDGET_BYTES);
+        String output = run(restarted, "use kept\n");
+
+        //then
+        assertEquals("Using the deck \"kept\" with 1 cards.\n\n", output);
+        assertFalse(Files.exists(directory.resolve(DeckRegistry.DEFAULT_DECK + DeckRegistry.FILE_EXTENSION)));
+    }
+}
@@ -11,8 +11,8 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -287,28 +287,22 @@ class FlashCardManagerTest {
     }
 
 
-    @DisplayName("Check LogIO Function - Check Log")
+    @DisplayName("Check SaveLog Function - Check Log")
     @Test
-    void logIO() throws IOException {
+    void saveLog() throws IOException {
         //given
-        ArrayList<String> log = new ArrayList<>();
-        log.add("Please Enter the Card You Wish to Add");
-        when(reader.readLine()).thenReturn("log.txt");
+        LogIO logger = LogIO.forSession();
+        PrintStream logged = new PrintStream(logger.tee(new ByteArrayOutputStream()), true);
+        logged.println("Please Enter the Card You Wish to Add");
+        Path saveFile = Files.createTempDirectory("log").resolve("log.txt");
+        when(reader.readLine()).thenReturn(saveFile.toString());
         String expectedOutput = "Please Enter the Card You Wish to Add\n";
 
-
         //when
-        cardManager.logIO(log);
+        cardManager.saveLog(logger);
 
         //then
-        try {
-            String actualOutput = Files.readString(Path.of("log.txt"));
-            assertEquals(expectedOutput, actualOutput);
-        } catch (IOException ignored) {
-
-        }
-
-
+        assertEquals(expectedOutput, Files.readString(saveFile));
     }
 
     @DisplayName("Test HardestCard Function - One Hardest Card")
@@ -414,11 +408,363 @@ class FlashCardManagerTest {
         cardManager = new FlashCardManager(cards);
         //when
         cardManager.resetAll();
-        cards = cardManager.getFlashCards();
 
         //then
-        for (FlashCard flashCard: cards) {
+        for (FlashCard flashCard: cardManager.getFlashCards()) {
             assertEquals(0, flashCard.getMistakes());
         }
     }
-}
\ No newline at end of file
+
+    @DisplayName("Test Lookup Functions - Term And Definition Indexes")
+    @Test
+    void findByTermAndDefinition() throws IOException {
+        //given
+        FlashCard flashCard1 = new FlashCard("Scooby-Doo", "Shaggy");
+        FlashCard flashCard2 = new FlashCard("Teen-Titans", "Go");
+
+        HashSet<FlashCard> cards = new HashSet<>();
+
+        cards.add(flashCard1);
+        cards.add(flashCard2);
+
+        cardManager = new FlashCardManager(cards);
+        cardManager.setReader(reader);
+        when(reader.readLine()).thenReturn("Term", "Definition");
+
+        //when
+        cardManager.addFlashCard();
+
+        //then
+        assertSame(flashCard1, cardManager.findByTerm("Scooby-Doo"));
+        assertSame(flashCard2, cardManager.findByDefinition("Go"));
+        assertEquals("Term", cardManager.findByDefinition("Definition").getTerm());
+        assertNull(cardManager.findByTerm("Shaggy"));
+    }
+
+    @DisplayName("Test Lookup Functions - Indexes Follow Removal Of Duplicate Terms")
+    @Test
+    void findByTerm_AfterRemovingDuplicate() throws IOException {
+        //given
+        FlashCard flashCard1 = new FlashCard("Term2", "Definition2");
+        FlashCard flashCard2 = new FlashCard("Term2", "Definition3");
+
+        HashSet<FlashCard> cards = new HashSet<>();
+
+        cards.add(flashCard1);
+        cards.add(flashCard2);
+
+        cardManager = new FlashCardManager(cards);
+        cardManager.setReader(reader);
+        when(reader.readLine()).thenReturn("Term2");
+
+        //when
+        cardManager.removeFlashCard();
+        FlashCard remaining = cardManager.getFlashCards().iterator().next();
+
+        //then
+        assertEquals(1, cardManager.getFlashCards().size());
+        assertSame(remaining, cardManager.findByTerm("Term2"));
+        assertSame(remaining, cardManager.findByDefinition(remaining.getDefinition()));
+    }
+
+    @DisplayName("Test HardestCards Function - Top K Follows Mistake Changes")
+    @Test
+    void hardestCards_TopK() throws IOException {
+        //given
+        FlashCard flashCard1 = new FlashCard("Scooby-Doo", "Shaggy");
+        FlashCard flashCard2 = new FlashCard("Teen-Titans", "Go");
+        FlashCard flashCard3 = new FlashCard("Term2", "Definition3");
+        flashCard1.setMistakes(5);
+        flashCard2.setMistakes(20);
+
+        HashSet<FlashCard> cards = new HashSet<>();
+
+        cards.add(flashCard1);
+        cards.add(flashCard2);
+        cards.add(flashCard3);
+
+        cardManager = new FlashCardManager(cards);
+        cardManager.setReader(reader);
+        when(reader.readLine()).thenReturn("Teen-Titans");
+
+        //when
+        flashCard3.setMistakes(7);
+        flashCard1.increaseMistakes();
+        List<FlashCard> topTwo = cardManager.hardestCards(2);
+        cardManager.removeFlashCard();
+        List<FlashCard> afterRemove = cardManager.hardestCards(5);
+        flashCard3.setMistakes(0);
+        List<FlashCard> afterReset = cardManager.hardestCards(5);
+
+        //then
+        assertEquals(List.of(flashCard2, flashCard3), topTwo);
+        assertEquals(List.of(flashCard3, flashCard1), afterRemove);
+        assertEquals(List.of(flashCard1), afterReset);
+    }
+
+    @DisplayName("Test HardestCards Function - Print Top K")
+    @Test
+    void printHardestCards() {
+        //given
+        System.setOut(new PrintStream(outContent));
+        FlashCard flashCard1 = new FlashCard("Scooby-Doo", "Shaggy");
+        FlashCard flashCard2 = new FlashCard("Teen-Titans", "Go");
+        flashCard1.setMistakes(5);
+        flashCard2.setMistakes(20);
+
+        HashSet<FlashCard> cards = new HashSet<>();
+
+        cards.add(flashCard1);
+        cards.add(flashCard2);
+
+        cardManager = new FlashCardManager(cards);
+        String expectedOutput = "The 2 hardest cards are:\n"
+                + "1. \"Teen-Titans\" with 20 errors\n"
+                + "2. \"Scooby-Doo\" with 5 errors\n\n"
+                + "Card statistics have been reset.\n\n"
+                + "There are no cards with errors.\n\n";
+
+        //when
+        cardManager.printHardestCards(20);
+        cardManager.resetAll();
+        cardManager.printHardestCards(20);
+
+        //then
+        assertEquals(expectedOutput, outContent.toString());
+    }
+
+    @DisplayName("Test Remove Function - Removed Cards Keep Their Count And Free Their Id")
+    @Test
+    void removeFlashCard_ReleasesId() throws IOException {
+        //given
+        FlashCard flashCard1 = new FlashCard("Scooby-Doo", "Shaggy");
+        FlashCard flashCard2 = new FlashCard("Teen-Titans", "Go");
+        flashCard1.setMistakes(4);
+        HashSet<FlashCard> cards = new HashSet<>(List.of(flashCard1));
+        cardManager = new FlashCardManager(cards);
+        cardManager.setReader(reader);
+        int removedId = flashCard1.getId();
+        System.setOut(new PrintStream(outContent));
+        when(reader.readLine()).thenReturn("Scooby-Doo", "Teen-Titans", "Go");
+
+        //when
+        cardManager.removeFlashCard();
+        cardManager.addFlashCard();
+        FlashCard added = cardManager.getFlashCards().iterator().next();
+
+        //then
+        assertEquals(4, flashCard1.getMistakes());
+        assertEquals(-1, flashCard1.getId());
+        assertEquals(flashCard2, added);
+        assertEquals(removedId, added.getId());
+        assertEquals(0, added.getMistakes());
+    }
+
+    @DisplayName("Test QuizUser Function - Fuzzy Answers Within The Tolerance Are Correct")
+    @Test
+    void quizUser_FuzzyCorrect() throws IOException {
+        //given
+        System.setOut(new PrintStream(outContent));
+        FlashCard flashCard = new FlashCard("France", "Paris");
+        cardManager = new FlashCardManager(new HashSet<>(List.of(flashCard)));
+        cardManager.setReader(reader);
+        when(reader.readLine()).thenReturn("1", "Pariss");
+        String expectedOutput = "How many times to ask?\n"
+                + "Print the definition of \"France\":\n"
+                + "Correct! Mind the spelling: \"Paris\".\n";
+
+        //when
+        cardManager.quizUser(1);
+
+        //then
+        assertEquals(expectedOutput, outContent.toString());
+        assertEquals(0, flashCard.getMistakes());
+    }
+
+    @DisplayName("Test QuizUser Function - Fuzzy Hint Names The Closest Other Card")
+    @Test
+    void quizUser_FuzzyHint() throws IOException {
+        //given
+        System.setOut(new PrintStream(outContent));
+        FlashCard france = new FlashCard("France", "Paris");
+        cardManager = new FlashCardManager(new HashSet<>(List.of(france)));
+        cardManager.setFuzzyTolerance(2);
+        cardManager.setReader(reader);
+        when(reader.readLine()).thenReturn("Germany", "Berlin", "Japan", "Tokyo", "Japan",
+                "1", "Berlni", "1", "Toky");
+
+        //when
+        cardManager.addFlashCard();
+        cardManager.addFlashCard();
+        cardManager.removeFlashCard();
+        outContent.reset();
+        cardManager.quizUser();
+        cardManager.quizUser();
+
+        //then
+        assertEquals("How many times to ask?\n"
+                + "Print the definition of \"France\":\n"
+                + "Wrong. The right answer is \"Paris\". Did you mean the definition of \"Germany\"?\n"
+                + "How many times to ask?\n"
+                + "Print the definition of \"Germany\":\n"
+                + "Wrong. The right answer is \"Berlin\".\n", outContent.toString());
+        assertEquals(1, france.getMistakes());
+    }
+
+    @DisplayName("Test Search Function - Pages Through Matches And Follows Changes")
+    @Test
+    void searchFlashCards() throws IOException {
+        //given
+        System.setOut(new PrintStream(outContent));
+        HashSet<FlashCard> cards = new HashSet<>();
+        for (int i = 0; i < 12; i++) {
+            cards.add(new FlashCard(String.format("Term %02d", i), "Definition " + i));
+        }
+        cardManager = new FlashCardManager(cards);
+        cardManager.setReader(reader);
+        when(reader.readLine()).thenReturn("term", "yes", "Term 12", "Definition 12", "Term 00", "term 1");
+
+        //when
+        cardManager.searchFlashCards();
+        cardManager.addFlashCard();
+        cardManager.removeFlashCard();
+        outContent.reset();
+        cardManager.searchFlashCards();
+
+        //then
+        assertEquals(1, cardManager.search("term 12", 1, 10).total());
+        assertEquals(11, cardManager.search("TERM", 2, 10).first());
+        assertEquals("Search for:\n"
+                + "Cards 1-3 of 3 matching \"term 1\":\n"
+                + "1. \"Term 10\": \"Definition 10\"\n"
+                + "2. \"Term 11\": \"Definition 11\"\n"
+                + "3. \"Term 12\": \"Definition 12\"\n\n", outContent.toString());
+    }
+
+    /**
+     * Builds a manager holding cards given as term, definition and mistakes.
+     */
+    private static FlashCardManager deck(final Object... cards) {
+        HashSet<FlashCard> flashCards = new HashSet<>();
+        for (int i = 0; i < cards.length; i += 3) {
+            FlashCard flashCard = new FlashCard((String) cards[i], (String) cards[i + 1]);
+            flashCard.setMistakes((Integer) cards[i + 2]);
+            flashCards.add(flashCard);
+        }
+        return new FlashCardManager(flashCards);
+    }
+
+    @DisplayName("Test Merge Function - Keep Existing Cards")
+    @Test
+    void mergeFlashCards_Keep() throws IOException {
+        //given
+        System.setOut(new PrintStream(outContent));
+        Path file = Files.createTempFile("merge", ".txt");
+        Files.writeString(file, "Term&&Other&&3\nTerm2&&Definition2&&0\nTerm3&&Definition3&&2\n");
+        cardManager = deck("Term", "Definition", 1, "Term2", "Definition2", 0);
+
+        //when
+        cardManager.mergeFlashCards(file.toString(), MergePolicy.KEEP);
+
+        //then
+        assertEquals("3 cards have been merged: 1 inserted, 0 updated, 1 conflicting, 1 unchanged.\n\n",
+                outContent.toString());
+        assertEquals("Definition", cardManager.findByTerm("Term").getDefinition());
+        assertEquals(1, cardManager.findByTerm("Term").getMistakes());
+        assertEquals(2, cardManager.findByTerm("Term3").getMistakes());
+        assertEquals(3, cardManager.getFlashCards().size());
+        Files.delete(file);
+    }
+
+    @DisplayName("Test Merge Function - Overwrite Existing Cards")
+    @Test
+    void mergeFlashCards_Overwrite() throws IOException {
+        //given
+        System.setOut(new PrintStream(outContent));
+        Path file = Files.createTempFile("merge", ".txt");
+        Files.writeString(file, "Term&&Other&&3\nTerm2&&Definition2&&4\nTerm2&&Definition2&&4\n");
+        cardManager = deck("Term", "Definition", 1, "Term2", "Definition2", 0);
+
+        //when
+        cardManager.mergeFlashCards(file.toString(), MergePolicy.OVERWRITE);
+
+        //then
+        assertEquals("3 cards have been merged: 0 inserted, 2 updated, 0 conflicting, 1 unchanged.\n\n",
+                outContent.toString());
+        assertEquals("Other", cardManager.findByTerm("Term").getDefinition());
+        assertEquals(3, cardManager.findByTerm("Term").getMistakes());
+        assertNull(cardManager.findByDefinition("Definition"));
+        assertEquals(4, cardManager.findByTerm("Term2").getMistakes());
+        assertEquals(2, cardManager.getFlashCards().size());
+        assertEquals(List.of(cardManager.findByTerm("Term2"), cardManager.findByTerm("Term")),
+                cardManager.hardestCards(2));
+        Files.delete(file);
+    }
+
+    @DisplayName("Test Merge Function - Overwriting A Duplicate Term Hands Its Definition Over")
+    @Test
+    void mergeFlashCards_OverwriteDuplicates() throws IOException {
+        //given
+        System.setOut(new PrintStream(outContent));
+        Path file = Files.createTempFile("merge", ".txt");
+        Files.writeString(file, "Term&&Other&&0\n");
+        cardManager = deck("Term", "Definition", 1, "Term2", "Definition", 0);
+        String survivor = cardManager.findByDefinition("Definition").getTerm().equals("Term") ? "Term2" : "Term";
+
+        //when
+        cardManager.mergeFlashCards(file.toString(), MergePolicy.OVERWRITE);
+
+        //then
+        assertEquals(survivor, cardManager.findByDefinition("Definition").getTerm());
+        assertEquals("Other", cardManager.findByTerm("Term").getDefinition());
+        Files.delete(file);
+    }
+
+    @DisplayName("Test Merge Function - Sum Mistakes")
+    @Test
+    void mergeFlashCards_Sum() throws IOException {
+        //given
+        System.setOut(new PrintStream(outContent));
+        Path file = Files.createTempFile("merge", ".txt");
+        Files.writeString(file, "Term&&Definition&&2\nTerm2&&Other&&5\nTerm3&&Definition3&&0\n");
+        cardManager = deck("Term", "Definition", 1, "Term2", "Definition2", 0, "Term3", "Definition3", 1);
+
+        //when
+        cardManager.mergeFlashCards(file.toString(), MergePolicy.SUM);
+
+        //then
+        assertEquals("3 cards have been merged: 0 inserted, 1 updated, 1 conflicting, 1 unchanged.\n\n",
+                outContent.toString());
+        assertEquals(3, cardManager.findByTerm("Term").getMistakes());
+        assertEquals("Definition2", cardManager.findByTerm("Term2").getDefinition());
+        assertEquals(0, cardManager.findByTerm("Term2").getMistakes());
+        Files.delete(file);
+    }
+
+    @DisplayName("Test Merge Function - Policy Entered Through System.in Or Set For Imports")
+    @Test
+    void mergeFlashCards_Interactive() throws IOException {
+        //given
+        System.setOut(new PrintStream(outContent));
+        Path file = Files.createTempFile("merge", ".txt");
+        Files.writeString(file, "Term&&Definition&&2\n");
+        cardManager = deck("Term", "Definition", 1);
+        cardManager.setReader(reader);
+        when(reader.readLine()).thenReturn(file.toString(), "append", file.toString(), "sum");
+
+        //when
+        cardManager.mergeFlashCards();
+        cardManager.mergeFlashCards();
+        cardManager.setMergePolicy(MergePolicy.fromName("Sum"));
+        cardManager.importFlashCards(file.toString());
+        cardManager.mergeFlashCards("missing.txt", MergePolicy.KEEP);
+
+        //then
+        assertEquals(5, cardManager.findByTerm("Term").getMistakes());
+        assertTrue(outContent.toString().startsWith("File name:\n"
+                + "Keep existing cards, overwrite them or sum mistakes? (keep, overwrite, sum)\n"
+                + "Unknown merge policy \"append\".\n\n"));
+        assertTrue(outContent.toString().endsWith("File not found.\n"));
+        Files.delete(file);
+    }
+}
@@ -91,6 +91,27 @@ class FlashCardTest {
         assertEquals(EXPECTED_MISTAKES, cardMistakes);
     }
 
+    @DisplayName("Test Attach And Detach Methods - The Count Moves To The Deck And Back")
+    @Test
+    void testAttachDetach() {
+        //given
+        MistakeCounters counters = new MistakeCounters();
+        flashCard.setMistakes(2);
+
+        //when
+        int id = flashCard.attach(counters, null);
+        flashCard.increaseMistakes();
+        int attachedCount = counters.get(id);
+        flashCard.detach();
+        flashCard.increaseMistakes();
+
+        //then
+        assertEquals(3, attachedCount);
+        assertEquals(4, flashCard.getMistakes());
+        assertEquals(-1, flashCard.getId());
+        assertEquals(0, counters.get(id));
+    }
+
     @DisplayName("Test Object Equals Method")
     @Test
     void testEquals() {
@@ -0,0 +1,82 @@
+package flashcards;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @DisplayName("Test Buckets - Small Values Are Exact And Large Ones Within 1/32")
+    @Test
+    void buckets() {
+        //given
+        long[] values = {0, 1, 31, 32, 63, 64, 65, 1000, 123_456_789, Long.MAX_VALUE};
+
+        //when
+        //then
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            long highest = LatencyHistogram.highestValueOf(bucket);
+            assertTrue(highest >= value, "bucket of " + value);
+            assertTrue(highest - value <= value / LatencyHistogram.SUB_BUCKETS, "bucket of " + value);
+            assertTrue(bucket == 0 || LatencyHistogram.highestValueOf(bucket - 1) < value, "bucket of " + value);
+        }
+        assertEquals(31, LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(31)));
+        assertEquals(65, LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(64)));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+    }
+
+    @DisplayName("Test Record - Count, Mean, Max And Percentiles")
+    @Test
+    void record() {
+        //given
+        LatencyHistogram histogram = new LatencyHistogram();
+        long emptyP99 = histogram.valueAt(99);
+
+        //when
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        histogram.record(-5);
+
+        //then
+        assertEquals(0, emptyP99);
+        assertEquals(1001, histogram.getCount());
+        assertEquals(500_000, histogram.getMean(), 1000);
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(0, histogram.valueAt(0));
+        assertEquals(500_000, histogram.valueAt(50), 500_000 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(990_000, histogram.valueAt(99), 990_000 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(1_000_000, histogram.valueAt(100));
+        assertEquals(1_000_000, histogram.valueAt(250));
+    }
+
+    @DisplayName("Test Record - Concurrent Recording Loses No Values")
+    @Test
+    void record_Concurrent() throws InterruptedException {
+        //given
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+        }
+
+        //when
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        //then
+        assertEquals(40_000, histogram.getCount());
+        assertEquals(9_999, histogram.getMax());
+        assertEquals(9_999, histogram.valueAt(100));
+    }
+}
@@ -0,0 +1,142 @@
+package flashcards;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LevenshteinTrieTest {
+
+    @DisplayName("Test Distance Function - Levenshtein Distances")
+    @Test
+    void distance() {
+        //given
+        int limit = 10;
+
+        //when, then
+        assertEquals(0, LevenshteinTrie.distance("Paris", "Paris", limit));
+        assertEquals(1, LevenshteinTrie.distance("Paris", "Pars", limit));
+        assertEquals(1, LevenshteinTrie.distance("Paris", "Parus", limit));
+        assertEquals(2, LevenshteinTrie.distance("Paris", "Prais", limit));
+        assertEquals(3, LevenshteinTrie.distance("kitten", "sitting", limit));
+        assertEquals(5, LevenshteinTrie.distance("", "Tokyo", limit));
+    }
+
+    @DisplayName("Test Distance Function - Gives Up Past The Limit")
+    @Test
+    void distance_Limit() {
+        //given
+        int limit = 2;
+
+        //when, then
+        assertEquals(3, LevenshteinTrie.distance("kitten", "sitting", limit));
+        assertEquals(3, LevenshteinTrie.distance("a", "abcdefgh", limit));
+        assertEquals(2, LevenshteinTrie.distance("Paris", "Prais", limit));
+    }
+
+    @DisplayName("Test Nearest Function - Closest String Within The Tolerance")
+    @Test
+    void nearest() {
+        //given
+        LevenshteinTrie tree = new LevenshteinTrie();
+        for (String word : new String[]{"Paris", "Tokyo", "Berlin", "Bern", "Lisbon", "London"}) {
+            tree.add(word);
+        }
+
+        //when, then
+        assertEquals("Berlin", tree.nearest("Berlim", 2));
+        assertEquals("Bern", tree.nearest("Bern", 2));
+        assertEquals("London", tree.nearest("Londn", 1));
+        assertNull(tree.nearest("Madrid", 2));
+        assertEquals(6, tree.size());
+    }
+
+    @DisplayName("Test Remove Function - Removed Strings Are Not Found And Their Branches Stay Searchable")
+    @Test
+    void remove() {
+        //given
+        LevenshteinTrie tree = new LevenshteinTrie();
+        tree.add("Berlin");
+        tree.add("Bern");
+        tree.add("Paris");
+
+        //when
+        boolean removed = tree.remove("Berlin");
+        boolean removedTwice = tree.remove("Berlin");
+
+        //then
+        assertTrue(removed);
+        assertFalse(removedTwice);
+        assertEquals("Bern", tree.nearest("Berlin", 2));
+        assertEquals("Paris", tree.nearest("Pari", 1));
+        assertEquals(2, tree.size());
+        assertTrue(tree.add("Berlin"));
+        assertFalse(tree.add("Berlin"));
+        assertEquals("Berlin", tree.nearest("Berlim", 2));
+    }
+
+    @DisplayName("Test Remove Function - Prefixes And Extensions Of Removed Strings Stay")
+    @Test
+    void remove_Prefixes() {
+        //given
+        LevenshteinTrie tree = new LevenshteinTrie();
+        for (String word : new String[]{"car", "cart", "care", "ca", ""}) {
+            tree.add(word);
+        }
+
+        //when
+        tree.remove("car");
+        tree.remove("cart");
+        boolean removedMissing = tree.remove("cat");
+
+        //then
+        assertFalse(removedMissing);
+        assertEquals("care", tree.nearest("carf", 1));
+        assertEquals("ca", tree.nearest("cb", 1));
+        assertEquals("", tree.nearest("x", 1));
+        assertNull(tree.nearest("cart", 0));
+        assertEquals(3, tree.size());
+        assertTrue(tree.remove(""));
+        assertTrue(tree.remove("ca"));
+        assertEquals("care", tree.nearest("cure", 1));
+    }
+
+    @DisplayName("Test Nearest Function - Agrees With A Full Scan")
+    @Test
+    void nearest_MatchesScan() {
+        //given
+        Random random = new Random(42);
+        String[] words = new String[2000];
+        LevenshteinTrie tree = new LevenshteinTrie();
+        for (int i = 0; i < words.length; i++) {
+            words[i] = randomWord(random);
+            tree.add(words[i]);
+        }
+
+        //when, then
+        for (int q = 0; q < 200; q++) {
+            String query = randomWord(random);
+            int best = Integer.MAX_VALUE;
+            for (String word : words) {
+                best = Math.min(best, LevenshteinTrie.distance(query, word, Integer.MAX_VALUE));
+            }
+            String found = tree.nearest(query, 2);
+            if (best > 2) {
+                assertNull(found);
+            } else {
+                assertEquals(best, LevenshteinTrie.distance(query, found, Integer.MAX_VALUE));
+            }
+        }
+    }
+
+    private static String randomWord(final Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 3 + random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+}
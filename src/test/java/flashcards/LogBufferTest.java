@@ -0,0 +1,78 @@
+package flashcards;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogBufferTest {
+
+    private static void add(final LogBuffer buffer, final String line) {
+        byte[] encoded = line.getBytes(StandardCharsets.UTF_8);
+        buffer.add(encoded, encoded.length);
+    }
+
+    @DisplayName("Test Add Function - Line Cap Evicts Oldest Lines")
+    @Test
+    void add_LineCap() {
+        //given
+        LogBuffer buffer = new LogBuffer(3, 1024);
+
+        //when
+        for (int i = 1; i <= 5; i++) {
+            add(buffer, "line " + i);
+        }
+
+        //then
+        assertEquals(List.of("line 3", "line 4", "line 5"), buffer.snapshot());
+    }
+
+    @DisplayName("Test Add Function - Byte Cap Evicts Oldest Lines")
+    @Test
+    void add_ByteCap() {
+        //given
+        LogBuffer buffer = new LogBuffer(100, 10);
+
+        //when
+        add(buffer, "aaaa");
+        add(buffer, "bbbb");
+        add(buffer, "cccc");
+
+        //then
+        assertEquals(List.of("bbbb", "cccc"), buffer.snapshot());
+    }
+
+    @DisplayName("Test Add Function - Long Line Is Cut At A Character Boundary")
+    @Test
+    void add_LongLine() {
+        //given
+        LogBuffer buffer = new LogBuffer(100, 4);
+
+        //when
+        add(buffer, "ab€d");
+
+        //then
+        assertEquals(List.of("ab"), buffer.snapshot());
+    }
+
+    @DisplayName("Test Snapshot Function - Later Writes Do Not Change It")
+    @Test
+    void snapshot_IsCopy() {
+        //given
+        LogBuffer buffer = new LogBuffer(2, 1024);
+        add(buffer, "first");
+
+        //when
+        ArrayList<String> snapshot = buffer.snapshot();
+        add(buffer, "second");
+        add(buffer, "third");
+
+        //then
+        assertEquals(List.of("first"), snapshot);
+        assertEquals(List.of("second", "third"), buffer.snapshot());
+    }
+}
@@ -5,7 +5,11 @@ import org.junit.jupiter.api.Test;
 
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -35,4 +39,68 @@ class LogIOTest {
         assertEquals("Testing for Output logging.", log.get(0));
         assertEquals("Testing for Input logging.", log.get(1));
     }
-}
\ No newline at end of file
+
+    @DisplayName("Test Logger - UTF-8 Lines And Bulk Writes")
+    @Test
+    void getLog_Utf8() {
+        //given
+        PrintStream original = System.out;
+        LogIO logger = new LogIO(2, 1024);
+        byte[] bulk = "Schädel\r\nÆsir\nGö".getBytes(StandardCharsets.UTF_8);
+
+        //when
+        System.out.println("dropped");
+        System.out.write(bulk, 0, bulk.length);
+        System.out.println();
+        System.out.flush();
+        System.setOut(original);
+        ArrayList<String> log = logger.getLog();
+
+        //then
+        assertEquals(2, log.size());
+        assertEquals("Æsir", log.get(0));
+        assertEquals("Gö", log.get(1));
+    }
+
+    @DisplayName("Test Logger - Save Through The Sink")
+    @Test
+    void saveTo_Sink() throws IOException {
+        //given
+        PrintStream original = System.out;
+        Path directory = Files.createTempDirectory("log");
+        Path copy = directory.resolve("copy.log");
+        LogIO logger = new LogIO();
+        logger.setSink(new LogSink(directory.resolve("session.log"), LogSink.OverflowPolicy.BLOCK,
+                LogSink.DEFAULT_QUEUE_CAPACITY, 60_000));
+
+        //when
+        System.out.println("Persisted line");
+        logger.saveTo(copy);
+        logger.close();
+        System.setOut(original);
+
+        //then
+        assertEquals(List.of("Persisted line"), Files.readAllLines(copy));
+    }
+
+    @DisplayName("Test Logger - Sink Keeps Lines Beyond The Byte Cap")
+    @Test
+    void setSink_LongLine() throws IOException {
+        //given
+        PrintStream original = System.out;
+        Path file = Files.createTempDirectory("log").resolve("session.log");
+        LogIO logger = new LogIO(2, 8);
+        logger.setSink(new LogSink(file, LogSink.OverflowPolicy.BLOCK,
+                LogSink.DEFAULT_QUEUE_CAPACITY, 60_000));
+
+        //when
+        System.out.print("A line longer ");
+        System.out.println("than the byte cap");
+        logger.close();
+        System.setOut(original);
+
+        //then
+        assertEquals(List.of("A line l"), logger.getLog());
+        assertEquals(List.of("A line longer than the byte cap"), Files.readAllLines(file));
+    }
+}
@@ -0,0 +1,129 @@
+package flashcards;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSinkTest {
+    private static final int LINES = 5000;
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("log");
+    }
+
+    private static void append(final LogSink sink, final String line) {
+        byte[] encoded = line.getBytes(StandardCharsets.UTF_8);
+        sink.append(encoded, encoded.length);
+    }
+
+    private long burst(final LogSink.OverflowPolicy policy) throws IOException {
+        Path file = directory.resolve(policy + ".log");
+        long dropped;
+        try (LogSink sink = new LogSink(file, policy, 4, 60_000)) {
+            for (int i = 0; i < LINES; i++) {
+                append(sink, "line " + i);
+            }
+            sink.sync();
+            dropped = sink.droppedLines();
+        }
+        List<String> lines = Files.readAllLines(file);
+        long written = lines.stream().filter(line -> line.startsWith("line ")).count();
+        long recorded = lines.stream()
+                .filter(line -> line.endsWith(" log lines dropped]"))
+                .mapToLong(line -> Long.parseLong(line.substring(1, line.indexOf(' '))))
+                .sum();
+        assertEquals(LINES, written + dropped);
+        assertEquals(dropped, recorded);
+        return dropped;
+    }
+
+    @DisplayName("Test Append Function - Block Policy Keeps Every Line In Order")
+    @Test
+    void append_Block() throws IOException {
+        //given
+        Path file = directory.resolve("block.log");
+
+        //when
+        try (LogSink sink = new LogSink(file, LogSink.OverflowPolicy.BLOCK, 4, 60_000)) {
+            for (int i = 0; i < LINES; i++) {
+                append(sink, "line " + i);
+            }
+        }
+        List<String> lines = Files.readAllLines(file);
+
+        //then
+        assertEquals(LINES, lines.size());
+        assertEquals("line 0", lines.get(0));
+        assertEquals("line " + (LINES - 1), lines.get(LINES - 1));
+    }
+
+    @DisplayName("Test Append Function - Drop Policy Records Dropped Lines")
+    @Test
+    void append_Drop() throws IOException {
+        //given, when, then
+        burst(LogSink.OverflowPolicy.DROP);
+    }
+
+    @DisplayName("Test Append Function - Sample Policy Records Dropped Lines")
+    @Test
+    void append_Sample() throws IOException {
+        //given, when, then
+        burst(LogSink.OverflowPolicy.SAMPLE);
+    }
+
+    @DisplayName("Test Append Function - Lines Are Dropped Instead Of Blocking Once The Writer Has Failed")
+    @Test
+    void append_WriterFailed() throws IOException {
+        //given
+        LogSink sink = new LogSink(Path.of("/dev/full"), LogSink.OverflowPolicy.BLOCK, 2, 60_000);
+        append(sink, "lost");
+        assertThrows(IOException.class, sink::sync);
+
+        //when
+        for (int i = 0; i < 10; i++) {
+            append(sink, "line " + i);
+        }
+
+        //then
+        assertEquals(10, sink.droppedLines());
+        assertThrows(IOException.class, sink::sync);
+        assertThrows(IOException.class, sink::close);
+    }
+
+    @DisplayName("Test CopyTo Function - Copies The Synced Log")
+    @Test
+    void copyTo() throws IOException {
+        //given
+        Path copy = directory.resolve("copy.log");
+        try (LogSink sink = new LogSink(directory.resolve("session.log"), LogSink.OverflowPolicy.BLOCK,
+                LogSink.DEFAULT_QUEUE_CAPACITY, 60_000)) {
+            append(sink, "Schädel");
+
+            //when
+            sink.copyTo(copy);
+            append(sink, "after the copy");
+        }
+
+        //then
+        assertEquals(List.of("Schädel"), Files.readAllLines(copy));
+    }
+
+    @DisplayName("Test Policy Names")
+    @Test
+    void fromName() {
+        //given, when, then
+        assertEquals(LogSink.OverflowPolicy.SAMPLE, LogSink.OverflowPolicy.fromName("sample"));
+        assertThrows(IllegalArgumentException.class, () -> LogSink.OverflowPolicy.fromName("never"));
+    }
+}
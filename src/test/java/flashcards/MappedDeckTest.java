@@ -0,0 +1,258 @@
+package flashcards;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedDeckTest {
+    private Path file;
+
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempDirectory("lazy").resolve("deck.txt");
+        Files.writeString(file, "Scooby-Doo&&Shaggy&&5\nTeen-Titans&&Go&&0\r\nRobin&&Batman&&2&&2500&&6&&2&&100\n");
+    }
+
+    @DisplayName("Test Open - Builds The Index And Finds Cards Lazily")
+    @Test
+    void open_BuildsIndex() throws IOException {
+        //given
+        //when
+        MappedDeck deck = MappedDeck.open(file);
+
+        //then
+        assertTrue(Files.exists(MappedDeck.indexOf(file)));
+        assertEquals(3, deck.size());
+        assertEquals(0, deck.touched());
+        assertEquals("Go", deck.find("Teen-Titans").getDefinition());
+        assertEquals(5, deck.find("Scooby-Doo").getMistakes());
+        assertEquals(6, deck.find("Robin").getReview().getInterval());
+        assertNull(deck.find("Shaggy"));
+        assertEquals(3, deck.touched());
+    }
+
+    @DisplayName("Test Open - An Index Matching The Deck Is Reused")
+    @Test
+    void open_ReusesIndex() throws IOException {
+        //given
+        MappedDeck.open(file);
+        Path index = MappedDeck.indexOf(file);
+        FileTime built = FileTime.fromMillis(1_000_000L);
+        Files.setLastModifiedTime(index, built);
+
+        //when
+        MappedDeck deck = MappedDeck.open(file);
+
+        //then
+        assertEquals(built, Files.getLastModifiedTime(index));
+        assertEquals("Shaggy", deck.find("Scooby-Doo").getDefinition());
+    }
+
+    @DisplayName("Test Open - The Index Is Rebuilt When The Deck Or The Index Changes")
+    @Test
+    void open_RebuildsIndex() throws IOException {
+        //given
+        MappedDeck.open(file);
+        Files.writeString(file, "Term&&Definition&&1\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(2_000_000L));
+
+        //when
+        MappedDeck changed = MappedDeck.open(file);
+        Path damagedIndex = Files.writeString(file.resolveSibling("damaged.idx"), "damaged");
+        Files.move(damagedIndex, MappedDeck.indexOf(file), StandardCopyOption.REPLACE_EXISTING);
+        MappedDeck damaged = MappedDeck.open(file);
+
+        //then
+        assertEquals(1, changed.size());
+        assertNull(changed.find("Scooby-Doo"));
+        assertEquals("Definition", changed.find("Term").getDefinition());
+        assertEquals(1, damaged.size());
+        assertEquals("Definition", damaged.find("Term").getDefinition());
+    }
+
+    @DisplayName("Test Open - Malformed Lines, Duplicate Terms And Empty Decks")
+    @Test
+    void open_MalformedLines() throws IOException {
+        //given
+        Files.writeString(file, "no delimiter\nTerm&&Definition&&1\nTerm&&Other&&0\nBroken&&Card&&x\n\n");
+        Path empty = file.resolveSibling("empty.txt");
+        Files.writeString(empty, "");
+
+        //when
+        MappedDeck deck = MappedDeck.open(file);
+        MappedDeck emptyDeck = MappedDeck.open(empty);
+
+        //then
+        assertEquals(2, deck.size());
+        assertEquals("Definition", deck.find("Term").getDefinition());
+        assertNull(deck.find("Broken"));
+        assertEquals("Term", deck.next().getTerm());
+        assertEquals("Term", deck.next().getTerm());
+        assertEquals(0, emptyDeck.size());
+        assertNull(emptyDeck.next());
+        assertNull(emptyDeck.find("Term"));
+    }
+
+    @DisplayName("Test Next And Remove - Every Card Is Asked Until It Is Removed")
+    @Test
+    void next_Remove() throws IOException {
+        //given
+        MappedDeck deck = MappedDeck.open(file);
+        Set<String> asked = new HashSet<>();
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            asked.add(deck.next().getTerm());
+        }
+        FlashCard removed = deck.remove("Robin");
+
+        //then
+        assertEquals(Set.of("Scooby-Doo", "Teen-Titans", "Robin"), asked);
+        assertEquals("Batman", removed.getDefinition());
+        assertNull(deck.remove("Robin"));
+        assertNull(deck.find("Robin"));
+        assertEquals(2, deck.size());
+        for (int i = 0; i < 4; i++) {
+            assertNotEquals("Robin", deck.next().getTerm());
+        }
+        deck.remove("Scooby-Doo");
+        deck.remove("Teen-Titans");
+        assertNull(deck.next());
+    }
+
+    @DisplayName("Test Write - Touched Cards Are Rewritten And Removed Cards Left Out")
+    @Test
+    void writeTo_Overlay() throws IOException {
+        //given
+        MappedDeck deck = MappedDeck.open(file);
+        deck.find("Scooby-Doo").increaseMistakes();
+        deck.remove("Robin");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        long lines = deck.writeTo(out, flashCard -> flashCard.getTerm() + "&&" + flashCard.getMistakes());
+
+        //then
+        assertEquals(2, lines);
+        assertEquals("Scooby-Doo&&6\nTeen-Titans&&Go&&0\r\n", out.toString(StandardCharsets.UTF_8));
+        assertEquals("Scooby-Doo&&Shaggy&&5\nTeen-Titans&&Go&&0\r\nRobin&&Batman&&2&&2500&&6&&2&&100\n",
+                Files.readString(file));
+    }
+
+    @DisplayName("Test Lazy Deck - The Manager Looks Up, Asks, Removes And Exports Lazy Cards")
+    @Test
+    void manager_LazyDeck() throws IOException {
+        //given
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        cardManager.setReader(new BufferedReader(new StringReader(
+                "Scooby-Doo\n3\nwrong\nwrong\nwrong\nRobin\nRobin\n")));
+        cardManager.setPrompts(false);
+        System.setOut(new PrintStream(outContent));
+        Path export = file.resolveSibling("export.txt");
+
+        //when
+        cardManager.openLazyDeck(file.toString());
+        cardManager.addFlashCard();
+        cardManager.quizUser();
+        cardManager.removeFlashCard();
+        cardManager.removeFlashCard();
+        cardManager.exportFlashCards(export.toString());
+        FlashCardManager reloaded = new FlashCardManager(new HashSet<>());
+        reloaded.importFlashCards(export.toString());
+
+        //then
+        assertTrue(outContent.toString().startsWith("The lazy deck \"" + file + "\" holds 3 cards."));
+        assertTrue(outContent.toString().contains("The card \"Scooby-Doo\" already exists."));
+        assertTrue(outContent.toString().contains("The card has been removed."));
+        assertTrue(outContent.toString().contains("Can't remove \"Robin\": there is no such card."));
+        assertTrue(cardManager.getFlashCards().isEmpty());
+        assertEquals(2, reloaded.getFlashCards().size());
+        assertNull(reloaded.findByTerm("Robin"));
+        assertEquals(6, reloaded.findByTerm("Scooby-Doo").getMistakes());
+        assertEquals(1, reloaded.findByTerm("Teen-Titans").getMistakes());
+        assertNotNull(reloaded.findByTerm("Teen-Titans").getReview());
+    }
+
+    @DisplayName("Test Lazy Deck - Delta Exports Keep Asked Lazy Cards And Drop Removed Ones")
+    @Test
+    void manager_LazyDeckDelta() throws IOException {
+        //given
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        cardManager.setReader(new BufferedReader(new StringReader("3\nwrong\nwrong\nwrong\nRobin\n")));
+        cardManager.setPrompts(false);
+        System.setOut(new PrintStream(outContent));
+        Path export = file.resolveSibling("export.txt");
+        cardManager.openLazyDeck(file.toString());
+        cardManager.exportFlashCards(export.toString());
+
+        //when
+        cardManager.quizUser();
+        cardManager.removeFlashCard();
+        cardManager.exportDelta(export.toString());
+        FlashCardManager reloaded = new FlashCardManager(new HashSet<>());
+        reloaded.importFlashCards(export.toString());
+
+        //then
+        assertTrue(outContent.toString().contains("3 changed cards have been saved."), outContent.toString());
+        assertEquals(2, reloaded.getFlashCards().size());
+        assertNull(reloaded.findByTerm("Robin"));
+        assertEquals(6, reloaded.findByTerm("Scooby-Doo").getMistakes());
+        assertEquals(1, reloaded.findByTerm("Teen-Titans").getMistakes());
+        assertNotNull(reloaded.findByTerm("Teen-Titans").getReview());
+    }
+
+    @DisplayName("Test Lazy Deck - Mistake Statistics Are Refused")
+    @Test
+    void manager_LazyDeckStatistics() throws IOException {
+        //given
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        System.setOut(new PrintStream(outContent));
+        cardManager.openLazyDeck(file.toString());
+        outContent.reset();
+
+        //when
+        cardManager.hardestCard();
+        cardManager.printHardestCards(2);
+        cardManager.resetAll();
+
+        //then
+        assertEquals((FlashCardManager.LAZY_DECK_STATISTICS + "\n\n").repeat(3), outContent.toString());
+        assertThrows(IllegalStateException.class, () -> cardManager.hardestCards(2));
+        assertEquals(5, cardManager.findByTerm("Scooby-Doo").getMistakes());
+    }
+
+    @DisplayName("Test Lazy Deck - Missing Files And Binary Exports Are Refused")
+    @Test
+    void manager_LazyDeckErrors() throws IOException {
+        //given
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        System.setOut(new PrintStream(outContent));
+        Path binary = file.resolveSibling("export.fcb");
+
+        //when
+        cardManager.openLazyDeck(file.resolveSibling("missing.txt").toString());
+        cardManager.openLazyDeck(file.toString());
+        cardManager.exportFlashCards(binary.toString());
+
+        //then
+        assertTrue(outContent.toString().startsWith("File not found."));
+        assertFalse(Files.exists(binary));
+    }
+}
@@ -0,0 +1,111 @@
+package flashcards;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MistakeCountersTest {
+
+    @DisplayName("Test Allocate Function - Ids Are Dense And Start At The Given Count")
+    @Test
+    void allocate_Dense() {
+        //given
+        MistakeCounters counters = new MistakeCounters();
+
+        //when
+        int first = counters.allocate(3);
+        int second = counters.allocate(0);
+
+        //then
+        assertEquals(0, first);
+        assertEquals(1, second);
+        assertEquals(3, counters.get(first));
+        assertEquals(0, counters.get(second));
+    }
+
+    @DisplayName("Test Release Function - Released Ids Are Handed Out Again")
+    @Test
+    void release_Reuse() {
+        //given
+        MistakeCounters counters = new MistakeCounters();
+        counters.allocate(0);
+        int released = counters.allocate(7);
+        counters.allocate(0);
+
+        //when
+        counters.release(released);
+        int reused = counters.allocate(2);
+
+        //then
+        assertEquals(released, reused);
+        assertEquals(2, counters.get(reused));
+    }
+
+    @DisplayName("Test Increment And Set Functions - Previous Counts Are Returned")
+    @Test
+    void increment_Set() {
+        //given
+        MistakeCounters counters = new MistakeCounters();
+        int id = counters.allocate(1);
+
+        //when
+        int beforeIncrement = counters.increment(id);
+        int beforeSet = counters.set(id, 10);
+
+        //then
+        assertEquals(1, beforeIncrement);
+        assertEquals(2, beforeSet);
+        assertEquals(10, counters.get(id));
+    }
+
+    @DisplayName("Test Clear Function - Every Page Is Reset")
+    @Test
+    void clear_AcrossPages() {
+        //given
+        MistakeCounters counters = new MistakeCounters();
+        int count = MistakeCounters.PAGE_SIZE * 3 + 5;
+        for (int i = 0; i < count; i++) {
+            counters.allocate(i + 1);
+        }
+
+        //when
+        counters.clear();
+
+        //then
+        for (int i = 0; i < count; i++) {
+            assertEquals(0, counters.get(i));
+        }
+    }
+
+    @DisplayName("Test Increment Function - Concurrent Increments Are Not Lost While The Counters Grow")
+    @Test
+    void increment_Concurrent() throws InterruptedException {
+        //given
+        MistakeCounters counters = new MistakeCounters();
+        int id = counters.allocate(0);
+        int perThread = 10_000;
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    counters.increment(id);
+                }
+            });
+        }
+
+        //when
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (int i = 0; i < MistakeCounters.PAGE_SIZE * 4; i++) {
+            counters.allocate(0);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        //then
+        assertEquals(threads.length * perThread, counters.get(id));
+    }
+}
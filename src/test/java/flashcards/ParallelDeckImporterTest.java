@@ -0,0 +1,78 @@
+package flashcards;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelDeckImporterTest {
+
+    @DisplayName("Test Import Function - Matches Sequential Parser")
+    @Test
+    void importDeck_MatchesSequential() throws IOException {
+        //given
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            content.append("Térm").append(i % 450).append("&&Definition ").append(i).append("&&").append(i % 7);
+            content.append(i % 50 == 0 ? "\r\n" : "\n");
+            if (i % 97 == 0) {
+                content.append("broken line\n");
+            }
+        }
+        content.append("Last&&Unterminated&&3");
+        Path deck = Files.createTempFile("deck", ".txt");
+        Files.writeString(deck, content, StandardCharsets.UTF_8);
+
+        ArrayList<String> sequentialCards = new ArrayList<>();
+        ArrayList<String> sequentialErrors = new ArrayList<>();
+        long sequential = new DeckParser(
+                (term, definition, mistakes, review) -> sequentialCards.add(term + "|" + definition + "|" + mistakes),
+                (lineNumber, reason) -> sequentialErrors.add(lineNumber + ": " + reason))
+                .parse(new ByteArrayInputStream(Files.readAllBytes(deck)));
+
+        ArrayList<String> parallelCards = new ArrayList<>();
+        ArrayList<String> parallelErrors = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        //when
+        long parallel = new ParallelDeckImporter(pool, 256).importDeck(deck,
+                flashCard -> parallelCards.add(flashCard.getTerm() + "|"
+                        + flashCard.getDefinition() + "|" + flashCard.getMistakes()),
+                (lineNumber, reason) -> parallelErrors.add(lineNumber + ": " + reason));
+        pool.shutdown();
+        Files.delete(deck);
+
+        //then
+        assertEquals(501, sequential);
+        assertEquals(sequential, parallel);
+        assertEquals(sequentialCards, parallelCards);
+        assertEquals(sequentialErrors, parallelErrors);
+    }
+
+    @DisplayName("Test Import Function - Mapped Mode Through FlashCardManager")
+    @Test
+    void importFlashCards_Mapped() throws IOException {
+        //given
+        Path deck = Files.createTempFile("deck", ".txt");
+        Files.writeString(deck, "Term&&Definition&&0\nTerm2&&Definition2&&4\nTerm2&&Definition3&&0\n");
+        FlashCardManager cardManager = new FlashCardManager(new HashSet<>());
+        cardManager.setMappedImport(true);
+
+        //when
+        cardManager.importFlashCards(deck.toString());
+        Files.delete(deck);
+
+        //then
+        assertEquals(3, cardManager.getFlashCards().size());
+        assertEquals(4, cardManager.findByDefinition("Definition2").getMistakes());
+    }
+}
@@ -0,0 +1,105 @@
+package flashcards;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReviewSchedulerTest {
+    private long now;
+    private ReviewScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        now = 1_000_000L;
+        scheduler = new ReviewScheduler(() -> now);
+    }
+
+    @DisplayName("Test Grade Function - SM-2 Intervals")
+    @Test
+    void grade_Intervals() {
+        //given
+        FlashCard flashCard = new FlashCard("Scooby-Doo", "Shaggy");
+        scheduler.add(flashCard);
+
+        //when
+        scheduler.grade(flashCard, true);
+        int first = flashCard.getReview().getInterval();
+        scheduler.grade(flashCard, true);
+        int second = flashCard.getReview().getInterval();
+        scheduler.grade(flashCard, true);
+
+        //then
+        assertEquals(1, first);
+        assertEquals(6, second);
+        assertEquals(2500, flashCard.getReview().getEase());
+        assertEquals(15, flashCard.getReview().getInterval());
+        assertEquals(3, flashCard.getReview().getRepetitions());
+        assertEquals(now + 15 * ReviewState.DAY_MILLIS, flashCard.getReview().getDue());
+    }
+
+    @DisplayName("Test Grade Function - Wrong Answer Restarts")
+    @Test
+    void grade_Wrong() {
+        //given
+        FlashCard flashCard = new FlashCard("Scooby-Doo", "Shaggy");
+        flashCard.setReview(new ReviewState(1400, 20, 4, 0));
+
+        //when
+        scheduler.grade(flashCard, false);
+
+        //then
+        assertEquals(ReviewState.MIN_EASE, flashCard.getReview().getEase());
+        assertEquals(0, flashCard.getReview().getInterval());
+        assertEquals(0, flashCard.getReview().getRepetitions());
+        assertEquals(now + ReviewState.RETRY_DELAY_MILLIS, flashCard.getReview().getDue());
+    }
+
+    @DisplayName("Test Poll Function - Due Cards First")
+    @Test
+    void poll_DueOrder() {
+        //given
+        FlashCard later = new FlashCard("Later", "Card");
+        FlashCard sooner = new FlashCard("Sooner", "Card");
+        FlashCard unseen = new FlashCard("Unseen", "Card");
+        later.setReview(new ReviewState(2500, 6, 2, now + 5000));
+        sooner.setReview(new ReviewState(2500, 1, 1, now + 10));
+        scheduler.add(later);
+        scheduler.add(sooner);
+        scheduler.add(unseen);
+
+        //when
+        FlashCard first = scheduler.poll();
+        FlashCard second = scheduler.poll();
+        scheduler.grade(first, true);
+        scheduler.requeue(first);
+        FlashCard third = scheduler.poll();
+
+        //then
+        assertSame(unseen, first);
+        assertSame(sooner, second);
+        assertSame(later, third);
+        assertSame(unseen, scheduler.poll());
+        assertNull(scheduler.poll());
+    }
+
+    @DisplayName("Test Reschedule And Remove Functions")
+    @Test
+    void rescheduleAndRemove() {
+        //given
+        FlashCard flashCard1 = new FlashCard("Scooby-Doo", "Shaggy");
+        FlashCard flashCard2 = new FlashCard("Teen-Titans", "Go");
+        scheduler.add(flashCard1);
+        scheduler.add(flashCard2);
+
+        //when
+        scheduler.reschedule(flashCard1, new ReviewState(2500, 1, 1, now));
+        FlashCard first = scheduler.poll();
+        scheduler.remove(flashCard1);
+
+        //then
+        assertSame(flashCard2, first);
+        assertNull(scheduler.poll());
+    }
+}
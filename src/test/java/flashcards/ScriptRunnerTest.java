@@ -0,0 +1,132 @@
+package flashcards;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScriptRunnerTest {
+
+    private static String run(final FlashCardManager deck, final String script) throws IOException {
+        return run(deck, script, false);
+    }
+
+    private static String run(final FlashCardManager deck, final String script, final boolean quiet)
+            throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new ScriptRunner(deck, new BufferedReader(new StringReader(script)), output, quiet, LogIO.forSession()).run();
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @DisplayName("Test Run Function - Commands Run Without Prompts")
+    @Test
+    void run_NoPrompts() throws IOException {
+        //given
+        FlashCardManager deck = new FlashCardManager(new HashSet<>());
+        String script = "add\nFrance\nParis\n"
+                + "add\nJapan\nTokyo\n"
+                + "ask\n2\nParis\nParis\n"
+                + "hardest card\n"
+                + "remove\nJapan\n";
+
+        //when
+        String output = run(deck, script);
+
+        //then
+        assertTrue(output.startsWith("The pair (\"France\":\"Paris\") has been added.\n\n"
+                + "The pair (\"Japan\":\"Tokyo\") has been added.\n\n"
+                + "Correct!\n"
+                + "Wrong. The right answer is \"Tokyo\", but your definition is correct for \"France\".\n"
+                + "The hardest card is \"Japan\". You have 1 errors answering it.\n\n"
+                + "The card has been removed.\n\n"
+                + "The script ran 5 commands in "), output);
+        assertFalse(output.contains(CommandSession.PROMPT));
+        assertFalse(output.contains("The card:"));
+        assertFalse(output.contains("Print the definition"));
+        assertEquals(1, deck.getFlashCards().size());
+    }
+
+    @DisplayName("Test Run Function - Summary Times Each Kind Of Command")
+    @Test
+    void run_Summary() throws IOException {
+        //given
+        FlashCardManager deck = new FlashCardManager(new HashSet<>());
+        String script = "add\nA\n1\nadd\nB\n2\nhardest 3\nhardest 10\nexit\nadd\nC\n3\n";
+
+        //when
+        String output = run(deck, script);
+
+        //then
+        assertTrue(output.contains("The script ran 4 commands in "), output);
+        assertTrue(output.matches("(?s).*\nadd +2 .*"), output);
+        assertTrue(output.matches("(?s).*\nhardest N +2 .*"), output);
+        assertFalse(output.contains("\nexit "), output);
+        assertEquals(2, deck.getFlashCards().size());
+    }
+
+    @DisplayName("Test Run Function - Summary Uses The Metrics Names And Skips Ignored Lines")
+    @Test
+    void run_SummaryNames() throws IOException {
+        //given
+        FlashCardManager deck = new FlashCardManager(new HashSet<>());
+        deck.setRegistry(new DeckRegistry(deck, Files.createTempDirectory("decks"),
+                DeckRegistry.DEFAULT_MAX_RESIDENT, DeckRegistry.DEFAULT_MEMORY_BUDGET_BYTES));
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        String output;
+
+        //when
+        try {
+            output = run(deck, "use spanish\n\nbogus\nuse french\nclose spanish\n", true);
+        } finally {
+            Locale.setDefault(locale);
+        }
+        String closed = run(deck, "close french\n");
+
+        //then
+        assertTrue(output.matches("The script ran 3 commands in \\d+\\.\\d{3} ms\\.\n(?s).*"), output);
+        assertTrue(output.matches("(?s).*\nuse <deck> +2 +\\d+\\.\\d{3} .*"), output);
+        assertTrue(output.matches("(?s).*\nclose <deck> +1 .*"), output);
+        assertTrue(closed.startsWith("The deck \"french\" has been saved with 0 cards and unloaded."), closed);
+    }
+
+    @DisplayName("Test Run Function - Prompts Stay On For The Deck Itself")
+    @Test
+    void run_DeckKeepsPrompts() throws IOException {
+        //given
+        FlashCardManager deck = new FlashCardManager(new HashSet<>());
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+
+        //when
+        run(deck, "add\nA\n1\n");
+        deck.session(new BufferedReader(new StringReader("B\n2\n")),
+                ConsoleOutput.of(new PrintStream(console, true, StandardCharsets.UTF_8))).addFlashCard();
+
+        //then
+        assertTrue(console.toString(StandardCharsets.UTF_8).startsWith("The card:\n"));
+    }
+
+    @DisplayName("Test Run Function - Quiet Scripts Only Print The Summary")
+    @Test
+    void run_Quiet() throws IOException {
+        //given
+        FlashCardManager deck = new FlashCardManager(new HashSet<>());
+
+        //when
+        String output = run(deck, "add\nA\n1\nhardest card\n", true);
+
+        //then
+        assertTrue(output.startsWith("The script ran 2 commands in "), output);
+        assertEquals(1, deck.getFlashCards().size());
+    }
+}
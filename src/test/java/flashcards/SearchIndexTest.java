@@ -0,0 +1,146 @@
+package flashcards;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+
+    private static List<String> terms(final SearchPage page) {
+        List<String> terms = new ArrayList<>();
+        for (FlashCard flashCard : page.cards()) {
+            terms.add(flashCard.getTerm());
+        }
+        return terms;
+    }
+
+    private static SearchIndex index(final String... termsAndDefinitions) {
+        SearchIndex index = new SearchIndex();
+        for (int i = 0; i < termsAndDefinitions.length; i += 2) {
+            index.add(new FlashCard(termsAndDefinitions[i], termsAndDefinitions[i + 1]));
+        }
+        return index;
+    }
+
+    @DisplayName("Test Search Function - Exact Terms, Then Prefixes, Then Definitions")
+    @Test
+    void search_Ranking() {
+        //given
+        SearchIndex index = index(
+                "Carton", "A box",
+                "Car", "A vehicle",
+                "Bus", "A large car for many people",
+                "Cart", "A small car pulled by hand",
+                "Truck", "A car for goods");
+
+        //when
+        SearchPage page = index.search("car", 1, 10);
+
+        //then
+        assertEquals(List.of("Car", "Cart", "Carton", "Truck", "Bus"), terms(page));
+        assertEquals(5, page.total());
+        assertFalse(page.hasNext());
+    }
+
+    @DisplayName("Test Search Function - Definition Words Must All Match, Ignoring Case")
+    @Test
+    void search_DefinitionWords() {
+        //given
+        SearchIndex index = index(
+                "France", "The capital is Paris",
+                "Texas", "A town named Paris exists here",
+                "Japan", "The capital is Tokyo");
+
+        //when
+        SearchPage both = index.search("CAPITAL paris", 1, 10);
+        SearchPage one = index.search("paris", 1, 10);
+        SearchPage none = index.search("capital berlin", 1, 10);
+
+        //then
+        assertEquals(List.of("France"), terms(both));
+        assertEquals(List.of("France", "Texas"), terms(one));
+        assertEquals(0, none.total());
+    }
+
+    @DisplayName("Test Search Function - Pages Skip Earlier Results")
+    @Test
+    void search_Pages() {
+        //given
+        SearchIndex index = new SearchIndex();
+        for (int i = 0; i < 25; i++) {
+            index.add(new FlashCard(String.format("Term %02d", i), "Definition " + i));
+        }
+        index.add(new FlashCard("Other", "Not a term at all"));
+
+        //when
+        SearchPage first = index.search("term", 1, 10);
+        SearchPage third = index.search("term", 3, 10);
+        SearchPage past = index.search("term", 4, 10);
+
+        //then
+        assertEquals(26, first.total());
+        assertEquals("Term 00", first.cards().get(0).getTerm());
+        assertEquals(10, first.cards().size());
+        assertTrue(first.hasNext());
+        assertEquals(List.of("Term 20", "Term 21", "Term 22", "Term 23", "Term 24", "Other"), terms(third));
+        assertEquals(21, third.first());
+        assertFalse(third.hasNext());
+        assertTrue(past.cards().isEmpty());
+    }
+
+    @DisplayName("Test Remove Function - Removed Cards Are Not Found")
+    @Test
+    void remove() {
+        //given
+        FlashCard car = new FlashCard("Car", "A vehicle");
+        FlashCard cart = new FlashCard("Cart", "A small vehicle");
+        SearchIndex index = new SearchIndex();
+        index.add(car);
+        index.add(cart);
+        index.add(new FlashCard("Cat", "An animal"));
+
+        //when
+        index.remove(car);
+        index.remove(new FlashCard("Missing", "Never added"));
+
+        //then
+        assertEquals(List.of("Cart", "Cat"), terms(index.search("ca", 1, 10)));
+        assertEquals(List.of("Cart"), terms(index.search("vehicle", 1, 10)));
+        index.remove(cart);
+        assertEquals(List.of("Cat"), terms(index.search("ca", 1, 10)));
+        assertEquals(0, index.search("vehicle", 1, 10).total());
+        index.add(car);
+        assertEquals(List.of("Car", "Cat"), terms(index.search("ca", 1, 10)));
+    }
+
+    @DisplayName("Test Search Function - Blank Queries Find Nothing")
+    @Test
+    void search_Blank() {
+        //given
+        SearchIndex index = index("Car", "A vehicle");
+
+        //when
+        SearchPage page = index.search("  ", 1, 10);
+
+        //then
+        assertEquals(0, page.total());
+        assertTrue(page.cards().isEmpty());
+    }
+
+    @DisplayName("Test Words Function - Distinct Lower-Case Words")
+    @Test
+    void words() {
+        //given
+        String text = "It's a Car, a CAR!";
+
+        //when
+        List<String> words = SearchIndex.words(text);
+
+        //then
+        assertEquals(List.of("it", "s", "a", "car"), words);
+    }
+}
@@ -0,0 +1,112 @@
+package flashcards;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionServerTest {
+    private static final int SESSIONS = 2000;
+    private static final int CONCURRENT_CLIENTS = 500;
+
+    private FlashCardManager deck;
+    private SessionServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        deck = new FlashCardManager(new HashSet<>());
+        server = new SessionServer(deck, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    private String session(final String input) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(input.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            socket.shutdownOutput();
+            InputStream in = socket.getInputStream();
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @DisplayName("Test Session - Commands Run On The Shared Deck")
+    @Test
+    void session_Commands() throws IOException {
+        //given
+        String input = "add\nSchädel\nSkull\nhardest card\nexit\n";
+
+        //when
+        String output = session(input);
+
+        //then
+        assertTrue(output.startsWith(CommandSession.PROMPT));
+        assertTrue(output.contains("The pair (\"Schädel\":\"Skull\") has been added."));
+        assertTrue(output.contains("There are no cards with errors."));
+        assertTrue(output.endsWith("Bye bye!" + System.lineSeparator()));
+        assertEquals("Skull", deck.findByTerm("Schädel").getDefinition());
+    }
+
+    @DisplayName("Test Session - Closed Input Ends The Session")
+    @Test
+    void session_EndOfInput() throws IOException {
+        //given, when
+        String output = session("add\nTerm\nDefinition\n");
+
+        //then
+        assertTrue(output.endsWith("Bye bye!" + System.lineSeparator()));
+        assertNotNull(deck.findByTerm("Term"));
+    }
+
+    @DisplayName("Test Load - Thousands Of Concurrent Sessions")
+    @Test
+    void load_ConcurrentSessions() throws Exception {
+        //given
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENT_CLIENTS);
+        List<Future<String>> outputs = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < SESSIONS; i++) {
+            String input = "add\nTerm " + i + "\nDefinition " + i + "\nask\n1\nwrong answer\nexit\n";
+            outputs.add(clients.submit(() -> session(input)));
+        }
+        for (Future<String> output : outputs) {
+            assertTrue(output.get(2, TimeUnit.MINUTES).contains("Bye bye!"));
+        }
+        clients.shutdown();
+
+        //then
+        int mistakes = 0;
+        for (FlashCard flashCard : deck.getFlashCards()) {
+            mistakes += flashCard.getMistakes();
+        }
+        int rankedMistakes = 0;
+        for (FlashCard flashCard : deck.hardestCards(SESSIONS)) {
+            rankedMistakes += flashCard.getMistakes();
+        }
+        assertEquals(SESSIONS, deck.getFlashCards().size());
+        assertEquals(SESSIONS, mistakes);
+        assertEquals(SESSIONS, rankedMistakes);
+        assertNotNull(deck.findByDefinition("Definition " + (SESSIONS - 1)));
+    }
+}